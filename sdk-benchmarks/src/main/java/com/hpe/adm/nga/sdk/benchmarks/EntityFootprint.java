@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.benchmarks;
+
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import com.hpe.adm.nga.sdk.model.ModelParser;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Measures the memory retained by each entity of a large response, parsed into plain entities and into compact
+ * entities.  Run with
+ * {@code java -Djdk.attach.allowAttachSelf -cp sdk-benchmarks/target/benchmarks.jar com.hpe.adm.nga.sdk.benchmarks.EntityFootprint [count]}
+ */
+public final class EntityFootprint {
+
+    private EntityFootprint() {
+    }
+
+    public static void main(String[] args) {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        final byte[] bytes = ModelParserBenchmark.entitiesJson(count).getBytes(StandardCharsets.UTF_8);
+
+        final long plain = footprint(ModelParser.getInstance().getEntities(new ByteArrayInputStream(bytes), null));
+        final long compact = footprint(ModelParser.getInstance().getCompactEntities(new ByteArrayInputStream(bytes), null));
+        System.out.printf("%d entities%n", count);
+        System.out.printf("plain:   %,d bytes, %,d bytes per entity%n", plain, plain / count);
+        System.out.printf("compact: %,d bytes, %,d bytes per entity%n", compact, compact / count);
+    }
+
+    private static long footprint(Collection<EntityModel> entityModels) {
+        return GraphLayout.parseInstance(entityModels).totalSize();
+    }
+}
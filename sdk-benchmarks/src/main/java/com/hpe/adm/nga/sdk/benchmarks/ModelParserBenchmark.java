@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.benchmarks;
+
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import com.hpe.adm.nga.sdk.model.ModelParser;
+import com.hpe.adm.nga.sdk.model.ReferenceFieldModel;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the parsing of a page of entities through the org.json tree with the streaming parser of
+ * {@link ModelParser}, with the lazy entities when only a few fields are read, and with a frame when fields are
+ * summed.  Run with -prof gc to compare the allocations
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelParserBenchmark {
+
+    @Param({"2000"})
+    private int pageSize;
+
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        json = entitiesJson(pageSize);
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param count the number of entities
+     * @return a response holding defects with the usual fields of a defect
+     */
+    static String entitiesJson(int count) {
+        final StringBuilder builder = new StringBuilder("{\"total_count\":").append(count).append(",\"data\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"type\":\"defect\",\"id\":\"").append(1000 + i).append("\",")
+                    .append("\"name\":\"Defect number ").append(i).append(" fails when saving the release\",")
+                    .append("\"description\":\"<html><body>Steps to reproduce the problem ").append(i).append("</body></html>\",")
+                    .append("\"version_stamp\":").append(i % 7).append(",\"is_draft\":false,\"story_points\":null,")
+                    .append("\"estimated_hours\":").append(i % 13).append(".5,")
+                    .append("\"creation_time\":\"2017-03-08T09:21:51Z\",\"last_modified\":\"2017-04-11T17:02:33Z\",")
+                    .append("\"phase\":{\"type\":\"phase\",\"id\":\"phase.defect.new\",\"name\":\"New\"},")
+                    .append("\"owner\":{\"type\":\"workspace_user\",\"id\":\"").append(2000 + i % 50).append("\",\"name\":\"user").append(i % 50).append("@company.com\"},")
+                    .append("\"user_tags\":{\"total_count\":2,\"data\":[{\"type\":\"user_tag\",\"id\":\"3001\",\"name\":\"ui\"},{\"type\":\"user_tag\",\"id\":\"3002\",\"name\":\"regression\"}]}}");
+        }
+        return builder.append("],\"exceeds_total_count\":false}").toString();
+    }
+
+    /**
+     * The parsing before the streaming parser: the whole document becomes a tree that is then mapped to the entities
+     */
+    @Benchmark
+    public Collection<EntityModel> jsonTree() {
+        final JSONArray data = new JSONObject(new JSONTokener(json)).getJSONArray("data");
+        final Collection<EntityModel> entityModels = new ArrayList<>();
+        for (int i = 0; i < data.length(); i++) {
+            entityModels.add(ModelParser.getInstance().getEntityModel(data.getJSONObject(i)));
+        }
+        return entityModels;
+    }
+
+    @Benchmark
+    public Collection<EntityModel> streamingFromString() {
+        return ModelParser.getInstance().getEntities(json);
+    }
+
+    /**
+     * The parsing of a response, straight from its bytes
+     */
+    @Benchmark
+    public Collection<EntityModel> streamingFromStream() {
+        return ModelParser.getInstance().getEntities(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * The hot path of a caller reading two fields of each entity, with the entities decoded when their fields are read
+     */
+    @Benchmark
+    public long lazyTwoFields() {
+        long sum = 0;
+        for (EntityModel entityModel : ModelParser.getInstance().getLazyEntities(new ByteArrayInputStream(bytes), null)) {
+            sum += entityModel.getValue("id").getValue().hashCode() + (Long) entityModel.getValue("version_stamp").getValue();
+        }
+        return sum;
+    }
+
+    /**
+     * The same reads from entities decoded when the response is parsed
+     */
+    @Benchmark
+    public long eagerTwoFields() {
+        long sum = 0;
+        for (EntityModel entityModel : ModelParser.getInstance().getEntities(new ByteArrayInputStream(bytes))) {
+            sum += entityModel.getValue("id").getValue().hashCode() + (Long) entityModel.getValue("version_stamp").getValue();
+        }
+        return sum;
+    }
+
+    /**
+     * The sum of the estimated hours of each phase, read into the columns of a frame
+     */
+    @Benchmark
+    public Map<String, Double> frameSumByPhase() {
+        return ModelParser.getInstance().getEntityFrame(new ByteArrayInputStream(bytes), null).groupBySum("phase", "estimated_hours");
+    }
+
+    /**
+     * The same sums from the entities
+     */
+    @Benchmark
+    public Map<String, Double> eagerSumByPhase() {
+        final Map<String, Double> sums = new HashMap<>();
+        for (EntityModel entityModel : ModelParser.getInstance().getEntities(new ByteArrayInputStream(bytes))) {
+            final EntityModel phase = ((ReferenceFieldModel) entityModel.getValue("phase")).getValue();
+            final Object hours = entityModel.getValue("estimated_hours").getValue();
+            sums.merge((String) phase.getValue("id").getValue(), ((Number) hours).doubleValue(), Double::sum);
+        }
+        return sums;
+    }
+}
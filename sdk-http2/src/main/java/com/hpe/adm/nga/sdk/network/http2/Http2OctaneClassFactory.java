@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hpe.adm.nga.sdk.network.http2;
+
+import com.hpe.adm.nga.sdk.OctaneClassFactory;
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+
+/**
+ * Implementation of the {@link OctaneClassFactory} that creates {@link Http2OctaneHttpClient} instances.
+ * <br>
+ * Select it by setting the {@link OctaneClassFactory#OCTANE_CLASS_FACTORY_CLASS_NAME} system param to the name of this
+ * class.  Requires Java 11 or later
+ */
+public final class Http2OctaneClassFactory implements OctaneClassFactory {
+
+    private static final OctaneClassFactory instance = new Http2OctaneClassFactory();
+
+    private Http2OctaneClassFactory(){}
+
+    public static OctaneClassFactory getInstance(){
+        return instance;
+    }
+
+    @Override
+    public OctaneHttpClient getOctaneHttpClient(String urlDomain) {
+        return new Http2OctaneHttpClient(urlDomain);
+    }
+
+    @Override
+    public EntityList getEntityList(OctaneHttpClient octaneHttpClient, String baseDomain, String entityName) {
+        return new EntityList(octaneHttpClient, baseDomain +  entityName);
+    }
+}
@@ -0,0 +1,676 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.http2;
+
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.hpe.adm.nga.sdk.authentication.Authentication;
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+import com.hpe.adm.nga.sdk.exception.OctaneException;
+import com.hpe.adm.nga.sdk.model.ErrorModel;
+import com.hpe.adm.nga.sdk.network.CompressionSettings;
+import com.hpe.adm.nga.sdk.network.CompressionStatistics;
+import com.hpe.adm.nga.sdk.network.CountingInputStream;
+import com.hpe.adm.nga.sdk.network.CountingOutputStream;
+import com.hpe.adm.nga.sdk.network.Deadline;
+import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
+import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
+import com.hpe.adm.nga.sdk.network.SessionRefreshSettings;
+import com.hpe.adm.nga.sdk.network.SessionRefresher;
+import com.hpe.adm.nga.sdk.network.SessionRenewal;
+import com.hpe.adm.nga.sdk.network.TimeoutSettings;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP Client using the {@link HttpClient} of the JDK, which negotiates HTTP/2 with servers that support it and falls
+ * back to HTTP/1.1 otherwise.  Many requests to the same server share one multiplexed connection.
+ * <p>
+ * The client behaves like the {@link com.hpe.adm.nga.sdk.network.google.GoogleHttpClient}: the LWSSO cookie is
+ * replayed on every request, the {@link OctaneHttpClient#HPE_CLIENT_TYPE} header is taken from the last used
+ * authentication, a 401/403 response triggers one re-authentication and retry, and unsuccessful responses are
+ * reported as a {@link RuntimeException} caused by a {@link HttpResponseException}.
+ * </p>
+ * <p>
+ * {@link #executeAsync(OctaneHttpRequest, Executor)} does not block a thread while waiting for the server.
+ * Note that cancelling the returned future on Java 11 stops waiting for the response but does not reset the stream.
+ * </p>
+ */
+public class Http2OctaneHttpClient implements OctaneHttpClient {
+
+    private static final String LOGGER_REQUEST_FORMAT = "Request: {} - {} - {}";
+    private static final String LOGGER_RESPONSE_FORMAT = "Response: {} - {}";
+
+    private static final String SET_COOKIE = "set-cookie";
+    private static final String COOKIE = "Cookie";
+    private static final String ACCEPT = "Accept";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String JSON_MEDIA_SUBTYPE = "json";
+    private static final String HTTP_MULTIPART_BOUNDARY_VALUE = "---------------------------92348603315617859231724135434";
+    private static final String HTTP_MULTIPART_CONTENT_TYPE = "multipart/form-data; boundary=" + HTTP_MULTIPART_BOUNDARY_VALUE;
+    private static final String HTTP_MULTIPART_PART1_HEADER_FORMAT = "Content-Disposition: form-data; name=\"entity\"; filename=\"blob\"\r\nContent-Type: application/json; charset=UTF-8\r\n\r\n";
+    private static final String HTTP_MULTIPART_PART2_HEADER_FORMAT = "Content-Disposition: form-data; name=\"content\"; filename=\"%s\"\r\nContent-Type: %s\r\n\r\n";
+    private static final String CRLF = "\r\n";
+    private static final String DASHES = "--";
+    private static final int HTTP_REQUEST_RETRY_COUNT = 1;
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes the streamed request bodies into their pipes
+     */
+    private static final Executor BODY_WRITER = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "octane-http2-body-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Logger logger = LogManager.getLogger(Http2OctaneHttpClient.class.getName());
+    protected final HttpClient httpClient;
+    protected final String urlDomain;
+    protected volatile String lwssoValue = "";
+    protected volatile Authentication lastUsedAuthentication;
+    protected final SessionRenewal sessionRenewal = new SessionRenewal();
+    protected final SessionRefresher sessionRefresher = new SessionRefresher(sessionRenewal, this::refreshSession);
+    protected volatile CompressionSettings compressionSettings = CompressionSettings.fromSystemProperties();
+    protected final CompressionStatistics compressionStatistics = new CompressionStatistics();
+    protected volatile TimeoutSettings timeoutSettings = TimeoutSettings.defaultSettings();
+
+    public Http2OctaneHttpClient(final String urlDomain) {
+        this(urlDomain, HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(TimeoutSettings.defaultSettings().getConnectTimeoutMillis()))
+                .build());
+    }
+
+    /**
+     * Creates a client that sends its requests through the given {@link HttpClient}
+     *
+     * @param urlDomain  the server url
+     * @param httpClient the JDK client used for all requests of this client
+     */
+    protected Http2OctaneHttpClient(final String urlDomain, final HttpClient httpClient) {
+        this.urlDomain = urlDomain;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public void setCompressionSettings(CompressionSettings compressionSettings) {
+        this.compressionSettings = compressionSettings;
+    }
+
+    @Override
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    @Override
+    public void setSessionRefreshSettings(SessionRefreshSettings sessionRefreshSettings) {
+        sessionRefresher.setSettings(sessionRefreshSettings);
+    }
+
+    /**
+     * The JDK client takes its connect timeout when it is built, the connect timeout of the settings is not applied
+     * afterwards.  The read timeout is the timeout of each request, which includes opening the connection
+     */
+    @Override
+    public void setTimeoutSettings(TimeoutSettings timeoutSettings) {
+        this.timeoutSettings = timeoutSettings;
+    }
+
+    @Override
+    public TimeoutSettings getTimeoutSettings() {
+        return timeoutSettings;
+    }
+
+    /**
+     * @return - Returns true if the authentication succeeded, false otherwise.
+     */
+    @Override
+    public boolean authenticate(Authentication authentication) {
+        return authenticate(authentication, null);
+    }
+
+    /**
+     * Signs in, the sign in request being shortened to the deadline if any
+     */
+    private boolean authenticate(Authentication authentication, Deadline deadline) {
+        lastUsedAuthentication = authentication;
+        try {
+            final HttpRequest.Builder builder = newRequestBuilder(urlDomain + OAUTH_AUTH_URL, deadline)
+                    .header(CONTENT_TYPE, "application/json");
+            final byte[] authenticationString = authentication.getAuthenticationString().getBytes(StandardCharsets.UTF_8);
+            final HttpRequest httpRequest = builder
+                    .POST(toBodyPublisher(builder, "application/json", false, outputStream -> outputStream.write(authenticationString)))
+                    .build();
+            final HttpResponse<InputStream> response = checkResponse(send(httpRequest, deadline));
+            // the body is not needed, release the stream
+            response.body().close();
+            return isSuccessStatusCode(response.statusCode());
+        } catch (Exception e) {
+            lastUsedAuthentication = null; //not reusable
+            final Throwable cause = e.getCause() instanceof HttpResponseException ? e.getCause() : e;
+            ErrorModel errorModel = new ErrorModel(cause.getMessage());
+            logger.error("Error in contacting server: {}, ", cause.getMessage());
+            throw new OctaneException(errorModel);
+        }
+    }
+
+    @Override
+    public void signOut() {
+        sessionRefresher.stop();
+        try {
+            final HttpRequest httpRequest = newRequestBuilder(urlDomain + OAUTH_SIGNOUT_URL, null)
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            checkResponse(send(httpRequest, null)).body().close();
+            lastUsedAuthentication = null;
+        } catch (Exception e) {
+            ErrorModel errorModel = new ErrorModel(e.getMessage());
+            logger.error("Error in contacting server: ", e);
+            throw new OctaneException(errorModel);
+        }
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        sessionRefresher.requestStarted();
+        return execute(octaneHttpRequest, HTTP_REQUEST_RETRY_COUNT);
+    }
+
+    private OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest, int retryCount) {
+        // read before the cookie is put on the request, see SessionRenewal
+        final long sessionGeneration = sessionRenewal.getGeneration();
+        final Deadline deadline = octaneHttpRequest.getDeadline();
+        final HttpResponse<InputStream> response = send(convertOctaneRequestToHttpRequest(octaneHttpRequest), deadline);
+        if (retryCount > 0 && shouldReAuthenticate(response)) {
+            discard(response);
+            sessionRenewal.renew(sessionGeneration, () -> reAuthenticate(deadline), deadline);
+            logger.debug("Retrying request, retries left: {}", retryCount);
+            return execute(octaneHttpRequest, retryCount - 1);
+        }
+        return convertHttpResponseToOctaneHttpResponse(checkResponse(response));
+    }
+
+    /**
+     * Sends the request without blocking a thread while waiting for the server.  The response is processed on the
+     * given executor
+     */
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        sessionRefresher.requestStarted();
+        return executeAsync(octaneHttpRequest, executor, HTTP_REQUEST_RETRY_COUNT);
+    }
+
+    private CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor, int retryCount) {
+        final long sessionGeneration = sessionRenewal.getGeneration();
+        final HttpRequest httpRequest;
+        try {
+            httpRequest = convertOctaneRequestToHttpRequest(octaneHttpRequest);
+        } catch (RuntimeException e) {
+            final CompletableFuture<OctaneHttpResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        logRequest(httpRequest);
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofInputStream())
+                .exceptionally(throwable -> {
+                    final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                            ? throwable.getCause() : throwable;
+                    throw toFailure(cause, octaneHttpRequest.getDeadline());
+                })
+                .thenComposeAsync(response -> {
+                    logResponse(response);
+                    updateLWSSOCookieValue(response);
+                    if (retryCount > 0 && shouldReAuthenticate(response)) {
+                        discard(response);
+                        final Deadline deadline = octaneHttpRequest.getDeadline();
+                        sessionRenewal.renew(sessionGeneration, () -> reAuthenticate(deadline), deadline);
+                        logger.debug("Retrying request, retries left: {}", retryCount);
+                        return executeAsync(octaneHttpRequest, executor, retryCount - 1);
+                    }
+                    return CompletableFuture.completedFuture(convertHttpResponseToOctaneHttpResponse(checkResponse(response)));
+                }, executor);
+    }
+
+    /**
+     * Convert the abstract {@link OctaneHttpRequest} object to a {@link HttpRequest} of the JDK client
+     *
+     * @param octaneHttpRequest input {@link OctaneHttpRequest}
+     * @return {@link HttpRequest}
+     */
+    protected HttpRequest convertOctaneRequestToHttpRequest(OctaneHttpRequest octaneHttpRequest) {
+        final HttpRequest.Builder builder = newRequestBuilder(octaneHttpRequest.getRequestUrl(), octaneHttpRequest.getDeadline());
+        switch (octaneHttpRequest.getOctaneRequestMethod()) {
+            case GET: {
+                OctaneHttpRequest.GetOctaneHttpRequest getOctaneHttpRequest = (OctaneHttpRequest.GetOctaneHttpRequest) octaneHttpRequest;
+                setHeaderIfPresent(builder, ACCEPT, getOctaneHttpRequest.getAcceptType());
+                setHeaderIfPresent(builder, IF_NONE_MATCH, getOctaneHttpRequest.getIfNoneMatch());
+                setHeaderIfPresent(builder, IF_MODIFIED_SINCE, getOctaneHttpRequest.getIfModifiedSince());
+                builder.GET();
+                break;
+            }
+            case POST: {
+                OctaneHttpRequest.PostOctaneHttpRequest postOctaneHttpRequest = (OctaneHttpRequest.PostOctaneHttpRequest) octaneHttpRequest;
+                setHeaderIfPresent(builder, ACCEPT, postOctaneHttpRequest.getAcceptType());
+                setHeaderIfPresent(builder, CONTENT_TYPE, postOctaneHttpRequest.getContentType());
+                builder.POST(toBodyPublisher(builder, postOctaneHttpRequest.getContentType(),
+                        postOctaneHttpRequest.isStreamingContent(), postOctaneHttpRequest::writeContentTo));
+                break;
+            }
+            case POST_BINARY: {
+                OctaneHttpRequest.PostBinaryOctaneHttpRequest postBinaryOctaneHttpRequest = (OctaneHttpRequest.PostBinaryOctaneHttpRequest) octaneHttpRequest;
+                setHeaderIfPresent(builder, ACCEPT, postBinaryOctaneHttpRequest.getAcceptType());
+                builder.header(CONTENT_TYPE, HTTP_MULTIPART_CONTENT_TYPE);
+                builder.POST(generateMultiPartContent(postBinaryOctaneHttpRequest));
+                break;
+            }
+            case PUT: {
+                OctaneHttpRequest.PutOctaneHttpRequest putOctaneHttpRequest = (OctaneHttpRequest.PutOctaneHttpRequest) octaneHttpRequest;
+                setHeaderIfPresent(builder, ACCEPT, putOctaneHttpRequest.getAcceptType());
+                setHeaderIfPresent(builder, CONTENT_TYPE, putOctaneHttpRequest.getContentType());
+                builder.PUT(toBodyPublisher(builder, putOctaneHttpRequest.getContentType(),
+                        putOctaneHttpRequest.isStreamingContent(), putOctaneHttpRequest::writeContentTo));
+                break;
+            }
+            case DELETE: {
+                builder.DELETE();
+                break;
+            }
+            default: {
+                throw new IllegalArgumentException("Request method not known!");
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Convert the JDK {@link HttpResponse} to an {@link OctaneHttpResponse} streaming the body of the response
+     *
+     * @param httpResponse successful response
+     * @return {@link OctaneHttpResponse} created from the response
+     */
+    protected OctaneHttpResponse convertHttpResponseToOctaneHttpResponse(HttpResponse<InputStream> httpResponse) {
+        try {
+            return new OctaneHttpResponse(httpResponse.statusCode(), getDecodedBody(httpResponse), getContentCharset(httpResponse))
+                    .setValidators(httpResponse.headers().firstValue(ETAG).orElse(null),
+                            httpResponse.headers().firstValue(LAST_MODIFIED).orElse(null));
+        } catch (IOException e) {
+            throw new RuntimeException("Problem executing httprequest", e);
+        }
+    }
+
+    /**
+     * Creates a request builder with the headers sent on every request: the LWSSO cookie and the client type.  The
+     * timeout of the request is the read timeout, shortened to the deadline if any
+     *
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    private HttpRequest.Builder newRequestBuilder(String url, Deadline deadline) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url));
+        int timeoutMillis = (int) timeoutSettings.getReadTimeoutMillis();
+        if (deadline != null) {
+            deadline.check();
+            timeoutMillis = deadline.shorten(timeoutMillis);
+        }
+        if (timeoutMillis != TimeoutSettings.NO_TIMEOUT) {
+            builder.timeout(Duration.ofMillis(timeoutMillis));
+        }
+
+        if (compressionSettings.isAcceptGzip()) {
+            builder.header(ACCEPT_ENCODING, GZIP_ENCODING);
+        }
+
+        final String cookieValue = lwssoValue;
+        if (cookieValue != null && !cookieValue.isEmpty()) {
+            builder.header(COOKIE, LWSSO_COOKIE_KEY + "=" + cookieValue);
+        }
+
+        final Authentication authentication = lastUsedAuthentication;
+        if (authentication != null) {
+            String clientTypeHeader = authentication.getClientHeader();
+            if (clientTypeHeader != null && !clientTypeHeader.isEmpty()) {
+                builder.header(HPE_CLIENT_TYPE, clientTypeHeader);
+            }
+        }
+        return builder;
+    }
+
+    private HttpResponse<InputStream> send(HttpRequest httpRequest, Deadline deadline) {
+        logRequest(httpRequest);
+        final HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            throw toFailure(e, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Problem executing httprequest", e);
+        }
+        logResponse(response);
+        updateLWSSOCookieValue(response);
+        return response;
+    }
+
+    /**
+     * @return the exception reporting a failure to send a request, a {@link DeadlineExceededException} if the timeout
+     * of the request was shortened to its deadline and the deadline has passed
+     */
+    private static RuntimeException toFailure(Throwable cause, Deadline deadline) {
+        if (deadline != null && deadline.isExpired()) {
+            return new DeadlineExceededException("Deadline of the request exceeded: " + cause.getMessage());
+        }
+        return new RuntimeException("Problem executing httprequest", cause);
+    }
+
+    private boolean shouldReAuthenticate(HttpResponse<?> response) {
+        return (response.statusCode() == 401 || response.statusCode() == 403) && lastUsedAuthentication != null;
+    }
+
+    /**
+     * Signs in again ahead of the expiry of the session.  A failed refresh keeps the authentication so that the
+     * session can still be renewed when a request is rejected
+     */
+    private void refreshSession() {
+        final Authentication authentication = lastUsedAuthentication;
+        if (authentication == null) {
+            return;
+        }
+        try {
+            authenticate(authentication);
+        } catch (OctaneException ex) {
+            lastUsedAuthentication = authentication;
+            logger.debug("Exception while refreshing the session: {}", ex.getMessage());
+        }
+    }
+
+    private void reAuthenticate(Deadline deadline) {
+        logger.debug("Auth token invalid, trying to re-authenticate");
+        final Authentication authentication = lastUsedAuthentication;
+        if (authentication == null) {
+            return;
+        }
+        try {
+            authenticate(authentication, deadline);
+        } catch (OctaneException ex) {
+            logger.debug("Exception while retrying authentication: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Reports unsuccessful responses the same way as the google client does, so that
+     * {@link com.hpe.adm.nga.sdk.network.OctaneRequest} can translate them to {@link OctaneException}s.
+     * A 304 answering a conditional request is not an error
+     */
+    private HttpResponse<InputStream> checkResponse(HttpResponse<InputStream> response) {
+        if (isSuccessStatusCode(response.statusCode()) || response.statusCode() == OctaneHttpResponse.NOT_MODIFIED_STATUS_CODE) {
+            return response;
+        }
+        final String content;
+        try (InputStream body = getDecodedBody(response)) {
+            content = new String(body.readAllBytes(), getContentCharset(response));
+        } catch (IOException e) {
+            throw new RuntimeException("Problem executing httprequest", e);
+        }
+        final com.google.api.client.http.HttpHeaders headers = new com.google.api.client.http.HttpHeaders();
+        response.headers().map().forEach(headers::set);
+        final HttpResponseException httpResponseException = new HttpResponseException.Builder(response.statusCode(), null, headers)
+                .setContent(content)
+                .setMessage(content.isEmpty() ? String.valueOf(response.statusCode()) : response.statusCode() + CRLF + content)
+                .build();
+        throw new RuntimeException("Problem executing httprequest", httpResponseException);
+    }
+
+    /**
+     * Closes the body of a response that will not be used, allowing the stream to be reused
+     */
+    private void discard(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException e) {
+            logger.debug("Could not discard the response: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the charset parameter of the content type of the response, UTF-8 if there is none
+     */
+    private static Charset getContentCharset(HttpResponse<?> response) {
+        final Optional<String> contentType = response.headers().firstValue(CONTENT_TYPE);
+        if (contentType.isPresent()) {
+            for (String parameter : contentType.get().split(";")) {
+                final String[] nameValue = parameter.trim().split("=", 2);
+                if (nameValue.length == 2 && nameValue[0].equalsIgnoreCase("charset")) {
+                    try {
+                        return Charset.forName(nameValue[1].trim().replace("\"", ""));
+                    } catch (IllegalArgumentException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static boolean isSuccessStatusCode(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Sends the content of the request as UTF-8 bytes, without going through an intermediate String.  JSON content is
+     * gzip encoded when the {@link CompressionSettings} ask for it.  Content held as a String is sent from one byte
+     * array when it is not compressed; streaming content, and compressed content, is written through a pipe while it
+     * is sent, so neither the whole body nor its compressed copy is held in memory.  Like the google client, streaming
+     * content has no known length and is compressed whenever request compression is enabled
+     */
+    private HttpRequest.BodyPublisher toBodyPublisher(HttpRequest.Builder builder, String contentType, boolean streaming,
+                                                      OctaneHttpRequest.ContentWriter contentWriter) {
+        final boolean json = contentType != null && contentType.contains(JSON_MEDIA_SUBTYPE);
+        final boolean gzip;
+        final OctaneHttpRequest.ContentWriter bodyWriter;
+        if (streaming) {
+            gzip = json && compressionSettings.shouldGzipRequest(-1);
+            bodyWriter = contentWriter;
+        } else {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try {
+                contentWriter.writeTo(outputStream);
+            } catch (IOException e) {
+                throw new RuntimeException("Problem creating httprequest", e);
+            }
+            gzip = json && compressionSettings.shouldGzipRequest(outputStream.size());
+            if (!gzip) {
+                compressionStatistics.addRequestBytesDecoded(outputStream.size());
+                compressionStatistics.addRequestBytesOnWire(outputStream.size());
+                return HttpRequest.BodyPublishers.ofByteArray(outputStream.toByteArray());
+            }
+            bodyWriter = outputStream::writeTo;
+        }
+        if (gzip) {
+            builder.header(CONTENT_ENCODING, GZIP_ENCODING);
+        }
+        // the content is written again for every send, a retry after re-authentication resends it
+        return HttpRequest.BodyPublishers.ofInputStream(() ->
+                new CountingInputStream(pipe(bodyWriter, gzip), compressionStatistics::addRequestBytesOnWire));
+    }
+
+    /**
+     * Writes the content on a writer thread into a pipe read by the http client.  The writer waits while the pipe is
+     * full; a failure to write the content fails the read of the body instead of ending it early
+     */
+    private InputStream pipe(OctaneHttpRequest.ContentWriter contentWriter, boolean gzip) {
+        final PipedInputStream inputStream = new PipedInputStream(PIPE_BUFFER_SIZE);
+        final PipedOutputStream pipeOutputStream;
+        try {
+            pipeOutputStream = new PipedOutputStream(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final CompletableFuture<Void> written = CompletableFuture.runAsync(() -> {
+            try (OutputStream outputStream = gzip ? new GZIPOutputStream(pipeOutputStream, PIPE_BUFFER_SIZE) : pipeOutputStream) {
+                contentWriter.writeTo(new CountingOutputStream(outputStream, compressionStatistics::addRequestBytesDecoded));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, BODY_WRITER);
+        return new FilterInputStream(inputStream) {
+            @Override
+            public int read() throws IOException {
+                final int read = super.read();
+                return read == -1 ? endOfBody() : read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                final int read = super.read(b, off, len);
+                return read == -1 ? endOfBody() : read;
+            }
+
+            private int endOfBody() throws IOException {
+                try {
+                    written.join();
+                } catch (CompletionException e) {
+                    throw new IOException("Problem writing the request content", e.getCause());
+                }
+                return -1;
+            }
+        };
+    }
+
+    /**
+     * Wraps the body of the response counting the bytes read from the wire and decoding gzip encoded content while it
+     * is read
+     */
+    private InputStream getDecodedBody(HttpResponse<InputStream> response) throws IOException {
+        final InputStream wireBody = new CountingInputStream(response.body(), compressionStatistics::addResponseBytesOnWire);
+        final boolean gzipEncoded = response.headers().firstValue(CONTENT_ENCODING)
+                .map(contentEncoding -> contentEncoding.trim().equalsIgnoreCase(GZIP_ENCODING))
+                .orElse(false);
+        final InputStream decodedBody = gzipEncoded ? new GZIPInputStream(wireBody) : wireBody;
+        return new CountingInputStream(decodedBody, compressionStatistics::addResponseBytesDecoded);
+    }
+
+    private static void setHeaderIfPresent(HttpRequest.Builder builder, String name, String value) {
+        if (value != null && !value.isEmpty()) {
+            builder.header(name, value);
+        }
+    }
+
+    /**
+     * Generates the multipart body: the entity as JSON followed by the binary stream
+     *
+     * @param octaneHttpRequest - JSON entity model and binary stream.
+     * @return - publisher streaming the multipart body.
+     */
+    private HttpRequest.BodyPublisher generateMultiPartContent(OctaneHttpRequest.PostBinaryOctaneHttpRequest octaneHttpRequest) {
+        final String entityJson;
+        try {
+            // serialized like the JsonHttpContent of the google client
+            entityJson = JacksonFactory.getDefaultInstance().toString(octaneHttpRequest.getContent());
+        } catch (IOException e) {
+            throw new RuntimeException("Problem creating httprequest", e);
+        }
+        final String head = DASHES + HTTP_MULTIPART_BOUNDARY_VALUE + CRLF
+                + HTTP_MULTIPART_PART1_HEADER_FORMAT + entityJson + CRLF
+                + DASHES + HTTP_MULTIPART_BOUNDARY_VALUE + CRLF
+                + String.format(HTTP_MULTIPART_PART2_HEADER_FORMAT, octaneHttpRequest.getBinaryContentName(), octaneHttpRequest.getBinaryContentType());
+        final String tail = CRLF + DASHES + HTTP_MULTIPART_BOUNDARY_VALUE + DASHES + CRLF;
+
+        final List<InputStream> parts = Arrays.asList(
+                new ByteArrayInputStream(head.getBytes(StandardCharsets.UTF_8)),
+                octaneHttpRequest.getBinaryInputStream(),
+                new ByteArrayInputStream(tail.getBytes(StandardCharsets.UTF_8)));
+        // the stream can only be consumed once, a retry after re-authentication cannot resend the binary content
+        return HttpRequest.BodyPublishers.ofInputStream(() -> new CountingInputStream(new SequenceInputStream(Collections.enumeration(parts)), bytes -> {
+            compressionStatistics.addRequestBytesDecoded(bytes);
+            compressionStatistics.addRequestBytesOnWire(bytes);
+        }));
+    }
+
+    /**
+     * Retrieve new cookie from set-cookie header
+     *
+     * @param response The response containing the cookie
+     * @return true if LWSSO cookie is renewed
+     */
+    private boolean updateLWSSOCookieValue(HttpResponse<?> response) {
+        for (String strCookie : response.headers().allValues(SET_COOKIE)) {
+            List<HttpCookie> cookies;
+            try {
+                // Sadly the server seems to send back empty cookies for some reason
+                cookies = HttpCookie.parse(strCookie);
+            } catch (Exception ex) {
+                logger.error(ex);
+                continue;
+            }
+            Optional<HttpCookie> lwssoCookie = cookies.stream().filter(a -> a.getName().equals(LWSSO_COOKIE_KEY)).findFirst();
+            if (lwssoCookie.isPresent()) {
+                lwssoValue = lwssoCookie.get().getValue();
+                sessionRefresher.cookieReceived(lwssoCookie.get().getMaxAge());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void logRequest(HttpRequest httpRequest) {
+        logger.debug(LOGGER_REQUEST_FORMAT, httpRequest.method(), httpRequest.uri(), httpRequest.headers().map());
+    }
+
+    private void logResponse(HttpResponse<?> response) {
+        logger.debug(LOGGER_RESPONSE_FORMAT, response.statusCode(), response.version());
+    }
+
+    public static int getHttpRequestRetryCount() {
+        return HTTP_REQUEST_RETRY_COUNT;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.http2;
+
+import com.google.api.client.http.HttpResponseException;
+import com.hpe.adm.nga.sdk.authentication.SimpleClientAuthentication;
+import com.hpe.adm.nga.sdk.network.CompressionSettings;
+import com.hpe.adm.nga.sdk.network.CompressionStatistics;
+import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
+import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests for {@link Http2OctaneHttpClient} against a local server
+ */
+public class TestHttp2OctaneHttpClient {
+
+    private static final String RESPONSE_JSON = "{\"total_count\":0,\"data\":[],\"exceeds_total_count\":false}";
+    private static final String CLIENT_TYPE = "HPE_REST_API_TECH_PREVIEW";
+
+    private HttpServer server;
+    private String serverUrl;
+    private final AtomicInteger signIns = new AtomicInteger();
+    private final AtomicReference<String> lastClientType = new AtomicReference<>();
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(OctaneHttpClient.OAUTH_AUTH_URL, exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Set-Cookie", OctaneHttpClient.LWSSO_COOKIE_KEY + "=token" + signIns.incrementAndGet() + "; Path=/");
+            respond(exchange, 200, "");
+        });
+        server.createContext("/api", exchange -> {
+            lastClientType.set(exchange.getRequestHeaders().getFirst(OctaneHttpClient.HPE_CLIENT_TYPE));
+            String expectedCookie = OctaneHttpClient.LWSSO_COOKIE_KEY + "=token" + signIns.get();
+            if (expectedCookie.equals(exchange.getRequestHeaders().getFirst("Cookie"))) {
+                respond(exchange, 200, RESPONSE_JSON);
+            } else {
+                respond(exchange, 401, "{\"description\":\"unauthorized\"}");
+            }
+        });
+        server.createContext("/gzip", exchange -> {
+            byte[] body = RESPONSE_JSON.getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                compressed.writeTo(outputStream);
+            }
+        });
+        server.createContext("/echo", exchange -> {
+            InputStream body = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                    ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+            respond(exchange, 200, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        });
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testCookieAndClientTypeAreReplayed() {
+        Http2OctaneHttpClient client = new Http2OctaneHttpClient(serverUrl);
+        Assert.assertTrue(client.authenticate(new SimpleClientAuthentication("id", "secret", CLIENT_TYPE)));
+
+        OctaneHttpResponse response = client.execute(newGetRequest());
+
+        Assert.assertTrue(response.isSuccessStatusCode());
+        Assert.assertEquals(RESPONSE_JSON, response.getContent());
+        Assert.assertEquals(CLIENT_TYPE, lastClientType.get());
+        Assert.assertEquals(1, signIns.get());
+    }
+
+    @Test
+    public void testReAuthenticatesOnceWhenSessionExpired() throws Exception {
+        Http2OctaneHttpClient client = new Http2OctaneHttpClient(serverUrl);
+        client.authenticate(new SimpleClientAuthentication("id", "secret", CLIENT_TYPE));
+
+        // the server forgets the session, the next request is answered with 401
+        signIns.incrementAndGet();
+        Assert.assertEquals(RESPONSE_JSON, client.execute(newGetRequest()).getContent());
+        Assert.assertEquals(3, signIns.get());
+
+        signIns.incrementAndGet();
+        Assert.assertEquals(RESPONSE_JSON, client.executeAsync(newGetRequest()).get().getContent());
+        Assert.assertEquals(5, signIns.get());
+    }
+
+    @Test
+    public void testUnsuccessfulResponseIsReported() {
+        Http2OctaneHttpClient client = new Http2OctaneHttpClient(serverUrl);
+        try {
+            client.execute(newGetRequest());
+            Assert.fail("expected an exception");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof HttpResponseException);
+            Assert.assertEquals(401, ((HttpResponseException) e.getCause()).getStatusCode());
+            Assert.assertEquals("{\"description\":\"unauthorized\"}", ((HttpResponseException) e.getCause()).getContent());
+        }
+
+        try {
+            client.executeAsync(newGetRequest()).get();
+            Assert.fail("expected an exception");
+        } catch (InterruptedException | ExecutionException e) {
+            Assert.assertTrue(e.getCause().getCause() instanceof HttpResponseException);
+        }
+    }
+
+    @Test
+    public void testGzipResponseIsDecodedAndCounted() {
+        Http2OctaneHttpClient client = new Http2OctaneHttpClient(serverUrl);
+
+        OctaneHttpResponse response = client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/gzip"));
+
+        Assert.assertEquals(RESPONSE_JSON, response.getContent());
+        CompressionStatistics statistics = client.getCompressionStatistics();
+        Assert.assertEquals(RESPONSE_JSON.length(), statistics.getResponseBytesDecoded());
+        Assert.assertTrue(statistics.getResponseBytesOnWire() > 0);
+    }
+
+    @Test
+    public void testStreamingContentIsGzippedWhileSent() {
+        Http2OctaneHttpClient client = new Http2OctaneHttpClient(serverUrl);
+        client.setCompressionSettings(new CompressionSettings.Builder().gzipRequests(1024).build());
+        StringBuilder content = new StringBuilder("[");
+        for (int i = 0; i < 10_000; i++) {
+            content.append(i == 0 ? "" : ",").append("{\"type\":\"defect\",\"name\":\"defect ").append(i).append("\"}");
+        }
+        byte[] bytes = content.append("]").toString().getBytes(StandardCharsets.UTF_8);
+
+        OctaneHttpResponse response = client.execute(new OctaneHttpRequest.PostOctaneHttpRequest(serverUrl + "/echo",
+                OctaneHttpRequest.JSON_CONTENT_TYPE, outputStream -> outputStream.write(bytes)));
+
+        Assert.assertEquals(content.toString(), response.getContent());
+        CompressionStatistics statistics = client.getCompressionStatistics();
+        Assert.assertEquals(bytes.length, statistics.getRequestBytesDecoded());
+        Assert.assertTrue(statistics.getRequestBytesOnWire() < bytes.length / 2);
+    }
+
+    @Test
+    public void testFailedContentWriteFailsTheRequest() {
+        Http2OctaneHttpClient client = new Http2OctaneHttpClient(serverUrl);
+        try {
+            client.execute(new OctaneHttpRequest.PutOctaneHttpRequest(serverUrl + "/echo", OctaneHttpRequest.JSON_CONTENT_TYPE,
+                    outputStream -> {
+                        outputStream.write("[{".getBytes(StandardCharsets.UTF_8));
+                        throw new IOException("serialization failed");
+                    }));
+            Assert.fail("expected the request to fail");
+        } catch (RuntimeException e) {
+            // a truncated body is never sent as a whole
+        }
+    }
+
+    private OctaneHttpRequest newGetRequest() {
+        return new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/api/defects").setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String content) throws IOException {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
@@ -17,6 +17,7 @@ package com.hpe.adm.nga.sdk;
 
 import com.hpe.adm.nga.sdk.entities.EntityList;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 import com.hpe.adm.nga.sdk.network.google.GoogleHttpClient;
 
 /**
@@ -41,4 +42,9 @@ final class DefaultOctaneClassFactory implements OctaneClassFactory{
     public EntityList getEntityList(OctaneHttpClient octaneHttpClient, String baseDomain, String entityName) {
         return new EntityList(octaneHttpClient, baseDomain +  entityName);
     }
+
+    @Override
+    public EntityList getEntityList(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String baseDomain, String entityName) {
+        return new EntityList(octaneHttpClient, requestContext, baseDomain +  entityName);
+    }
 }
\ No newline at end of file
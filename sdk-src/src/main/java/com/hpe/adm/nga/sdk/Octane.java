@@ -18,12 +18,45 @@ package com.hpe.adm.nga.sdk;
 import com.hpe.adm.nga.sdk.attachments.AttachmentList;
 import com.hpe.adm.nga.sdk.authentication.Authentication;
 import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.metadata.FieldTypeCache;
 import com.hpe.adm.nga.sdk.metadata.Metadata;
+import com.hpe.adm.nga.sdk.network.AsyncOctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.CircuitBreaker;
+import com.hpe.adm.nga.sdk.network.CircuitBreakingOctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.CoalescingOctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.CompressionSettings;
+import com.hpe.adm.nga.sdk.network.CompressionStatistics;
+import com.hpe.adm.nga.sdk.network.ConcurrencyLimit;
+import com.hpe.adm.nga.sdk.network.ConcurrencyLimitingOctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.EntityCache;
+import com.hpe.adm.nga.sdk.network.HedgePolicy;
+import com.hpe.adm.nga.sdk.network.HedgingOctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.HedgingStatistics;
+import com.hpe.adm.nga.sdk.network.InterceptingOctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.OctaneHttpInterceptor;
+import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
+import com.hpe.adm.nga.sdk.network.PriorityLaneOctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.PriorityLanes;
+import com.hpe.adm.nga.sdk.network.QueryCache;
+import com.hpe.adm.nga.sdk.network.RateLimiter;
+import com.hpe.adm.nga.sdk.network.RequestContext;
+import com.hpe.adm.nga.sdk.network.RateLimitingOctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.RetryPolicy;
+import com.hpe.adm.nga.sdk.network.RetryingOctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.SessionRefreshSettings;
+import com.hpe.adm.nga.sdk.network.TimeoutSettings;
+import com.hpe.adm.nga.sdk.network.ValidatorCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 /**
  * This class represents the main Octane context.  This context represents the following:
@@ -64,10 +97,15 @@ public class Octane {
     private final String idsharedSpaceId;
     private final long workSpaceId;
     private final OctaneHttpClient octaneHttpClient;
+    private final RequestContext requestContext;
+    private final HedgingStatistics hedgingStatistics;
 
     // functions
-    private Octane(OctaneHttpClient octaneHttpClient, String domain, String sharedSpaceId, long workId) {
+    private Octane(OctaneHttpClient octaneHttpClient, RequestContext requestContext, HedgingStatistics hedgingStatistics,
+                   String domain, String sharedSpaceId, long workId) {
         this.octaneHttpClient = octaneHttpClient;
+        this.requestContext = requestContext;
+        this.hedgingStatistics = hedgingStatistics;
         urlDomain = domain;
         idsharedSpaceId = sharedSpaceId;
         workSpaceId = workId;
@@ -85,7 +123,7 @@ public class Octane {
      * @return A new EntityList object that list of entities
      */
     public EntityList entityList(String entityName) {
-        return OctaneClassFactory.getSystemParamImplementation().getEntityList(octaneHttpClient, getBaseDomainFormat(), entityName);
+        return OctaneClassFactory.getSystemParamImplementation().getEntityList(octaneHttpClient, requestContext, getBaseDomainFormat(), entityName);
     }
 
     /**
@@ -100,7 +138,7 @@ public class Octane {
      * @return A new Metadata object that holds the metadata context
      */
     public Metadata metadata() {
-        return new Metadata(octaneHttpClient, getBaseDomainFormat());
+        return new Metadata(octaneHttpClient, requestContext, getBaseDomainFormat());
     }
 
     /**
@@ -111,7 +149,65 @@ public class Octane {
      * @return A new AttachmentList object that holds the attachments context
      */
     public AttachmentList AttachmentList() {
-        return new AttachmentList(octaneHttpClient, getBaseDomainFormat());
+        return new AttachmentList(octaneHttpClient, requestContext, getBaseDomainFormat());
+    }
+
+    /**
+     * Returns the counters of the bytes sent and received by this context, which show the saving of the gzip
+     * compression configured by {@link Builder#compression(CompressionSettings)}
+     *
+     * @return the statistics, or null if the http client of this context does not count transferred bytes
+     */
+    public CompressionStatistics getCompressionStatistics() {
+        return octaneHttpClient.getCompressionStatistics();
+    }
+
+    /**
+     * Returns the cache of the conditional GET requests of this context, set by
+     * {@link Builder#validatorCache(ValidatorCache)}.  Shows the hit ratio of the requests answered by 304 Not Modified
+     *
+     * @return the cache, or null if the requests of this context are not conditional
+     */
+    public ValidatorCache getValidatorCache() {
+        return requestContext.getValidatorCache();
+    }
+
+    /**
+     * Returns the cache of the entities read by id in this context, set by {@link Builder#entityCache(EntityCache)}
+     *
+     * @return the cache, or null if the entities are not cached
+     */
+    public EntityCache getEntityCache() {
+        return requestContext.getEntityCache();
+    }
+
+    /**
+     * Returns the cache of the results of the queries of this context, set by {@link Builder#queryCache(QueryCache)}
+     *
+     * @return the cache, or null if the results are not cached
+     */
+    public QueryCache getQueryCache() {
+        return requestContext.getQueryCache();
+    }
+
+    /**
+     * Returns the counters of the GET requests hedged by this context, set by {@link Builder#hedgePolicy(HedgePolicy)}.
+     * Shows how many hedges were sent and how many of them answered first
+     *
+     * @return the statistics, or null if the requests of this context are not hedged
+     */
+    public HedgingStatistics getHedgingStatistics() {
+        return hedgingStatistics;
+    }
+
+    /**
+     * Returns the field types used to decode the entities read in this context, set by
+     * {@link Builder#typedDecoding(boolean)}
+     *
+     * @return the field types, or null if the fields are decoded from their values
+     */
+    public FieldTypeCache getFieldTypeCache() {
+        return requestContext.getFieldTypeCache();
     }
 
     /**
@@ -156,7 +252,27 @@ public class Octane {
         private String urlDomain = "";
         private String idsharedSpaceId = null;
         private long workSpaceId = 0;
+        private Executor executor = null;
+        private CompressionSettings compressionSettings = null;
+        private TimeoutSettings timeoutSettings = null;
+        private RetryPolicy retryPolicy = null;
+        private SessionRefreshSettings sessionRefreshSettings = null;
+        private final List<OctaneHttpInterceptor> interceptors = new ArrayList<>();
+        private HedgePolicy hedgePolicy = null;
+        private boolean requestCoalescing = false;
+        private boolean typedDecoding = false;
+        private ValidatorCache validatorCache = null;
+        private EntityCache entityCache = null;
+        private QueryCache queryCache = null;
+        private RateLimiter rateLimiter = null;
+        private ConcurrencyLimit concurrencyLimit = null;
+        private PriorityLanes priorityLanes = null;
+        private CircuitBreaker circuitBreaker = null;
+        private CircuitBreaker.Builder collectionCircuitBreakers = null;
+        private final Map<OctaneHttpRequest.OctaneRequestMethod, RateLimiter> methodRateLimiters = new EnumMap<>(OctaneHttpRequest.OctaneRequestMethod.class);
+        private final Map<String, RateLimiter> collectionRateLimiters = new HashMap<>();
         private final Authentication authentication;
+        private HedgingStatistics hedgingStatistics = null;
 
         //Functions
 
@@ -241,6 +357,290 @@ public class Octane {
             return this;
         }
 
+        /**
+         * Sets the executor used to run the {@code executeAsync()} calls of the requests created by this context.
+         * If not set a shared pool of daemon threads is used
+         *
+         * @param executor - executor for asynchronous requests
+         * @return this object
+         */
+        public Builder executor(Executor executor) {
+
+            this.executor = executor;
+
+            return this;
+        }
+
+        /**
+         * Sets the gzip compression of requests and responses.  If not set the http client uses its default, which
+         * for the built in clients is read from the system properties described in {@link CompressionSettings}.
+         * The settings are ignored, with a warning, if the http client does not support compression
+         *
+         * @param compressionSettings - compression of the requests and responses
+         * @return this object
+         */
+        public Builder compression(CompressionSettings compressionSettings) {
+
+            this.compressionSettings = compressionSettings;
+
+            return this;
+        }
+
+        /**
+         * Sets the connect, read and total timeouts of the requests.  If not set the http client uses its default, see
+         * {@link TimeoutSettings}.  A request can override the total timeout with
+         * {@link com.hpe.adm.nga.sdk.network.OctaneRequest#timeout(java.time.Duration)}.
+         * The settings are ignored, with a warning, if the http client does not support timeout settings
+         *
+         * @param timeoutSettings - timeouts of the requests
+         * @return this object
+         */
+        public Builder timeouts(TimeoutSettings timeoutSettings) {
+
+            this.timeoutSettings = timeoutSettings;
+
+            return this;
+        }
+
+        /**
+         * Enables the proactive refresh of the session: the client signs in again shortly before the session cookie
+         * expires, so that requests do not fail with a 401 first.  If not set the session is only renewed once the
+         * server rejects a request.
+         * The settings are ignored, with a warning, if the http client cannot refresh its session
+         *
+         * @param sessionRefreshSettings - when to refresh the session
+         * @return this object
+         */
+        public Builder sessionRefresh(SessionRefreshSettings sessionRefreshSettings) {
+
+            this.sessionRefreshSettings = sessionRefreshSettings;
+
+            return this;
+        }
+
+        /**
+         * Sets the policy used to retry failed requests, see {@link RetryPolicy} for the defaults.  If not set
+         * requests are not retried, except once after re-authenticating when the session expired
+         *
+         * @param retryPolicy - policy deciding which failed requests are retried and when
+         * @return this object
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+
+            this.retryPolicy = retryPolicy;
+
+            return this;
+        }
+
+        /**
+         * Stops sending the requests of this context while the server keeps failing: once the breaker opens, requests
+         * fail immediately with a {@link com.hpe.adm.nga.sdk.exception.CircuitBreakerOpenException}, see
+         * {@link CircuitBreaker}.  The same breaker can be set on several builders to share it between contexts that
+         * point at the same server
+         *
+         * @param circuitBreaker - breaker of all the requests of this context
+         * @return this object
+         */
+        public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+
+            this.circuitBreaker = circuitBreaker;
+
+            return this;
+        }
+
+        /**
+         * Tracks the failures of every entity collection in its own circuit breaker, in addition to the breaker of the
+         * server, so that a failing collection does not stop the requests of the others
+         * <br>
+         * eg {@code collectionCircuitBreakers(new CircuitBreaker.Builder().failureRateThreshold(0.3))}
+         *
+         * @param collectionCircuitBreakers - builder of the breaker of each collection, named after the collection
+         * @return this object
+         */
+        public Builder collectionCircuitBreakers(CircuitBreaker.Builder collectionCircuitBreakers) {
+
+            this.collectionCircuitBreakers = collectionCircuitBreakers;
+
+            return this;
+        }
+
+        /**
+         * Limits the number of requests of this context in flight at the same time, adapting the limit to the round
+         * trip times and failures of the requests, see {@link ConcurrencyLimit}.  The same limit can be set on several
+         * builders to share it between contexts that point at the same server
+         *
+         * @param concurrencyLimit - limit taking a slot for every request sent to the server
+         * @return this object
+         */
+        public Builder concurrencyLimit(ConcurrencyLimit concurrencyLimit) {
+
+            this.concurrencyLimit = concurrencyLimit;
+
+            return this;
+        }
+
+        /**
+         * Shares the request slots of this context between lanes, so that for instance interactive requests are not
+         * queued behind bulk exports, see {@link PriorityLanes}.  A request picks its lane with
+         * {@link com.hpe.adm.nga.sdk.network.OctaneRequest#lane(String)}.  When a concurrency limit is set too, the
+         * lanes should not have more slots than the limit, otherwise the requests also wait in the limit in order
+         *
+         * @param priorityLanes - lanes taking a slot for every request sent to the server
+         * @return this object
+         */
+        public Builder priorityLanes(PriorityLanes priorityLanes) {
+
+            this.priorityLanes = priorityLanes;
+
+            return this;
+        }
+
+        /**
+         * Limits the rate of all the requests of this context.  The same limiter can be set on several builders to
+         * share one limit between contexts that point at the same server
+         *
+         * @param rateLimiter - limiter taking a permit for every request
+         * @return this object
+         */
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+
+            this.rateLimiter = rateLimiter;
+
+            return this;
+        }
+
+        /**
+         * Limits the rate of the requests of an http method, in addition to the limiter of all the requests
+         *
+         * @param method      - http method of the limited requests
+         * @param rateLimiter - limiter taking a permit for every request of the method
+         * @return this object
+         */
+        public Builder rateLimiter(OctaneHttpRequest.OctaneRequestMethod method, RateLimiter rateLimiter) {
+
+            methodRateLimiters.put(method, rateLimiter);
+
+            return this;
+        }
+
+        /**
+         * Limits the rate of the requests of an entity collection, in addition to the limiter of all the requests
+         * <br>
+         * eg {@code collectionRateLimiter("defects", RateLimiter.create(5))}
+         *
+         * @param entityName  - the name of the entity as a collection
+         * @param rateLimiter - limiter taking a permit for every request of the collection
+         * @return this object
+         */
+        public Builder collectionRateLimiter(String entityName, RateLimiter rateLimiter) {
+
+            collectionRateLimiters.put(entityName, rateLimiter);
+
+            return this;
+        }
+
+        /**
+         * Adds an interceptor to the chain the requests of this context go through.  Interceptors are called in the
+         * order they are added and wrap the rate limiting and retries of the context
+         *
+         * @param interceptor - interceptor of the requests
+         * @return this object
+         */
+        public Builder interceptor(OctaneHttpInterceptor interceptor) {
+
+            interceptors.add(interceptor);
+
+            return this;
+        }
+
+        /**
+         * Hedges the GET requests of this context: when a response is slower than most recent responses an identical
+         * request is sent and the first response is used, see {@link HedgePolicy} for the defaults.  Hedges go through
+         * the rate limiting, retries and interceptors of the context like any other request
+         *
+         * @param hedgePolicy - policy deciding which requests are hedged, when, and how many hedges may be sent
+         * @return this object
+         */
+        public Builder hedgePolicy(HedgePolicy hedgePolicy) {
+
+            this.hedgePolicy = hedgePolicy;
+
+            return this;
+        }
+
+        /**
+         * Coalesces identical GET requests in flight at the same time: they share one request to the server and the
+         * entities parsed from its response, every caller getting its own copy
+         *
+         * @param requestCoalescing - whether identical concurrent GET requests are coalesced
+         * @return this object
+         */
+        public Builder requestCoalescing(boolean requestCoalescing) {
+
+            this.requestCoalescing = requestCoalescing;
+
+            return this;
+        }
+
+        /**
+         * Decodes the fields of the entities read in this context by the type given by the field metadata of their
+         * entity type instead of guessing it from each value.  The field metadata of each entity type is fetched once, in
+         * the background after the first response holding entities of the type, see {@link FieldTypeCache}
+         *
+         * @param typedDecoding - whether the fields are decoded by the type of the field metadata
+         * @return this object
+         */
+        public Builder typedDecoding(boolean typedDecoding) {
+
+            this.typedDecoding = typedDecoding;
+
+            return this;
+        }
+
+        /**
+         * Sends the GET requests of entities and metadata conditionally, with the ETag and Last-Modified validators of
+         * the results held in the cache.  A 304 Not Modified response is answered with a copy of the cached result
+         *
+         * @param validatorCache - cache of the results, should only be shared by contexts of the same user
+         * @return this object
+         */
+        public Builder validatorCache(ValidatorCache validatorCache) {
+
+            this.validatorCache = validatorCache;
+
+            return this;
+        }
+
+        /**
+         * Caches the entities read by id, and the entities they reference, so that reading them again with the same
+         * fields does not go to the server.  Updating or deleting entities through this context removes them from the
+         * cache; changes made by others are seen once the cached entities expire
+         *
+         * @param entityCache - cache of the entities, should only be shared by contexts of the same user
+         * @return this object
+         */
+        public Builder entityCache(EntityCache entityCache) {
+
+            this.entityCache = entityCache;
+
+            return this;
+        }
+
+        /**
+         * Caches the results of the queries of entity collections, so that running the same query again, with the same
+         * fields, order, limit and offset, does not go to the server.  Creating, updating or deleting entities of a
+         * collection through this context removes the results of the collection from the cache
+         *
+         * @param queryCache - cache of the results, should only be shared by contexts of the same user
+         * @return this object
+         */
+        public Builder queryCache(QueryCache queryCache) {
+
+            this.queryCache = queryCache;
+
+            return this;
+        }
+
         /**
          * The main build procedure which creates the {@link Octane} object and authenticates against the server
          *
@@ -253,14 +653,65 @@ public class Octane {
             logger.info("Building Octane context using {}", this);
             OctaneHttpClient octaneHttpClient = createOctaneHttpClient();
             if (octaneHttpClient.authenticate(authentication)) {
-                objOctane = new Octane(octaneHttpClient, urlDomain, idsharedSpaceId, workSpaceId);
+                final RequestContext.Builder requestContext = new RequestContext.Builder()
+                        .validatorCache(validatorCache)
+                        .entityCache(entityCache)
+                        .queryCache(queryCache);
+                if (typedDecoding) {
+                    // the metadata requests do not go through the field types
+                    final Metadata metadata = new Octane(octaneHttpClient, requestContext.build(), hedgingStatistics,
+                            urlDomain, idsharedSpaceId, workSpaceId).metadata();
+                    requestContext.fieldTypeCache(new FieldTypeCache(entityNames -> metadata.fields(entityNames).executeAsync()));
+                }
+                objOctane = new Octane(octaneHttpClient, requestContext.build(), hedgingStatistics,
+                        urlDomain, idsharedSpaceId, workSpaceId);
             }
 
             return objOctane;
         }
 
         private OctaneHttpClient createOctaneHttpClient() {
-            return OctaneClassFactory.getSystemParamImplementation().getOctaneHttpClient(urlDomain);
+            OctaneHttpClient octaneHttpClient = OctaneClassFactory.getSystemParamImplementation().getOctaneHttpClient(urlDomain);
+            if (compressionSettings != null) {
+                octaneHttpClient.setCompressionSettings(compressionSettings);
+            }
+            if (timeoutSettings != null) {
+                octaneHttpClient.setTimeoutSettings(timeoutSettings);
+            }
+            if (sessionRefreshSettings != null) {
+                octaneHttpClient.setSessionRefreshSettings(sessionRefreshSettings);
+            }
+            if (circuitBreaker != null || collectionCircuitBreakers != null) {
+                octaneHttpClient = new CircuitBreakingOctaneHttpClient(octaneHttpClient, circuitBreaker, collectionCircuitBreakers);
+            }
+            if (concurrencyLimit != null) {
+                octaneHttpClient = new ConcurrencyLimitingOctaneHttpClient(octaneHttpClient, concurrencyLimit);
+            }
+            if (priorityLanes != null) {
+                octaneHttpClient = new PriorityLaneOctaneHttpClient(octaneHttpClient, priorityLanes);
+            }
+            if (rateLimiter != null || !methodRateLimiters.isEmpty() || !collectionRateLimiters.isEmpty()) {
+                octaneHttpClient = new RateLimitingOctaneHttpClient(octaneHttpClient, rateLimiter, methodRateLimiters, collectionRateLimiters);
+            }
+            if (retryPolicy != null) {
+                octaneHttpClient = new RetryingOctaneHttpClient(octaneHttpClient, retryPolicy);
+            }
+            if (!interceptors.isEmpty()) {
+                octaneHttpClient = new InterceptingOctaneHttpClient(octaneHttpClient, interceptors);
+            }
+            hedgingStatistics = null;
+            if (hedgePolicy != null) {
+                final HedgingOctaneHttpClient hedgingOctaneHttpClient = new HedgingOctaneHttpClient(octaneHttpClient, hedgePolicy);
+                hedgingStatistics = hedgingOctaneHttpClient.getHedgingStatistics();
+                octaneHttpClient = hedgingOctaneHttpClient;
+            }
+            if (requestCoalescing) {
+                octaneHttpClient = new CoalescingOctaneHttpClient(octaneHttpClient);
+            }
+            if (executor != null) {
+                octaneHttpClient = new AsyncOctaneHttpClient(octaneHttpClient, executor);
+            }
+            return octaneHttpClient;
         }
 
         @Override
@@ -17,6 +17,7 @@ package com.hpe.adm.nga.sdk;
 
 import com.hpe.adm.nga.sdk.entities.EntityList;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -52,6 +53,19 @@ public interface OctaneClassFactory {
      */
     EntityList getEntityList(OctaneHttpClient octaneHttpClient, String baseDomain, String entityName);
 
+    /**
+     * Get the implementation of the {@link EntityList} used by the {@link Octane} object, whose requests use the caches
+     * and field types of the context.  Ignores the context by default, override it so that the lists use them
+     * @param octaneHttpClient used to create the
+     * @param requestContext the caches and field types of the {@link Octane} context
+     * @param baseDomain for the entity list
+     * @param entityName API entity name to be used in the url
+     * @return EntityList for the specific entity, implementation uses provided @param octaneHttpClient
+     */
+    default EntityList getEntityList(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String baseDomain, String entityName) {
+        return getEntityList(octaneHttpClient, baseDomain, entityName);
+    }
+
     /**
      * Get the implementation implementation of OctaneClassFactory, can be modified by changing the OCTANE_CLASS_FACTORY_CLASS_NAME system param
      * @return OctaneClassFactory implementation based on the OCTANE_CLASS_FACTORY_CLASS_NAME sys param, if the param is missing, returns {@link DefaultOctaneClassFactory}
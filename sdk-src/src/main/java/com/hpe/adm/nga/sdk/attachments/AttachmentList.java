@@ -17,6 +17,7 @@ package com.hpe.adm.nga.sdk.attachments;
 import com.hpe.adm.nga.sdk.OctaneClassFactory;
 import com.hpe.adm.nga.sdk.entities.*;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 
 /**
  * <p>
@@ -32,6 +33,7 @@ public class AttachmentList {
     private static final String ATTACHMENTS_URL = "attachments";
     private final EntityList entityList;
     private final OctaneHttpClient octaneHttpClient;
+    private final RequestContext requestContext;
     private final String attachmentListDomain;
 
     /**
@@ -41,9 +43,21 @@ public class AttachmentList {
      * @param baseDomain - domain of attachmentList
      */
     public AttachmentList(OctaneHttpClient octaneHttpClient, String baseDomain) {
+        this(octaneHttpClient, RequestContext.empty(), baseDomain);
+    }
+
+    /**
+     * Creates a new AttachmentList object whose requests use the caches of the context
+     *
+     * @param octaneHttpClient     - Octane request factory
+     * @param requestContext - the caches of the Octane context
+     * @param baseDomain - domain of attachmentList
+     */
+    public AttachmentList(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String baseDomain) {
         this.octaneHttpClient = octaneHttpClient;
+        this.requestContext = requestContext;
         this.attachmentListDomain = baseDomain + ATTACHMENTS_URL;
-        entityList = OctaneClassFactory.getSystemParamImplementation().getEntityList(this.octaneHttpClient, baseDomain, ATTACHMENTS_URL);
+        entityList = OctaneClassFactory.getSystemParamImplementation().getEntityList(this.octaneHttpClient, requestContext, baseDomain, ATTACHMENTS_URL);
     }
 
     /**
@@ -70,7 +84,7 @@ public class AttachmentList {
      * @return - new AttachmentList CreateEntities object
      */
     public CreateAttachment create() {
-        return new CreateAttachment(octaneHttpClient, attachmentListDomain);
+        return new CreateAttachment(octaneHttpClient, requestContext, attachmentListDomain);
     }
 
     /**
@@ -144,7 +158,7 @@ public class AttachmentList {
          * @return new instance of GetBinary
          */
         public GetBinaryAttachment getBinary() {
-            return new GetBinaryAttachment(octaneHttpClient, attachmentListDomain, iEntityId);
+            return new GetBinaryAttachment(octaneHttpClient, requestContext, attachmentListDomain, iEntityId);
         }
 
     }
@@ -20,24 +20,26 @@ import com.hpe.adm.nga.sdk.model.ModelParser;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 import org.json.JSONObject;
 
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class hold the CreateEntities objects and serve all functions concern to REST
  * GetEntities.
  */
-public class CreateAttachment extends OctaneRequest {
+public class CreateAttachment extends OctaneRequest<CreateAttachment> {
 
     private String contentType = "";
     private String contentName = "";
     private InputStream inputStream = null;
     private EntityModel entity = null;
 
-    protected CreateAttachment(OctaneHttpClient octaneHttpClient, String urlDomain) {
-        super(octaneHttpClient, urlDomain);
+    protected CreateAttachment(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain) {
+        super(octaneHttpClient, requestContext, urlDomain);
     }
 
     /**
@@ -68,6 +70,15 @@ public class CreateAttachment extends OctaneRequest {
         return executeMultipart(entity, inputStream, contentType, contentName);
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<Collection<EntityModel>> executeAsync() {
+        CompletableFuture<Collection<EntityModel>> future = executeAsync(createOctaneHttpRequest(entity, inputStream, contentType, contentName), this::parseEntitiesResponse, false);
+        future.whenComplete((createdEntityModels, throwable) -> invalidateCachedQueries());
+        return future;
+    }
+
     /**
      * Post a multipart request - A request made of a json data and file upload:
      * 1. Construct multipart data
@@ -83,16 +94,21 @@ public class CreateAttachment extends OctaneRequest {
 
         Collection<EntityModel> newEntityModels = null;
 
-        JSONObject data = ModelParser.getInstance().getEntityJSONObject(entity);
+        OctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest(entity, inputStream, contentType, contentName);
         try {
-            OctaneHttpRequest octaneHttpRequest =
-                    new OctaneHttpRequest.PostBinaryOctaneHttpRequest(getFinalRequestUrl(), inputStream, data.toString(), contentName, contentType)
-                            .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
             newEntityModels = getEntitiesResponse(octaneHttpRequest);
         } catch (Exception e) {
             handleException(e, false);
+        } finally {
+            invalidateCachedQueries();
         }
 
         return newEntityModels;
     }
+
+    private OctaneHttpRequest createOctaneHttpRequest(EntityModel entity, InputStream inputStream, String contentType, String contentName) {
+        JSONObject data = ModelParser.getInstance().getEntityJSONObject(entity);
+        return new OctaneHttpRequest.PostBinaryOctaneHttpRequest(getFinalRequestUrl(), inputStream, data.toString(), contentName, contentType)
+                .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
+    }
 }
@@ -19,16 +19,18 @@ import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 
 import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class hold the GetBinary objects (handle the binary data of a unique Attachment model )
  */
-public class GetBinaryAttachment extends OctaneRequest {
+public class GetBinaryAttachment extends OctaneRequest<GetBinaryAttachment> {
 
-    protected GetBinaryAttachment(OctaneHttpClient octaneHttpClient, String urlDomain, int entityId) {
-        super(octaneHttpClient, urlDomain, entityId);
+    protected GetBinaryAttachment(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain, int entityId) {
+        super(octaneHttpClient, requestContext, urlDomain, entityId);
     }
 
     /**
@@ -40,6 +42,13 @@ public class GetBinaryAttachment extends OctaneRequest {
         return executeBinary();
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<InputStream> executeAsync() {
+        return executeAsync(createOctaneHttpRequest(), this::getBinaryContent, false);
+    }
+
     /**
      * GetEntities binary data
      *
@@ -48,14 +57,8 @@ public class GetBinaryAttachment extends OctaneRequest {
     private InputStream executeBinary() {
         InputStream inputStream = null;
         try {
-            OctaneHttpRequest octaneHttpRequest = new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl())
-                    .setAcceptType(OctaneHttpRequest.OCTET_STREAM_CONTENT_TYPE);
-            OctaneHttpResponse response = octaneHttpClient.execute(octaneHttpRequest);
-
-            if (response.isSuccessStatusCode()) {
-
-                inputStream = response.getInputStream();
-            }
+            OctaneHttpResponse response = executeRequest(createOctaneHttpRequest());
+            inputStream = getBinaryContent(response);
         } catch (Exception e) {
 
             handleException(e, false);
@@ -64,4 +67,13 @@ public class GetBinaryAttachment extends OctaneRequest {
 
         return inputStream;
     }
+
+    private OctaneHttpRequest createOctaneHttpRequest() {
+        return new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl())
+                .setAcceptType(OctaneHttpRequest.OCTET_STREAM_CONTENT_TYPE);
+    }
+
+    private InputStream getBinaryContent(OctaneHttpResponse response) {
+        return response.isSuccessStatusCode() ? response.getInputStream() : null;
+    }
 }
@@ -20,20 +20,21 @@ import com.hpe.adm.nga.sdk.model.ModelParser;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
-import org.json.JSONObject;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class hold the UpdateEntities objects and serve all functions concern to
  * REST Post.
  */
-public class CreateEntities extends OctaneRequest {
+public class CreateEntities extends OctaneRequest<CreateEntities> {
 
     private Collection<EntityModel> entityModels = null;
 
-    protected CreateEntities(OctaneHttpClient octaneHttpClient, String urlDomain) {
-        super (octaneHttpClient, urlDomain);
+    protected CreateEntities(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain) {
+        super(octaneHttpClient, requestContext, urlDomain);
     }
 
     /**
@@ -44,21 +45,35 @@ public class CreateEntities extends OctaneRequest {
     public Collection<EntityModel> execute() throws RuntimeException {
 
         Collection<EntityModel> newEntityModels = null;
-        JSONObject objBase = ModelParser.getInstance().getEntitiesJSONObject(entityModels);
-        String strJsonEntityModel = objBase.toString();
+        OctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
         try {
-            OctaneHttpRequest octaneHttpRequest =
-                    new OctaneHttpRequest.PostOctaneHttpRequest(getFinalRequestUrl(), OctaneHttpRequest.JSON_CONTENT_TYPE, strJsonEntityModel)
-                            .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
             newEntityModels = getEntitiesResponse(octaneHttpRequest);
         } catch (Exception e) {
 
             handleException(e, true);
+        } finally {
+            invalidateCachedQueries();
         }
 
         return newEntityModels;
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<Collection<EntityModel>> executeAsync() {
+        CompletableFuture<Collection<EntityModel>> future = executeAsync(createOctaneHttpRequest(), this::parseEntitiesResponse, true);
+        future.whenComplete((createdEntityModels, throwable) -> invalidateCachedQueries());
+        return future;
+    }
+
+    private OctaneHttpRequest createOctaneHttpRequest() {
+        final Collection<EntityModel> entities = entityModels;
+        return new OctaneHttpRequest.PostOctaneHttpRequest(getFinalRequestUrl(), OctaneHttpRequest.JSON_CONTENT_TYPE,
+                outputStream -> ModelParser.getInstance().writeEntities(entities, outputStream))
+                .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
+    }
+
     /**
      * Set new entities collection
      *
@@ -20,17 +20,19 @@ import com.hpe.adm.nga.sdk.model.EntityModel;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class hold the DeleteEntities objects and serve all functions concern to
  * REST delete.
  */
-public class DeleteEntities extends OctaneRequest {
+public class DeleteEntities extends OctaneRequest<DeleteEntities> {
 
-    protected DeleteEntities(OctaneHttpClient octaneHttpClient, String urlDomain) {
-        super(octaneHttpClient, urlDomain);
+    protected DeleteEntities(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain) {
+        super(octaneHttpClient, requestContext, urlDomain);
     }
 
     /**
@@ -47,12 +49,23 @@ public class DeleteEntities extends OctaneRequest {
         } catch (Exception e) {
 
             handleException(e, false);
+        } finally {
+            invalidateCachedEntities(null);
         }
 
         return deletedEntityModels;
 
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<Collection<EntityModel>> executeAsync() {
+        CompletableFuture<Collection<EntityModel>> future = executeAsync(new OctaneHttpRequest.DeleteOctaneHttpRequest(getFinalRequestUrl()), this::parseEntitiesResponse, false);
+        future.whenComplete((deletedEntityModels, throwable) -> invalidateCachedEntities(null));
+        return future;
+    }
+
     /**
      * UpdateEntities DeleteEntities with new Query parameters
      *
@@ -19,14 +19,17 @@ import com.hpe.adm.nga.sdk.model.EntityModel;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
+import com.hpe.adm.nga.sdk.network.RequestContext;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class hold the DeleteEntities object of one entity
  */
-public class DeleteEntity extends OctaneRequest {
+public class DeleteEntity extends OctaneRequest<DeleteEntity> {
 
-    protected DeleteEntity(OctaneHttpClient octaneHttpClient, String urlDomain, int iEntityId) {
-        super(octaneHttpClient, urlDomain, iEntityId);
+    protected DeleteEntity(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain, int iEntityId) {
+        super(octaneHttpClient, requestContext, urlDomain, iEntityId);
     }
 
     /**
@@ -41,8 +44,19 @@ public class DeleteEntity extends OctaneRequest {
         } catch (Exception e) {
 
             handleException(e, false);
+        } finally {
+            invalidateCachedEntity(null);
         }
         return newEntityModel;
 
     }
+
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<EntityModel> executeAsync() {
+        CompletableFuture<EntityModel> future = executeAsync(new OctaneHttpRequest.DeleteOctaneHttpRequest(getFinalRequestUrl()), this::parseEntityResponse, false);
+        future.whenComplete((deletedEntityModel, throwable) -> invalidateCachedEntity(null));
+        return future;
+    }
 }
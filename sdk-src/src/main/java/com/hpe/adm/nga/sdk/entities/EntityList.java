@@ -15,6 +15,7 @@
 package com.hpe.adm.nga.sdk.entities;
 
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 
 
 /**
@@ -26,6 +27,7 @@ public class EntityList {
     // private members
     protected final String urlDomain;
     protected final OctaneHttpClient octaneHttpClient;
+    protected final RequestContext requestContext;
 
 
     // **** public Functions ***
@@ -37,9 +39,21 @@ public class EntityList {
      * @param entityListDomain - Domain Name
      */
     public EntityList(OctaneHttpClient octaneHttpClient, String entityListDomain) {
+        this(octaneHttpClient, RequestContext.empty(), entityListDomain);
+    }
+
+    /**
+     * Creates a new EntityList object whose requests use the caches and field types of the context
+     *
+     * @param octaneHttpClient - Http Client
+     * @param requestContext - the caches and field types of the Octane context
+     * @param entityListDomain - Domain Name
+     */
+    public EntityList(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String entityListDomain) {
 
         urlDomain = entityListDomain;
         this.octaneHttpClient = octaneHttpClient;
+        this.requestContext = requestContext;
     }
 
     /**
@@ -60,7 +74,7 @@ public class EntityList {
      * @return a new GetEntities object
      */
     public GetEntities get() {
-        return new GetEntities(octaneHttpClient, urlDomain);
+        return new GetEntities(octaneHttpClient, requestContext, urlDomain);
     }
 
     /**
@@ -70,7 +84,7 @@ public class EntityList {
      * @return a new UpdateEntities object
      */
     public UpdateEntities update() {
-        return new UpdateEntities(octaneHttpClient, urlDomain);
+        return new UpdateEntities(octaneHttpClient, requestContext, urlDomain);
     }
 
     /**
@@ -80,7 +94,7 @@ public class EntityList {
      * @return a new CreateEntities object
      */
     public CreateEntities create() {
-        return new CreateEntities(octaneHttpClient, urlDomain);
+        return new CreateEntities(octaneHttpClient, requestContext, urlDomain);
     }
 
     /**
@@ -90,7 +104,7 @@ public class EntityList {
      * @return a new DeleteEntities object
      */
     public DeleteEntities delete() {
-        return new DeleteEntities(octaneHttpClient, urlDomain);
+        return new DeleteEntities(octaneHttpClient, requestContext, urlDomain);
     }
 
 
@@ -118,7 +132,7 @@ public class EntityList {
          * @return The GetEntities object
          */
         public GetEntity get() {
-            return new GetEntity(octaneHttpClient, urlDomain, iEntityId);
+            return new GetEntity(octaneHttpClient, requestContext, urlDomain, iEntityId);
         }
 
         /**
@@ -127,7 +141,7 @@ public class EntityList {
          * @return The UpdateEntities object
          */
         public UpdateEntity update() {
-            return new UpdateEntity(octaneHttpClient, urlDomain, iEntityId);
+            return new UpdateEntity(octaneHttpClient, requestContext, urlDomain, iEntityId);
         }
 
         /**
@@ -136,7 +150,7 @@ public class EntityList {
          * @return The DeleteEntities object
          */
         public DeleteEntity delete() {
-            return new DeleteEntity(octaneHttpClient, urlDomain, iEntityId);
+            return new DeleteEntity(octaneHttpClient, requestContext, urlDomain, iEntityId);
         }
 
     }
@@ -16,21 +16,26 @@
 package com.hpe.adm.nga.sdk.entities;
 
 import com.hpe.adm.nga.sdk.query.Query;
+import com.hpe.adm.nga.sdk.model.EntityFrame;
 import com.hpe.adm.nga.sdk.model.EntityModel;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
+import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * This class hold the GetEntities objects and serve all functions concern to REST
  * GetEntities.
  */
-public class GetEntities extends OctaneRequest {
+public class GetEntities extends OctaneRequest<GetEntities> {
 
-    protected GetEntities(OctaneHttpClient octaneHttpClient, String urlDomain) {
-        super(octaneHttpClient, urlDomain);
+    protected GetEntities(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain) {
+        super(octaneHttpClient, requestContext, urlDomain);
     }
 
     /**
@@ -38,16 +43,61 @@ public class GetEntities extends OctaneRequest {
      * 2. Parse response to a new Collection object
      */
     public Collection<EntityModel> execute() throws RuntimeException {
-        Collection<EntityModel> newEntityModels = null;
+        Collection<EntityModel> newEntityModels = getCachedEntities();
+        if (newEntityModels != null) {
+            return newEntityModels;
+        }
         try {
-            OctaneHttpRequest octaneHttpRequest = new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl()).setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
-            newEntityModels = getEntitiesResponse(octaneHttpRequest);
+            OctaneHttpRequest.GetOctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
+            Function<OctaneHttpResponse, Collection<EntityModel>> responseParser = cachingEntities(conditional(octaneHttpRequest, this::parseEntitiesResponse, OctaneRequest::copyEntities));
+            newEntityModels = responseParser.apply(executeRequest(octaneHttpRequest));
         } catch (Exception e) {
             handleException(e, false);
         }
         return newEntityModels;
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<Collection<EntityModel>> executeAsync() {
+        Collection<EntityModel> cachedEntityModels = getCachedEntities();
+        if (cachedEntityModels != null) {
+            return CompletableFuture.completedFuture(cachedEntityModels);
+        }
+        OctaneHttpRequest.GetOctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
+        return executeAsync(octaneHttpRequest, cachingEntities(conditional(octaneHttpRequest, this::parseEntitiesResponse, OctaneRequest::copyEntities)), false);
+    }
+
+    /**
+     * 1. Request GetEntities Execution
+     * 2. Read the response into the columns of a frame, without building the entities.  The query and entity caches
+     * are not used.  The frames of the pages of a query, read with {@link #limit(int)} and {@link #offset(int)}, are
+     * put together with {@link EntityFrame.Builder#append(EntityFrame)}
+     *
+     * @return the frame of the entities
+     */
+    public EntityFrame executeFrame() throws RuntimeException {
+        EntityFrame entityFrame = null;
+        try {
+            entityFrame = parseEntityFrameResponse(executeRequest(createOctaneHttpRequest()));
+        } catch (Exception e) {
+            handleException(e, false);
+        }
+        return entityFrame;
+    }
+
+    /**
+     * Asynchronous version of {@link #executeFrame()}
+     */
+    public CompletableFuture<EntityFrame> executeFrameAsync() {
+        return executeAsync(createOctaneHttpRequest(), this::parseEntityFrameResponse, false);
+    }
+
+    private OctaneHttpRequest.GetOctaneHttpRequest createOctaneHttpRequest() {
+        return new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl()).setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
+    }
+
     /**
      * Add Fields parameters
      *
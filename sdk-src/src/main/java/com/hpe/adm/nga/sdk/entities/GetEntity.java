@@ -18,15 +18,20 @@ package com.hpe.adm.nga.sdk.entities;
 import com.hpe.adm.nga.sdk.model.EntityModel;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
+import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
+import com.hpe.adm.nga.sdk.network.RequestContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 /**
  * This class hold the GetEntities object of one entity
  */
-public class GetEntity extends OctaneRequest {
+public class GetEntity extends OctaneRequest<GetEntity> {
 
-    protected GetEntity(OctaneHttpClient octaneHttpClient, String urlDomain, int iEntityId) {
-        super(octaneHttpClient, urlDomain, iEntityId);
+    protected GetEntity(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain, int iEntityId) {
+        super(octaneHttpClient, requestContext, urlDomain, iEntityId);
     }
 
     /**
@@ -35,12 +40,14 @@ public class GetEntity extends OctaneRequest {
      */
     public EntityModel execute() throws RuntimeException {
 
-        EntityModel newEntityModel = null;
+        EntityModel newEntityModel = getCachedEntity();
+        if (newEntityModel != null) {
+            return newEntityModel;
+        }
         try {
-            OctaneHttpRequest octaneHttpRequest =
-                    new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl())
-                            .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
-            newEntityModel = getEntityResponse(octaneHttpRequest);
+            OctaneHttpRequest.GetOctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
+            Function<OctaneHttpResponse, EntityModel> responseParser = cachingEntity(conditional(octaneHttpRequest, this::parseEntityResponse, OctaneRequest::copyEntity));
+            newEntityModel = responseParser.apply(executeRequest(octaneHttpRequest));
         } catch (Exception e) {
 
             handleException(e, false);
@@ -50,6 +57,23 @@ public class GetEntity extends OctaneRequest {
 
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<EntityModel> executeAsync() {
+        EntityModel cachedEntityModel = getCachedEntity();
+        if (cachedEntityModel != null) {
+            return CompletableFuture.completedFuture(cachedEntityModel);
+        }
+        OctaneHttpRequest.GetOctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
+        return executeAsync(octaneHttpRequest, cachingEntity(conditional(octaneHttpRequest, this::parseEntityResponse, OctaneRequest::copyEntity)), false);
+    }
+
+    private OctaneHttpRequest.GetOctaneHttpRequest createOctaneHttpRequest() {
+        return new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl())
+                .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
+    }
+
     /**
      * Set Fields Parameters
      *
@@ -21,20 +21,21 @@ import com.hpe.adm.nga.sdk.model.EntityModel;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
-import org.json.JSONObject;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class hold the UpdateEntities objects and serve all functions concern to
  * REST put.
  */
-public class UpdateEntities extends OctaneRequest {
+public class UpdateEntities extends OctaneRequest<UpdateEntities> {
 
     private Collection<EntityModel> entityModels = null;
 
-    protected UpdateEntities(OctaneHttpClient octaneHttpClient, String urlDomain) {
-        super (octaneHttpClient, urlDomain);
+    protected UpdateEntities(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain) {
+        super(octaneHttpClient, requestContext, urlDomain);
     }
 
     /**
@@ -44,24 +45,40 @@ public class UpdateEntities extends OctaneRequest {
     public Collection<EntityModel> execute() throws RuntimeException {
 
         Collection<EntityModel> newEntityModels = null;
-        JSONObject objBase = ModelParser.getInstance().getEntitiesJSONObject(entityModels);
-        String jsonEntityModel = objBase.toString();
+        OctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
         try {
-            OctaneHttpRequest octaneHttpRequest = new OctaneHttpRequest.PutOctaneHttpRequest(
-                    getFinalRequestUrl(),
-                    OctaneHttpRequest.JSON_CONTENT_TYPE, jsonEntityModel)
-                    .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
             newEntityModels = getEntitiesResponse(octaneHttpRequest);
 
         } catch (Exception e) {
 
             handleException(e, true);
+        } finally {
+            invalidateCachedEntities(entityModels);
         }
 
         return newEntityModels;
 
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<Collection<EntityModel>> executeAsync() {
+        final Collection<EntityModel> entities = entityModels;
+        CompletableFuture<Collection<EntityModel>> future = executeAsync(createOctaneHttpRequest(), this::parseEntitiesResponse, true);
+        future.whenComplete((updatedEntityModels, throwable) -> invalidateCachedEntities(entities));
+        return future;
+    }
+
+    private OctaneHttpRequest createOctaneHttpRequest() {
+        final Collection<EntityModel> entities = entityModels;
+        return new OctaneHttpRequest.PutOctaneHttpRequest(
+                getFinalRequestUrl(),
+                OctaneHttpRequest.JSON_CONTENT_TYPE,
+                outputStream -> ModelParser.getInstance().writeEntities(entities, outputStream))
+                .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
+    }
+
     /**
      * UpdateEntities query parameters
      *
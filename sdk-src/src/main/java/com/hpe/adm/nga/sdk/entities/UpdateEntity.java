@@ -20,17 +20,20 @@ import com.hpe.adm.nga.sdk.model.ModelParser;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 import org.json.JSONObject;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * This class hold the UpdateEntities object of one entity
  */
-public class UpdateEntity extends OctaneRequest {
+public class UpdateEntity extends OctaneRequest<UpdateEntity> {
 
     private EntityModel entityModel;
 
-    protected UpdateEntity(OctaneHttpClient octaneHttpClient, String urlDomain, int iEntityId) {
-        super(octaneHttpClient, urlDomain, iEntityId);
+    protected UpdateEntity(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain, int iEntityId) {
+        super(octaneHttpClient, requestContext, urlDomain, iEntityId);
     }
 
     /**
@@ -40,24 +43,37 @@ public class UpdateEntity extends OctaneRequest {
     public EntityModel execute() {
 
         EntityModel newEntityModel = null;
-        JSONObject objBase = ModelParser.getInstance().getEntityJSONObject(entityModel);
-        String jsonEntityModel = objBase.toString();
+        OctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
 
         try {
-            OctaneHttpRequest octaneHttpRequest =
-                    new OctaneHttpRequest.PutOctaneHttpRequest(getFinalRequestUrl(),
-                            OctaneHttpRequest.JSON_CONTENT_TYPE,
-                            jsonEntityModel)
-                            .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
-
             newEntityModel = getEntityResponse(octaneHttpRequest);
         } catch (Exception e) {
             handleException(e, false);
+        } finally {
+            invalidateCachedEntity(entityModel);
         }
 
         return newEntityModel;
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<EntityModel> executeAsync() {
+        CompletableFuture<EntityModel> future = executeAsync(createOctaneHttpRequest(), this::parseEntityResponse, false);
+        future.whenComplete((updatedEntityModel, throwable) -> invalidateCachedEntity(entityModel));
+        return future;
+    }
+
+    private OctaneHttpRequest createOctaneHttpRequest() {
+        JSONObject objBase = ModelParser.getInstance().getEntityJSONObject(entityModel);
+        String jsonEntityModel = objBase.toString();
+        return new OctaneHttpRequest.PutOctaneHttpRequest(getFinalRequestUrl(),
+                OctaneHttpRequest.JSON_CONTENT_TYPE,
+                jsonEntityModel)
+                .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
+    }
+
     /**
      * set a new entity for updating
      *
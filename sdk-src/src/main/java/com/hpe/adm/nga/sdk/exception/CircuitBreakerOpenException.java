@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.exception;
+
+import com.hpe.adm.nga.sdk.model.ErrorModel;
+
+/**
+ *
+ * Thrown when a request is not sent because the circuit breaker of the server or of the entity collection is open.
+ * The request never reached the server and can be tried again once the breaker lets requests through.
+ *
+ */
+public class CircuitBreakerOpenException extends OctaneException {
+
+	private final String circuitBreakerName;
+
+	/**
+	 * Creates a new CircuitBreakerOpenException object
+	 *
+	 * @param circuitBreakerName - name of the open circuit breaker
+	 * @param message            - description of the open circuit breaker
+	 */
+	public CircuitBreakerOpenException(String circuitBreakerName, String message) {
+		super(new ErrorModel(message));
+		this.circuitBreakerName = circuitBreakerName;
+	}
+
+	/**
+	 * @return the name of the open circuit breaker, the server or the entity collection it protects
+	 */
+	public String getCircuitBreakerName() {
+		return circuitBreakerName;
+	}
+}
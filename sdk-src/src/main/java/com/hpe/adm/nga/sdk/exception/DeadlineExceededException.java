@@ -0,0 +1,35 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.exception;
+
+import com.hpe.adm.nga.sdk.model.ErrorModel;
+
+/**
+ *
+ * Thrown when a request does not complete before its deadline, set by the total timeout of the context or the
+ * timeout of the request.  The request may or may not have been processed by the server.
+ *
+ */
+public class DeadlineExceededException extends OctaneException {
+
+	/**
+	 * Creates a new DeadlineExceededException object
+	 *
+	 * @param message - description of the exceeded deadline
+	 */
+	public DeadlineExceededException(String message) {
+		super(new ErrorModel(message));
+	}
+}
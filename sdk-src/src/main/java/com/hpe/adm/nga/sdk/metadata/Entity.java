@@ -18,6 +18,7 @@ package com.hpe.adm.nga.sdk.metadata;
 import com.google.gson.Gson;
 import com.hpe.adm.nga.sdk.metadata.features.*;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
 import org.apache.logging.log4j.LogManager;
@@ -30,14 +31,17 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.IntStream;
 
 /**
  * This class hold the entity metadata object
  */
-public final class Entity extends MetadataOctaneRequest {
+public final class Entity extends MetadataOctaneRequest<Entity> {
 
     private static final String TYPE_NAME_ENTITIES_NAME = "entities";
+    private static final String ENTITIES_METADATA_RESULT_NAME = "entities_metadata";
     private static final String QUERY_NAME_FIELD_NAME = "name";
     private final Logger logger = LogManager.getLogger(Entity.class.getName());
 
@@ -62,8 +66,8 @@ public final class Entity extends MetadataOctaneRequest {
     /**
      * Creates a new entity object
      */
-    protected Entity(OctaneHttpClient octaneHttpClient, String urlDomain) {
-        super(octaneHttpClient, urlDomain + "/" + TYPE_NAME_ENTITIES_NAME);
+    protected Entity(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain) {
+        super(octaneHttpClient, requestContext, urlDomain + "/" + TYPE_NAME_ENTITIES_NAME);
     }
 
     public Entity addEntities(String...entities) {
@@ -77,18 +81,11 @@ public final class Entity extends MetadataOctaneRequest {
     public Collection<EntityMetadata> execute() throws RuntimeException {
 
         Collection<EntityMetadata> entitiesMetadata = null;
-        String json = "";
         try {
-            OctaneHttpRequest octaneHttpRequest = new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl());
-            OctaneHttpResponse response = octaneHttpClient.execute(octaneHttpRequest);
-
-            if (response.isSuccessStatusCode()) {
-
-                json = response.getContent();
-                entitiesMetadata = getEntitiesMetadata(json);
-            }
-
-            logger.debug(String.format(LOGGER_RESPONSE_JSON_FORMAT, json));
+            OctaneHttpRequest.GetOctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
+            Function<OctaneHttpResponse, Collection<EntityMetadata>> responseParser = conditional(octaneHttpRequest, this::parseEntitiesMetadataResponse, ArrayList::new);
+            OctaneHttpResponse response = executeRequest(octaneHttpRequest);
+            entitiesMetadata = responseParser.apply(response);
         } catch (Exception e) {
             logger.debug("Fail to execute GET request.", e);
             handleException(e, false);
@@ -98,6 +95,31 @@ public final class Entity extends MetadataOctaneRequest {
 
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<Collection<EntityMetadata>> executeAsync() {
+        OctaneHttpRequest.GetOctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
+        return executeAsync(octaneHttpRequest, conditional(octaneHttpRequest, this::parseEntitiesMetadataResponse, ArrayList::new), false);
+    }
+
+    private OctaneHttpRequest.GetOctaneHttpRequest createOctaneHttpRequest() {
+        return new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl());
+    }
+
+    private Collection<EntityMetadata> parseEntitiesMetadataResponse(OctaneHttpResponse response) {
+        Collection<EntityMetadata> entitiesMetadata = null;
+        String json = "";
+        if (response.isSuccessStatusCode()) {
+
+            json = response.getContent();
+            entitiesMetadata = response.parseContent(ENTITIES_METADATA_RESULT_NAME, this::getEntitiesMetadata, ArrayList::new);
+        }
+
+        logger.debug(String.format(LOGGER_RESPONSE_JSON_FORMAT, json));
+        return entitiesMetadata;
+    }
+
     /**
      * get a entities metadata collection based on a given json string
      *
@@ -19,6 +19,7 @@ import com.google.gson.Gson;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONArray;
@@ -27,15 +28,18 @@ import org.json.JSONTokener;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.IntStream;
 
 /**
  * This class hold the field metadata object
  */
-public final class Field extends MetadataOctaneRequest {
+public final class Field extends MetadataOctaneRequest<Field> {
 
     private final Logger logger = LogManager.getLogger(Field.class.getName());
     private static final String TYPE_NAME_FIELDS_NAME = "fields";
+    private static final String FIELDS_METADATA_RESULT_NAME = "fields_metadata";
     private static final String QUERY_NAME_FIELD_NAME = "entity_name";
 
     /**
@@ -44,8 +48,18 @@ public final class Field extends MetadataOctaneRequest {
      * @param urlDomain base url to use with the http client
      */
     public Field(OctaneHttpClient octaneHttpClient, String urlDomain) {
+        this(octaneHttpClient, RequestContext.empty(), urlDomain);
+    }
+
+    /**
+     * Creates a new Field object whose requests use the caches of the context
+     * @param octaneHttpClient implementation of the {@link OctaneHttpClient}
+     * @param requestContext the caches of the Octane context
+     * @param urlDomain base url to use with the http client
+     */
+    public Field(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain) {
 
-        super(octaneHttpClient, urlDomain + "/" + TYPE_NAME_FIELDS_NAME);
+        super(octaneHttpClient, requestContext, urlDomain + "/" + TYPE_NAME_FIELDS_NAME);
     }
 
     Field addEntities(String...entities) {
@@ -59,20 +73,12 @@ public final class Field extends MetadataOctaneRequest {
     public Collection<FieldMetadata> execute() throws RuntimeException {
 
         Collection<FieldMetadata> colEntitiesMetadata = null;
-        String json = "";
         try {
 
-            OctaneHttpRequest octaneHttpRequest =
-                    new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl()).setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
-            OctaneHttpResponse response = octaneHttpClient.execute(octaneHttpRequest);
-
-            if (response.isSuccessStatusCode()) {
-
-                json = response.getContent();
-                colEntitiesMetadata = getFieldMetadata(json);
-            }
-
-            logger.debug(String.format(LOGGER_RESPONSE_JSON_FORMAT, json));
+            OctaneHttpRequest.GetOctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
+            Function<OctaneHttpResponse, Collection<FieldMetadata>> responseParser = conditional(octaneHttpRequest, this::parseFieldMetadataResponse, ArrayList::new);
+            OctaneHttpResponse response = executeRequest(octaneHttpRequest);
+            colEntitiesMetadata = responseParser.apply(response);
         } catch (Exception e) {
 
             handleException(e, false);
@@ -82,6 +88,31 @@ public final class Field extends MetadataOctaneRequest {
 
     }
 
+    /**
+     * Asynchronous version of {@link #execute()}
+     */
+    public CompletableFuture<Collection<FieldMetadata>> executeAsync() {
+        OctaneHttpRequest.GetOctaneHttpRequest octaneHttpRequest = createOctaneHttpRequest();
+        return executeAsync(octaneHttpRequest, conditional(octaneHttpRequest, this::parseFieldMetadataResponse, ArrayList::new), false);
+    }
+
+    private OctaneHttpRequest.GetOctaneHttpRequest createOctaneHttpRequest() {
+        return new OctaneHttpRequest.GetOctaneHttpRequest(getFinalRequestUrl()).setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE);
+    }
+
+    private Collection<FieldMetadata> parseFieldMetadataResponse(OctaneHttpResponse response) {
+        Collection<FieldMetadata> colEntitiesMetadata = null;
+        String json = "";
+        if (response.isSuccessStatusCode()) {
+
+            json = response.getContent();
+            colEntitiesMetadata = response.parseContent(FIELDS_METADATA_RESULT_NAME, this::getFieldMetadata, ArrayList::new);
+        }
+
+        logger.debug(String.format(LOGGER_RESPONSE_JSON_FORMAT, json));
+        return colEntitiesMetadata;
+    }
+
     /**
      * get a fields metadata collection based on a given json string
      *
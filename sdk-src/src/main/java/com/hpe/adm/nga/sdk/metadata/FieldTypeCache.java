@@ -0,0 +1,202 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.metadata;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The {@link FieldMetadata.FieldType} of the fields of each entity type, used by
+ * {@link com.hpe.adm.nga.sdk.model.ModelParser} to decode the fields of the entities straight to the right
+ * {@link com.hpe.adm.nga.sdk.model.FieldModel} instead of guessing the type from each value.  Set up by
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder#typedDecoding(boolean)}.
+ * <p>
+ * The field metadata of an entity type is never fetched while a response is parsed: the types met without metadata are
+ * recorded by {@link #getFieldTypes(String)} and fetched together, asynchronously, by {@link #loadPending()} once the
+ * response is parsed, so the entities of the responses read until the metadata arrives are decoded from their values.
+ * The metadata of each type is fetched once; a type whose metadata cannot be fetched is decoded from its values and
+ * fetched again after a delay that doubles with each failure
+ * </p>
+ * <p>
+ * The cache is thread safe.  It should only be shared by contexts of the same workspace
+ * </p>
+ */
+public final class FieldTypeCache {
+
+    private static final Logger logger = LogManager.getLogger(FieldTypeCache.class.getName());
+    private static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final long MAXIMUM_RETRY_DELAY_NANOS = TimeUnit.MINUTES.toNanos(30);
+
+    private final Function<String[], CompletableFuture<Collection<FieldMetadata>>> loader;
+    private final long retryDelayNanos;
+    private final Map<String, Map<String, FieldMetadata.FieldType>> fieldTypes = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Set<String> loading = ConcurrentHashMap.newKeySet();
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private final LongAdder loadCount = new LongAdder();
+
+    /**
+     * @param loader fetches the field metadata of the given entity types without blocking, for instance
+     *               {@code entityNames -> octane.metadata().fields(entityNames).executeAsync()}
+     */
+    public FieldTypeCache(Function<String[], CompletableFuture<Collection<FieldMetadata>>> loader) {
+        this(loader, DEFAULT_RETRY_DELAY);
+    }
+
+    /**
+     * @param loader     fetches the field metadata of the given entity types without blocking
+     * @param retryDelay the time after which the metadata of a type that could not be fetched is fetched again,
+     *                   doubled with each failure of the type
+     */
+    public FieldTypeCache(Function<String[], CompletableFuture<Collection<FieldMetadata>>> loader, Duration retryDelay) {
+        if (retryDelay.isNegative()) {
+            throw new IllegalArgumentException("retryDelay must not be negative: " + retryDelay);
+        }
+        this.loader = loader;
+        retryDelayNanos = retryDelay.toNanos();
+    }
+
+    /**
+     * Returns the types of the fields of the entity type.  When its metadata was not fetched yet the entity type is
+     * recorded for the next {@link #loadPending()}, unless it is being fetched or waits to be fetched again
+     *
+     * @param entityName name of the entity type, for instance {@code defect}
+     * @return the types by field name, null if the metadata of the entity type is not known
+     */
+    public Map<String, FieldMetadata.FieldType> getFieldTypes(String entityName) {
+        final Map<String, FieldMetadata.FieldType> types = fieldTypes.get(entityName);
+        if (types == null && !loading.contains(entityName) && isRetryDue(entityName)) {
+            pending.add(entityName);
+        }
+        return types;
+    }
+
+    /**
+     * Starts fetching in one request the field metadata of the entity types met since the last call, without waiting
+     * for it
+     *
+     * @return a future completed once the metadata is fetched or failed to be fetched, never completed exceptionally
+     */
+    public CompletableFuture<Void> loadPending() {
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final Set<String> entityNames = new HashSet<>(pending);
+        pending.removeAll(entityNames);
+        entityNames.removeIf(entityName -> fieldTypes.containsKey(entityName) || !loading.add(entityName));
+        if (entityNames.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        loadCount.increment();
+        CompletableFuture<Collection<FieldMetadata>> fieldsMetadata;
+        try {
+            fieldsMetadata = loader.apply(entityNames.toArray(new String[entityNames.size()]));
+        } catch (RuntimeException e) {
+            fieldsMetadata = new CompletableFuture<>();
+            fieldsMetadata.completeExceptionally(e);
+        }
+        return fieldsMetadata.handle((result, throwable) -> {
+            try {
+                if (throwable != null) {
+                    failed(entityNames, throwable);
+                } else {
+                    entityNames.forEach(failures::remove);
+                    put(entityNames, result == null ? Collections.emptyList() : result);
+                }
+            } finally {
+                loading.removeAll(entityNames);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Sets the field metadata of the given entity types, those without any field in the metadata are decoded from
+     * their values
+     *
+     * @param entityNames    the entity types
+     * @param fieldsMetadata the metadata of their fields
+     */
+    public void put(Collection<String> entityNames, Collection<FieldMetadata> fieldsMetadata) {
+        final Map<String, Map<String, FieldMetadata.FieldType>> newFieldTypes = new HashMap<>();
+        entityNames.forEach(entityName -> newFieldTypes.put(entityName, new HashMap<>()));
+        fieldsMetadata.stream()
+                .filter(fieldMetadata -> fieldMetadata.getFieldType() != null && newFieldTypes.containsKey(fieldMetadata.getEntityName()))
+                .forEach(fieldMetadata -> newFieldTypes.get(fieldMetadata.getEntityName()).put(fieldMetadata.getName(), fieldMetadata.getFieldType()));
+        // an empty map marks an entity type that was looked up, it is decoded like an unknown type
+        newFieldTypes.forEach((entityName, types) -> fieldTypes.put(entityName, Collections.unmodifiableMap(types)));
+    }
+
+    /**
+     * @return the number of requests sent to fetch field metadata
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    /**
+     * @return the number of entity types whose metadata was looked up
+     */
+    public int size() {
+        return fieldTypes.size();
+    }
+
+    private boolean isRetryDue(String entityName) {
+        final Failure failure = failures.get(entityName);
+        return failure == null || failure.retryAt - System.nanoTime() <= 0;
+    }
+
+    private void failed(Set<String> entityNames, Throwable throwable) {
+        logger.warn("Failed to fetch the field metadata of {}, their fields are decoded from the values", entityNames, throwable);
+        final long now = System.nanoTime();
+        entityNames.forEach(entityName -> failures.compute(entityName, (name, failure) -> {
+            final int attempts = failure == null ? 1 : failure.attempts + 1;
+            final long delay = retryDelayNanos << Math.min(attempts - 1, 20);
+            return new Failure(attempts, now + Math.min(delay < 0 ? MAXIMUM_RETRY_DELAY_NANOS : delay, MAXIMUM_RETRY_DELAY_NANOS));
+        }));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FieldTypeCache entity types: %d loads: %d", size(), getLoadCount());
+    }
+
+    /**
+     * The failures to fetch the metadata of an entity type and when to fetch it again
+     */
+    private static final class Failure {
+        private final int attempts;
+        private final long retryAt;
+
+        private Failure(int attempts, long retryAt) {
+            this.attempts = attempts;
+            this.retryAt = retryAt;
+        }
+    }
+}
@@ -15,6 +15,7 @@
 package com.hpe.adm.nga.sdk.metadata;
 
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 
 /**
  *<p>
@@ -36,6 +37,7 @@ public class Metadata {
 
 	// private members
 	private final OctaneHttpClient octaneHttpClient;
+	private final RequestContext requestContext;
 	private final String urlDomain;
 	
 	/**
@@ -47,8 +49,23 @@ public class Metadata {
 	 *            - metadata Domain Name
 	 */
 	public Metadata(OctaneHttpClient octaneHttpClient, String strMetadataDomain){
+		this(octaneHttpClient, RequestContext.empty(), strMetadataDomain);
+	}
+
+	/**
+	 * Creates a new Metadata object whose requests use the caches of the context
+	 *
+	 * @param octaneHttpClient
+	 *            - Http Request Factory
+	 * @param requestContext
+	 *            - the caches of the Octane context
+	 * @param strMetadataDomain
+	 *            - metadata Domain Name
+	 */
+	public Metadata(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String strMetadataDomain){
 		urlDomain = strMetadataDomain + "metadata";
 		this.octaneHttpClient = octaneHttpClient;
+		this.requestContext = requestContext;
 	}
 	
 	/**
@@ -57,7 +74,7 @@ public class Metadata {
 	 */
 	public Entity entities(){
 		
-		return new Entity(octaneHttpClient, urlDomain);
+		return new Entity(octaneHttpClient, requestContext, urlDomain);
 	}
 	
 	/**
@@ -66,7 +83,7 @@ public class Metadata {
 	 * @return new metadata entity object
 	 */
 	public Entity entities(String...entities){
-		final Entity entity = new Entity(octaneHttpClient, urlDomain);
+		final Entity entity = new Entity(octaneHttpClient, requestContext, urlDomain);
 		entity.addEntities(entities);
 		return entity;
 	}
@@ -77,7 +94,7 @@ public class Metadata {
 	 */
 	public Field fields(){
 		
-		return new Field(octaneHttpClient, urlDomain);
+		return new Field(octaneHttpClient, requestContext, urlDomain);
 	}
 	
 	/**
@@ -86,7 +103,7 @@ public class Metadata {
 	 * @return an object containing field metadata
 	 */
 	public Field fields(String...entities){
-		final Field field = new Field(octaneHttpClient, urlDomain);
+		final Field field = new Field(octaneHttpClient, requestContext, urlDomain);
 		field.addEntities(entities);
 		return field;
 	}
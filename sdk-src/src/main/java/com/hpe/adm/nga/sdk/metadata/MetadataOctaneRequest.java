@@ -17,19 +17,22 @@ package com.hpe.adm.nga.sdk.metadata;
 
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneRequest;
+import com.hpe.adm.nga.sdk.network.RequestContext;
 import com.hpe.adm.nga.sdk.query.Query;
 import com.hpe.adm.nga.sdk.query.QueryMethod;
 
 /**
  * Abstract request used for fetching metadata
+ *
+ * @param <R> the type of the request
  */
-abstract class MetadataOctaneRequest extends OctaneRequest {
+abstract class MetadataOctaneRequest<R extends MetadataOctaneRequest> extends OctaneRequest<R> {
 
     protected static final String JSON_DATA_FIELD_NAME = "data";
     protected static final String LOGGER_RESPONSE_JSON_FORMAT = "Response_Json: %s";
 
-    protected MetadataOctaneRequest(OctaneHttpClient octaneHttpClient, String urlDomain){
-        super(octaneHttpClient, urlDomain);
+    protected MetadataOctaneRequest(OctaneHttpClient octaneHttpClient, RequestContext requestContext, String urlDomain){
+        super(octaneHttpClient, requestContext, urlDomain);
     }
 
     final <T extends MetadataOctaneRequest> T addEntities(String queryFieldName, String... entities) {
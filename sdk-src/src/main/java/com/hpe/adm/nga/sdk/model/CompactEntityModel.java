@@ -0,0 +1,241 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.model;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An entity read with {@link com.hpe.adm.nga.sdk.network.OctaneRequest#compact(boolean)}: instead of a map of
+ * {@link FieldModel} objects, it holds the values of its fields in an array laid out by a schema shared by all the
+ * entities of the response, so that an entity costs one array and the values themselves.  Strings, numbers, booleans,
+ * dates and referenced entities are held without their field model.
+ * <p>
+ * The field model of a field is created the first time it is read with {@link #getValue(String)} or
+ * {@link #getValues()}, and kept in place of the value, so that reading the field again returns the same field model
+ * and changing it changes the entity, as with a plain entity.  The fields that are never read cost no field model.
+ * A field the response did not have, set with {@link #setValue(FieldModel)}, is kept by the entity alone and leaves
+ * the shared schema as it is.  The copies made by {@link EntityModel#EntityModel(EntityModel)} are plain entities,
+ * the copies made by {@link #CompactEntityModel(CompactEntityModel)} are compact entities
+ * </p>
+ */
+public final class CompactEntityModel extends EntityModel {
+
+    // the value of a reference field set to null, to tell it from a field the entity does not have
+    private static final Object NULL_REFERENCE = new Object();
+
+    private final EntitySchema schema;
+    private Object[] values;
+    // the fields set by the caller that have no slot in the schema, null when there are none
+    private Map<String, FieldModel> extraFields;
+
+    CompactEntityModel(EntitySchema schema) {
+        super((Map<String, FieldModel>) null);
+        this.schema = schema;
+        values = new Object[schema.size()];
+    }
+
+    /**
+     * Creates a deep copy of a compact entity that shares its schema: the fields, and the entities they reference, are
+     * copied so that changing the copy does not change the original.  The fields of the copy are held without their
+     * field model
+     *
+     * @param compactEntityModel - the entity to copy
+     */
+    public CompactEntityModel(CompactEntityModel compactEntityModel) {
+        super((Map<String, FieldModel>) null);
+        schema = compactEntityModel.schema;
+        values = new Object[compactEntityModel.values.length];
+        for (int slot = 0; slot < values.length; slot++) {
+            final Object value = compactEntityModel.values[slot];
+            if (value instanceof FieldModel) {
+                final Object fieldValue = toValue((FieldModel) value);
+                values[slot] = fieldValue instanceof FieldModel ? copyField((FieldModel) value) : copyValue(fieldValue);
+            } else {
+                values[slot] = copyValue(value);
+            }
+        }
+        if (compactEntityModel.extraFields != null) {
+            extraFields = new LinkedHashMap<>();
+            compactEntityModel.extraFields.forEach((name, field) -> extraFields.put(name, copyField(field)));
+        }
+    }
+
+    @Override
+    public Set<FieldModel> getValues() {
+        final Set<FieldModel> fields = new HashSet<>();
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                fields.add(fieldModelOf(slot));
+            }
+        }
+        if (extraFields != null) {
+            fields.addAll(extraFields.values());
+        }
+        return fields;
+    }
+
+    @Override
+    public FieldModel getValue(String key) {
+        final int slot = schema.slotOf(key);
+        if (slot < 0) {
+            return extraFields == null ? null : extraFields.get(key);
+        }
+        return slot >= values.length || values[slot] == null ? null : fieldModelOf(slot);
+    }
+
+    @Override
+    public void setValues(Set<FieldModel> values) {
+        if (values != null) {
+            Arrays.fill(this.values, null);
+            extraFields = null;
+            values.forEach(this::setValue);
+        }
+    }
+
+    @Override
+    public void setValue(FieldModel fieldModel) {
+        // kept as it is, so that the field model set is the one read
+        final int slot = schema.slotOf(fieldModel.getName());
+        if (slot < 0) {
+            // the schema is shared with the other entities of the response and their copies, it is not grown here
+            if (extraFields == null) {
+                extraFields = new LinkedHashMap<>();
+            }
+            extraFields.put(fieldModel.getName(), fieldModel);
+            return;
+        }
+        ensureSlot(slot);
+        values[slot] = fieldModel;
+    }
+
+    // called by the parser, holds the value without its field model
+    @Override
+    void addField(FieldModel fieldModel) {
+        final int slot = schema.addSlot(fieldModel.getName());
+        ensureSlot(slot);
+        values[slot] = toValue(fieldModel);
+    }
+
+    /**
+     * @return the fields of the entity, without keeping the field models created for the fields never read
+     */
+    @Override
+    Collection<FieldModel> fields() {
+        final List<FieldModel> fields = new ArrayList<>(values.length);
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                fields.add(toFieldModel(schema.getName(slot), values[slot]));
+            }
+        }
+        if (extraFields != null) {
+            fields.addAll(extraFields.values());
+        }
+        return fields;
+    }
+
+    // the schema grows while the response is parsed, the entities parsed before have shorter arrays
+    private void ensureSlot(int slot) {
+        if (slot >= values.length) {
+            values = Arrays.copyOf(values, schema.size());
+        }
+    }
+
+    private FieldModel fieldModelOf(int slot) {
+        final Object value = values[slot];
+        if (value instanceof FieldModel) {
+            return (FieldModel) value;
+        }
+        final FieldModel fieldModel = toFieldModel(schema.getName(slot), value);
+        values[slot] = fieldModel;
+        return fieldModel;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object copyValue(Object value) {
+        if (value instanceof EntityModel) {
+            return copyReference((EntityModel) value);
+        }
+        if (value instanceof Collection) {
+            final Collection<EntityModel> references = (Collection<EntityModel>) value;
+            final List<EntityModel> copies = new ArrayList<>(references.size());
+            references.forEach(reference -> copies.add(reference == null ? null : copyReference(reference)));
+            return copies;
+        }
+        // the other values are immutable
+        return value;
+    }
+
+    private static EntityModel copyReference(EntityModel reference) {
+        return reference instanceof CompactEntityModel ? new CompactEntityModel((CompactEntityModel) reference) : new EntityModel(reference);
+    }
+
+    private static Object toValue(FieldModel fieldModel) {
+        final Object value = fieldModel.getValue();
+        final Class<?> fieldClass = fieldModel.getClass();
+        if (fieldClass == ReferenceFieldModel.class) {
+            return value == null ? NULL_REFERENCE : value;
+        }
+        if (value == null) {
+            return fieldModel;
+        }
+        if (fieldClass == StringFieldModel.class || fieldClass == LongFieldModel.class || fieldClass == FloatFieldModel.class
+                || fieldClass == BooleanFieldModel.class || fieldClass == DateFieldModel.class
+                || fieldClass == MultiReferenceFieldModel.class) {
+            return value;
+        }
+        // other field models are kept as they are
+        return fieldModel;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FieldModel toFieldModel(String name, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String) {
+            return new StringFieldModel(name, (String) value);
+        }
+        if (value instanceof Long) {
+            return new LongFieldModel(name, (Long) value);
+        }
+        if (value instanceof Float) {
+            return new FloatFieldModel(name, (Float) value);
+        }
+        if (value instanceof Boolean) {
+            return new BooleanFieldModel(name, (Boolean) value);
+        }
+        if (value instanceof ZonedDateTime) {
+            return new DateFieldModel(name, (ZonedDateTime) value);
+        }
+        if (value instanceof EntityModel) {
+            return new ReferenceFieldModel(name, (EntityModel) value);
+        }
+        if (value == NULL_REFERENCE) {
+            return new ReferenceFieldModel(name, null);
+        }
+        if (value instanceof Collection) {
+            return new MultiReferenceFieldModel(name, (Collection<EntityModel>) value);
+        }
+        return (FieldModel) value;
+    }
+}
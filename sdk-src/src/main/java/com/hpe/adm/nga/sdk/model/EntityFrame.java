@@ -0,0 +1,676 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * A columnar result of {@link com.hpe.adm.nga.sdk.entities.GetEntities#executeFrame()}: each field of the entities is a
+ * {@link Column} holding the values of all the entities in one array, so that counting, grouping and summing fields of
+ * many entities does not build an object per entity.  The columns are
+ * <ul>
+ * <li>{@code long[]} for integer fields, and for dates as milliseconds since the epoch</li>
+ * <li>{@code double[]} for float fields</li>
+ * <li>{@code boolean[]} for boolean fields</li>
+ * <li>codes into a dictionary of the distinct values for string fields, and for the ids of the entities referenced
+ * by reference fields</li>
+ * </ul>
+ * The row of an entity is its position in the response.  A field an entity does not have, or that is null, is a null
+ * row of the column.  Multi reference fields are not part of a frame.  A column whose values do not share a type
+ * holds them as strings, except integers mixed with floats which are held as floats.
+ * <p>
+ * A frame is immutable, its operators return new frames.  The frames of the pages of a query are put together with
+ * {@link Builder#append(EntityFrame)}
+ * </p>
+ */
+public final class EntityFrame {
+
+    /**
+     * The type of the values of a column
+     */
+    public enum ColumnType {
+        LONG, DOUBLE, BOOLEAN, DATE, STRING, REFERENCE
+    }
+
+    private final int size;
+    private final Map<String, Column> columns;
+
+    private EntityFrame(int size, Map<String, Column> columns) {
+        this.size = size;
+        this.columns = columns;
+    }
+
+    /**
+     * @return a builder of a frame, empty
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the names of the columns, in the order the fields were first seen
+     */
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(new ArrayList<>(columns.keySet()));
+    }
+
+    /**
+     * @param name the field name
+     * @return the column of the field, null when no entity has the field
+     */
+    public Column getColumn(String name) {
+        return columns.get(name);
+    }
+
+    /**
+     * @param column    the name of a {@link ColumnType#LONG} or {@link ColumnType#DATE} column
+     * @param predicate the condition on the values
+     * @return a frame of the rows whose value matches the condition
+     */
+    public EntityFrame filterLong(String column, LongPredicate predicate) {
+        final Column values = getColumn(column, ColumnType.LONG, ColumnType.DATE);
+        final BitSet rows = new BitSet(size);
+        if (values != null) {
+            final long[] longs = values.longs;
+            for (int row = values.present.nextSetBit(0); row >= 0; row = values.present.nextSetBit(row + 1)) {
+                if (predicate.test(longs[row])) {
+                    rows.set(row);
+                }
+            }
+        }
+        return select(rows);
+    }
+
+    /**
+     * @param column    the name of a {@link ColumnType#DOUBLE} or {@link ColumnType#LONG} column
+     * @param predicate the condition on the values
+     * @return a frame of the rows whose value matches the condition
+     */
+    public EntityFrame filterDouble(String column, DoublePredicate predicate) {
+        final Column values = getColumn(column, ColumnType.DOUBLE, ColumnType.LONG);
+        final BitSet rows = new BitSet(size);
+        if (values != null) {
+            for (int row = values.present.nextSetBit(0); row >= 0; row = values.present.nextSetBit(row + 1)) {
+                if (predicate.test(values.getDouble(row))) {
+                    rows.set(row);
+                }
+            }
+        }
+        return select(rows);
+    }
+
+    /**
+     * @param column the name of a {@link ColumnType#BOOLEAN} column
+     * @param value  the value of the rows to keep
+     * @return a frame of the rows whose value is the given value
+     */
+    public EntityFrame filterBoolean(String column, boolean value) {
+        final Column values = getColumn(column, ColumnType.BOOLEAN);
+        final BitSet rows = new BitSet(size);
+        if (values != null) {
+            final boolean[] booleans = values.booleans;
+            for (int row = values.present.nextSetBit(0); row >= 0; row = values.present.nextSetBit(row + 1)) {
+                if (booleans[row] == value) {
+                    rows.set(row);
+                }
+            }
+        }
+        return select(rows);
+    }
+
+    /**
+     * @param column the name of a {@link ColumnType#STRING} or {@link ColumnType#REFERENCE} column
+     * @param value  the string, or the id of the referenced entity, of the rows to keep
+     * @return a frame of the rows whose value is the given value
+     */
+    public EntityFrame filterEquals(String column, String value) {
+        final Column values = getColumn(column, ColumnType.STRING, ColumnType.REFERENCE);
+        final BitSet rows = new BitSet(size);
+        final int code = values == null ? -1 : Arrays.asList(values.dictionary).indexOf(value);
+        if (code >= 0) {
+            final int[] codes = values.codes;
+            for (int row = values.present.nextSetBit(0); row >= 0; row = values.present.nextSetBit(row + 1)) {
+                if (codes[row] == code) {
+                    rows.set(row);
+                }
+            }
+        }
+        return select(rows);
+    }
+
+    /**
+     * @param column the name of a column of any type
+     * @return the number of rows of each value of the column, as returned by {@link Column#getString(int)}, in the order
+     * the values were first seen; the rows without a value are counted under the null key
+     */
+    public Map<String, Long> groupByCount(String column) {
+        final Groups groups = groups(column);
+        final long[] counts = new long[groups.keys.length + 1];
+        for (int row = 0; row < size; row++) {
+            counts[groups.rows[row]]++;
+        }
+        final Map<String, Long> result = new LinkedHashMap<>();
+        for (int group = 0; group < counts.length; group++) {
+            if (counts[group] > 0) {
+                result.put(groups.key(group), counts[group]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param column the name of a {@link ColumnType#LONG} or {@link ColumnType#DOUBLE} column
+     * @return the sum of the values of the column, the rows without a value being skipped
+     */
+    public double sum(String column) {
+        final Column values = getColumn(column, ColumnType.LONG, ColumnType.DOUBLE);
+        double sum = 0;
+        if (values != null) {
+            for (int row = values.present.nextSetBit(0); row >= 0; row = values.present.nextSetBit(row + 1)) {
+                sum += values.getDouble(row);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @param groupColumn the name of the column to group by, see {@link #groupByCount(String)}
+     * @param sumColumn   the name of the {@link ColumnType#LONG} or {@link ColumnType#DOUBLE} column to sum
+     * @return the sum of the values of the sum column for each value of the group column
+     */
+    public Map<String, Double> groupBySum(String groupColumn, String sumColumn) {
+        final Groups groups = groups(groupColumn);
+        final Column values = getColumn(sumColumn, ColumnType.LONG, ColumnType.DOUBLE);
+        final double[] sums = new double[groups.keys.length + 1];
+        final boolean[] seen = new boolean[groups.keys.length + 1];
+        for (int row = 0; row < size; row++) {
+            seen[groups.rows[row]] = true;
+        }
+        if (values != null) {
+            for (int row = values.present.nextSetBit(0); row >= 0; row = values.present.nextSetBit(row + 1)) {
+                sums[groups.rows[row]] += values.getDouble(row);
+            }
+        }
+        final Map<String, Double> result = new LinkedHashMap<>();
+        for (int group = 0; group < sums.length; group++) {
+            if (seen[group]) {
+                result.put(groups.key(group), sums[group]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityFrame{size=" + size + ", columns=" + columns.values() + '}';
+    }
+
+    private Column getColumn(String name, ColumnType... types) {
+        final Column column = columns.get(name);
+        if (column != null && !Arrays.asList(types).contains(column.type)) {
+            throw new IllegalArgumentException("Column " + name + " is a " + column.type + " column, expected " + Arrays.toString(types));
+        }
+        return column;
+    }
+
+    private EntityFrame select(BitSet rows) {
+        final int[] selected = rows.stream().toArray();
+        final Map<String, Column> selectedColumns = new LinkedHashMap<>(columns.size() * 2);
+        columns.forEach((name, column) -> selectedColumns.put(name, column.select(selected)));
+        return new EntityFrame(selected.length, selectedColumns);
+    }
+
+    // the group of each row, the rows without a value being in the last group
+    private Groups groups(String name) {
+        final Column column = columns.get(name);
+        final int[] rows = new int[size];
+        if (column == null) {
+            return new Groups(new String[0], rows);
+        }
+        if (column.dictionary != null) {
+            final int nullGroup = column.dictionary.length;
+            for (int row = 0; row < size; row++) {
+                rows[row] = column.present.get(row) ? column.codes[row] : nullGroup;
+            }
+            return new Groups(column.dictionary, rows);
+        }
+        final Map<String, Integer> groups = new HashMap<>();
+        final List<String> keys = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            final String key = column.getString(row);
+            rows[row] = key == null ? -1 : groups.computeIfAbsent(key, k -> {
+                keys.add(k);
+                return keys.size() - 1;
+            });
+        }
+        for (int row = 0; row < size; row++) {
+            if (rows[row] < 0) {
+                rows[row] = keys.size();
+            }
+        }
+        return new Groups(keys.toArray(new String[0]), rows);
+    }
+
+    private static final class Groups {
+        private final String[] keys;
+        private final int[] rows;
+
+        private Groups(String[] keys, int[] rows) {
+            this.keys = keys;
+            this.rows = rows;
+        }
+
+        private String key(int group) {
+            return group < keys.length ? keys[group] : null;
+        }
+    }
+
+    /**
+     * The values of a field for all the rows of a frame.  Only the array of the type of the column is set; the arrays
+     * are not copied and must not be changed
+     */
+    public static final class Column {
+
+        private final String name;
+        private final ColumnType type;
+        private final BitSet present;
+        private final long[] longs;
+        private final double[] doubles;
+        private final boolean[] booleans;
+        private final int[] codes;
+        private final String[] dictionary;
+
+        private Column(String name, ColumnType type, BitSet present, long[] longs, double[] doubles, boolean[] booleans,
+                       int[] codes, String[] dictionary) {
+            this.name = name;
+            this.type = type;
+            this.present = present;
+            this.longs = longs;
+            this.doubles = doubles;
+            this.booleans = booleans;
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ColumnType getType() {
+            return type;
+        }
+
+        /**
+         * @param row the row
+         * @return whether the row has no value
+         */
+        public boolean isNull(int row) {
+            return !present.get(row);
+        }
+
+        /**
+         * @return the values of a {@link ColumnType#LONG} column, or the milliseconds since the epoch of a
+         * {@link ColumnType#DATE} column, null for the other columns
+         */
+        public long[] getLongs() {
+            return longs;
+        }
+
+        /**
+         * @return the values of a {@link ColumnType#DOUBLE} column, null for the other columns
+         */
+        public double[] getDoubles() {
+            return doubles;
+        }
+
+        /**
+         * @return the values of a {@link ColumnType#BOOLEAN} column, null for the other columns
+         */
+        public boolean[] getBooleans() {
+            return booleans;
+        }
+
+        /**
+         * @return the index in {@link #getDictionary()} of the value of each row of a {@link ColumnType#STRING} or
+         * {@link ColumnType#REFERENCE} column, null for the other columns
+         */
+        public int[] getCodes() {
+            return codes;
+        }
+
+        /**
+         * @return the distinct strings, or ids of the referenced entities, of a {@link ColumnType#STRING} or
+         * {@link ColumnType#REFERENCE} column, null for the other columns
+         */
+        public String[] getDictionary() {
+            return dictionary;
+        }
+
+        /**
+         * @param row the row
+         * @return the value of the row as a string, dates being written like Octane writes them, null when the row has
+         * no value
+         */
+        public String getString(int row) {
+            if (!present.get(row)) {
+                return null;
+            }
+            switch (type) {
+                case LONG:
+                case DATE:
+                    return render(type, longs[row]);
+                case DOUBLE:
+                    return Double.toString(doubles[row]);
+                case BOOLEAN:
+                    return Boolean.toString(booleans[row]);
+                default:
+                    return dictionary[codes[row]];
+            }
+        }
+
+        private double getDouble(int row) {
+            return type == ColumnType.LONG ? longs[row] : doubles[row];
+        }
+
+        private Column select(int[] rows) {
+            final BitSet selectedPresent = new BitSet(rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                if (present.get(rows[i])) {
+                    selectedPresent.set(i);
+                }
+            }
+            long[] selectedLongs = null;
+            double[] selectedDoubles = null;
+            boolean[] selectedBooleans = null;
+            int[] selectedCodes = null;
+            if (longs != null) {
+                selectedLongs = new long[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    selectedLongs[i] = longs[rows[i]];
+                }
+            } else if (doubles != null) {
+                selectedDoubles = new double[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    selectedDoubles[i] = doubles[rows[i]];
+                }
+            } else if (booleans != null) {
+                selectedBooleans = new boolean[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    selectedBooleans[i] = booleans[rows[i]];
+                }
+            } else {
+                selectedCodes = new int[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    selectedCodes[i] = codes[rows[i]];
+                }
+            }
+            // the dictionary is shared, values no row has any more are skipped by the operators
+            return new Column(name, type, selectedPresent, selectedLongs, selectedDoubles, selectedBooleans, selectedCodes, dictionary);
+        }
+
+        @Override
+        public String toString() {
+            return name + ':' + type;
+        }
+    }
+
+    private static String render(ColumnType type, long value) {
+        return type == ColumnType.DATE ? Instant.ofEpochMilli(value).toString() : Long.toString(value);
+    }
+
+    /**
+     * Builds a frame row by row, as {@link ModelParser#getEntityFrame(java.io.InputStream,
+     * com.hpe.adm.nga.sdk.metadata.FieldTypeCache)} reads a response, or from the frames of several pages of a query
+     */
+    public static final class Builder {
+
+        private final Map<String, ColumnBuilder> columns = new LinkedHashMap<>();
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds the rows of a frame after the rows of the builder
+         *
+         * @param frame the frame to add
+         * @return this object
+         */
+        public Builder append(EntityFrame frame) {
+            final int offset = size;
+            size += frame.size;
+            frame.columns.forEach((name, column) -> {
+                final ColumnBuilder builder = column(name, column.type);
+                final BitSet present = column.present;
+                for (int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                    switch (column.type) {
+                        case LONG:
+                        case DATE:
+                            builder.setLong(offset + row, column.type, column.longs[row]);
+                            break;
+                        case DOUBLE:
+                            builder.setDouble(offset + row, column.doubles[row]);
+                            break;
+                        case BOOLEAN:
+                            builder.setBoolean(offset + row, column.booleans[row]);
+                            break;
+                        default:
+                            builder.setText(offset + row, column.type, column.dictionary[column.codes[row]]);
+                    }
+                }
+            });
+            return this;
+        }
+
+        /**
+         * @return the number of rows added so far
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the frame of the rows added so far
+         */
+        public EntityFrame build() {
+            final Map<String, Column> built = new LinkedHashMap<>(columns.size() * 2);
+            columns.forEach((name, column) -> built.put(name, column.build(size)));
+            return new EntityFrame(size, built);
+        }
+
+        // the values set next are the values of a new row
+        void addRow() {
+            size++;
+        }
+
+        void setLong(String name, long value) {
+            column(name, ColumnType.LONG).setLong(size - 1, ColumnType.LONG, value);
+        }
+
+        void setDate(String name, long epochMilli) {
+            column(name, ColumnType.DATE).setLong(size - 1, ColumnType.DATE, epochMilli);
+        }
+
+        void setDouble(String name, double value) {
+            column(name, ColumnType.DOUBLE).setDouble(size - 1, value);
+        }
+
+        void setBoolean(String name, boolean value) {
+            column(name, ColumnType.BOOLEAN).setBoolean(size - 1, value);
+        }
+
+        void setString(String name, String value) {
+            column(name, ColumnType.STRING).setText(size - 1, ColumnType.STRING, value);
+        }
+
+        void setReference(String name, String id) {
+            column(name, ColumnType.REFERENCE).setText(size - 1, ColumnType.REFERENCE, id);
+        }
+
+        private ColumnBuilder column(String name, ColumnType type) {
+            return columns.computeIfAbsent(name, key -> new ColumnBuilder(key, type));
+        }
+    }
+
+    // the values of a column while it is built; the type changes when values of another type are added
+    private static final class ColumnBuilder {
+
+        private final String name;
+        private final BitSet present = new BitSet();
+        private ColumnType type;
+        private long[] longs;
+        private double[] doubles;
+        private boolean[] booleans;
+        private int[] codes;
+        private Map<String, Integer> codesByValue;
+        private List<String> dictionary;
+
+        private ColumnBuilder(String name, ColumnType type) {
+            this.name = name;
+            this.type = type;
+            switch (type) {
+                case LONG:
+                case DATE:
+                    longs = new long[16];
+                    break;
+                case DOUBLE:
+                    doubles = new double[16];
+                    break;
+                case BOOLEAN:
+                    booleans = new boolean[16];
+                    break;
+                default:
+                    initCodes(16);
+            }
+        }
+
+        private void setLong(int row, ColumnType valueType, long value) {
+            if (type == valueType) {
+                if (row >= longs.length) {
+                    longs = Arrays.copyOf(longs, newLength(longs.length, row));
+                }
+                longs[row] = value;
+                present.set(row);
+            } else if (type == ColumnType.DOUBLE && valueType == ColumnType.LONG) {
+                setDouble(row, value);
+            } else {
+                setText(row, ColumnType.STRING, render(valueType, value));
+            }
+        }
+
+        private void setDouble(int row, double value) {
+            if (type == ColumnType.LONG) {
+                // integers and floats in the same column are floats
+                doubles = new double[longs.length];
+                for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+                    doubles[i] = longs[i];
+                }
+                longs = null;
+                type = ColumnType.DOUBLE;
+            }
+            if (type == ColumnType.DOUBLE) {
+                if (row >= doubles.length) {
+                    doubles = Arrays.copyOf(doubles, newLength(doubles.length, row));
+                }
+                doubles[row] = value;
+                present.set(row);
+            } else {
+                setText(row, ColumnType.STRING, Double.toString(value));
+            }
+        }
+
+        private void setBoolean(int row, boolean value) {
+            if (type == ColumnType.BOOLEAN) {
+                if (row >= booleans.length) {
+                    booleans = Arrays.copyOf(booleans, newLength(booleans.length, row));
+                }
+                booleans[row] = value;
+                present.set(row);
+            } else {
+                setText(row, ColumnType.STRING, Boolean.toString(value));
+            }
+        }
+
+        private void setText(int row, ColumnType valueType, String value) {
+            if (type != valueType) {
+                toStrings();
+            }
+            if (row >= codes.length) {
+                codes = Arrays.copyOf(codes, newLength(codes.length, row));
+            }
+            codes[row] = codesByValue.computeIfAbsent(value, key -> {
+                dictionary.add(key);
+                return dictionary.size() - 1;
+            });
+            present.set(row);
+        }
+
+        // turns the column into a string column holding the values as strings
+        private void toStrings() {
+            if (type == ColumnType.STRING) {
+                return;
+            }
+            if (type == ColumnType.REFERENCE) {
+                type = ColumnType.STRING;
+                return;
+            }
+            final Column column = build(present.length());
+            initCodes(Math.max(16, present.length()));
+            longs = null;
+            doubles = null;
+            booleans = null;
+            type = ColumnType.STRING;
+            for (int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                setText(row, ColumnType.STRING, column.getString(row));
+            }
+        }
+
+        private void initCodes(int length) {
+            codes = new int[length];
+            codesByValue = new HashMap<>();
+            dictionary = new ArrayList<>();
+        }
+
+        private Column build(int size) {
+            return new Column(name, type, (BitSet) present.clone(),
+                    longs == null ? null : Arrays.copyOf(longs, size),
+                    doubles == null ? null : Arrays.copyOf(doubles, size),
+                    booleans == null ? null : Arrays.copyOf(booleans, size),
+                    codes == null ? null : Arrays.copyOf(codes, size),
+                    dictionary == null ? null : dictionary.toArray(new String[0]));
+        }
+
+        private static int newLength(int length, int row) {
+            return Math.max(length * 2, row + 1);
+        }
+    }
+}
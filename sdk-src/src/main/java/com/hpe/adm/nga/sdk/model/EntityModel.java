@@ -33,6 +33,16 @@ public class EntityModel {
         data = new HashMap<>();
     }
 
+    /**
+     * Creates an entity holding its fields in the given map, null for the subclasses that hold their fields
+     * themselves and override the accessors
+     *
+     * @param data the map of the fields by name
+     */
+    EntityModel(Map<String, FieldModel> data) {
+        this.data = data;
+    }
+
     /**
      * Creates a new EntityModel object with given field models
      * Use this when create entity model with mass of fields
@@ -48,6 +58,18 @@ public class EntityModel {
         }
     }
 
+    /**
+     * Creates a deep copy of an EntityModel object.  The fields, and the entities they reference, are copied so that
+     * changing the copy does not change the original
+     *
+     * @param entityModel - the entity to copy
+     */
+    public EntityModel(EntityModel entityModel) {
+        final Collection<FieldModel> fields = entityModel.fields();
+        data = new HashMap<>(fields.size());
+        fields.forEach(field -> data.put(field.getName(), copyField(field)));
+    }
+
     /**
      * Creates a new EntityModel object with solo string field
      *
@@ -98,4 +120,54 @@ public class EntityModel {
     public void setValue(FieldModel fieldModel) {
         data.put(fieldModel.getName(), fieldModel);
     }
+
+    /**
+     * Sets a field read by the {@link ModelParser}
+     *
+     * @param fieldModel the field
+     */
+    void addField(FieldModel fieldModel) {
+        setValue(fieldModel);
+    }
+
+    /**
+     * @return all the fields of the entity, decoded, as a view that is not copied; see {@link LazyEntityModel} and
+     * {@link CompactEntityModel}
+     */
+    Collection<FieldModel> fields() {
+        return data.values();
+    }
+
+    static FieldModel copyField(FieldModel field) {
+        if (field instanceof ReferenceFieldModel) {
+            final EntityModel reference = ((ReferenceFieldModel) field).getValue();
+            return new ReferenceFieldModel(field.getName(), reference == null ? null : new EntityModel(reference));
+        }
+        if (field instanceof MultiReferenceFieldModel) {
+            final Collection<EntityModel> references = ((MultiReferenceFieldModel) field).getValue();
+            return new MultiReferenceFieldModel(field.getName(), references == null ? null
+                    : references.stream().map(reference -> reference == null ? null : new EntityModel(reference)).collect(Collectors.toList()));
+        }
+        if (field instanceof ReferenceErrorModel) {
+            final ReferenceErrorModel.ReferenceError error = ((ReferenceErrorModel) field).getValue();
+            return new ReferenceErrorModel(field.getName(), error == null ? null : new ReferenceErrorModel.ReferenceError(error.getId(), error.gettype()));
+        }
+        if (field instanceof StringFieldModel) {
+            return new StringFieldModel(field.getName(), ((StringFieldModel) field).getValue());
+        }
+        if (field instanceof LongFieldModel) {
+            return new LongFieldModel(field.getName(), ((LongFieldModel) field).getValue());
+        }
+        if (field instanceof BooleanFieldModel) {
+            return new BooleanFieldModel(field.getName(), ((BooleanFieldModel) field).getValue());
+        }
+        if (field instanceof FloatFieldModel) {
+            return new FloatFieldModel(field.getName(), ((FloatFieldModel) field).getValue());
+        }
+        if (field instanceof DateFieldModel) {
+            return new DateFieldModel(field.getName(), ((DateFieldModel) field).getValue());
+        }
+        // unknown implementation, shared as is
+        return field;
+    }
 }
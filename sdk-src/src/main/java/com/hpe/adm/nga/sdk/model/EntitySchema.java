@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The layout shared by the {@link CompactEntityModel} objects of a response: the slot of each field name in the value
+ * array of the entities.  A slot is added the first time an entity of the response has the field, and is never
+ * removed.  The entities referenced by a field share the schema returned by {@link #getChild(String)} for that field
+ */
+final class EntitySchema {
+
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final Map<String, EntitySchema> children = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+
+    /**
+     * @param name the field name
+     * @return the slot of the field, -1 when no entity has the field
+     */
+    int slotOf(String name) {
+        final Integer slot = slots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * @param name the field name
+     * @return the slot of the field, added if no entity has the field yet
+     */
+    synchronized int addSlot(String name) {
+        final Integer slot = slots.get(name);
+        if (slot != null) {
+            return slot;
+        }
+        final String[] newNames = Arrays.copyOf(names, names.length + 1);
+        newNames[names.length] = name;
+        names = newNames;
+        slots.put(name, names.length - 1);
+        return names.length - 1;
+    }
+
+    /**
+     * @param slot a slot of the schema
+     * @return the name of the field of the slot
+     */
+    String getName(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * @return the number of slots
+     */
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * @param name the reference field name
+     * @return the schema of the entities referenced by the field
+     */
+    EntitySchema getChild(String name) {
+        return children.computeIfAbsent(name, key -> new EntitySchema());
+    }
+}
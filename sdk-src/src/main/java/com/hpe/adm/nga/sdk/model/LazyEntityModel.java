@@ -0,0 +1,194 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.model;
+
+import com.hpe.adm.nga.sdk.metadata.FieldMetadata;
+import com.hpe.adm.nga.sdk.metadata.FieldTypeCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An entity read with {@link com.hpe.adm.nga.sdk.network.OctaneRequest#lazy(boolean)}: it keeps the span of the
+ * response holding the value of each field, and decodes a field into its {@link FieldModel} the first time it is read
+ * with {@link #getValue(String)}.  Decoded fields are kept, so reading them again costs a map lookup.
+ * <p>
+ * {@link #getValues()} decodes all the fields.  {@link ModelParser#writeEntities(Collection, java.io.OutputStream)}
+ * and {@link ModelParser#getEntityJSONObject(EntityModel)} copy the fields that were neither read nor set straight from
+ * the response, byte for byte.  The copies made by {@link EntityModel#EntityModel(EntityModel)} are decoded entities,
+ * the copies made by {@link #LazyEntityModel(LazyEntityModel)} are lazy entities
+ * </p>
+ * <p>
+ * The entities of a response, and their lazy copies, share the bytes of the response, which are held as long as one
+ * of them is reachable
+ * </p>
+ */
+public final class LazyEntityModel extends EntityModel {
+
+    private final byte[] content;
+    private final FieldTypeCache fieldTypeCache;
+    private Map<String, FieldMetadata.FieldType> fieldTypes;
+
+    // the fields not decoded yet; a decoded or replaced field has a null name
+    private String[] names = new String[8];
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int size;
+    private int undecoded;
+
+    LazyEntityModel(byte[] content, FieldTypeCache fieldTypeCache) {
+        this.content = content;
+        this.fieldTypeCache = fieldTypeCache;
+    }
+
+    /**
+     * Creates a deep copy of a lazy entity that shares the bytes of its response: the fields not decoded yet are not
+     * decoded by the copy, the decoded fields are copied so that changing the copy does not change the original
+     *
+     * @param lazyEntityModel - the entity to copy
+     */
+    public LazyEntityModel(LazyEntityModel lazyEntityModel) {
+        synchronized (lazyEntityModel) {
+            content = lazyEntityModel.content;
+            fieldTypeCache = lazyEntityModel.fieldTypeCache;
+            fieldTypes = lazyEntityModel.fieldTypes;
+            names = lazyEntityModel.names.clone();
+            starts = lazyEntityModel.starts.clone();
+            ends = lazyEntityModel.ends.clone();
+            size = lazyEntityModel.size;
+            undecoded = lazyEntityModel.undecoded;
+            lazyEntityModel.getDecodedValues().forEach(field -> super.setValue(copyField(field)));
+        }
+    }
+
+    // called while the response is scanned
+    void addRawField(String name, int start, int end) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        names[size] = name;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+        undecoded++;
+    }
+
+    void setFieldTypes(Map<String, FieldMetadata.FieldType> fieldTypes) {
+        this.fieldTypes = fieldTypes;
+    }
+
+    @Override
+    public synchronized Set<FieldModel> getValues() {
+        decodeAll();
+        return super.getValues();
+    }
+
+    @Override
+    public synchronized FieldModel getValue(String key) {
+        final int slot = rawSlot(key);
+        if (slot >= 0) {
+            decode(slot);
+        }
+        return super.getValue(key);
+    }
+
+    @Override
+    public synchronized void setValues(Set<FieldModel> values) {
+        if (values != null) {
+            Arrays.fill(names, 0, size, null);
+            undecoded = 0;
+        }
+        super.setValues(values);
+    }
+
+    @Override
+    public synchronized void setValue(FieldModel fieldModel) {
+        final int slot = rawSlot(fieldModel.getName());
+        if (slot >= 0) {
+            names[slot] = null;
+            undecoded--;
+        }
+        super.setValue(fieldModel);
+    }
+
+    /**
+     * @return the number of fields not decoded yet
+     */
+    public synchronized int getUndecodedCount() {
+        return undecoded;
+    }
+
+    @Override
+    synchronized Collection<FieldModel> fields() {
+        decodeAll();
+        return super.fields();
+    }
+
+    private void decodeAll() {
+        for (int slot = 0; slot < size && undecoded > 0; slot++) {
+            if (names[slot] != null) {
+                decode(slot);
+            }
+        }
+    }
+
+    /**
+     * @return the fields decoded or set, without decoding the others
+     */
+    synchronized Collection<FieldModel> getDecodedValues() {
+        return super.getValues();
+    }
+
+    /**
+     * @return the names of the fields not decoded yet and their json values, as they are in the response
+     */
+    synchronized Map<String, String> getRawValues() {
+        final Map<String, String> rawValues = new LinkedHashMap<>(undecoded * 2);
+        for (int slot = 0; slot < size; slot++) {
+            if (names[slot] != null) {
+                rawValues.put(names[slot], new String(content, starts[slot], ends[slot] - starts[slot], StandardCharsets.UTF_8));
+            }
+        }
+        return rawValues;
+    }
+
+    private int rawSlot(String key) {
+        if (undecoded == 0) {
+            return -1;
+        }
+        for (int slot = 0; slot < size; slot++) {
+            if (key.equals(names[slot])) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void decode(int slot) {
+        final String name = names[slot];
+        names[slot] = null;
+        undecoded--;
+        final FieldModel fieldModel = ModelParser.getInstance().decodeField(name, content, starts[slot], ends[slot], fieldTypes, fieldTypeCache);
+        if (fieldModel != null) {
+            super.setValue(fieldModel);
+        }
+    }
+}
@@ -15,14 +15,30 @@
 
 package com.hpe.adm.nga.sdk.model;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.hpe.adm.nga.sdk.metadata.FieldMetadata;
+import com.hpe.adm.nga.sdk.metadata.FieldTypeCache;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONString;
 import org.json.JSONTokener;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
 /**
@@ -30,13 +46,19 @@ import java.util.stream.IntStream;
  */
 public final class ModelParser {
     private static final String JSON_DATA_NAME = "data";
+    private static final String JSON_TYPE_NAME = "type";
+    private static final String JSON_ID_NAME = "id";
     private static final String JSON_ERRORS_NAME = "errors";
     private static final String JSON_TOTAL_COUNT_NAME = "total_count";
     private static final String JSON_EXCEEDS_TOTAL_COUNT_NAME = "exceeds_total_count";
     private static final String REGEX_DATE_FORMAT = "\\d{4}-\\d{1,2}-\\d{1,2}T\\d{1,2}:\\d{1,2}:\\d{1,2}Z";
+    private static final Pattern DATE_PATTERN = Pattern.compile(REGEX_DATE_FORMAT);
+    // shortest date matching the pattern, 2017-1-1T1:1:1Z
+    private static final int MIN_DATE_LENGTH = 17;
     private static final String LOGGER_INVALID_FIELD_SCHEME_FORMAT = " field scheme is invalid";
 
     private final Logger logger = LogManager.getLogger(ModelParser.class.getName());
+    private final JsonFactory jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
 
     private static ModelParser modelParser = new ModelParser();
 
@@ -54,8 +76,15 @@ public final class ModelParser {
      */
     public final JSONObject getEntityJSONObject(EntityModel entityModel) {
 
-        Set<FieldModel> fieldModels = entityModel.getValues();
         JSONObject objField = new JSONObject();
+        if (entityModel instanceof LazyEntityModel) {
+            // the fields that were not read are written as they came from the server
+            final LazyEntityModel lazyEntityModel = (LazyEntityModel) entityModel;
+            lazyEntityModel.getDecodedValues().forEach((i) -> objField.put(i.getName(), getFieldValue(i)));
+            lazyEntityModel.getRawValues().forEach((name, value) -> objField.put(name, new RawJsonValue(value)));
+            return objField;
+        }
+        Set<FieldModel> fieldModels = entityModel.getValues();
         fieldModels.forEach((i) -> objField.put(i.getName(), getFieldValue(i)));
 
         return objField;
@@ -79,6 +108,79 @@ public final class ModelParser {
         return objBase;
     }
 
+    /**
+     * Writes the given EntityModel list as UTF-8 JSON to the stream, producing the same document as
+     * {@link #getEntitiesJSONObject(Collection)} without building it in memory.  The stream is not closed
+     *
+     * @param entitiesModels - Collection of entities models
+     * @param outputStream   - the stream the json is written to
+     * @throws IOException if the stream cannot be written
+     */
+    public final void writeEntities(Collection<EntityModel> entitiesModels, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            writeEntities(entitiesModels, generator);
+        }
+    }
+
+    private void writeEntities(Collection<EntityModel> entitiesModels, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeArrayFieldStart(JSON_DATA_NAME);
+        for (EntityModel entityModel : entitiesModels) {
+            writeEntity(entityModel, generator);
+        }
+        generator.writeEndArray();
+        generator.writeNumberField(JSON_TOTAL_COUNT_NAME, entitiesModels.size());
+        generator.writeBooleanField(JSON_EXCEEDS_TOTAL_COUNT_NAME, false);
+        generator.writeEndObject();
+    }
+
+    private void writeEntity(EntityModel entityModel, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        final boolean lazy = entityModel instanceof LazyEntityModel;
+        final Collection<FieldModel> fieldModels = lazy ? ((LazyEntityModel) entityModel).getDecodedValues() : entityModel.getValues();
+        for (FieldModel fieldModel : fieldModels) {
+            if (fieldModel.getClass() == ReferenceFieldModel.class) {
+                EntityModel fieldEntityModel = ((ReferenceFieldModel) fieldModel).getValue();
+                generator.writeFieldName(fieldModel.getName());
+                if (fieldEntityModel == null) {
+                    generator.writeNull();
+                } else {
+                    writeEntity(fieldEntityModel, generator);
+                }
+            } else if (fieldModel.getClass() == MultiReferenceFieldModel.class) {
+                generator.writeFieldName(fieldModel.getName());
+                writeEntities(((MultiReferenceFieldModel) fieldModel).getValue(), generator);
+            } else {
+                Object value = fieldModel.getValue();
+                // like JSONObject.put, fields without value are left out
+                if (value != null) {
+                    generator.writeFieldName(fieldModel.getName());
+                    writeValue(value, generator);
+                }
+            }
+        }
+        if (lazy) {
+            for (Map.Entry<String, String> rawValue : ((LazyEntityModel) entityModel).getRawValues().entrySet()) {
+                generator.writeFieldName(rawValue.getKey());
+                generator.writeRawValue(rawValue.getValue());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeValue(Object value, JsonGenerator generator) throws IOException {
+        if (value instanceof String) {
+            generator.writeString((String) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if (value instanceof Long || value instanceof Integer) {
+            generator.writeNumber(((Number) value).longValue());
+        } else {
+            // dates and any other value are written as the JSONObject would write them
+            generator.writeRawValue(JSONObject.valueToString(value));
+        }
+    }
+
     /**
      * GetEntities an object that represent a field value based on the Field Model
      *
@@ -131,7 +233,7 @@ public final class ModelParser {
                 fldModel = new ReferenceFieldModel(strKey, null);
             } else if (aObj instanceof Long || aObj instanceof Integer) {
                 fldModel = new LongFieldModel(strKey, Long.parseLong(aObj.toString()));
-            } else if (aObj instanceof Float) {
+            } else if (aObj instanceof Float || aObj instanceof Double) {
                 fldModel = new FloatFieldModel(strKey, Float.parseFloat(aObj.toString()));
             } else if (aObj instanceof Boolean) {
                 fldModel = new BooleanFieldModel(strKey, Boolean.parseBoolean(aObj.toString()));
@@ -141,7 +243,9 @@ public final class ModelParser {
 
                 if (!fieldObject.isNull(JSON_DATA_NAME)) {
 
-                    Collection<EntityModel> entities = getEntities(aObj.toString());
+                    JSONArray jsonDataArr = fieldObject.getJSONArray(JSON_DATA_NAME);
+                    Collection<EntityModel> entities = new ArrayList<>(jsonDataArr.length());
+                    IntStream.range(0, jsonDataArr.length()).forEach((i) -> entities.add(getEntityModel(jsonDataArr.getJSONObject(i))));
                     fldModel = new MultiReferenceFieldModel(strKey, entities);
                 } else {
                     EntityModel ref = getEntityModel(jsonEntityObj.getJSONObject(strKey));
@@ -150,7 +254,7 @@ public final class ModelParser {
 
             } else if (aObj instanceof String) {
 
-                boolean isMatch = aObj.toString().matches(REGEX_DATE_FORMAT);
+                boolean isMatch = isDate(aObj.toString());
                 if (isMatch) {
 
                     final ZonedDateTime zonedDateTime = ZonedDateTime.parse(aObj.toString());
@@ -163,7 +267,9 @@ public final class ModelParser {
                 logger.debug(strKey + LOGGER_INVALID_FIELD_SCHEME_FORMAT);
             }
 
-            fieldModels.add(fldModel);
+            if (fldModel != null) {
+                fieldModels.add(fldModel);
+            }
         }
 
         entityModel = new EntityModel(fieldModels);
@@ -174,18 +280,587 @@ public final class ModelParser {
      * get a entity model collection based on a given json string
      *
      * @param json The JSON to parse
-     * @return entity model collection based on a given json string
+     * @return entity model collection based on a given json string, null if the json is empty
      */
     public Collection<EntityModel> getEntities(String json) {
-        JSONTokener tokener = new JSONTokener(json);
-        JSONObject jsonObj = new JSONObject(tokener);
-        JSONArray jsonDataArr = jsonObj.getJSONArray(JSON_DATA_NAME);
-        Collection<EntityModel> entityModels = new ArrayList<>();
-        IntStream.range(0, jsonDataArr.length()).forEach((i) -> entityModels.add(getEntityModel(jsonDataArr.getJSONObject(i))));
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            return readEntities(parser, null, null);
+        } catch (IOException e) {
+            throw new RuntimeException("Problem parsing the entities", e);
+        }
+    }
+
+    /**
+     * get a entity model collection from a UTF-8 json stream, in a single pass without building the json tree.  The
+     * stream is closed
+     *
+     * @param inputStream The JSON to parse
+     * @return entity model collection based on the json, null if the stream is empty
+     */
+    public Collection<EntityModel> getEntities(InputStream inputStream) {
+        return getEntities(inputStream, null);
+    }
+
+    /**
+     * get a entity model collection from a UTF-8 json stream, decoding the fields of the entity types known to the
+     * cache by their metadata, see {@link #getEntityModel(InputStream, FieldTypeCache)}.  The stream is closed
+     *
+     * @param inputStream    The JSON to parse
+     * @param fieldTypeCache the field types of the entity types, null to decode all the fields from their values
+     * @return entity model collection based on the json, null if the stream is empty
+     */
+    public Collection<EntityModel> getEntities(InputStream inputStream, FieldTypeCache fieldTypeCache) {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            return readEntities(parser, fieldTypeCache, null);
+        } catch (IOException e) {
+            throw new RuntimeException("Problem parsing the entities", e);
+        }
+    }
+
+    /**
+     * get a new EntityModel object from a UTF-8 json stream holding a single entity, in a single pass without building
+     * the json tree.  The stream is closed
+     *
+     * @param inputStream The JSON to parse
+     * @return new EntityModel object, null if the stream is empty
+     */
+    public EntityModel getEntityModel(InputStream inputStream) {
+        return getEntityModel(inputStream, null);
+    }
 
+    /**
+     * get a new EntityModel object from a UTF-8 json stream holding a single entity.  Once the {@code type} field of
+     * an entity, or of an entity it references, is read, its fields of a type known to the cache are decoded straight
+     * to the {@link FieldModel} of the type: dates without matching the date pattern, strings are never dates, and
+     * integers of float fields are floats.  The other fields, null values and values not matching the type of their
+     * field are decoded from the value.  The stream is closed
+     *
+     * @param inputStream    The JSON to parse
+     * @param fieldTypeCache the field types of the entity types, null to decode all the fields from their values
+     * @return new EntityModel object, null if the stream is empty
+     */
+    public EntityModel getEntityModel(InputStream inputStream, FieldTypeCache fieldTypeCache) {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            final JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            expect(JsonToken.START_OBJECT, token, parser);
+            final EntityModel entityModel = new EntityModel();
+            readFields(parser, fieldTypeCache, null, entityModel, false);
+            return entityModel;
+        } catch (IOException e) {
+            throw new RuntimeException("Problem parsing the entity", e);
+        }
+    }
+
+    // reads the data array of a document of entities, the other fields are skipped
+    private Collection<EntityModel> readEntities(JsonParser parser, FieldTypeCache fieldTypeCache, EntitySchema schema) throws IOException {
+        final JsonToken token = parser.nextToken();
+        if (token == null) {
+            return null;
+        }
+        expect(JsonToken.START_OBJECT, token, parser);
+        Collection<EntityModel> entityModels = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.START_ARRAY && JSON_DATA_NAME.equals(name)) {
+                entityModels = readEntityArray(parser, fieldTypeCache, schema);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (entityModels == null) {
+            throw new JsonParseException("No " + JSON_DATA_NAME + " array in the entities", parser.getCurrentLocation());
+        }
+        return entityModels;
+    }
+
+    // called on the start of the array; the entities are compact entities of the schema, if there is one
+    private Collection<EntityModel> readEntityArray(JsonParser parser, FieldTypeCache fieldTypeCache, EntitySchema schema) throws IOException {
+        final Collection<EntityModel> entityModels = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(JsonToken.START_OBJECT, token, parser);
+            final EntityModel entityModel = newEntityModel(schema);
+            readFields(parser, fieldTypeCache, schema, entityModel, false);
+            entityModels.add(entityModel);
+        }
+        return entityModels;
+    }
+
+    // called on the start of the object, maps the values the same way as getEntityModel(JSONObject) unless the type of
+    // the field is known; returns the data array of a multi reference, null if there is none
+    private Collection<EntityModel> readFields(JsonParser parser, FieldTypeCache fieldTypeCache, EntitySchema schema,
+                                               EntityModel entityModel, boolean multiReference) throws IOException {
+        Collection<EntityModel> entityModels = null;
+        Map<String, FieldMetadata.FieldType> fieldTypes = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            if (multiReference && token == JsonToken.START_ARRAY && JSON_DATA_NAME.equals(name)) {
+                entityModels = readEntityArray(parser, fieldTypeCache, childSchema(schema, JSON_DATA_NAME));
+                continue;
+            }
+            if (fieldTypes == null && fieldTypeCache != null && token == JsonToken.VALUE_STRING && JSON_TYPE_NAME.equals(name)) {
+                fieldTypes = fieldTypeCache.getFieldTypes(parser.getText());
+            }
+            FieldModel fieldModel = fieldTypes == null ? null : readTypedField(name, fieldTypes.get(name), token, parser, fieldTypeCache, schema);
+            if (fieldModel == null) {
+                fieldModel = readField(name, token, parser, fieldTypeCache, schema);
+            }
+            if (fieldModel != null) {
+                entityModel.addField(fieldModel);
+            }
+        }
         return entityModels;
     }
 
+    // decodes the value by the type of its field, null without reading anything when the value does not match the type
+    private FieldModel readTypedField(String name, FieldMetadata.FieldType fieldType, JsonToken token, JsonParser parser,
+                                      FieldTypeCache fieldTypeCache, EntitySchema schema) throws IOException {
+        if (fieldType == null) {
+            return null;
+        }
+        switch (fieldType) {
+            case Integer:
+                return token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER
+                        ? new LongFieldModel(name, parser.getLongValue()) : null;
+            case Float:
+                return token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT
+                        ? new FloatFieldModel(name, parser.getFloatValue()) : null;
+            case Boolean:
+                return token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE
+                        ? new BooleanFieldModel(name, token == JsonToken.VALUE_TRUE) : null;
+            case DateTime:
+            case Date:
+                if (token != JsonToken.VALUE_STRING) {
+                    return null;
+                }
+                final String value = parser.getText();
+                try {
+                    return new DateFieldModel(name, ZonedDateTime.parse(value));
+                } catch (DateTimeParseException e) {
+                    // dates without time
+                    return new StringFieldModel(name, value);
+                }
+            case String:
+            case Memo:
+                return token == JsonToken.VALUE_STRING ? new StringFieldModel(name, parser.getText()) : null;
+            case Reference:
+                return token == JsonToken.START_OBJECT ? readReference(name, parser, fieldTypeCache, childSchema(schema, name)) : null;
+            default:
+                return null;
+        }
+    }
+
+    private FieldModel readField(String name, JsonToken token, JsonParser parser, FieldTypeCache fieldTypeCache,
+                                 EntitySchema schema) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return new ReferenceFieldModel(name, null);
+            case VALUE_NUMBER_INT:
+                // like JSONObject, integers too big for a long are kept as strings
+                return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                        ? new StringFieldModel(name, parser.getText()) : new LongFieldModel(name, parser.getLongValue());
+            case VALUE_NUMBER_FLOAT:
+                return new FloatFieldModel(name, parser.getFloatValue());
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return new BooleanFieldModel(name, token == JsonToken.VALUE_TRUE);
+            case VALUE_STRING: {
+                final String value = parser.getText();
+                return isDate(value) ? new DateFieldModel(name, ZonedDateTime.parse(value)) : new StringFieldModel(name, value);
+            }
+            case START_OBJECT:
+                return readReference(name, parser, fieldTypeCache, childSchema(schema, name));
+            default:
+                logger.debug(name + LOGGER_INVALID_FIELD_SCHEME_FORMAT);
+                parser.skipChildren();
+                return null;
+        }
+    }
+
+    // called on the start of the object; an object with a data array is a multi reference, otherwise a reference
+    private FieldModel readReference(String name, JsonParser parser, FieldTypeCache fieldTypeCache, EntitySchema schema) throws IOException {
+        final EntityModel reference = newEntityModel(schema);
+        final Collection<EntityModel> entityModels = readFields(parser, fieldTypeCache, schema, reference, true);
+        return entityModels != null ? new MultiReferenceFieldModel(name, entityModels) : new ReferenceFieldModel(name, reference);
+    }
+
+    /**
+     * get a entity model collection from a UTF-8 json stream, each entity being a {@link CompactEntityModel} that
+     * holds the values of its fields in an array laid out by a schema shared by the entities of the response.  The
+     * fields are decoded like {@link #getEntities(InputStream, FieldTypeCache)} does.  The stream is closed
+     *
+     * @param inputStream    The JSON to parse
+     * @param fieldTypeCache the field types of the entity types, null to decode all the fields from their values
+     * @return entity model collection based on the json, null if the stream is empty
+     */
+    public Collection<EntityModel> getCompactEntities(InputStream inputStream, FieldTypeCache fieldTypeCache) {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            return readEntities(parser, fieldTypeCache, new EntitySchema());
+        } catch (IOException e) {
+            throw new RuntimeException("Problem parsing the entities", e);
+        }
+    }
+
+    /**
+     * get a {@link CompactEntityModel} from a UTF-8 json stream holding a single entity, see
+     * {@link #getCompactEntities(InputStream, FieldTypeCache)}.  The stream is closed
+     *
+     * @param inputStream    The JSON to parse
+     * @param fieldTypeCache the field types of the entity types, null to decode all the fields from their values
+     * @return new EntityModel object, null if the stream is empty
+     */
+    public EntityModel getCompactEntityModel(InputStream inputStream, FieldTypeCache fieldTypeCache) {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            final JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            expect(JsonToken.START_OBJECT, token, parser);
+            final EntitySchema schema = new EntitySchema();
+            final EntityModel entityModel = newEntityModel(schema);
+            readFields(parser, fieldTypeCache, schema, entityModel, false);
+            return entityModel;
+        } catch (IOException e) {
+            throw new RuntimeException("Problem parsing the entity", e);
+        }
+    }
+
+    /**
+     * get a {@link EntityFrame} from a UTF-8 json stream of entities, reading the values of the fields straight into
+     * the columns of the frame without building the entities.  The fields are decoded like
+     * {@link #getEntities(InputStream, FieldTypeCache)} does, floats as doubles.  The stream is closed
+     *
+     * @param inputStream    The JSON to parse
+     * @param fieldTypeCache the field types of the entity types, null to decode all the fields from their values
+     * @return the frame of the entities, null if the stream is empty
+     */
+    public EntityFrame getEntityFrame(InputStream inputStream, FieldTypeCache fieldTypeCache) {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return null;
+            }
+            expect(JsonToken.START_OBJECT, token, parser);
+            EntityFrame.Builder builder = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && JSON_DATA_NAME.equals(name)) {
+                    builder = EntityFrame.builder();
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        expect(JsonToken.START_OBJECT, token, parser);
+                        builder.addRow();
+                        readRow(parser, fieldTypeCache, builder);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (builder == null) {
+                throw new JsonParseException("No " + JSON_DATA_NAME + " array in the entities", parser.getCurrentLocation());
+            }
+            return builder.build();
+        } catch (IOException e) {
+            throw new RuntimeException("Problem parsing the entities", e);
+        }
+    }
+
+    // called on the start of the object, sets the fields of the entity in the last row of the builder
+    private void readRow(JsonParser parser, FieldTypeCache fieldTypeCache, EntityFrame.Builder builder) throws IOException {
+        Map<String, FieldMetadata.FieldType> fieldTypes = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            if (fieldTypes == null && fieldTypeCache != null && token == JsonToken.VALUE_STRING && JSON_TYPE_NAME.equals(name)) {
+                fieldTypes = fieldTypeCache.getFieldTypes(parser.getText());
+            }
+            final FieldMetadata.FieldType fieldType = fieldTypes == null ? null : fieldTypes.get(name);
+            switch (token) {
+                case VALUE_NULL:
+                    break;
+                case VALUE_NUMBER_INT:
+                    if (fieldType == FieldMetadata.FieldType.Float) {
+                        builder.setDouble(name, parser.getDoubleValue());
+                    } else if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                        builder.setString(name, parser.getText());
+                    } else {
+                        builder.setLong(name, parser.getLongValue());
+                    }
+                    break;
+                case VALUE_NUMBER_FLOAT:
+                    builder.setDouble(name, parser.getDoubleValue());
+                    break;
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    builder.setBoolean(name, token == JsonToken.VALUE_TRUE);
+                    break;
+                case VALUE_STRING:
+                    setRowString(name, fieldType, parser.getText(), builder);
+                    break;
+                case START_OBJECT:
+                    readRowReference(name, parser, builder);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+    }
+
+    // a date when the field is a date, or when its type is unknown and the value looks like a date
+    private static void setRowString(String name, FieldMetadata.FieldType fieldType, String value, EntityFrame.Builder builder) {
+        final boolean date = fieldType == FieldMetadata.FieldType.DateTime || fieldType == FieldMetadata.FieldType.Date
+                || fieldType != FieldMetadata.FieldType.String && fieldType != FieldMetadata.FieldType.Memo && isDate(value);
+        if (date) {
+            try {
+                builder.setDate(name, ZonedDateTime.parse(value).toInstant().toEpochMilli());
+                return;
+            } catch (DateTimeParseException e) {
+                // dates without time
+            }
+        }
+        builder.setString(name, value);
+    }
+
+    // called on the start of the object, sets the id of the referenced entity; multi references are skipped
+    private void readRowReference(String name, JsonParser parser, EntityFrame.Builder builder) throws IOException {
+        String id = null;
+        boolean multiReference = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken token = parser.nextToken();
+            if ((token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_INT) && JSON_ID_NAME.equals(field)) {
+                id = parser.getText();
+            } else {
+                multiReference |= token == JsonToken.START_ARRAY && JSON_DATA_NAME.equals(field);
+                parser.skipChildren();
+            }
+        }
+        if (id != null && !multiReference) {
+            builder.setReference(name, id);
+        }
+    }
+
+    private static EntityModel newEntityModel(EntitySchema schema) {
+        return schema == null ? new EntityModel() : new CompactEntityModel(schema);
+    }
+
+    // the schema of the entities referenced by the field, null when the entities are not compact
+    private static EntitySchema childSchema(EntitySchema schema, String name) {
+        return schema == null ? null : schema.getChild(name);
+    }
+
+    /**
+     * get a entity model collection from a UTF-8 json stream without decoding the fields: each entity is a
+     * {@link LazyEntityModel} that keeps the bytes of its fields and decodes them when they are read.  The stream is
+     * read and closed
+     *
+     * @param inputStream    The JSON to parse
+     * @param fieldTypeCache the field types used to decode the fields, null to decode them from their values
+     * @return entity model collection based on the json, null if the stream is empty
+     */
+    public Collection<EntityModel> getLazyEntities(InputStream inputStream, FieldTypeCache fieldTypeCache) {
+        try {
+            final byte[] content = readContent(inputStream);
+            try (JsonParser parser = jsonFactory.createParser(content)) {
+                final JsonToken token = parser.nextToken();
+                if (token == null) {
+                    return null;
+                }
+                expect(JsonToken.START_OBJECT, token, parser);
+                Collection<EntityModel> entityModels = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String name = parser.getCurrentName();
+                    if (parser.nextToken() == JsonToken.START_ARRAY && JSON_DATA_NAME.equals(name)) {
+                        entityModels = new ArrayList<>();
+                        JsonToken entityToken;
+                        while ((entityToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+                            expect(JsonToken.START_OBJECT, entityToken, parser);
+                            entityModels.add(scanEntity(parser, content, fieldTypeCache));
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (entityModels == null) {
+                    throw new JsonParseException("No " + JSON_DATA_NAME + " array in the entities", parser.getCurrentLocation());
+                }
+                return entityModels;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Problem parsing the entities", e);
+        }
+    }
+
+    /**
+     * get a {@link LazyEntityModel} from a UTF-8 json stream holding a single entity, see
+     * {@link #getLazyEntities(InputStream, FieldTypeCache)}.  The stream is read and closed
+     *
+     * @param inputStream    The JSON to parse
+     * @param fieldTypeCache the field types used to decode the fields, null to decode them from their values
+     * @return new EntityModel object, null if the stream is empty
+     */
+    public EntityModel getLazyEntityModel(InputStream inputStream, FieldTypeCache fieldTypeCache) {
+        try {
+            final byte[] content = readContent(inputStream);
+            try (JsonParser parser = jsonFactory.createParser(content)) {
+                final JsonToken token = parser.nextToken();
+                if (token == null) {
+                    return null;
+                }
+                expect(JsonToken.START_OBJECT, token, parser);
+                return scanEntity(parser, content, fieldTypeCache);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Problem parsing the entity", e);
+        }
+    }
+
+    // called on the start of the object; records where the value of each field is without decoding it.  The location
+    // of a field name tells where the previous value ends, the location of a value is not tracked by the parser
+    private LazyEntityModel scanEntity(JsonParser parser, byte[] content, FieldTypeCache fieldTypeCache) throws IOException {
+        final LazyEntityModel entityModel = new LazyEntityModel(content, fieldTypeCache);
+        String name = null;
+        int start = 0;
+        boolean typed = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final int nameOffset = tokenOffset(parser);
+            if (name != null) {
+                entityModel.addRawField(name, start, valueEnd(content, start, nameOffset));
+            }
+            name = parser.getCurrentName();
+            start = valueStart(content, nameOffset);
+            final JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                // like the other parsers, arrays are not fields
+                logger.debug(name + LOGGER_INVALID_FIELD_SCHEME_FORMAT);
+                parser.skipChildren();
+                name = null;
+            } else if (!typed && fieldTypeCache != null && token == JsonToken.VALUE_STRING && JSON_TYPE_NAME.equals(name)) {
+                entityModel.setFieldTypes(fieldTypeCache.getFieldTypes(parser.getText()));
+                typed = true;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (name != null) {
+            entityModel.addRawField(name, start, valueEnd(content, start, tokenOffset(parser)));
+        }
+        return entityModel;
+    }
+
+    /**
+     * Decodes a field of a {@link LazyEntityModel}
+     *
+     * @param name           the name of the field
+     * @param content        the response holding the field
+     * @param start          offset of the json value of the field
+     * @param end            offset after the json value of the field
+     * @param fieldTypes     the types of the fields of the entity, null to decode the field from its value
+     * @param fieldTypeCache the field types of the entities the field references
+     * @return the field, null if the value is not a field
+     */
+    FieldModel decodeField(String name, byte[] content, int start, int end, Map<String, FieldMetadata.FieldType> fieldTypes,
+                           FieldTypeCache fieldTypeCache) {
+        try (JsonParser parser = jsonFactory.createParser(content, start, end - start)) {
+            final JsonToken token = parser.nextToken();
+            final FieldModel fieldModel = fieldTypes == null ? null : readTypedField(name, fieldTypes.get(name), token, parser, fieldTypeCache, null);
+            return fieldModel != null ? fieldModel : readField(name, token, parser, fieldTypeCache, null);
+        } catch (IOException e) {
+            throw new RuntimeException("Problem parsing the field " + name, e);
+        }
+    }
+
+    private static int tokenOffset(JsonParser parser) {
+        final JsonLocation location = parser.getTokenLocation();
+        // parsers of bytes report the offset in bytes as the byte or the char offset depending on the jackson version
+        return (int) (location.getByteOffset() >= 0 ? location.getByteOffset() : location.getCharOffset());
+    }
+
+    // the offset of the value following the field name at the offset, which may start with the separating comma
+    private static int valueStart(byte[] content, int offset) {
+        int i = skipWhitespace(content, offset);
+        if (content[i] == ',') {
+            i = skipWhitespace(content, i + 1);
+        }
+        // the quoted name
+        i++;
+        while (content[i] != '"') {
+            i += content[i] == '\\' ? 2 : 1;
+        }
+        i = skipWhitespace(content, i + 1);
+        // the colon
+        return skipWhitespace(content, i + 1);
+    }
+
+    // the offset after the value ending before the offset, without the separating comma and white space
+    private static int valueEnd(byte[] content, int start, int offset) {
+        int end = offset;
+        while (end > start && (content[end - 1] == ',' || isWhitespace(content[end - 1]))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static int skipWhitespace(byte[] content, int offset) {
+        int i = offset;
+        while (isWhitespace(content[i])) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private static byte[] readContent(InputStream inputStream) throws IOException {
+        try (InputStream stream = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+
+    /**
+     * A json value copied as is by {@link JSONObject#toString()}
+     */
+    private static final class RawJsonValue implements JSONString {
+        private final String json;
+
+        private RawJsonValue(String json) {
+            this.json = json;
+        }
+
+        @Override
+        public String toJSONString() {
+            return json;
+        }
+
+        @Override
+        public String toString() {
+            return json;
+        }
+    }
+
+    private static void expect(JsonToken expected, JsonToken token, JsonParser parser) throws JsonParseException {
+        if (token != expected) {
+            throw new JsonParseException("Expected " + expected + " but found " + token, parser.getCurrentLocation());
+        }
+    }
+
+    private static boolean isDate(String value) {
+        // most strings are ruled out without running the regular expression
+        return value.length() >= MIN_DATE_LENGTH && value.charAt(value.length() - 1) == 'Z'
+                && DATE_PATTERN.matcher(value).matches();
+    }
+
     /**
      * GetEntities Error models based on a given error json string
      *
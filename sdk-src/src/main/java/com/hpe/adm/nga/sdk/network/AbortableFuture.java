@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * {@link CompletableFuture} whose cancellation aborts the work backing it.
+ * <p>
+ * While the work runs, transports register abort actions (closing a socket, aborting a request) through
+ * {@link #onAbort(Runnable)}.  Cancelling the future runs those actions and interrupts the worker thread,
+ * so a blocked read fails immediately instead of waiting for the read timeout.
+ * </p>
+ */
+public class AbortableFuture<T> extends CompletableFuture<T> {
+
+    private static final ThreadLocal<AbortableFuture<?>> currentFuture = new ThreadLocal<>();
+
+    private final List<Runnable> abortActions = new ArrayList<>();
+    private Thread runningThread;
+
+    /**
+     * Runs the supplier on the executor, completing the returned future with its result
+     *
+     * @param supplier work to run
+     * @param executor executor that runs the work
+     * @param <T>      type of the result
+     * @return future that can be cancelled while the work is running
+     */
+    public static <T> AbortableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        final AbortableFuture<T> future = new AbortableFuture<>();
+        try {
+            executor.execute(() -> future.run(supplier));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Registers an action that aborts the call currently running on this thread.  Does nothing if this thread is not
+     * running an {@link AbortableFuture}
+     *
+     * @param abortAction action to run if the call is cancelled
+     */
+    public static void onAbort(Runnable abortAction) {
+        final AbortableFuture<?> future = currentFuture.get();
+        if (future != null) {
+            future.addAbortAction(abortAction);
+        }
+    }
+
+    /**
+     * Adds an action that is run when this future is cancelled.  If the future has already been cancelled the action
+     * runs immediately
+     *
+     * @param abortAction action to run
+     */
+    public void addAbortAction(Runnable abortAction) {
+        synchronized (abortActions) {
+            if (!isCancelled()) {
+                abortActions.add(abortAction);
+                return;
+            }
+        }
+        abortAction.run();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        final boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            abort();
+        }
+        return cancelled;
+    }
+
+    private void run(Supplier<T> supplier) {
+        synchronized (abortActions) {
+            if (isDone()) {
+                return;
+            }
+            runningThread = Thread.currentThread();
+        }
+        currentFuture.set(this);
+        try {
+            complete(supplier.get());
+        } catch (Throwable t) {
+            completeExceptionally(t);
+        } finally {
+            currentFuture.remove();
+            synchronized (abortActions) {
+                runningThread = null;
+                abortActions.clear();
+            }
+            // do not leak an interrupt caused by cancellation into the next task of the pooled thread
+            Thread.interrupted();
+        }
+    }
+
+    private void abort() {
+        final List<Runnable> actions;
+        synchronized (abortActions) {
+            actions = new ArrayList<>(abortActions);
+            abortActions.clear();
+            if (runningThread != null) {
+                runningThread.interrupt();
+            }
+        }
+        actions.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs asynchronous requests of the wrapped client on a dedicated executor.  Used by the
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder} when an executor has been set
+ */
+public final class AsyncOctaneHttpClient extends DelegatingOctaneHttpClient {
+
+    private final Executor executor;
+
+    public AsyncOctaneHttpClient(OctaneHttpClient delegate, Executor executor) {
+        super(delegate);
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return delegate.executeAsync(octaneHttpRequest, executor);
+    }
+}
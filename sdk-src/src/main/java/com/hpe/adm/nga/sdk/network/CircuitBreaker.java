@@ -0,0 +1,355 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.exception.CircuitBreakerOpenException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker stopping the requests to a server, or to an entity collection, that keeps failing.
+ * <ul>
+ *     <li>{@link State#CLOSED}: requests are sent.  The outcome of the last requests is kept in a sliding window; once
+ *     it holds the minimum number of calls and the failure rate or the slow call rate reaches its threshold the
+ *     breaker opens</li>
+ *     <li>{@link State#OPEN}: requests fail immediately with a {@link CircuitBreakerOpenException}, without reaching
+ *     the server.  After the open duration the breaker becomes half open</li>
+ *     <li>{@link State#HALF_OPEN}: a few probe requests are sent, the others fail immediately.  The breaker closes
+ *     when all the probes succeed and opens again as soon as one fails</li>
+ * </ul>
+ * A request fails when the server answers with 429 Too Many Requests or a 5xx status, or with an I/O error such as a
+ * read timeout.  Other error statuses are answered by a healthy server and count as successes.
+ * <p>
+ * By default the window holds the last 20 calls, at least 10 of which are needed to open the breaker at a failure rate
+ * of 50%.  Calls longer than 10 seconds are slow, but slow calls only open the breaker if a slow call rate threshold is
+ * set.  The breaker stays open 30 seconds and lets 3 probes through when half open.
+ * </p>
+ * <p>
+ * A breaker is thread safe and can be given to several {@link com.hpe.adm.nga.sdk.Octane.Builder}s so that all the
+ * contexts pointing at the same server share it
+ * </p>
+ */
+public final class CircuitBreaker {
+
+    /**
+     * State of a circuit breaker
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final double SLOW_CALLS_IGNORED = Double.POSITIVE_INFINITY;
+
+    private final Logger logger = LogManager.getLogger(CircuitBreaker.class.getName());
+    private final String name;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // guarded by this; the sliding window of the outcomes of the last calls
+    private final boolean[] failedCalls;
+    private final boolean[] slowCalls;
+    private int windowIndex;
+    private int windowCount;
+    private int failureCount;
+    private int slowCount;
+    private State state = State.CLOSED;
+    private long openedNanos;
+    // incremented by every transition, the permits of an older generation are not counted
+    private long generation;
+    private int probesSent;
+    private int probesSucceeded;
+
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder openedCount = new LongAdder();
+
+    private CircuitBreaker(Builder builder, String name) {
+        this.name = name;
+        failureRateThreshold = builder.failureRateThreshold;
+        slowCallRateThreshold = builder.slowCallRateThreshold;
+        slowCallNanos = builder.slowCallNanos;
+        minimumCalls = builder.minimumCalls;
+        openNanos = builder.openNanos;
+        halfOpenCalls = builder.halfOpenCalls;
+        failedCalls = new boolean[builder.windowSize];
+        slowCalls = new boolean[builder.windowSize];
+    }
+
+    /**
+     * Creates a breaker with the default settings
+     *
+     * @param name - name of the breaker, shown in the exceptions of the rejected requests
+     * @return the new breaker
+     */
+    public static CircuitBreaker create(String name) {
+        return new Builder().build(name);
+    }
+
+    /**
+     * Lets a request through, or rejects it if the breaker is open
+     *
+     * @return the permit the outcome of the request is recorded through
+     * @throws CircuitBreakerOpenException if the request must not be sent
+     */
+    Permit acquire() {
+        synchronized (this) {
+            if (state == State.OPEN && System.nanoTime() - openedNanos >= openNanos) {
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) {
+                return new Permit(this, generation);
+            }
+            if (state == State.HALF_OPEN && probesSent < halfOpenCalls) {
+                probesSent++;
+                return new Permit(this, generation);
+            }
+        }
+        rejectedCount.increment();
+        throw new CircuitBreakerOpenException(name, String.format("Circuit breaker %s is open", name));
+    }
+
+    private synchronized void release(Permit permit, long durationNanos, RequestOutcome outcome) {
+        if (permit.generation != generation) {
+            // a request let through before the last transition, such as one sent before the breaker opened and still
+            // in flight once it is half open: it is neither a probe nor part of the current window
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (outcome == RequestOutcome.IGNORED) {
+                // let another probe through instead
+                probesSent = Math.max(0, probesSent - 1);
+            } else if (outcome == RequestOutcome.DROPPED || (isSlowCallsCounted() && durationNanos > slowCallNanos)) {
+                transition(State.OPEN);
+            } else if (++probesSucceeded >= halfOpenCalls) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (outcome == RequestOutcome.IGNORED) {
+            return;
+        }
+
+        record(outcome == RequestOutcome.DROPPED, durationNanos > slowCallNanos);
+        if (windowCount >= minimumCalls
+                && (failureCount >= failureRateThreshold * windowCount || slowCount >= slowCallRateThreshold * windowCount)) {
+            transition(State.OPEN);
+        }
+    }
+
+    private boolean isSlowCallsCounted() {
+        return slowCallRateThreshold != SLOW_CALLS_IGNORED;
+    }
+
+    // called while holding the lock
+    private void record(boolean failed, boolean slow) {
+        if (windowCount == failedCalls.length) {
+            failureCount -= failedCalls[windowIndex] ? 1 : 0;
+            slowCount -= slowCalls[windowIndex] ? 1 : 0;
+        } else {
+            windowCount++;
+        }
+        failedCalls[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+        failureCount += failed ? 1 : 0;
+        slowCount += slow ? 1 : 0;
+        windowIndex = (windowIndex + 1) % failedCalls.length;
+    }
+
+    // called while holding the lock
+    private void transition(State newState) {
+        logger.debug("Circuit breaker {} {} -> {}, failures {}/{} slow {}/{}", name, state, newState,
+                failureCount, windowCount, slowCount, windowCount);
+        state = newState;
+        generation++;
+        probesSent = 0;
+        probesSucceeded = 0;
+        if (newState == State.OPEN) {
+            openedNanos = System.nanoTime();
+            openedCount.increment();
+        }
+        if (newState == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            failureCount = 0;
+            slowCount = 0;
+        }
+    }
+
+    /**
+     * @return the current state, an open breaker whose open duration has elapsed is reported half open
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && System.nanoTime() - openedNanos >= openNanos) {
+            transition(State.HALF_OPEN);
+        }
+        return state;
+    }
+
+    /**
+     * @return the rate of failed calls in the sliding window, between 0 and 1
+     */
+    public synchronized double getFailureRate() {
+        return windowCount == 0 ? 0 : (double) failureCount / windowCount;
+    }
+
+    /**
+     * @return the rate of slow calls in the sliding window, between 0 and 1
+     */
+    public synchronized double getSlowCallRate() {
+        return windowCount == 0 ? 0 : (double) slowCount / windowCount;
+    }
+
+    /**
+     * @return the number of requests rejected because the breaker was open
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return the number of times the breaker opened
+     */
+    public long getOpenedCount() {
+        return openedCount.sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CircuitBreaker %s %s failures: %.2f slow: %.2f", name, getState(), getFailureRate(), getSlowCallRate());
+    }
+
+    /**
+     * A request let through by a breaker, granted in the current state of the breaker.  Its outcome only counts while
+     * the breaker has not changed state since
+     */
+    static final class Permit {
+        private final CircuitBreaker circuitBreaker;
+        private final long generation;
+
+        private Permit(CircuitBreaker circuitBreaker, long generation) {
+            this.circuitBreaker = circuitBreaker;
+            this.generation = generation;
+        }
+
+        /**
+         * Records the outcome of the request
+         *
+         * @param durationNanos how long the request took
+         * @param outcome       how the request completed
+         */
+        void release(long durationNanos, RequestOutcome outcome) {
+            circuitBreaker.release(this, durationNanos, outcome);
+        }
+    }
+
+    /**
+     * Builder of {@link CircuitBreaker}.  A builder can build several breakers with the same settings, such as one per
+     * entity collection
+     */
+    public static final class Builder {
+        private double failureRateThreshold = 0.5;
+        private double slowCallRateThreshold = SLOW_CALLS_IGNORED;
+        private long slowCallNanos = TimeUnit.SECONDS.toNanos(10);
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private long openNanos = TimeUnit.SECONDS.toNanos(30);
+        private int halfOpenCalls = 3;
+
+        /**
+         * @param failureRateThreshold - the rate of failed calls that opens the breaker, between 0 and 1
+         * @return this object
+         */
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+                throw new IllegalArgumentException("failureRateThreshold must be between 0 and 1: " + failureRateThreshold);
+            }
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * @param slowCallRateThreshold - the rate of slow calls that opens the breaker, between 0 and 1
+         * @param slowCallDuration      - the duration above which a call is slow
+         * @return this object
+         */
+        public Builder slowCallThreshold(double slowCallRateThreshold, Duration slowCallDuration) {
+            if (slowCallRateThreshold <= 0 || slowCallRateThreshold > 1 || slowCallDuration.isNegative()) {
+                throw new IllegalArgumentException("Invalid slow call threshold " + slowCallRateThreshold + " " + slowCallDuration);
+            }
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            this.slowCallNanos = slowCallDuration.toNanos();
+            return this;
+        }
+
+        /**
+         * @param windowSize   - the number of last calls the rates are computed from
+         * @param minimumCalls - the number of calls needed before the breaker can open
+         * @return this object
+         */
+        public Builder slidingWindow(int windowSize, int minimumCalls) {
+            if (minimumCalls < 1 || windowSize < minimumCalls) {
+                throw new IllegalArgumentException("Invalid sliding window " + windowSize + " minimum calls " + minimumCalls);
+            }
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param openDuration - how long the breaker stays open before letting probes through
+         * @return this object
+         */
+        public Builder openDuration(Duration openDuration) {
+            if (openDuration.isNegative()) {
+                throw new IllegalArgumentException("openDuration must not be negative: " + openDuration);
+            }
+            this.openNanos = openDuration.toNanos();
+            return this;
+        }
+
+        /**
+         * @param halfOpenCalls - the number of probes sent when half open, all of which must succeed to close
+         * @return this object
+         */
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            if (halfOpenCalls < 1) {
+                throw new IllegalArgumentException("halfOpenCalls must be at least 1: " + halfOpenCalls);
+            }
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * @param name - name of the breaker, shown in the exceptions of the rejected requests
+         * @return a new breaker with the settings of this builder
+         */
+        public CircuitBreaker build(String name) {
+            return new CircuitBreaker(this, name);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.exception.CircuitBreakerOpenException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Sends the requests of the wrapped client through the {@link CircuitBreaker} of the server and, if configured, the
+ * breaker of the entity collection of the request.  Used by the {@link com.hpe.adm.nga.sdk.Octane.Builder} when a
+ * circuit breaker has been set.
+ * <p>
+ * A request rejected by an open breaker fails with a {@link CircuitBreakerOpenException} without reaching the server;
+ * asynchronous requests get a future completed with it.  The breakers of the collections are created on first use
+ * </p>
+ */
+public final class CircuitBreakingOctaneHttpClient extends DelegatingOctaneHttpClient {
+
+    private final CircuitBreaker circuitBreaker;
+    private final CircuitBreaker.Builder collectionCircuitBreakerBuilder;
+    private final ConcurrentMap<String, CircuitBreaker> collectionCircuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate                        the wrapped client
+     * @param circuitBreaker                  breaker of all the requests, can be null
+     * @param collectionCircuitBreakerBuilder builder of the breakers of the entity collections, null to not track
+     *                                        the collections separately
+     */
+    public CircuitBreakingOctaneHttpClient(OctaneHttpClient delegate, CircuitBreaker circuitBreaker,
+                                           CircuitBreaker.Builder collectionCircuitBreakerBuilder) {
+        super(delegate);
+        this.circuitBreaker = circuitBreaker;
+        this.collectionCircuitBreakerBuilder = collectionCircuitBreakerBuilder;
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        final Permits permits = acquire(octaneHttpRequest);
+        final long start = System.nanoTime();
+        RequestOutcome outcome = RequestOutcome.IGNORED;
+        try {
+            final OctaneHttpResponse response = delegate.execute(octaneHttpRequest);
+            outcome = RequestOutcome.SUCCESS;
+            return response;
+        } catch (RuntimeException e) {
+            outcome = RequestOutcome.of(e);
+            throw e;
+        } finally {
+            permits.release(System.nanoTime() - start, outcome);
+        }
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return executeAsync(octaneHttpRequest, DefaultAsyncExecutor.getInstance());
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        final Permits permits;
+        try {
+            permits = acquire(octaneHttpRequest);
+        } catch (CircuitBreakerOpenException e) {
+            final CompletableFuture<OctaneHttpResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+
+        final long start = System.nanoTime();
+        final CompletableFuture<OctaneHttpResponse> future;
+        try {
+            future = delegate.executeAsync(octaneHttpRequest, executor);
+        } catch (RuntimeException e) {
+            permits.release(System.nanoTime() - start, RequestOutcome.of(e));
+            throw e;
+        }
+        future.whenComplete((response, throwable) -> {
+            final RequestOutcome outcome;
+            if (throwable == null) {
+                outcome = RequestOutcome.SUCCESS;
+            } else if (future.isCancelled()) {
+                outcome = RequestOutcome.IGNORED;
+            } else {
+                outcome = RequestOutcome.of(throwable);
+            }
+            permits.release(System.nanoTime() - start, outcome);
+        });
+        return future;
+    }
+
+    /**
+     * @return the breaker of all the requests, null if there is none
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return the breakers of the entity collections requested so far, by collection name
+     */
+    public Map<String, CircuitBreaker> getCollectionCircuitBreakers() {
+        return Collections.unmodifiableMap(collectionCircuitBreakers);
+    }
+
+    /**
+     * Lets the request through the breaker of the server and of its collection
+     *
+     * @throws CircuitBreakerOpenException if one of the breakers rejects the request
+     */
+    private Permits acquire(OctaneHttpRequest octaneHttpRequest) {
+        final CircuitBreaker collectionCircuitBreaker = getCollectionCircuitBreaker(octaneHttpRequest);
+        final CircuitBreaker.Permit permit = circuitBreaker == null ? null : circuitBreaker.acquire();
+        CircuitBreaker.Permit collectionPermit = null;
+        if (collectionCircuitBreaker != null) {
+            try {
+                collectionPermit = collectionCircuitBreaker.acquire();
+            } catch (CircuitBreakerOpenException e) {
+                if (permit != null) {
+                    permit.release(0, RequestOutcome.IGNORED);
+                }
+                throw e;
+            }
+        }
+        return new Permits(permit, collectionPermit);
+    }
+
+    private CircuitBreaker getCollectionCircuitBreaker(OctaneHttpRequest octaneHttpRequest) {
+        if (collectionCircuitBreakerBuilder == null) {
+            return null;
+        }
+        final String collection = RateLimitingOctaneHttpClient.getCollection(octaneHttpRequest.getRequestUrl());
+        return collection == null ? null
+                : collectionCircuitBreakers.computeIfAbsent(collection, collectionCircuitBreakerBuilder::build);
+    }
+
+    /**
+     * The permits of a request from the breaker of the server and of its collection, null for a missing breaker
+     */
+    private static final class Permits {
+        private final CircuitBreaker.Permit permit;
+        private final CircuitBreaker.Permit collectionPermit;
+
+        private Permits(CircuitBreaker.Permit permit, CircuitBreaker.Permit collectionPermit) {
+            this.permit = permit;
+            this.collectionPermit = collectionPermit;
+        }
+
+        private void release(long durationNanos, RequestOutcome outcome) {
+            if (permit != null) {
+                permit.release(durationNanos, outcome);
+            }
+            if (collectionPermit != null) {
+                collectionPermit.release(durationNanos, outcome);
+            }
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical GET requests that are in flight at the same time: a GET with the same url, accept type and
+ * validators as one already executing waits for that one instead of going to the server.  The content of the shared
+ * response is read once into bytes; every caller gets its own copy of the response, and the entities parsed from it
+ * with {@link OctaneHttpResponse#parseContent} are parsed once and copied for each caller.  A request nobody joined
+ * gets the response of the server as is, its content is streamed and never buffered.
+ * <p>
+ * Binary downloads are not coalesced.  A synchronous caller waits for the shared request until the deadline of its own
+ * request, see {@link Deadline}.  Cancelling the future of a coalesced asynchronous request only aborts the
+ * shared request when all the callers waiting for it have cancelled
+ * </p>
+ */
+public final class CoalescingOctaneHttpClient extends DelegatingOctaneHttpClient {
+
+    private final ConcurrentMap<List<String>, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    public CoalescingOctaneHttpClient(OctaneHttpClient delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        final List<String> key = getKey(octaneHttpRequest);
+        if (key == null) {
+            return delegate.execute(octaneHttpRequest);
+        }
+
+        final InFlight call = new InFlight();
+        final InFlight existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            if (existing.join()) {
+                coalescedCount.increment();
+                return existing.await(octaneHttpRequest.getDeadline());
+            }
+            // the request completed meanwhile and its response was handed to its caller alone
+            executedCount.increment();
+            return delegate.execute(octaneHttpRequest);
+        }
+
+        executedCount.increment();
+        final OctaneHttpResponse response;
+        try {
+            response = delegate.execute(octaneHttpRequest);
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            call.result.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, call);
+        if (call.closeIfAlone(0)) {
+            return response;
+        }
+        final SharedResponse sharedResponse = new SharedResponse(response);
+        call.result.complete(sharedResponse::copy);
+        return sharedResponse.copy();
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return coalesceAsync(octaneHttpRequest, () -> delegate.executeAsync(octaneHttpRequest));
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        return coalesceAsync(octaneHttpRequest, () -> delegate.executeAsync(octaneHttpRequest, executor));
+    }
+
+    /**
+     * @return the number of requests sent to the server
+     */
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    /**
+     * @return the number of requests that shared the response of another request
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    private CompletableFuture<OctaneHttpResponse> coalesceAsync(OctaneHttpRequest octaneHttpRequest,
+                                                                Supplier<CompletableFuture<OctaneHttpResponse>> call) {
+        final List<String> key = getKey(octaneHttpRequest);
+        if (key == null) {
+            return call.get();
+        }
+
+        final InFlight candidate = new InFlight();
+        final InFlight existing = inFlight.putIfAbsent(key, candidate);
+        if (existing != null) {
+            if (existing.join()) {
+                coalescedCount.increment();
+                return existing.newWaiter();
+            }
+            // the request completed meanwhile and its response was handed to its caller alone
+            executedCount.increment();
+            return call.get();
+        }
+
+        executedCount.increment();
+        candidate.join();
+        final CompletableFuture<OctaneHttpResponse> waiter = candidate.newWaiter();
+        final CompletableFuture<OctaneHttpResponse> responseFuture;
+        try {
+            responseFuture = call.get();
+        } catch (RuntimeException e) {
+            candidate.result.completeExceptionally(e);
+            inFlight.remove(key, candidate);
+            return waiter;
+        }
+        candidate.setUnderlying(responseFuture);
+        responseFuture.whenComplete((response, throwable) -> {
+            inFlight.remove(key, candidate);
+            try {
+                if (throwable != null) {
+                    candidate.result.completeExceptionally(throwable);
+                } else if (candidate.closeIfAlone(1)) {
+                    // only one caller is left waiting, possibly one that joined after the first cancelled
+                    candidate.result.complete(() -> response);
+                } else {
+                    candidate.result.complete(new SharedResponse(response)::copy);
+                }
+            } catch (RuntimeException e) {
+                candidate.result.completeExceptionally(e);
+            }
+        });
+        return waiter;
+    }
+
+    private static List<String> getKey(OctaneHttpRequest octaneHttpRequest) {
+        if (!(octaneHttpRequest instanceof OctaneHttpRequest.GetOctaneHttpRequest)) {
+            return null;
+        }
+        final OctaneHttpRequest.GetOctaneHttpRequest getRequest = (OctaneHttpRequest.GetOctaneHttpRequest) octaneHttpRequest;
+        final String acceptType = getRequest.getAcceptType();
+        if (acceptType != null && !acceptType.equals(OctaneHttpRequest.JSON_CONTENT_TYPE)) {
+            return null;
+        }
+        return Arrays.asList(getRequest.getRequestUrl(), acceptType, getRequest.getIfNoneMatch(), getRequest.getIfModifiedSince());
+    }
+
+    /**
+     * A request in flight and the callers waiting for it
+     */
+    private static final class InFlight {
+        // the number of waiters once the request completed, no caller can join it any more
+        private static final int CLOSED = -1;
+
+        // hands out the response to each caller
+        private final CompletableFuture<Supplier<OctaneHttpResponse>> result = new CompletableFuture<>();
+        // the callers waiting, without the synchronous caller executing the request
+        private final AtomicInteger waiters = new AtomicInteger();
+        private volatile Future<?> underlying;
+
+        /**
+         * Counts a new caller waiting for the request, before {@link #await(Deadline)} or {@link #newWaiter()}
+         *
+         * @return false if the request completed without the caller
+         */
+        private boolean join() {
+            int count;
+            do {
+                count = waiters.get();
+                if (count == CLOSED) {
+                    return false;
+                }
+            } while (!waiters.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        /**
+         * Stops callers from joining the completed request if no other caller than the given number waits for it, in
+         * which case the response can be handed out as is
+         *
+         * @param count the number of callers the response is for
+         * @return whether the request was closed
+         */
+        private boolean closeIfAlone(int count) {
+            return waiters.compareAndSet(count, CLOSED);
+        }
+
+        private OctaneHttpResponse await(Deadline deadline) {
+            // a synchronous caller can not cancel, the request is never aborted while it waits
+            try {
+                return (deadline == null ? result.get() : result.get(deadline.getRemainingNanos(), TimeUnit.NANOSECONDS)).get();
+            } catch (TimeoutException e) {
+                // the shared request goes on for the other callers
+                waiters.decrementAndGet();
+                throw new DeadlineExceededException("Deadline of the request exceeded");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Problem executing httprequest", e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException("Problem executing httprequest", cause);
+            }
+        }
+
+        private CompletableFuture<OctaneHttpResponse> newWaiter() {
+            final CompletableFuture<OctaneHttpResponse> waiter = new CompletableFuture<OctaneHttpResponse>() {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    final boolean cancelled = super.cancel(mayInterruptIfRunning);
+                    if (cancelled && waiters.decrementAndGet() == 0) {
+                        final Future<?> future = underlying;
+                        if (future != null) {
+                            future.cancel(mayInterruptIfRunning);
+                        }
+                    }
+                    return cancelled;
+                }
+            };
+            result.whenComplete((response, throwable) -> {
+                if (throwable != null) {
+                    waiter.completeExceptionally(throwable);
+                } else if (!waiter.isCancelled()) {
+                    waiter.complete(response.get());
+                }
+            });
+            return waiter;
+        }
+
+        private void setUnderlying(Future<?> future) {
+            underlying = future;
+            if (waiters.get() == 0) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * The content of a response read once for all the callers
+     */
+    private static final class SharedResponse {
+        private final int statusCode;
+        private final byte[] content;
+        private final Charset charset;
+        private final String eTag;
+        private final String lastModified;
+        private final ConcurrentMap<String, Object> results = new ConcurrentHashMap<>();
+
+        private SharedResponse(OctaneHttpResponse response) {
+            statusCode = response.getStatusCode();
+            content = response.getContentBytes();
+            charset = response.getCharset();
+            eTag = response.getETag();
+            lastModified = response.getLastModified();
+        }
+
+        // the copies stream the shared bytes, a copy decodes them into a string only when its content is asked for
+        private OctaneHttpResponse copy() {
+            return new OctaneHttpResponse(statusCode, new ByteArrayInputStream(content), charset)
+                    .setValidators(eTag, lastModified)
+                    .shareResults(results);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+/**
+ * Configuration of the gzip compression of a {@link OctaneHttpClient}.
+ * <p>
+ * By default responses are accepted gzip encoded, as the clients always did, and request bodies are sent as is.
+ * Instances are created using the {@link Builder} or from system properties with {@link #fromSystemProperties()}
+ * </p>
+ */
+public final class CompressionSettings {
+
+    /**
+     * Sys param names used by {@link #fromSystemProperties()}
+     */
+    public static final String ACCEPT_GZIP_PROPERTY = "octaneAcceptGzip";
+    public static final String GZIP_REQUEST_MIN_BYTES_PROPERTY = "octaneGzipRequestMinBytes";
+
+    /**
+     * Value of {@link #getGzipRequestMinBytes()} when request bodies are never compressed
+     */
+    public static final long GZIP_REQUESTS_DISABLED = -1;
+
+    private static final boolean DEFAULT_ACCEPT_GZIP = true;
+
+    private final boolean acceptGzip;
+    private final long gzipRequestMinBytes;
+
+    private CompressionSettings(Builder builder) {
+        acceptGzip = builder.acceptGzip;
+        gzipRequestMinBytes = builder.gzipRequestMinBytes;
+    }
+
+    /**
+     * Creates settings from the {@code octaneAcceptGzip} and {@code octaneGzipRequestMinBytes} system properties,
+     * using the defaults for missing properties
+     *
+     * @return settings read from the system properties
+     */
+    public static CompressionSettings fromSystemProperties() {
+        final Builder builder = new Builder();
+        final String acceptGzip = System.getProperty(ACCEPT_GZIP_PROPERTY);
+        builder.acceptGzip(acceptGzip == null ? DEFAULT_ACCEPT_GZIP : Boolean.parseBoolean(acceptGzip));
+        final long gzipRequestMinBytes = Long.getLong(GZIP_REQUEST_MIN_BYTES_PROPERTY, GZIP_REQUESTS_DISABLED);
+        if (gzipRequestMinBytes >= 0) {
+            builder.gzipRequests(gzipRequestMinBytes);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return true if the client asks the server for gzip encoded responses
+     */
+    public boolean isAcceptGzip() {
+        return acceptGzip;
+    }
+
+    /**
+     * @return minimum size of a JSON request body that is sent gzip encoded, {@link #GZIP_REQUESTS_DISABLED} if
+     * request bodies are never compressed
+     */
+    public long getGzipRequestMinBytes() {
+        return gzipRequestMinBytes;
+    }
+
+    /**
+     * @param contentLength length of the request body, negative if not known in advance
+     * @return true if a JSON body of this length should be gzip encoded.  Bodies of unknown length are streamed and
+     * compressed whenever request compression is enabled
+     */
+    public boolean shouldGzipRequest(long contentLength) {
+        return gzipRequestMinBytes != GZIP_REQUESTS_DISABLED && (contentLength < 0 || contentLength >= gzipRequestMinBytes);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AcceptGzip: %b GzipRequestMinBytes: %d", acceptGzip, gzipRequestMinBytes);
+    }
+
+    /**
+     * Builder of {@link CompressionSettings}
+     */
+    public static final class Builder {
+        private boolean acceptGzip = DEFAULT_ACCEPT_GZIP;
+        private long gzipRequestMinBytes = GZIP_REQUESTS_DISABLED;
+
+        /**
+         * @param acceptGzip - whether gzip encoded responses are accepted
+         * @return this object
+         */
+        public Builder acceptGzip(boolean acceptGzip) {
+            this.acceptGzip = acceptGzip;
+            return this;
+        }
+
+        /**
+         * Enables gzip encoding of JSON request bodies
+         *
+         * @param minBytes - bodies smaller than this are sent as is
+         * @return this object
+         */
+        public Builder gzipRequests(long minBytes) {
+            if (minBytes < 0) {
+                throw new IllegalArgumentException("minBytes must not be negative");
+            }
+            this.gzipRequestMinBytes = minBytes;
+            return this;
+        }
+
+        public CompressionSettings build() {
+            return new CompressionSettings(this);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the bytes sent and received by a {@link OctaneHttpClient}, both as transferred on the wire and after
+ * decoding.  The difference between the two is the saving of the gzip compression configured by
+ * {@link CompressionSettings}.  Headers are not counted
+ */
+public final class CompressionStatistics {
+
+    private final LongAdder requestBytesOnWire = new LongAdder();
+    private final LongAdder requestBytesDecoded = new LongAdder();
+    private final LongAdder responseBytesOnWire = new LongAdder();
+    private final LongAdder responseBytesDecoded = new LongAdder();
+
+    public void addRequestBytesOnWire(long bytes) {
+        requestBytesOnWire.add(bytes);
+    }
+
+    public void addRequestBytesDecoded(long bytes) {
+        requestBytesDecoded.add(bytes);
+    }
+
+    public void addResponseBytesOnWire(long bytes) {
+        responseBytesOnWire.add(bytes);
+    }
+
+    public void addResponseBytesDecoded(long bytes) {
+        responseBytesDecoded.add(bytes);
+    }
+
+    /**
+     * @return number of request body bytes written to the connection
+     */
+    public long getRequestBytesOnWire() {
+        return requestBytesOnWire.sum();
+    }
+
+    /**
+     * @return number of request body bytes before compression
+     */
+    public long getRequestBytesDecoded() {
+        return requestBytesDecoded.sum();
+    }
+
+    /**
+     * @return number of response body bytes read from the connection
+     */
+    public long getResponseBytesOnWire() {
+        return responseBytesOnWire.sum();
+    }
+
+    /**
+     * @return number of response body bytes after decompression
+     */
+    public long getResponseBytesDecoded() {
+        return responseBytesDecoded.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Requests: %d bytes on wire / %d decoded Responses: %d bytes on wire / %d decoded",
+                getRequestBytesOnWire(), getRequestBytesDecoded(), getResponseBytesOnWire(), getResponseBytesDecoded());
+    }
+}
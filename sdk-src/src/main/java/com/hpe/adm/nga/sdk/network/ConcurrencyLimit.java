@@ -0,0 +1,368 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive limit of the number of requests in flight.  Requests over the limit wait in order until a request
+ * completes.  The limit is adjusted after every request from its round trip time and outcome:
+ * <ul>
+ *     <li>{@link Algorithm#AIMD}: the limit grows by one per round trip while the requests succeed and is cut by the
+ *     backoff ratio when a request is dropped or slower than the slow call threshold</li>
+ *     <li>{@link Algorithm#GRADIENT}: the limit follows the ratio of the long term round trip time to the current one,
+ *     so it grows while the latency stays flat and shrinks as soon as the latency climbs.  It is also cut by the
+ *     backoff ratio when a request is dropped</li>
+ * </ul>
+ * A request is dropped when the server answers with 429 Too Many Requests or a 5xx status, or when it fails with an
+ * I/O error such as a read timeout.  The limit only grows while it is in use, so it does not drift up while the client
+ * is idle.
+ * <p>
+ * By default the AIMD algorithm is used, starting at 20 requests, between 1 and 200, with a backoff ratio of 0.9 and a
+ * slow call threshold of 5 seconds.
+ * </p>
+ * <p>
+ * A limit is thread safe and can be given to several {@link com.hpe.adm.nga.sdk.Octane.Builder}s so that all the
+ * contexts pointing at the same server share it
+ * </p>
+ */
+public final class ConcurrencyLimit {
+
+    /**
+     * Algorithm adjusting the limit
+     */
+    public enum Algorithm {
+        AIMD,
+        GRADIENT
+    }
+
+    // weight of a sample in the long term round trip time, about the last hundred requests
+    private static final double LONG_RTT_WEIGHT = 0.01;
+
+    private final Algorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long slowCallNanos;
+    private final double tolerance;
+    private final double smoothing;
+
+    // guarded by this
+    private double limit;
+    private int inFlight;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private double longRttNanos;
+
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder queuedCount = new LongAdder();
+    private final LongAdder totalQueueNanos = new LongAdder();
+    private volatile long lastRttNanos;
+
+    private ConcurrencyLimit(Builder builder) {
+        algorithm = builder.algorithm;
+        minLimit = builder.minLimit;
+        maxLimit = builder.maxLimit;
+        backoffRatio = builder.backoffRatio;
+        slowCallNanos = builder.slowCallNanos;
+        tolerance = builder.tolerance;
+        smoothing = builder.smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, builder.initialLimit));
+    }
+
+    /**
+     * @return a limit with the default settings
+     */
+    public static ConcurrencyLimit defaultLimit() {
+        return new Builder().build();
+    }
+
+    /**
+     * Takes a slot for a request, running the action once it is taken: immediately if the limit is not reached,
+     * otherwise when a request in flight completes.  The action must be quick, it runs on the thread releasing the slot
+     *
+     * @param onAcquired action sending the request
+     * @return the handle to give to {@link #cancel(Object)} if the request is abandoned while waiting
+     */
+    Object acquire(Runnable onAcquired) {
+        final Waiter waiter = new Waiter(onAcquired);
+        synchronized (this) {
+            if (waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                acquiredCount.increment();
+                waiter.queued = false;
+            } else {
+                waiters.add(waiter);
+                queuedCount.increment();
+            }
+        }
+        if (!waiter.queued) {
+            onAcquired.run();
+        }
+        return waiter;
+    }
+
+    /**
+     * Removes a request that is still waiting for a slot
+     *
+     * @param handle the handle returned by {@link #acquire(Runnable)}
+     * @return false if the request already took its slot, which must then be released
+     */
+    boolean cancel(Object handle) {
+        synchronized (this) {
+            return waiters.remove(handle);
+        }
+    }
+
+    /**
+     * Gives back the slot of a completed request and adjusts the limit
+     *
+     * @param rttNanos round trip time of the request
+     * @param outcome  how the request completed
+     */
+    void release(long rttNanos, RequestOutcome outcome) {
+        final List<Waiter> granted;
+        synchronized (this) {
+            final boolean limited = inFlight * 2 >= limit;
+            inFlight--;
+            adjust(rttNanos, outcome, limited);
+            granted = grant();
+        }
+        if (outcome != RequestOutcome.IGNORED) {
+            lastRttNanos = rttNanos;
+        }
+        if (outcome == RequestOutcome.DROPPED) {
+            droppedCount.increment();
+        }
+        granted.forEach(waiter -> waiter.onAcquired.run());
+    }
+
+    // called while holding the lock
+    private void adjust(long rttNanos, RequestOutcome outcome, boolean limited) {
+        if (outcome == RequestOutcome.IGNORED) {
+            return;
+        }
+        if (outcome == RequestOutcome.DROPPED || (algorithm == Algorithm.AIMD && rttNanos > slowCallNanos)) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        if (algorithm == Algorithm.AIMD) {
+            if (limited) {
+                // one more slot per round trip of the whole window
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            return;
+        }
+
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos * (1 - LONG_RTT_WEIGHT) + rttNanos * LONG_RTT_WEIGHT;
+        if (longRttNanos > rttNanos * 2) {
+            // the latency recovered, let the baseline follow it down
+            longRttNanos = rttNanos;
+        }
+        if (!limited) {
+            return;
+        }
+        final double gradient = Math.max(0.5, Math.min(1, tolerance * longRttNanos / Math.max(1, rttNanos)));
+        final double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + newLimit * smoothing));
+    }
+
+    // called while holding the lock
+    private List<Waiter> grant() {
+        final List<Waiter> granted = new ArrayList<>();
+        final long now = System.nanoTime();
+        while (!waiters.isEmpty() && inFlight < (int) limit) {
+            final Waiter waiter = waiters.poll();
+            inFlight++;
+            acquiredCount.increment();
+            totalQueueNanos.add(now - waiter.enqueuedNanos);
+            granted.add(waiter);
+        }
+        return granted;
+    }
+
+    /**
+     * @return the number of requests allowed in flight
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return the number of requests in flight
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of requests waiting for a slot
+     */
+    public synchronized int getQueueLength() {
+        return waiters.size();
+    }
+
+    /**
+     * @return the number of slots handed out
+     */
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    /**
+     * @return the number of requests that had to wait for a slot
+     */
+    public long getQueuedCount() {
+        return queuedCount.sum();
+    }
+
+    /**
+     * @return the number of requests that were dropped by the server or timed out, each of which cut the limit
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @return the average time a request waited for its slot, in milliseconds
+     */
+    public double getAverageQueueDelayMillis() {
+        final long acquired = acquiredCount.sum();
+        return acquired == 0 ? 0 : (double) totalQueueNanos.sum() / acquired / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the round trip time of the last completed request, in milliseconds
+     */
+    public long getLastRoundTripMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastRttNanos);
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConcurrencyLimit %s limit: %d [%d-%d] inFlight: %d queued: %d",
+                algorithm, getLimit(), minLimit, maxLimit, getInFlight(), getQueueLength());
+    }
+
+    /**
+     * A request waiting for a slot
+     */
+    private static final class Waiter {
+        private final Runnable onAcquired;
+        private final long enqueuedNanos = System.nanoTime();
+        private boolean queued = true;
+
+        private Waiter(Runnable onAcquired) {
+            this.onAcquired = onAcquired;
+        }
+    }
+
+    /**
+     * Builder of {@link ConcurrencyLimit}
+     */
+    public static final class Builder {
+        private Algorithm algorithm = Algorithm.AIMD;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+        private long slowCallNanos = TimeUnit.SECONDS.toNanos(5);
+        private double tolerance = 2;
+        private double smoothing = 0.2;
+
+        /**
+         * @param algorithm - the algorithm adjusting the limit
+         * @return this object
+         */
+        public Builder algorithm(Algorithm algorithm) {
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        /**
+         * @param initialLimit - the limit before any request completed
+         * @param minLimit     - the lowest limit, at least 1
+         * @param maxLimit     - the highest limit
+         * @return this object
+         */
+        public Builder limits(int initialLimit, int minLimit, int maxLimit) {
+            if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Invalid limits " + initialLimit + " [" + minLimit + "-" + maxLimit + "]");
+            }
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * @param backoffRatio - the factor applied to the limit when a request is dropped, eg 0.9
+         * @return this object
+         */
+        public Builder backoffRatio(double backoffRatio) {
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("backoffRatio must be between 0 and 1: " + backoffRatio);
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * Used by the {@link Algorithm#AIMD} algorithm: a request slower than the threshold cuts the limit like a
+         * dropped request
+         *
+         * @param slowCallThreshold - the round trip time above which a request is too slow
+         * @return this object
+         */
+        public Builder slowCallThreshold(Duration slowCallThreshold) {
+            if (slowCallThreshold.isNegative() || slowCallThreshold.isZero()) {
+                throw new IllegalArgumentException("slowCallThreshold must be positive: " + slowCallThreshold);
+            }
+            this.slowCallNanos = slowCallThreshold.toNanos();
+            return this;
+        }
+
+        /**
+         * Used by the {@link Algorithm#GRADIENT} algorithm
+         *
+         * @param tolerance - how much higher than the long term round trip time the current one may be before the
+         *                  limit shrinks, eg 2
+         * @param smoothing - how fast the limit moves towards its new value, between 0 and 1
+         * @return this object
+         */
+        public Builder gradient(double tolerance, double smoothing) {
+            if (tolerance < 1 || smoothing <= 0 || smoothing > 1) {
+                throw new IllegalArgumentException("Invalid gradient tolerance " + tolerance + " smoothing " + smoothing);
+            }
+            this.tolerance = tolerance;
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        public ConcurrencyLimit build() {
+            return new ConcurrencyLimit(this);
+        }
+    }
+}
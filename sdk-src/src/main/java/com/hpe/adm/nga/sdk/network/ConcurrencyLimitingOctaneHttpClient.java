@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes a slot of the configured {@link ConcurrencyLimit} for each request of the wrapped client and reports the round
+ * trip time and outcome of the request when it completes.  Used by the {@link com.hpe.adm.nga.sdk.Octane.Builder}
+ * when a concurrency limit has been set.
+ * <p>
+ * Synchronous requests wait for a slot on the calling thread, asynchronous requests are queued without blocking a
+ * thread and sent when a slot is released.  Cancelling a queued asynchronous request removes it from the queue.  A
+ * synchronous request still waiting for a slot when its {@link Deadline} passes fails with a
+ * {@link DeadlineExceededException}
+ * </p>
+ */
+public final class ConcurrencyLimitingOctaneHttpClient extends DelegatingOctaneHttpClient {
+
+    private final ConcurrencyLimit concurrencyLimit;
+
+    public ConcurrencyLimitingOctaneHttpClient(OctaneHttpClient delegate, ConcurrencyLimit concurrencyLimit) {
+        super(delegate);
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Object handle = concurrencyLimit.acquire(acquired::countDown);
+        final Deadline deadline = octaneHttpRequest.getDeadline();
+        try {
+            if (deadline == null) {
+                acquired.await();
+            } else if (!acquired.await(deadline.getRemainingNanos(), TimeUnit.NANOSECONDS) && concurrencyLimit.cancel(handle)) {
+                throw new DeadlineExceededException("Deadline of the request exceeded waiting for a concurrency slot");
+            }
+        } catch (InterruptedException e) {
+            if (!concurrencyLimit.cancel(handle)) {
+                concurrencyLimit.release(0, RequestOutcome.IGNORED);
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Problem executing httprequest", e);
+        }
+
+        final long start = System.nanoTime();
+        RequestOutcome outcome = RequestOutcome.IGNORED;
+        try {
+            final OctaneHttpResponse response = delegate.execute(octaneHttpRequest);
+            outcome = RequestOutcome.SUCCESS;
+            return response;
+        } catch (RuntimeException e) {
+            outcome = RequestOutcome.of(e);
+            throw e;
+        } finally {
+            concurrencyLimit.release(System.nanoTime() - start, outcome);
+        }
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return executeAsync(octaneHttpRequest, DefaultAsyncExecutor.getInstance());
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        final RelayFuture result = new RelayFuture();
+        final Object handle = concurrencyLimit.acquire(() -> send(octaneHttpRequest, executor, result));
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                concurrencyLimit.cancel(handle);
+            }
+        });
+        return result;
+    }
+
+    public ConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    private void send(OctaneHttpRequest octaneHttpRequest, Executor executor, RelayFuture result) {
+        if (result.isDone()) {
+            concurrencyLimit.release(0, RequestOutcome.IGNORED);
+            return;
+        }
+        final long start = System.nanoTime();
+        final CompletableFuture<OctaneHttpResponse> future;
+        try {
+            future = delegate.executeAsync(octaneHttpRequest, executor);
+        } catch (RuntimeException e) {
+            concurrencyLimit.release(System.nanoTime() - start, RequestOutcome.IGNORED);
+            result.completeExceptionally(e);
+            return;
+        }
+        future.whenComplete((response, throwable) -> {
+            final RequestOutcome outcome;
+            if (throwable == null) {
+                outcome = RequestOutcome.SUCCESS;
+            } else if (future.isCancelled()) {
+                outcome = RequestOutcome.IGNORED;
+            } else {
+                outcome = RequestOutcome.of(throwable);
+            }
+            concurrencyLimit.release(System.nanoTime() - start, outcome);
+        });
+        result.relay(future);
+    }
+}
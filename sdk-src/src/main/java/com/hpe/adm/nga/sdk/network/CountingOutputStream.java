@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Stream reporting the number of bytes written through it
+ */
+public final class CountingOutputStream extends FilterOutputStream {
+
+    private final LongConsumer counter;
+
+    /**
+     * @param out     the stream to write to
+     * @param counter receives the number of bytes of every write
+     */
+    public CountingOutputStream(OutputStream out, LongConsumer counter) {
+        super(out);
+        this.counter = counter;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        counter.accept(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        counter.accept(len);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which a request, including its retries and re-authentication, must be completed.  Set on an
+ * {@link OctaneHttpRequest}; every step of the clients that waits, such as a backoff or a read from the server, is
+ * shortened to the time remaining
+ */
+public final class Deadline {
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @param timeout - the time the request may take from now
+     * @return the deadline
+     */
+    public static Deadline after(Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must not be negative: " + timeout);
+        }
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * @return the time left, never negative
+     */
+    public long getRemainingNanos() {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * @return the time left in milliseconds, rounded up so that a deadline that is not reached yet has some time left
+     */
+    public long getRemainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(getRemainingNanos() + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * @param timeoutMillis a timeout of a single step, 0 meaning no timeout
+     * @return the timeout shortened to the time left, at least 1ms
+     */
+    public int shorten(int timeoutMillis) {
+        final long remaining = Math.max(1, getRemainingMillis());
+        return (int) (timeoutMillis == 0 ? Math.min(Integer.MAX_VALUE, remaining) : Math.min(timeoutMillis, remaining));
+    }
+
+    /**
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check() {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Deadline of the request exceeded");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline in " + TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()) + "ms";
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.authentication.Authentication;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Base class for {@link OctaneHttpClient} implementations that add behaviour on top of another client.
+ * All calls are forwarded to the wrapped client unless overridden
+ */
+public abstract class DelegatingOctaneHttpClient implements OctaneHttpClient {
+
+    protected final OctaneHttpClient delegate;
+
+    protected DelegatingOctaneHttpClient(OctaneHttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the wrapped client
+     */
+    public final OctaneHttpClient getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean authenticate(Authentication authentication) {
+        return delegate.authenticate(authentication);
+    }
+
+    @Override
+    public void signOut() {
+        delegate.signOut();
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        return delegate.execute(octaneHttpRequest);
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return delegate.executeAsync(octaneHttpRequest);
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        return delegate.executeAsync(octaneHttpRequest, executor);
+    }
+
+    @Override
+    public void setCompressionSettings(CompressionSettings compressionSettings) {
+        delegate.setCompressionSettings(compressionSettings);
+    }
+
+    @Override
+    public void setSessionRefreshSettings(SessionRefreshSettings sessionRefreshSettings) {
+        delegate.setSessionRefreshSettings(sessionRefreshSettings);
+    }
+
+    @Override
+    public void setTimeoutSettings(TimeoutSettings timeoutSettings) {
+        delegate.setTimeoutSettings(timeoutSettings);
+    }
+
+    @Override
+    public TimeoutSettings getTimeoutSettings() {
+        return delegate.getTimeoutSettings();
+    }
+
+    @Override
+    public CompressionStatistics getCompressionStatistics() {
+        return delegate.getCompressionStatistics();
+    }
+}
@@ -0,0 +1,693 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import com.hpe.adm.nga.sdk.model.FieldModel;
+import com.hpe.adm.nga.sdk.model.MultiReferenceFieldModel;
+import com.hpe.adm.nga.sdk.model.ReferenceFieldModel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In memory cache of the entities read by id, set on the {@link com.hpe.adm.nga.sdk.Octane.Builder}.  An entity is
+ * cached for the workspace, entity type, id and set of fields it was read with; reading it again with the same fields
+ * returns a copy of the cached entity without a request to the server.
+ * <p>
+ * The cache is normalized: an entity is held once, whether it was read by id or came as the reference of another
+ * entity, and every cached result it appears in shows its latest values.  An entity known with all the requested
+ * fields, for instance the release referenced by a cached defect, is served without having been read by id; its
+ * references then carry their id, type and name.
+ * </p>
+ * <p>
+ * Results are evicted when the cache holds more than {@code maximumSize} of them or their weight, the number of fields
+ * they hold, exceeds {@code maximumWeight}, choosing the results to evict with {@link Eviction#W_TINY_LFU} or
+ * {@link Eviction#LRU}.  Results, and each field value of the entities they hold, expire {@code expireAfterWrite}
+ * after they were read.  Updating or deleting entities through the same context removes them, and the results that
+ * reference them, from the cache
+ * </p>
+ * <p>
+ * The cache is thread safe.  It should only be shared by contexts that sign in as the same user
+ * </p>
+ */
+public final class EntityCache {
+
+    /**
+     * How the cache chooses the results to evict
+     */
+    public enum Eviction {
+        /**
+         * The least recently used result is evicted
+         */
+        LRU,
+        /**
+         * Window TinyLFU: recently read results are only kept if they are used more often than the results they
+         * would replace, which protects the results used all the time from scans
+         */
+        W_TINY_LFU
+    }
+
+    private static final String ID_FIELD_NAME = "id";
+    private static final String TYPE_FIELD_NAME = "type";
+    private static final String NAME_FIELD_NAME = "name";
+    private static final Set<String> REFERENCE_FIELD_NAMES = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(ID_FIELD_NAME, TYPE_FIELD_NAME, NAME_FIELD_NAME)));
+
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final long expireAfterWriteNanos;
+    private final Eviction eviction;
+    private final LongSupplier ticker;
+
+    // guarded by this
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final Map<NodeKey, Node> nodes = new HashMap<>();
+    private final Map<String, String> collectionTypes = new HashMap<>();
+    private final EvictionPolicy<Key> evictionPolicy;
+    private long weight;
+    private long invalidations;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private EntityCache(Builder builder) {
+        maximumSize = builder.maximumSize;
+        maximumWeight = builder.maximumWeight;
+        expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        eviction = builder.eviction;
+        ticker = builder.ticker;
+        evictionPolicy = EvictionPolicy.create(eviction, maximumSize);
+    }
+
+    /**
+     * Returns a copy of a cached entity
+     *
+     * @param collectionUrl the url of the entity collection, including the workspace
+     * @param id            the id of the entity
+     * @param fields        the fields parameter of the request, null for all the fields
+     * @return the copy, null if the entity is not cached
+     */
+    EntityModel get(String collectionUrl, String id, String fields) {
+        final Key key = new Key(collectionUrl, id, parseFields(fields));
+        final EntityModel entityModel;
+        synchronized (this) {
+            entityModel = lookup(key, ticker.getAsLong());
+        }
+        if (entityModel == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return entityModel;
+    }
+
+    /**
+     * @return the stamp to give to {@link #put(String, String, String, EntityModel, long)} with an entity read after
+     * this call
+     */
+    synchronized long stamp() {
+        return invalidations;
+    }
+
+    /**
+     * Caches an entity read from the server.  The entity is ignored if entities were invalidated since the stamp was
+     * taken, as it may have been read before they changed
+     *
+     * @param collectionUrl the url of the entity collection, including the workspace
+     * @param id            the id of the entity
+     * @param fields        the fields parameter of the request, null for all the fields
+     * @param entityModel   the entity, it is copied
+     * @param stamp         the {@link #stamp()} taken before the entity was requested
+     */
+    void put(String collectionUrl, String id, String fields, EntityModel entityModel, long stamp) {
+        final Key key = new Key(collectionUrl, id, parseFields(fields));
+        final EntityModel copy = new EntityModel(entityModel);
+        synchronized (this) {
+            if (stamp != invalidations) {
+                return;
+            }
+            final Entry previous = entries.get(key);
+            if (previous != null) {
+                removeEntry(previous);
+            }
+
+            final long now = ticker.getAsLong();
+            String type = stringValue(copy, TYPE_FIELD_NAME);
+            if (type != null) {
+                collectionTypes.put(collectionUrl, type);
+            } else {
+                type = collectionName(collectionUrl);
+            }
+            final String entityId = stringValue(copy, ID_FIELD_NAME);
+            final Entry entry = new Entry(key, new NodeKey(workspaceUrl(collectionUrl), type, entityId != null ? entityId : id), now + expireAfterWriteNanos);
+            mergeEntity(entry, copy, now);
+            entries.put(key, entry);
+            weight += entry.weight;
+            evictionPolicy.add(key);
+
+            while (entries.size() > maximumSize || weight > maximumWeight) {
+                final Key victim = evictionPolicy.evict();
+                if (victim == null) {
+                    break;
+                }
+                final Entry evicted = entries.get(victim);
+                if (evicted != null) {
+                    detachEntry(evicted);
+                    evictionCount.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes an entity that was updated or deleted, and the results that reference it
+     *
+     * @param collectionUrl the url of the entity collection, including the workspace
+     * @param id            the id of the entity
+     * @param typeHint      the type of the entity if known, otherwise null
+     */
+    synchronized void invalidate(String collectionUrl, String id, String typeHint) {
+        invalidations++;
+        final String workspaceUrl = workspaceUrl(collectionUrl);
+        for (String type : candidateTypes(collectionUrl, typeHint == null ? Collections.emptySet() : Collections.singleton(typeHint))) {
+            removeNode(new NodeKey(workspaceUrl, type, id));
+        }
+    }
+
+    /**
+     * Removes the entities of a collection that were updated or deleted in bulk, and the results that reference them
+     *
+     * @param collectionUrl the url of the entity collection, including the workspace
+     * @param typeHints     the types of the entities if known
+     */
+    synchronized void invalidateCollection(String collectionUrl, Collection<String> typeHints) {
+        invalidations++;
+        final String workspaceUrl = workspaceUrl(collectionUrl);
+        final Set<String> types = candidateTypes(collectionUrl, typeHints);
+        new ArrayList<>(nodes.keySet()).stream()
+                .filter(nodeKey -> nodeKey.workspaceUrl.equals(workspaceUrl) && types.contains(nodeKey.type))
+                .forEach(this::removeNode);
+        new ArrayList<>(entries.values()).stream()
+                .filter(entry -> entry.key.collectionUrl.equals(collectionUrl))
+                .forEach(this::removeEntry);
+    }
+
+    /**
+     * Removes all the entities
+     */
+    public synchronized void invalidateAll() {
+        invalidations++;
+        entries.clear();
+        nodes.clear();
+        evictionPolicy.clear();
+        weight = 0;
+    }
+
+    /**
+     * @return the number of cached results
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of fields held by the cached results
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the number of entities held once for all the results they appear in
+     */
+    public synchronized int getEntityCount() {
+        return nodes.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return the share of the lookups answered from the cache, 0 if there were none
+     */
+    public double getHitRatio() {
+        final long hits = hitCount.sum();
+        final long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("EntityCache %s size: %d/%d weight: %d/%d expireAfterWrite: %dms hitRatio: %.2f",
+                eviction, size(), maximumSize, getWeight(), maximumWeight,
+                TimeUnit.NANOSECONDS.toMillis(expireAfterWriteNanos), getHitRatio());
+    }
+
+    private EntityModel lookup(Key key, long now) {
+        evictionPolicy.recordRead(key);
+        final Entry entry = entries.get(key);
+        if (entry != null) {
+            final EntityModel entityModel = entry.expiresAt - now > 0
+                    ? materialize(entry.nodeKey, entry.fieldNames, entry.referenceFieldNames, now)
+                    : null;
+            if (entityModel == null) {
+                removeEntry(entry);
+            } else {
+                evictionPolicy.recordAccess(key);
+            }
+            return entityModel;
+        }
+
+        if (key.fields.isEmpty()) {
+            return null;
+        }
+        // an entity known with all the requested fields, for instance as the reference of another entity
+        final Set<String> fieldNames = new HashSet<>(key.fields);
+        fieldNames.add(ID_FIELD_NAME);
+        fieldNames.add(TYPE_FIELD_NAME);
+        final String workspaceUrl = workspaceUrl(key.collectionUrl);
+        for (String type : candidateTypes(key.collectionUrl, Collections.emptySet())) {
+            final NodeKey nodeKey = new NodeKey(workspaceUrl, type, key.id);
+            if (nodes.containsKey(nodeKey)) {
+                return materialize(nodeKey, fieldNames, Collections.emptyMap(), now);
+            }
+        }
+        return null;
+    }
+
+    private EntityModel materialize(NodeKey nodeKey, Set<String> fieldNames, Map<String, Set<String>> referenceFieldNames, long now) {
+        final Node node = nodes.get(nodeKey);
+        if (node == null) {
+            return null;
+        }
+        final EntityModel view = new EntityModel();
+        for (String fieldName : fieldNames) {
+            final FieldModel field = isLive(node, fieldName, now) ? node.model.getValue(fieldName) : null;
+            if (field == null) {
+                return null;
+            }
+            final Set<String> shape = referenceFieldNames.getOrDefault(fieldName, REFERENCE_FIELD_NAMES);
+            if (field instanceof ReferenceFieldModel) {
+                final EntityModel reference = ((ReferenceFieldModel) field).getValue();
+                final EntityModel referenceView = reference == null ? null : referenceView(nodeKey.workspaceUrl, reference, shape, now);
+                if (reference != null && referenceView == null) {
+                    return null;
+                }
+                view.setValue(new ReferenceFieldModel(fieldName, referenceView));
+            } else if (field instanceof MultiReferenceFieldModel && ((MultiReferenceFieldModel) field).getValue() != null) {
+                final List<EntityModel> referenceViews = new ArrayList<>();
+                for (EntityModel reference : ((MultiReferenceFieldModel) field).getValue()) {
+                    final EntityModel referenceView = reference == null ? null : referenceView(nodeKey.workspaceUrl, reference, shape, now);
+                    if (reference != null && referenceView == null) {
+                        return null;
+                    }
+                    referenceViews.add(referenceView);
+                }
+                view.setValue(new MultiReferenceFieldModel(fieldName, referenceViews));
+            } else {
+                view.setValue(field);
+            }
+        }
+        // the view shares the fields of the cache, the copy does not
+        return new EntityModel(view);
+    }
+
+    private EntityModel referenceView(String workspaceUrl, EntityModel reference, Set<String> fieldNames, long now) {
+        final NodeKey nodeKey = nodeKey(workspaceUrl, reference);
+        if (nodeKey == null) {
+            return reference;
+        }
+        final Node node = nodes.get(nodeKey);
+        if (node == null) {
+            return null;
+        }
+        final EntityModel view = new EntityModel();
+        for (String fieldName : fieldNames) {
+            final FieldModel field = node.model.getValue(fieldName);
+            if (field != null && !isLive(node, fieldName, now)) {
+                return null;
+            }
+            if (field instanceof ReferenceFieldModel) {
+                final EntityModel nested = ((ReferenceFieldModel) field).getValue();
+                view.setValue(new ReferenceFieldModel(fieldName, nested == null ? null : stub(nested)));
+            } else if (field instanceof MultiReferenceFieldModel && ((MultiReferenceFieldModel) field).getValue() != null) {
+                final List<EntityModel> stubs = new ArrayList<>();
+                ((MultiReferenceFieldModel) field).getValue().forEach(nested -> stubs.add(nested == null ? null : stub(nested)));
+                view.setValue(new MultiReferenceFieldModel(fieldName, stubs));
+            } else if (field != null) {
+                view.setValue(field);
+            }
+        }
+        return view;
+    }
+
+    private void mergeEntity(Entry entry, EntityModel entityModel, long now) {
+        final Node node = attachNode(entry, entry.nodeKey);
+        for (FieldModel field : entityModel.getValues()) {
+            final String fieldName = field.getName();
+            entry.fieldNames.add(fieldName);
+            if (field instanceof ReferenceFieldModel) {
+                final EntityModel reference = ((ReferenceFieldModel) field).getValue();
+                setField(node, new ReferenceFieldModel(fieldName, mergeReference(entry, fieldName, reference, now)), now);
+            } else if (field instanceof MultiReferenceFieldModel && ((MultiReferenceFieldModel) field).getValue() != null) {
+                final List<EntityModel> references = new ArrayList<>();
+                ((MultiReferenceFieldModel) field).getValue().forEach(reference -> references.add(mergeReference(entry, fieldName, reference, now)));
+                setField(node, new MultiReferenceFieldModel(fieldName, references), now);
+            } else {
+                setField(node, field, now);
+            }
+        }
+        entry.weight = entry.fieldNames.size();
+        entry.referenceFieldNames.values().forEach(shape -> entry.weight += shape.size());
+    }
+
+    private EntityModel mergeReference(Entry entry, String fieldName, EntityModel reference, long now) {
+        if (reference == null) {
+            return null;
+        }
+        final Set<String> shape = entry.referenceFieldNames.computeIfAbsent(fieldName, name -> new HashSet<>());
+        reference.getValues().forEach(field -> shape.add(field.getName()));
+        final NodeKey nodeKey = nodeKey(entry.nodeKey.workspaceUrl, reference);
+        if (nodeKey == null) {
+            return reference;
+        }
+        final Node node = attachNode(entry, nodeKey);
+        reference.getValues().forEach(field -> setField(node, field, now));
+        return node.model;
+    }
+
+    private Node attachNode(Entry entry, NodeKey nodeKey) {
+        final Node node = nodes.computeIfAbsent(nodeKey, key -> new Node());
+        node.keys.add(entry.key);
+        entry.nodeKeys.add(nodeKey);
+        return node;
+    }
+
+    private void setField(Node node, FieldModel field, long now) {
+        node.model.setValue(field);
+        node.expiresAt.put(field.getName(), now + expireAfterWriteNanos);
+    }
+
+    /**
+     * Whether the value of a field was read less than {@code expireAfterWrite} ago.  A node outlives the results that
+     * wrote its fields as long as another result holds it, so its fields expire one by one
+     */
+    private static boolean isLive(Node node, String fieldName, long now) {
+        final Long expiresAt = node.expiresAt.get(fieldName);
+        return expiresAt != null && expiresAt - now > 0;
+    }
+
+    private void removeNode(NodeKey nodeKey) {
+        final Node node = nodes.remove(nodeKey);
+        if (node != null) {
+            new ArrayList<>(node.keys).forEach(key -> {
+                final Entry entry = entries.get(key);
+                if (entry != null) {
+                    removeEntry(entry);
+                }
+            });
+        }
+    }
+
+    private void removeEntry(Entry entry) {
+        evictionPolicy.remove(entry.key);
+        detachEntry(entry);
+    }
+
+    private void detachEntry(Entry entry) {
+        entries.remove(entry.key);
+        weight -= entry.weight;
+        for (NodeKey nodeKey : entry.nodeKeys) {
+            final Node node = nodes.get(nodeKey);
+            if (node != null) {
+                node.keys.remove(entry.key);
+                if (node.keys.isEmpty()) {
+                    nodes.remove(nodeKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * The entity types the entities of a collection may have: the type learned from the cached entities of the
+     * collection, the types given and the singular forms of the collection name
+     */
+    private Set<String> candidateTypes(String collectionUrl, Collection<String> typeHints) {
+        final Set<String> types = new LinkedHashSet<>(typeHints);
+        final String learnedType = collectionTypes.get(collectionUrl);
+        if (learnedType != null) {
+            types.add(learnedType);
+        }
+        final String collectionName = collectionName(collectionUrl);
+        types.add(collectionName);
+        if (collectionName.endsWith("ies")) {
+            types.add(collectionName.substring(0, collectionName.length() - 3) + "y");
+        }
+        if (collectionName.endsWith("es")) {
+            types.add(collectionName.substring(0, collectionName.length() - 2));
+        }
+        if (collectionName.endsWith("s")) {
+            types.add(collectionName.substring(0, collectionName.length() - 1));
+        }
+        return types;
+    }
+
+    private static NodeKey nodeKey(String workspaceUrl, EntityModel entityModel) {
+        final String type = stringValue(entityModel, TYPE_FIELD_NAME);
+        final String id = stringValue(entityModel, ID_FIELD_NAME);
+        return type == null || id == null ? null : new NodeKey(workspaceUrl, type, id);
+    }
+
+    private static EntityModel stub(EntityModel reference) {
+        final EntityModel stub = new EntityModel();
+        final FieldModel type = reference.getValue(TYPE_FIELD_NAME);
+        final FieldModel id = reference.getValue(ID_FIELD_NAME);
+        if (type != null) {
+            stub.setValue(type);
+        }
+        if (id != null) {
+            stub.setValue(id);
+        }
+        return stub;
+    }
+
+    private static String stringValue(EntityModel entityModel, String fieldName) {
+        final FieldModel field = entityModel.getValue(fieldName);
+        return field == null || field.getValue() == null ? null : String.valueOf(field.getValue());
+    }
+
+    private static Set<String> parseFields(String fields) {
+        final Set<String> fieldNames = new TreeSet<>();
+        if (fields != null) {
+            for (String field : fields.split(",")) {
+                if (!field.trim().isEmpty()) {
+                    fieldNames.add(field.trim());
+                }
+            }
+        }
+        return fieldNames;
+    }
+
+    private static String collectionName(String collectionUrl) {
+        return collectionUrl.substring(collectionUrl.lastIndexOf('/') + 1);
+    }
+
+    private static String workspaceUrl(String collectionUrl) {
+        final int index = collectionUrl.lastIndexOf('/');
+        return index < 0 ? "" : collectionUrl.substring(0, index);
+    }
+
+    /**
+     * A cached result: the entity read with a set of fields
+     */
+    private static final class Key {
+        private final String collectionUrl;
+        private final String id;
+        private final Set<String> fields;
+        private final int hashCode;
+
+        private Key(String collectionUrl, String id, Set<String> fields) {
+            this.collectionUrl = collectionUrl;
+            this.id = id;
+            this.fields = fields;
+            hashCode = Objects.hash(collectionUrl, id, fields);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return collectionUrl.equals(key.collectionUrl) && id.equals(key.id) && fields.equals(key.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * An entity of a workspace, held once for all the results it appears in
+     */
+    private static final class NodeKey {
+        private final String workspaceUrl;
+        private final String type;
+        private final String id;
+
+        private NodeKey(String workspaceUrl, String type, String id) {
+            this.workspaceUrl = workspaceUrl;
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof NodeKey)) {
+                return false;
+            }
+            final NodeKey nodeKey = (NodeKey) o;
+            return workspaceUrl.equals(nodeKey.workspaceUrl) && type.equals(nodeKey.type) && id.equals(nodeKey.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(workspaceUrl, type, id);
+        }
+    }
+
+    private static final class Node {
+        // the latest values of the fields of the entity; references of entities read by id point to their nodes
+        private final EntityModel model = new EntityModel();
+        // the results the entity appears in
+        private final Set<Key> keys = new HashSet<>();
+        // when the value of each field expires, by field name
+        private final Map<String, Long> expiresAt = new HashMap<>();
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final NodeKey nodeKey;
+        private final long expiresAt;
+        private final Set<String> fieldNames = new HashSet<>();
+        // the fields of the referenced entities, by reference field
+        private final Map<String, Set<String>> referenceFieldNames = new HashMap<>();
+        private final Set<NodeKey> nodeKeys = new HashSet<>();
+        private long weight;
+
+        private Entry(Key key, NodeKey nodeKey, long expiresAt) {
+            this.key = key;
+            this.nodeKey = nodeKey;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Builder of {@link EntityCache}
+     */
+    public static final class Builder {
+        private long maximumSize = 10_000;
+        private long maximumWeight = Long.MAX_VALUE;
+        private long expireAfterWriteNanos = TimeUnit.MINUTES.toNanos(5);
+        private Eviction eviction = Eviction.W_TINY_LFU;
+        private LongSupplier ticker = System::nanoTime;
+
+        /**
+         * @param maximumSize - the maximum number of cached results
+         * @return this object
+         */
+        public Builder maximumSize(long maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("maximumSize must be at least 1");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * @param maximumWeight - the maximum number of fields held by the cached results
+         * @return this object
+         */
+        public Builder maximumWeight(long maximumWeight) {
+            if (maximumWeight < 1) {
+                throw new IllegalArgumentException("maximumWeight must be at least 1");
+            }
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        /**
+         * @param expireAfterWrite - how long a result read from the server is served
+         * @return this object
+         */
+        public Builder expireAfterWrite(Duration expireAfterWrite) {
+            if (expireAfterWrite.isNegative() || expireAfterWrite.isZero()) {
+                throw new IllegalArgumentException("expireAfterWrite must be positive");
+            }
+            this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+            return this;
+        }
+
+        /**
+         * @param eviction - how the results to evict are chosen, {@link Eviction#W_TINY_LFU} by default
+         * @return this object
+         */
+        public Builder eviction(Eviction eviction) {
+            this.eviction = Objects.requireNonNull(eviction);
+            return this;
+        }
+
+        Builder ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public EntityCache build() {
+            return new EntityCache(this);
+        }
+    }
+}
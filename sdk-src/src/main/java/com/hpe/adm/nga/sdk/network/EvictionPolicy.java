@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+/**
+ * Chooses the entries an {@link EntityCache} evicts when it is full.  Called with the lock of the cache held
+ *
+ * @param <K> the key of the entries
+ */
+interface EvictionPolicy<K> {
+
+    /**
+     * Called on every lookup, whether or not the key is cached
+     */
+    void recordRead(K key);
+
+    /**
+     * Called when a lookup found the entry of the key
+     */
+    void recordAccess(K key);
+
+    /**
+     * Called when an entry is added
+     */
+    void add(K key);
+
+    /**
+     * Called when an entry is removed other than by {@link #evict()}
+     */
+    void remove(K key);
+
+    /**
+     * Chooses the entry to evict and forgets it
+     *
+     * @return the key of the entry to evict, null if there are no entries
+     */
+    K evict();
+
+    void clear();
+
+    static <K> EvictionPolicy<K> create(EntityCache.Eviction eviction, long maximumSize) {
+        switch (eviction) {
+            case LRU:
+                return new LruEvictionPolicy<>();
+            case W_TINY_LFU:
+                return new WTinyLfuEvictionPolicy<>(maximumSize);
+            default:
+                throw new IllegalArgumentException("Unknown eviction " + eviction);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.time.Duration;
+
+/**
+ * Decides which requests are hedged and when.  Set it on the {@link com.hpe.adm.nga.sdk.Octane.Builder} to have the
+ * requests of a context hedged by a {@link HedgingOctaneHttpClient}: when the response of a GET request is slower than
+ * most recent responses, an identical request is sent and whichever response arrives first is used.
+ * <p>
+ * By default:
+ * </p>
+ * <ul>
+ *     <li>GET requests are hedged, except binary downloads</li>
+ *     <li>the hedge is sent once the request took longer than the 95th percentile of the recent response times, and
+ *     never sooner than 10ms after the request.  Until 20 responses were measured the hedge is sent after 500ms</li>
+ *     <li>a hedge budget: every request adds 0.05 hedges to the budget of the client, up to 10, and every hedge takes
+ *     one, so there are at most about 5% extra requests</li>
+ * </ul>
+ */
+public final class HedgePolicy {
+
+    private final double percentile;
+    private final long initialDelayMillis;
+    private final long minDelayMillis;
+    private final int minSamples;
+    private final int windowSize;
+    private final double budgetRatio;
+    private final int maxBudget;
+
+    private HedgePolicy(Builder builder) {
+        percentile = builder.percentile;
+        initialDelayMillis = builder.initialDelayMillis;
+        minDelayMillis = builder.minDelayMillis;
+        minSamples = builder.minSamples;
+        windowSize = builder.windowSize;
+        budgetRatio = builder.budgetRatio;
+        maxBudget = builder.maxBudget;
+    }
+
+    /**
+     * @return a policy with the default settings
+     */
+    public static HedgePolicy defaultPolicy() {
+        return new Builder().build();
+    }
+
+    /**
+     * @param octaneHttpRequest the request about to be sent
+     * @return true if the request may be sent a second time while the first one is in flight
+     */
+    public boolean isHedgeable(OctaneHttpRequest octaneHttpRequest) {
+        // a second download of an attachment doubles a transfer that is slow because it is large
+        return octaneHttpRequest instanceof OctaneHttpRequest.GetOctaneHttpRequest
+                && !OctaneHttpRequest.OCTET_STREAM_CONTENT_TYPE.equals(((OctaneHttpRequest.GetOctaneHttpRequest) octaneHttpRequest).getAcceptType());
+    }
+
+    /**
+     * @return the percentile of the recent response times after which a hedge is sent, between 0 and 1
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * @return wait before the hedge until enough response times were measured
+     */
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    /**
+     * @return shortest wait before the hedge
+     */
+    public long getMinDelayMillis() {
+        return minDelayMillis;
+    }
+
+    /**
+     * @return number of response times measured before the percentile is used
+     */
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    /**
+     * @return number of recent response times the percentile is computed from
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * @return fraction of a hedge added to the budget by every request
+     */
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * @return maximum number of hedges the budget can hold
+     */
+    public int getMaxBudget() {
+        return maxBudget;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Percentile: %.3f Delay: initial %dms min %dms MinSamples: %d Window: %d Budget: %.2f/%d",
+                percentile, initialDelayMillis, minDelayMillis, minSamples, windowSize, budgetRatio, maxBudget);
+    }
+
+    /**
+     * Builder of {@link HedgePolicy}
+     */
+    public static final class Builder {
+        private double percentile = 0.95;
+        private long initialDelayMillis = 500;
+        private long minDelayMillis = 10;
+        private int minSamples = 20;
+        private int windowSize = 1000;
+        private double budgetRatio = 0.05;
+        private int maxBudget = 10;
+
+        /**
+         * @param percentile - percentile of the recent response times after which the hedge is sent, eg 0.95
+         * @return this object
+         */
+        public Builder percentile(double percentile) {
+            if (percentile <= 0 || percentile >= 1) {
+                throw new IllegalArgumentException("percentile must be between 0 and 1");
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * @param initialDelay - wait before the hedge until enough response times were measured
+         * @param minDelay     - shortest wait before the hedge, whatever the response times
+         * @return this object
+         */
+        public Builder delay(Duration initialDelay, Duration minDelay) {
+            if (minDelay.isNegative() || initialDelay.compareTo(minDelay) < 0) {
+                throw new IllegalArgumentException("Invalid hedge delay " + initialDelay + " min " + minDelay);
+            }
+            this.initialDelayMillis = initialDelay.toMillis();
+            this.minDelayMillis = minDelay.toMillis();
+            return this;
+        }
+
+        /**
+         * @param minSamples - number of response times measured before the percentile is used
+         * @param windowSize - number of recent response times the percentile is computed from
+         * @return this object
+         */
+        public Builder samples(int minSamples, int windowSize) {
+            if (minSamples < 1 || windowSize < minSamples) {
+                throw new IllegalArgumentException("Invalid samples " + minSamples + " window " + windowSize);
+            }
+            this.minSamples = minSamples;
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * @param ratio     - fraction of a hedge every request adds to the budget of the client, eg 0.05 for at most
+         *                  5% extra requests
+         * @param maxBudget - maximum number of hedges the budget holds, it starts full
+         * @return this object
+         */
+        public Builder hedgeBudget(double ratio, int maxBudget) {
+            if (ratio < 0 || maxBudget < 0) {
+                throw new IllegalArgumentException("The hedge budget must not be negative");
+            }
+            this.budgetRatio = ratio;
+            this.maxBudget = maxBudget;
+            return this;
+        }
+
+        public HedgePolicy build() {
+            return new HedgePolicy(this);
+        }
+    }
+}
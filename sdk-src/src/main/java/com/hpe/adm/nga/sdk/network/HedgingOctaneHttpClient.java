@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hedges the GET requests of the wrapped client according to a {@link HedgePolicy}.  Used by the
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder} when a hedge policy has been set.
+ * <p>
+ * When no response arrived after a delay derived from the recent response times, an identical request is sent.  The
+ * first successful response is used and the other request is cancelled, which aborts it in the transport.  A failure
+ * is only reported once both requests failed.  No thread waits for the delay, the hedge is scheduled; synchronous
+ * requests are run on the default executor so the caller can wait for either response.  The hedge budget is per
+ * instance of this class, so every {@link com.hpe.adm.nga.sdk.Octane} context has its own
+ * </p>
+ */
+public final class HedgingOctaneHttpClient extends DelegatingOctaneHttpClient {
+
+    private static final int DELAY_UPDATE_INTERVAL = 16;
+
+    private final Logger logger = LogManager.getLogger(HedgingOctaneHttpClient.class.getName());
+    private final HedgePolicy hedgePolicy;
+    private final RequestBudget budget;
+    private final HedgingStatistics statistics = new HedgingStatistics();
+    private final long[] responseTimes;
+    private int responseTimeCount;
+
+    public HedgingOctaneHttpClient(OctaneHttpClient delegate, HedgePolicy hedgePolicy) {
+        super(delegate);
+        this.hedgePolicy = hedgePolicy;
+        budget = new RequestBudget(hedgePolicy.getBudgetRatio(), hedgePolicy.getMaxBudget());
+        responseTimes = new long[hedgePolicy.getWindowSize()];
+        statistics.setHedgeDelayMillis(hedgePolicy.getInitialDelayMillis());
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        if (!hedgePolicy.isHedgeable(octaneHttpRequest)) {
+            return delegate.execute(octaneHttpRequest);
+        }
+
+        final CompletableFuture<OctaneHttpResponse> result = hedge(octaneHttpRequest,
+                () -> delegate.executeAsync(octaneHttpRequest, DefaultAsyncExecutor.getInstance()));
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Problem executing httprequest", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("Problem executing httprequest", cause);
+        }
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        if (!hedgePolicy.isHedgeable(octaneHttpRequest)) {
+            return delegate.executeAsync(octaneHttpRequest);
+        }
+        return hedge(octaneHttpRequest, () -> delegate.executeAsync(octaneHttpRequest));
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        if (!hedgePolicy.isHedgeable(octaneHttpRequest)) {
+            return delegate.executeAsync(octaneHttpRequest, executor);
+        }
+        return hedge(octaneHttpRequest, () -> delegate.executeAsync(octaneHttpRequest, executor));
+    }
+
+    /**
+     * @return the counters of the GET requests hedged by this client
+     */
+    public HedgingStatistics getHedgingStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return the number of hedges currently left in the budget
+     */
+    public double getAvailableBudget() {
+        return budget.get();
+    }
+
+    public HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
+
+    private CompletableFuture<OctaneHttpResponse> hedge(OctaneHttpRequest octaneHttpRequest,
+                                                        Supplier<CompletableFuture<OctaneHttpResponse>> call) {
+        statistics.addHedgeableRequest();
+        budget.deposit();
+        final Hedge hedge = new Hedge(octaneHttpRequest, call);
+        hedge.start(statistics.getHedgeDelayMillis());
+        return hedge;
+    }
+
+    private void recordResponseTime(long responseTimeMillis) {
+        final long[] sorted;
+        synchronized (responseTimes) {
+            responseTimes[responseTimeCount % responseTimes.length] = responseTimeMillis;
+            responseTimeCount++;
+            if (responseTimeCount < hedgePolicy.getMinSamples()
+                    || (responseTimeCount != hedgePolicy.getMinSamples() && responseTimeCount % DELAY_UPDATE_INTERVAL != 0)) {
+                return;
+            }
+            sorted = Arrays.copyOf(responseTimes, Math.min(responseTimeCount, responseTimes.length));
+        }
+        Arrays.sort(sorted);
+        final int index = (int) Math.ceil(hedgePolicy.getPercentile() * sorted.length) - 1;
+        statistics.setHedgeDelayMillis(Math.max(hedgePolicy.getMinDelayMillis(), sorted[Math.max(0, index)]));
+    }
+
+    /**
+     * Result of a hedged request: the original request, the scheduled hedge and, once fired, the hedge itself.
+     * Cancelling it cancels all of them
+     */
+    private final class Hedge extends CompletableFuture<OctaneHttpResponse> {
+        private final OctaneHttpRequest octaneHttpRequest;
+        private final Supplier<CompletableFuture<OctaneHttpResponse>> call;
+        private final long startNanos = System.nanoTime();
+        private volatile Future<?> original;
+        private volatile Future<?> scheduledHedge;
+        private volatile Future<?> hedge;
+        // requests in flight, guarded by this
+        private int pending;
+
+        private Hedge(OctaneHttpRequest octaneHttpRequest, Supplier<CompletableFuture<OctaneHttpResponse>> call) {
+            this.octaneHttpRequest = octaneHttpRequest;
+            this.call = call;
+        }
+
+        private void start(long delayMillis) {
+            original = send(false);
+            if (!isDone()) {
+                scheduledHedge = DefaultScheduler.getInstance().schedule(this::fire, delayMillis, TimeUnit.MILLISECONDS);
+                if (isDone()) {
+                    scheduledHedge.cancel(false);
+                }
+            }
+        }
+
+        private void fire() {
+            if (isDone()) {
+                return;
+            }
+            if (!budget.tryWithdraw()) {
+                statistics.addHedgeDenied();
+                logger.debug("Hedge budget exhausted, not hedging {}", octaneHttpRequest.getRequestUrl());
+                return;
+            }
+            statistics.addHedgeFired();
+            logger.debug("Hedging {} after {}ms", octaneHttpRequest.getRequestUrl(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            hedge = send(true);
+        }
+
+        private Future<?> send(boolean isHedge) {
+            synchronized (this) {
+                pending++;
+            }
+            final CompletableFuture<OctaneHttpResponse> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                onFailure(e);
+                return null;
+            }
+            future.whenComplete((response, throwable) -> {
+                if (throwable == null) {
+                    onSuccess(response, isHedge);
+                } else {
+                    onFailure(throwable);
+                }
+            });
+            if (isDone()) {
+                future.cancel(true);
+            }
+            return future;
+        }
+
+        private void onSuccess(OctaneHttpResponse response, boolean isHedge) {
+            if (!complete(response)) {
+                // the other request won the race
+                response.close();
+                return;
+            }
+            recordResponseTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            if (isHedge) {
+                statistics.addHedgeWon();
+            }
+            cancelRequests(isHedge ? original : hedge);
+        }
+
+        private void onFailure(Throwable throwable) {
+            synchronized (this) {
+                if (--pending > 0) {
+                    // the other request may still succeed
+                    return;
+                }
+            }
+            completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable);
+            cancelRequests(null);
+        }
+
+        private void cancelRequests(Future<?> loser) {
+            final Future<?> scheduled = scheduledHedge;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            if (loser != null) {
+                loser.cancel(true);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            cancelRequests(original);
+            cancelRequests(hedge);
+            return cancelled;
+        }
+    }
+}
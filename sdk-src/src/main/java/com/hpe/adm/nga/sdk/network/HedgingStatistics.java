@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the hedged requests of a {@link HedgingOctaneHttpClient}.  The hedges fired compared to the requests
+ * show the extra load put on the server, the hedges won show how often that load cut the response time
+ */
+public final class HedgingStatistics {
+
+    private final LongAdder hedgeableRequests = new LongAdder();
+    private final LongAdder hedgesFired = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final LongAdder hedgesDenied = new LongAdder();
+    private volatile long hedgeDelayMillis;
+
+    void addHedgeableRequest() {
+        hedgeableRequests.increment();
+    }
+
+    void addHedgeFired() {
+        hedgesFired.increment();
+    }
+
+    void addHedgeWon() {
+        hedgesWon.increment();
+    }
+
+    void addHedgeDenied() {
+        hedgesDenied.increment();
+    }
+
+    void setHedgeDelayMillis(long hedgeDelayMillis) {
+        this.hedgeDelayMillis = hedgeDelayMillis;
+    }
+
+    /**
+     * @return number of requests that could be hedged
+     */
+    public long getHedgeableRequests() {
+        return hedgeableRequests.sum();
+    }
+
+    /**
+     * @return number of hedges sent because a response was late
+     */
+    public long getHedgesFired() {
+        return hedgesFired.sum();
+    }
+
+    /**
+     * @return number of hedges whose response arrived before the response of the original request
+     */
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    /**
+     * @return number of late responses not hedged because the hedge budget was exhausted
+     */
+    public long getHedgesDenied() {
+        return hedgesDenied.sum();
+    }
+
+    /**
+     * @return the current wait before a hedge is sent
+     */
+    public long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Requests: %d Hedges: %d fired / %d won / %d denied Delay: %dms",
+                getHedgeableRequests(), getHedgesFired(), getHedgesWon(), getHedgesDenied(), getHedgeDelayMillis());
+    }
+}
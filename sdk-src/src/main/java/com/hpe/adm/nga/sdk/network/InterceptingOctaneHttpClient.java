@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the requests of the wrapped client through a chain of {@link OctaneHttpInterceptor}s.  Used by the
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder} when interceptors have been added.
+ * <p>
+ * The chain wraps the rate limiting and retries of the context, so interceptors see each request once and a response
+ * served by an interceptor costs no permit.  Asynchronous requests run the chain on the executor
+ * </p>
+ */
+public final class InterceptingOctaneHttpClient extends DelegatingOctaneHttpClient {
+
+    private final OctaneHttpInterceptor[] interceptors;
+
+    /**
+     * @param delegate     the wrapped client, executing the requests at the end of the chain
+     * @param interceptors the interceptors, the first one is called first
+     */
+    public InterceptingOctaneHttpClient(OctaneHttpClient delegate, List<OctaneHttpInterceptor> interceptors) {
+        super(delegate);
+        this.interceptors = interceptors.toArray(new OctaneHttpInterceptor[interceptors.size()]);
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        return new InterceptorChain(0, octaneHttpRequest).proceed(octaneHttpRequest);
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return executeAsync(octaneHttpRequest, DefaultAsyncExecutor.getInstance());
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        return AbortableFuture.supplyAsync(() -> execute(octaneHttpRequest), executor);
+    }
+
+    private final class InterceptorChain implements OctaneHttpInterceptor.Chain {
+
+        private final int index;
+        private final OctaneHttpRequest octaneHttpRequest;
+
+        private InterceptorChain(int index, OctaneHttpRequest octaneHttpRequest) {
+            this.index = index;
+            this.octaneHttpRequest = octaneHttpRequest;
+        }
+
+        @Override
+        public OctaneHttpRequest request() {
+            return octaneHttpRequest;
+        }
+
+        @Override
+        public OctaneHttpResponse proceed(OctaneHttpRequest octaneHttpRequest) {
+            if (index == interceptors.length) {
+                return delegate.execute(octaneHttpRequest);
+            }
+            final OctaneHttpInterceptor interceptor = interceptors[index];
+            final OctaneHttpResponse response = interceptor.intercept(new InterceptorChain(index + 1, octaneHttpRequest));
+            if (response == null) {
+                throw new IllegalStateException("Interceptor " + interceptor + " returned no response");
+            }
+            return response;
+        }
+    }
+}
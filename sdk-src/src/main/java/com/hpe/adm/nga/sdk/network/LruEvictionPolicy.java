@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Evicts the least recently used entry
+ */
+final class LruEvictionPolicy<K> implements EvictionPolicy<K> {
+
+    private final LinkedHashMap<K, Boolean> keys = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Override
+    public void recordRead(K key) {
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        keys.get(key);
+    }
+
+    @Override
+    public void add(K key) {
+        keys.put(key, Boolean.TRUE);
+    }
+
+    @Override
+    public void remove(K key) {
+        keys.remove(key);
+    }
+
+    @Override
+    public K evict() {
+        return removeEldest(keys);
+    }
+
+    @Override
+    public void clear() {
+        keys.clear();
+    }
+
+    static <K> K removeEldest(LinkedHashMap<K, Boolean> keys) {
+        final Iterator<K> iterator = keys.keySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        final K eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+}
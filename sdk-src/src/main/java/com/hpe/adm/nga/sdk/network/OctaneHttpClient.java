@@ -15,6 +15,10 @@
 package com.hpe.adm.nga.sdk.network;
 
 import com.hpe.adm.nga.sdk.authentication.Authentication;
+import org.apache.logging.log4j.LogManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -43,4 +47,67 @@ public interface OctaneHttpClient {
     void signOut();
 
     OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest);
+
+    /**
+     * Executes the request without blocking the caller, using the default executor of the client
+     * @param octaneHttpRequest the request to execute
+     * @return future completed with the response; cancelling it aborts the request
+     */
+    default CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return executeAsync(octaneHttpRequest, DefaultAsyncExecutor.getInstance());
+    }
+
+    /**
+     * Executes the request on the given executor.  The default implementation runs {@link #execute(OctaneHttpRequest)}
+     * on the executor, so custom clients get asynchronous execution without further work.  Cancelling the returned
+     * future interrupts the worker and runs any abort action the transport registered through
+     * {@link AbortableFuture#onAbort(Runnable)}
+     * @param octaneHttpRequest the request to execute
+     * @param executor executor that runs the request
+     * @return future completed with the response; cancelling it aborts the request
+     */
+    default CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        return AbortableFuture.supplyAsync(() -> execute(octaneHttpRequest), executor);
+    }
+
+    /**
+     * Configures the gzip compression of the requests and responses of this client.
+     * The default ignores the settings with a warning, for the clients that do not support compression
+     * @param compressionSettings the compression to use
+     */
+    default void setCompressionSettings(CompressionSettings compressionSettings) {
+        LogManager.getLogger(OctaneHttpClient.class.getName()).warn("{} does not support compression settings, ignoring them", getClass().getName());
+    }
+
+    /**
+     * Configures the proactive refresh of the session of this client.
+     * The default ignores the settings with a warning, for the clients that cannot refresh their session
+     * @param sessionRefreshSettings the refresh settings, null to disable the refresh
+     */
+    default void setSessionRefreshSettings(SessionRefreshSettings sessionRefreshSettings) {
+        LogManager.getLogger(OctaneHttpClient.class.getName()).warn("{} does not support session refresh, ignoring its settings", getClass().getName());
+    }
+
+    /**
+     * Configures the connect, read and total timeouts of the requests of this client.
+     * The default ignores the settings with a warning, for the clients that do not support timeouts
+     * @param timeoutSettings the timeouts to use
+     */
+    default void setTimeoutSettings(TimeoutSettings timeoutSettings) {
+        LogManager.getLogger(OctaneHttpClient.class.getName()).warn("{} does not support timeout settings, ignoring them", getClass().getName());
+    }
+
+    /**
+     * @return the timeouts of the requests of this client, null if the client has no timeout settings
+     */
+    default TimeoutSettings getTimeoutSettings() {
+        return null;
+    }
+
+    /**
+     * @return the counters of the bytes transferred by this client, null if the client does not count them
+     */
+    default CompressionStatistics getCompressionStatistics() {
+        return null;
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+/**
+ * Intercepts the requests executed by an {@link OctaneHttpClient}.  Interceptors are set on the
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder} and called in the order they were added, each one wrapping the next.
+ * <p>
+ * An interceptor can:
+ * </p>
+ * <ul>
+ *     <li>pass the request on with {@code chain.proceed(chain.request())} and decorate the response it gets back</li>
+ *     <li>rewrite the request by passing another request to {@link Chain#proceed(OctaneHttpRequest)}</li>
+ *     <li>short-circuit the call by returning a response without calling {@link Chain#proceed(OctaneHttpRequest)}</li>
+ * </ul>
+ * <p>
+ * Interceptors are shared by all the threads using the context and must be thread safe
+ * </p>
+ */
+@FunctionalInterface
+public interface OctaneHttpInterceptor {
+
+    /**
+     * @param chain gives access to the request and to the rest of the chain
+     * @return the response of the request, never null
+     */
+    OctaneHttpResponse intercept(Chain chain);
+
+    /**
+     * The rest of the chain, from the point of view of an interceptor
+     */
+    interface Chain {
+
+        /**
+         * @return the request, as passed on by the previous interceptor
+         */
+        OctaneHttpRequest request();
+
+        /**
+         * Passes the request to the next interceptor, or executes it when this is the last interceptor
+         *
+         * @param octaneHttpRequest the request to pass on
+         * @return the response of the rest of the chain
+         */
+        OctaneHttpResponse proceed(OctaneHttpRequest octaneHttpRequest);
+    }
+}
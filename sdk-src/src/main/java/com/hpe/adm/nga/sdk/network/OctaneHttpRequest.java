@@ -14,7 +14,11 @@
  */
 package com.hpe.adm.nga.sdk.network;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  *
@@ -35,8 +39,24 @@ public abstract class OctaneHttpRequest {
     public static final String JSON_CONTENT_TYPE = "application/json; charset=UTF-8";
     public static final String OCTET_STREAM_CONTENT_TYPE = "application/octet-stream";
 
+    /**
+     * Content that is written directly to the connection instead of being held in memory as a String.
+     * The content can be written more than once, for example when the request is retried
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        /**
+         * Writes the content as UTF-8 to the stream, without closing it
+         * @param outputStream the stream of the request body
+         * @throws IOException if the stream cannot be written
+         */
+        void writeTo(OutputStream outputStream) throws IOException;
+    }
+
     private final String requestUrl;
     private final OctaneRequestMethod octaneRequestMethod;
+    private volatile Deadline deadline;
+    private volatile String lane;
 
     private OctaneHttpRequest(String requestUrl, OctaneRequestMethod octaneRequestMethod) {
         this.requestUrl = requestUrl;
@@ -51,6 +71,36 @@ public abstract class OctaneHttpRequest {
         return octaneRequestMethod;
     }
 
+    /**
+     * Sets the point in time by which the request, including its retries and re-authentication, must be completed
+     * @param deadline the deadline, null for none
+     */
+    public final void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return the deadline of the request, null if it has none
+     */
+    public final Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the lane of the request, see {@link PriorityLanes}
+     * @param lane the name of the lane, null for the default lane
+     */
+    public final void setLane(String lane) {
+        this.lane = lane;
+    }
+
+    /**
+     * @return the name of the lane of the request, null for the default lane
+     */
+    public final String getLane() {
+        return lane;
+    }
+
     public static class DeleteOctaneHttpRequest extends OctaneHttpRequest {
         public DeleteOctaneHttpRequest(final String url) {
             super(url, OctaneRequestMethod.DELETE);
@@ -77,27 +127,101 @@ public abstract class OctaneHttpRequest {
     }
 
     public static class GetOctaneHttpRequest extends HasAcceptOctaneHttpRequest<GetOctaneHttpRequest> {
+        private String ifNoneMatch;
+        private String ifModifiedSince;
+
         public GetOctaneHttpRequest(final String url) {
             super(url, OctaneRequestMethod.GET);
         }
+
+        /**
+         * Makes the request conditional: the server answers 304 Not Modified if the resource still has this ETag
+         * @param eTag the ETag of the cached response
+         * @return this request
+         */
+        public GetOctaneHttpRequest setIfNoneMatch(String eTag) {
+            this.ifNoneMatch = eTag;
+            return this;
+        }
+
+        public final String getIfNoneMatch() {
+            return ifNoneMatch;
+        }
+
+        /**
+         * Makes the request conditional: the server answers 304 Not Modified if the resource did not change since
+         * @param lastModified the Last-Modified date of the cached response
+         * @return this request
+         */
+        public GetOctaneHttpRequest setIfModifiedSince(String lastModified) {
+            this.ifModifiedSince = lastModified;
+            return this;
+        }
+
+        public final String getIfModifiedSince() {
+            return ifModifiedSince;
+        }
     }
 
     private static abstract class HasContentOctaneHttpRequest<F extends HasContentOctaneHttpRequest> extends HasAcceptOctaneHttpRequest<F> {
         private final String contentType;
         private final String content;
+        private final ContentWriter contentWriter;
 
         private HasContentOctaneHttpRequest(final String url, OctaneRequestMethod octaneRequestMethod, String contentType, String content) {
             super(url, octaneRequestMethod);
             this.contentType = contentType;
             this.content = content;
+            this.contentWriter = null;
+        }
+
+        private HasContentOctaneHttpRequest(final String url, OctaneRequestMethod octaneRequestMethod, String contentType, ContentWriter contentWriter) {
+            super(url, octaneRequestMethod);
+            this.contentType = contentType;
+            this.content = null;
+            this.contentWriter = contentWriter;
         }
 
         public final String getContentType() {
             return contentType;
         }
 
+        /**
+         * Returns the content as String.  For streaming content this writes the whole content into memory, clients
+         * should prefer {@link #writeContentTo(OutputStream)}
+         * @return the content of the request
+         */
         public final String getContent() {
-            return content;
+            if (contentWriter == null) {
+                return content;
+            }
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try {
+                contentWriter.writeTo(outputStream);
+            } catch (IOException e) {
+                throw new RuntimeException("Problem creating httprequest", e);
+            }
+            return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return true if the content is written by a {@link ContentWriter} rather than held as a String
+         */
+        public final boolean isStreamingContent() {
+            return contentWriter != null;
+        }
+
+        /**
+         * Writes the content as UTF-8 to the given stream
+         * @param outputStream the stream of the request body, not closed by this method
+         * @throws IOException if the stream cannot be written
+         */
+        public final void writeContentTo(OutputStream outputStream) throws IOException {
+            if (contentWriter != null) {
+                contentWriter.writeTo(outputStream);
+            } else if (content != null) {
+                outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+            }
         }
     }
 
@@ -105,12 +229,20 @@ public abstract class OctaneHttpRequest {
         public PutOctaneHttpRequest(final String url, String contentType, String content) {
             super(url, OctaneRequestMethod.PUT, contentType, content);
         }
+
+        public PutOctaneHttpRequest(final String url, String contentType, ContentWriter contentWriter) {
+            super(url, OctaneRequestMethod.PUT, contentType, contentWriter);
+        }
     }
 
     public static class PostOctaneHttpRequest extends HasContentOctaneHttpRequest<PostOctaneHttpRequest> {
         public PostOctaneHttpRequest(final String url, String contentType, String content) {
             super(url, OctaneRequestMethod.POST, contentType, content);
         }
+
+        public PostOctaneHttpRequest(final String url, String contentType, ContentWriter contentWriter) {
+            super(url, OctaneRequestMethod.POST, contentType, contentWriter);
+        }
     }
 
     public static class PostBinaryOctaneHttpRequest extends HasContentOctaneHttpRequest<PostBinaryOctaneHttpRequest> {
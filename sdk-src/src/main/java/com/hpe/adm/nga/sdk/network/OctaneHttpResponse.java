@@ -14,25 +14,76 @@
  */
 package com.hpe.adm.nga.sdk.network;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  *
  * HTTP response.
- * Callers should call disconnect() when the HTTP response object is no longer needed. However, disconnect() does not have to be called if the response stream is properly closed.
+ * <p>
+ * A response created by {@link #OctaneHttpResponse(int, InputStream, Charset)} is streaming: the body is read from the
+ * connection only when {@link #getInputStream()} or {@link #getChannel()} is consumed, or when {@link #getContent()}
+ * is called for the first time.  Only one of the two ways can be used; once the content was read into a string the
+ * stream returned by {@link #getInputStream()} is a view of that string.
+ * </p>
+ * Callers should call {@link #close()} when the HTTP response object is no longer needed.  However, close() does not
+ * have to be called if the response stream is properly closed or if {@link #getContent()} was called, since both
+ * release the underlying connection so it can be reused.
  *
  * Created by leufl on 2/11/2016.
  */
-public class OctaneHttpResponse {
+public class OctaneHttpResponse implements Closeable {
+
+    public static final int NOT_MODIFIED_STATUS_CODE = 304;
+
+    private static final int BUFFER_SIZE = 8192;
 
     private final int statusCode;
-    private final String content;
-    private final InputStream inputStream;
+    private final Charset charset;
+    private String content;
+    // results parsed from the content, shared by the copies of the response handed to coalesced requests
+    private ConcurrentMap<String, Object> sharedResults;
+    private InputStream inputStream;
+    private boolean streamConsumed = false;
+    private String eTag;
+    private String lastModified;
 
+    /**
+     * Creates a response whose content was already read
+     *
+     * @param statusCode  the HTTP status code
+     * @param content     the content as string
+     * @param inputStream the content as stream
+     */
     public OctaneHttpResponse(int statusCode, String content, InputStream inputStream) {
         this.statusCode = statusCode;
         this.content = content;
         this.inputStream = inputStream;
+        this.charset = StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Creates a streaming response, the content is read from the stream when it is needed
+     *
+     * @param statusCode  the HTTP status code
+     * @param inputStream the unbuffered content of the response, null for none
+     * @param charset     the charset used to decode the content by {@link #getContent()}
+     */
+    public OctaneHttpResponse(int statusCode, InputStream inputStream, Charset charset) {
+        this.statusCode = statusCode;
+        this.inputStream = inputStream;
+        this.charset = charset == null ? StandardCharsets.UTF_8 : charset;
+        this.content = null;
     }
 
     /**
@@ -41,11 +92,46 @@ public class OctaneHttpResponse {
     public boolean isSuccessStatusCode(){
         return statusCode >= 200 && statusCode < 300;
     }
-//
-//    /**
-//     * @return - Returns the HTTP status code or 0 for none.
-//     */
-//    int getStatusCode();
+
+    /**
+     * @return - Returns the HTTP status code or 0 for none.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return - Returns whether the server answered a conditional request with 304 Not Modified
+     */
+    public boolean isNotModified() {
+        return statusCode == NOT_MODIFIED_STATUS_CODE;
+    }
+
+    /**
+     * Sets the validators of the response, called by the http client
+     * @param eTag         the ETag header, null for none
+     * @param lastModified the Last-Modified header, null for none
+     * @return this response
+     */
+    public OctaneHttpResponse setValidators(String eTag, String lastModified) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        return this;
+    }
+
+    /**
+     * @return - Returns the ETag header or null for none.
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * @return - Returns the Last-Modified header or null for none.
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
 //
 //    /**
 //     * @return - Returns the HTTP status message or null for none.
@@ -58,23 +144,149 @@ public class OctaneHttpResponse {
 //    Map getHeaders();
 
     /**
-     * Parses the content of the HTTP response from getContent() and reads it into a string.
-     * Since this method returns "" for no content, a simpler check for no content is to check if getContent() is null.
-     * All content is read from the input content stream rather than being limited by the Content-Length. For the character set, it follows the specification by parsing the "charset" parameter of the Content-Type header or by default "ISO-8859-1" if the parameter is missing.
+     * Parses the content of the response.  When the response is one of the copies handed to coalesced requests, see
+     * {@link CoalescingOctaneHttpClient}, the content is parsed once and every copy gets a copy of the parsed result
+     * @param resultName - identifies the kind of result, the same content may be parsed into different results
+     * @param parser     - parses the content
+     * @param copier     - copies a result parsed for another copy of the response
+     * @param <T>        - type of the result
+     * @return - the result, or a copy of the shared result
+     */
+    public <T> T parseContent(String resultName, Function<String, T> parser, UnaryOperator<T> copier) {
+        final ConcurrentMap<String, Object> results = sharedResults;
+        if (results == null) {
+            return parser.apply(getContent());
+        }
+        @SuppressWarnings("unchecked")
+        final T result = (T) results.computeIfAbsent(resultName, name -> parser.apply(getContent()));
+        return result == null ? null : copier.apply(result);
+    }
+
+    /**
+     * Parses the content of the response as a stream, without reading it into a string when it was not read yet.  Like
+     * {@link #parseContent(String, Function, UnaryOperator)} the content is parsed once for all the copies handed to
+     * coalesced requests
+     * @param resultName - identifies the kind of result, the same content may be parsed into different results
+     * @param parser     - parses the UTF-8 content and closes the stream, releasing the connection
+     * @param copier     - copies a result parsed for another copy of the response
+     * @param <T>        - type of the result
+     * @return - the result, or a copy of the shared result
+     */
+    public <T> T parseContentStream(String resultName, Function<InputStream, T> parser, UnaryOperator<T> copier) {
+        final ConcurrentMap<String, Object> results = sharedResults;
+        if (results == null) {
+            return parser.apply(openContent());
+        }
+        @SuppressWarnings("unchecked")
+        final T result = (T) results.computeIfAbsent(resultName, name -> parser.apply(openContent()));
+        return result == null ? null : copier.apply(result);
+    }
+
+    /**
+     * Reads the content into bytes in the charset of the response, without decoding it into a string when it was not
+     * read yet.  The stream is closed once read
+     * @return - the content or an empty array for no content
+     */
+    synchronized byte[] getContentBytes() {
+        if (content != null || streamConsumed) {
+            return getContent().getBytes(charset);
+        }
+        streamConsumed = true;
+        return readBytes();
+    }
+
+    Charset getCharset() {
+        return charset;
+    }
+
+    OctaneHttpResponse shareResults(ConcurrentMap<String, Object> sharedResults) {
+        this.sharedResults = sharedResults;
+        return this;
+    }
+
+    /**
+     * Parses the content of the HTTP response from getInputStream() and reads it into a string.
+     * The string is read only once, subsequent calls return the same value.  The stream is closed once read, releasing
+     * the connection of the response.
      * @return - parsed string or "" for no content
+     * @throws IllegalStateException if the content stream was already handed out by {@link #getInputStream()}
      */
-    public String getContent(){
+    public synchronized String getContent(){
+        if (content == null) {
+            if (streamConsumed) {
+                throw new IllegalStateException("The content stream of the response was already consumed");
+            }
+            content = readContent();
+        }
         return content;
     }
 
     /**
      * Returns the content of the HTTP response.
-     * The result is cached, so subsequent calls will be fast.
+     * For a streaming response the stream is read directly from the connection and can be consumed only once.
      * Callers should call InputStream.close() after the returned InputStream is no longer needed.
-     * disconnect() does not have to be called if the content is closed.
+     * close() does not have to be called if the content is closed.
      * @return - input stream content of the HTTP response or null for none
      */
-    public InputStream getInputStream() {
+    public synchronized InputStream getInputStream() {
+        if (streamConsumed && content != null) {
+            return new ByteArrayInputStream(content.getBytes(charset));
+        }
+        streamConsumed = true;
         return inputStream;
     }
+
+    /**
+     * Returns the content of the HTTP response as a channel, see {@link #getInputStream()}
+     * @return - channel reading the content of the HTTP response or null for none
+     */
+    public ReadableByteChannel getChannel() {
+        final InputStream stream = getInputStream();
+        return stream == null ? null : Channels.newChannel(stream);
+    }
+
+    /**
+     * Releases the connection of the response, discarding the content that was not read
+     */
+    @Override
+    public synchronized void close() {
+        if (inputStream != null) {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                // nothing to do, the connection is not reused
+            }
+        }
+    }
+
+    // the content as UTF-8, straight from the connection unless it was already read or has to be decoded
+    private synchronized InputStream openContent() {
+        if (content != null || streamConsumed || !StandardCharsets.UTF_8.equals(charset)) {
+            return new ByteArrayInputStream(getContent().getBytes(StandardCharsets.UTF_8));
+        }
+        streamConsumed = true;
+        return inputStream == null ? new ByteArrayInputStream(new byte[0]) : inputStream;
+    }
+
+    private String readContent() {
+        streamConsumed = true;
+        return new String(readBytes(), charset);
+    }
+
+    private byte[] readBytes() {
+        if (inputStream == null) {
+            return new byte[0];
+        }
+        try (InputStream stream = inputStream) {
+            final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Problem reading the response content", e);
+        }
+    }
 }
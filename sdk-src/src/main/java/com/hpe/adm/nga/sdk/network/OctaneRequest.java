@@ -14,40 +14,79 @@
  */
 package com.hpe.adm.nga.sdk.network;
 
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
 import com.hpe.adm.nga.sdk.exception.OctaneException;
 import com.hpe.adm.nga.sdk.exception.OctanePartialException;
+import com.hpe.adm.nga.sdk.metadata.FieldTypeCache;
+import com.hpe.adm.nga.sdk.model.CompactEntityModel;
+import com.hpe.adm.nga.sdk.model.EntityFrame;
 import com.hpe.adm.nga.sdk.model.EntityModel;
 import com.hpe.adm.nga.sdk.model.ErrorModel;
+import com.hpe.adm.nga.sdk.model.FieldModel;
+import com.hpe.adm.nga.sdk.model.LazyEntityModel;
 import com.hpe.adm.nga.sdk.model.ModelParser;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.json.JSONObject;
-import org.json.JSONTokener;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * An abstract representation of a request
+ *
+ * @param <R> the type of the request, returned by the methods that set it up
  */
-public abstract class OctaneRequest {
+public abstract class OctaneRequest<R extends OctaneRequest> {
 
 	private final Logger logger = LogManager.getLogger(OctaneRequest.class.getName());
 
 	private final OctaneUrl octaneUrl;
 	protected final OctaneHttpClient octaneHttpClient;
+	protected final RequestContext requestContext;
+	private Duration timeout;
+	private String lane;
+	private boolean lazy;
+	private boolean compact;
 
 	// constant
 	private static final String LOGGER_RESPONSE_FORMAT = "Response: %d - %s - %s";
 	private static final String LOGGER_RESPONSE_JSON_FORMAT = "Response_Json: %s";
 	private static final long HTTPS_CONFLICT_STATUS_CODE = 409;
+	private static final String ENTITIES_RESULT_NAME = "entities";
+	private static final String ENTITY_RESULT_NAME = "entity";
+	private static final String LAZY_ENTITIES_RESULT_NAME = "lazy_entities";
+	private static final String LAZY_ENTITY_RESULT_NAME = "lazy_entity";
+	private static final String COMPACT_ENTITIES_RESULT_NAME = "compact_entities";
+	private static final String COMPACT_ENTITY_RESULT_NAME = "compact_entity";
+	private static final String ENTITY_FRAME_RESULT_NAME = "entity_frame";
 
 	protected OctaneRequest(final OctaneHttpClient octaneHttpClient, final String urlDomain) {
+		this (octaneHttpClient, RequestContext.empty(), urlDomain);
+	}
+
+	protected OctaneRequest(final OctaneHttpClient octaneHttpClient, final String urlDomain, final int entityId) {
+		this (octaneHttpClient, RequestContext.empty(), urlDomain, entityId);
+	}
+
+	protected OctaneRequest(final OctaneHttpClient octaneHttpClient, final RequestContext requestContext, final String urlDomain) {
 		octaneUrl = new OctaneUrl(urlDomain);
 		this.octaneHttpClient = octaneHttpClient;
+		this.requestContext = requestContext;
 	}
 
-	protected OctaneRequest(final OctaneHttpClient octaneHttpClient, final String urlDomain, final int entityId) {
-		this (octaneHttpClient, urlDomain);
+	protected OctaneRequest(final OctaneHttpClient octaneHttpClient, final RequestContext requestContext, final String urlDomain, final int entityId) {
+		this (octaneHttpClient, requestContext, urlDomain);
 		octaneUrl.addPaths(String.valueOf(entityId));
 	}
 
@@ -59,6 +98,67 @@ public abstract class OctaneRequest {
 		return octaneUrl.toString();
 	}
 
+	/**
+	 * Sets how long the request may take, including its retries and re-authentication, instead of the total timeout
+	 * of the {@link TimeoutSettings} of the client.  Once it has elapsed the request fails with a
+	 * {@link DeadlineExceededException}
+	 *
+	 * @param timeout the time the request may take from the call to execute
+	 * @return this object
+	 */
+	public final R timeout(Duration timeout) {
+		if (timeout.isNegative()) {
+			throw new IllegalArgumentException("timeout must not be negative: " + timeout);
+		}
+		this.timeout = timeout;
+		//noinspection unchecked
+		return (R) this;
+	}
+
+	/**
+	 * Puts the request in a lane of the {@link PriorityLanes} of the client, such as a lane of the interactive requests
+	 * that is served before a lane of bulk requests.  Without priority lanes the lane is ignored
+	 *
+	 * @param lane the name of the lane, null for the default lane
+	 * @return this object
+	 */
+	public final R lane(String lane) {
+		this.lane = lane;
+		//noinspection unchecked
+		return (R) this;
+	}
+
+	/**
+	 * Returns the entities as {@link LazyEntityModel}s that decode each field the first time it is read, which saves
+	 * decoding the fields that are never read.  The entities keep the bytes of the response.  A lazy request neither
+	 * reads from nor puts into the {@link QueryCache} and the {@link EntityCache} of the context, which hold decoded
+	 * entities; it is still coalesced and sent conditionally, as lazy entities are copied without decoding them
+	 *
+	 * @param lazy whether the fields of the entities are decoded when they are read
+	 * @return this object
+	 */
+	public final R lazy(boolean lazy) {
+		this.lazy = lazy;
+		//noinspection unchecked
+		return (R) this;
+	}
+
+	/**
+	 * Returns the entities as {@link CompactEntityModel}s that share the layout of their fields and hold the values in
+	 * an array, which takes far less memory than the map of field models of an entity when many entities are kept.
+	 * The entities stay compact when the request is coalesced, answered by the {@link QueryCache} or answered 304 Not
+	 * Modified, as these keep the compact results apart from the plain ones.  The entities answered by the
+	 * {@link EntityCache} are plain entities.  Ignored for a {@link #lazy(boolean)} request
+	 *
+	 * @param compact whether the entities are compact entities
+	 * @return this object
+	 */
+	public final R compact(boolean compact) {
+		this.compact = compact;
+		//noinspection unchecked
+		return (R) this;
+	}
+
 	/**
 	 * Executes a call to the Octane server
 	 * @return instance of T from the server
@@ -66,6 +166,14 @@ public abstract class OctaneRequest {
 	 */
 	public abstract<T> T execute() throws RuntimeException;
 
+	/**
+	 * Executes a call to the Octane server without blocking the caller.
+	 * Failures complete the future exceptionally with the same exceptions {@link #execute()} throws.
+	 * Cancelling the future aborts the underlying HTTP request
+	 * @return future completed with the instance of T from the server
+	 */
+	public abstract<T> CompletableFuture<T> executeAsync();
+
 	/**
 	 * get entities result based on Http Request
 	 *
@@ -75,40 +183,142 @@ public abstract class OctaneRequest {
 	 */
 	protected final Collection<EntityModel> getEntitiesResponse(OctaneHttpRequest octaneHttpRequest) throws Exception {
 
-		Collection<EntityModel> newEntityModels = null;
+		OctaneHttpResponse response = executeRequest(octaneHttpRequest);
+		return parseEntitiesResponse(response);
+	}
 
-		OctaneHttpResponse response = octaneHttpClient.execute(octaneHttpRequest);
+	/**
+	 * get entity result based on Http Request
+	 *
+	 * @param octaneHttpRequest the request object
+	 * @return EntityModel
+	 */
+	protected final EntityModel getEntityResponse(OctaneHttpRequest octaneHttpRequest) {
 
-		String json = response.getContent();
-		logger.debug(String.format(LOGGER_RESPONSE_JSON_FORMAT, json));
+		OctaneHttpResponse response = executeRequest(octaneHttpRequest);
+		return parseEntityResponse(response);
+	}
 
-		if (response.isSuccessStatusCode() && json != null && !json.isEmpty()) {
-			newEntityModels = ModelParser.getInstance().getEntities(json);
+	/**
+	 * Executes the request with the deadline and the lane of this request
+	 *
+	 * @param octaneHttpRequest the request object
+	 * @return the response from the server
+	 */
+	protected final OctaneHttpResponse executeRequest(OctaneHttpRequest octaneHttpRequest) {
+		octaneHttpRequest.setDeadline(newDeadline());
+		octaneHttpRequest.setLane(lane);
+		return octaneHttpClient.execute(octaneHttpRequest);
+	}
 
+	/**
+	 * @return the deadline of a request sent now, from the timeout of this request or else the total timeout of the
+	 * client, null if there is none
+	 */
+	private Deadline newDeadline() {
+		if (timeout != null) {
+			return Deadline.after(timeout);
+		}
+		final TimeoutSettings timeoutSettings = octaneHttpClient.getTimeoutSettings();
+		return timeoutSettings == null ? null : timeoutSettings.newDeadline();
+	}
+
+	/**
+	 * Parse the entities contained in a response
+	 *
+	 * @param response the response from the server
+	 * @return entities contained in the response or null if the response has no content
+	 */
+	protected final Collection<EntityModel> parseEntitiesResponse(OctaneHttpResponse response) {
+
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format(LOGGER_RESPONSE_JSON_FORMAT, response.getContent()));
+		}
+		if (!response.isSuccessStatusCode()) {
+			response.close();
+			return null;
+		}
+
+		// null when the response has no content
+		final FieldTypeCache fieldTypeCache = requestContext.getFieldTypeCache();
+		final Collection<EntityModel> newEntityModels;
+		if (lazy) {
+			newEntityModels = response.parseContentStream(LAZY_ENTITIES_RESULT_NAME,
+					content -> ModelParser.getInstance().getLazyEntities(content, fieldTypeCache), OctaneRequest::copyEntities);
+		} else if (compact) {
+			newEntityModels = response.parseContentStream(COMPACT_ENTITIES_RESULT_NAME,
+					content -> ModelParser.getInstance().getCompactEntities(content, fieldTypeCache), OctaneRequest::copyEntities);
+		} else {
+			newEntityModels = response.parseContentStream(ENTITIES_RESULT_NAME,
+					content -> ModelParser.getInstance().getEntities(content, fieldTypeCache), OctaneRequest::copyEntities);
+		}
+		// the metadata of the types met is fetched in the background, the response is not held up
+		if (fieldTypeCache != null) {
+			fieldTypeCache.loadPending();
 		}
 
 		return newEntityModels;
 	}
 
 	/**
-	 * get entity result based on Http Request
+	 * Parse the entities contained in a response into the columns of a frame.  The frame is immutable, so a response
+	 * shared by identical requests hands out the same frame
 	 *
-	 * @param octaneHttpRequest the request object
-	 * @return EntityModel
+	 * @param response the response from the server
+	 * @return the frame of the entities or null if the response has no content
 	 */
-	protected final EntityModel getEntityResponse(OctaneHttpRequest octaneHttpRequest) {
+	protected final EntityFrame parseEntityFrameResponse(OctaneHttpResponse response) {
 
-		EntityModel newEntityModel = null;
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format(LOGGER_RESPONSE_JSON_FORMAT, response.getContent()));
+		}
+		if (!response.isSuccessStatusCode()) {
+			response.close();
+			return null;
+		}
 
-		OctaneHttpResponse response = octaneHttpClient.execute(octaneHttpRequest);
+		// null when the response has no content
+		final FieldTypeCache fieldTypeCache = requestContext.getFieldTypeCache();
+		final EntityFrame entityFrame = response.parseContentStream(ENTITY_FRAME_RESULT_NAME,
+				content -> ModelParser.getInstance().getEntityFrame(content, fieldTypeCache), UnaryOperator.identity());
+		if (fieldTypeCache != null) {
+			fieldTypeCache.loadPending();
+		}
 
-		String json = response.getContent();
-		logger.debug(String.format(LOGGER_RESPONSE_JSON_FORMAT, json));
-		if (response.isSuccessStatusCode() && (json != null && !json.isEmpty())) {
+		return entityFrame;
+	}
 
-			JSONTokener tokener = new JSONTokener(json);
-			JSONObject jsonObj = new JSONObject(tokener);
-			newEntityModel = ModelParser.getInstance().getEntityModel(jsonObj);
+	/**
+	 * Parse the single entity contained in a response
+	 *
+	 * @param response the response from the server
+	 * @return EntityModel or null if the response has no content
+	 */
+	protected final EntityModel parseEntityResponse(OctaneHttpResponse response) {
+
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format(LOGGER_RESPONSE_JSON_FORMAT, response.getContent()));
+		}
+		if (!response.isSuccessStatusCode()) {
+			response.close();
+			return null;
+		}
+
+		// null when the response has no content
+		final FieldTypeCache fieldTypeCache = requestContext.getFieldTypeCache();
+		final EntityModel newEntityModel;
+		if (lazy) {
+			newEntityModel = response.parseContentStream(LAZY_ENTITY_RESULT_NAME,
+					content -> ModelParser.getInstance().getLazyEntityModel(content, fieldTypeCache), OctaneRequest::copyEntity);
+		} else if (compact) {
+			newEntityModel = response.parseContentStream(COMPACT_ENTITY_RESULT_NAME,
+					content -> ModelParser.getInstance().getCompactEntityModel(content, fieldTypeCache), OctaneRequest::copyEntity);
+		} else {
+			newEntityModel = response.parseContentStream(ENTITY_RESULT_NAME,
+					content -> ModelParser.getInstance().getEntityModel(content, fieldTypeCache), OctaneRequest::copyEntity);
+		}
+		if (fieldTypeCache != null) {
+			fieldTypeCache.loadPending();
 		}
 
 		return newEntityModel;
@@ -116,14 +326,310 @@ public abstract class OctaneRequest {
 	}
 
 	/**
-	 * Handle exceptions
+	 * Makes a GET request conditional when the context has a {@link ValidatorCache}: the validators of the cached
+	 * result of the url, in the form of the entities of this request, are added to the request, and the returned parser answers a 304 Not Modified with a copy of
+	 * the cached result.  Other responses are parsed and their result cached if they carry validators.
+	 * Without a cache the parser is returned as is
+	 *
+	 * @param octaneHttpRequest the request, must not be executed yet
+	 * @param responseParser    converts the response to the result
+	 * @param copier            copies a result, so that the cached result is never handed out
+	 * @param <T>               type of the result
+	 * @return the parser of the response of the request
+	 */
+	@SuppressWarnings("unchecked")
+	protected final <T> Function<OctaneHttpResponse, T> conditional(OctaneHttpRequest.GetOctaneHttpRequest octaneHttpRequest,
+																	 Function<OctaneHttpResponse, T> responseParser,
+																	 UnaryOperator<T> copier) {
+		final ValidatorCache validatorCache = requestContext.getValidatorCache();
+		if (validatorCache == null) {
+			return responseParser;
+		}
+
+		// a 304 hands out a copy of the cached result, which must be of the form this request parses
+		final String url = resultKey(octaneHttpRequest.getRequestUrl());
+		final ValidatorCache.Entry entry = validatorCache.get(url);
+		if (entry != null) {
+			octaneHttpRequest.setIfNoneMatch(entry.getETag()).setIfModifiedSince(entry.getLastModified());
+		}
+
+		return response -> {
+			if (response.isNotModified() && entry != null) {
+				validatorCache.recordHit();
+				return copier.apply((T) entry.getValue());
+			}
+			validatorCache.recordMiss();
+			final T result = responseParser.apply(response);
+			if (result != null && response.isSuccessStatusCode()
+					&& (response.getETag() != null || response.getLastModified() != null)) {
+				validatorCache.put(url, new ValidatorCache.Entry(response.getETag(), response.getLastModified(), copier.apply(result)));
+			}
+			return result;
+		};
+	}
+
+	/**
+	 * @param url the url of the request
+	 * @return the key of the result of the url in the caches, which tells the lazy and the compact results of the url
+	 * apart from its plain result
+	 */
+	private String resultKey(String url) {
+		if (lazy) {
+			return url + ValidatorCache.FORM_SEPARATOR + "lazy";
+		}
+		return compact ? url + ValidatorCache.FORM_SEPARATOR + "compact" : url;
+	}
+
+	/**
+	 * Looks up the entity requested by this request in the {@link EntityCache} of the context
+	 *
+	 * @return a copy of the cached entity, null if entities are not cached or the entity is not in the cache
+	 */
+	protected final EntityModel getCachedEntity() {
+		final EntityCache entityCache = requestContext.getEntityCache();
+		return entityCache == null || lazy ? null
+				: entityCache.get(octaneUrl.getBaseUrl(), getEntityId(), octaneUrl.getParam(OctaneUrl.FIELDS_PARAM_NAME));
+	}
+
+	/**
+	 * Caches the entity returned by the parser in the {@link EntityCache} of the context.  Must be called before the
+	 * request is executed, so that an entity changed in the meantime is not cached
+	 *
+	 * @param responseParser converts the response to the entity
+	 * @return the parser of the response of the request
+	 */
+	protected final Function<OctaneHttpResponse, EntityModel> cachingEntity(Function<OctaneHttpResponse, EntityModel> responseParser) {
+		final EntityCache entityCache = requestContext.getEntityCache();
+		if (entityCache == null || lazy) {
+			return responseParser;
+		}
+
+		final long stamp = entityCache.stamp();
+		return response -> {
+			final EntityModel entityModel = responseParser.apply(response);
+			if (entityModel != null) {
+				entityCache.put(octaneUrl.getBaseUrl(), getEntityId(), octaneUrl.getParam(OctaneUrl.FIELDS_PARAM_NAME), entityModel, stamp);
+			}
+			return entityModel;
+		};
+	}
+
+	/**
+	 * Looks up the result of this query in the {@link QueryCache} of the context
+	 *
+	 * @return a copy of the cached entities, null if queries are not cached, the request is lazy or the result is not
+	 * in the cache
+	 */
+	protected final Collection<EntityModel> getCachedEntities() {
+		final QueryCache queryCache = requestContext.getQueryCache();
+		return queryCache == null || lazy ? null : queryCache.get(resultKey(octaneUrl.toCanonicalString()));
+	}
+
+	/**
+	 * Caches the entities returned by the parser in the {@link QueryCache} of the context.  Must be called before the
+	 * request is executed, so that a result changed in the meantime is not cached
+	 *
+	 * @param responseParser converts the response to the entities
+	 * @return the parser of the response of the request
+	 */
+	protected final Function<OctaneHttpResponse, Collection<EntityModel>> cachingEntities(Function<OctaneHttpResponse, Collection<EntityModel>> responseParser) {
+		final QueryCache queryCache = requestContext.getQueryCache();
+		if (queryCache == null || lazy) {
+			return responseParser;
+		}
+
+		final long stamp = queryCache.stamp();
+		return response -> {
+			final Collection<EntityModel> entityModels = responseParser.apply(response);
+			if (entityModels != null) {
+				queryCache.put(octaneUrl.getBaseUrl(), resultKey(octaneUrl.toCanonicalString()), entityModels, stamp);
+			}
+			return entityModels;
+		};
+	}
+
+	/**
+	 * Removes the cached results of the queries of the collection of this request from the {@link QueryCache} of the
+	 * context, after entities of the collection were created, updated or deleted
+	 */
+	protected final void invalidateCachedQueries() {
+		final QueryCache queryCache = requestContext.getQueryCache();
+		if (queryCache != null) {
+			queryCache.invalidate(octaneUrl.getBaseUrl());
+		}
+	}
+
+	/**
+	 * Removes the entity of this request from the {@link EntityCache} of the context, and the results of the queries
+	 * of its collection from the {@link QueryCache}, after it was updated or deleted
+	 *
+	 * @param entityModel the entity sent to the server, used to find the type of the entity, may be null
+	 */
+	protected final void invalidateCachedEntity(EntityModel entityModel) {
+		invalidateCachedQueries();
+		final EntityCache entityCache = requestContext.getEntityCache();
+		if (entityCache != null) {
+			entityCache.invalidate(octaneUrl.getBaseUrl(), getEntityId(), entityModel == null ? null : getType(entityModel));
+		}
+	}
+
+	/**
+	 * Removes the entities of the collection of this request from the {@link EntityCache} of the context, and the
+	 * results of the queries of the collection from the {@link QueryCache}, after they were updated or deleted in bulk
+	 *
+	 * @param entityModels the entities sent to the server, used to find the type of the entities, may be null
+	 */
+	protected final void invalidateCachedEntities(Collection<EntityModel> entityModels) {
+		invalidateCachedQueries();
+		final EntityCache entityCache = requestContext.getEntityCache();
+		if (entityCache != null) {
+			final Collection<String> types = new ArrayList<>();
+			if (entityModels != null) {
+				entityModels.stream().filter(Objects::nonNull).map(OctaneRequest::getType).filter(Objects::nonNull).forEach(types::add);
+			}
+			entityCache.invalidateCollection(octaneUrl.getBaseUrl(), types);
+		}
+	}
+
+	private String getEntityId() {
+		final List<String> paths = octaneUrl.getPaths();
+		return paths.isEmpty() ? "" : paths.get(paths.size() - 1);
+	}
+
+	private static String getType(EntityModel entityModel) {
+		final FieldModel type = entityModel.getValue("type");
+		return type == null || type.getValue() == null ? null : type.getValue().toString();
+	}
+
+	/**
+	 * Copies entities returned by the server, see {@link #conditional(OctaneHttpRequest.GetOctaneHttpRequest, Function, UnaryOperator)}
+	 *
+	 * @param entityModels the entities to copy
+	 * @return deep copies of the entities
+	 */
+	protected static Collection<EntityModel> copyEntities(Collection<EntityModel> entityModels) {
+		final Collection<EntityModel> copies = new ArrayList<>(entityModels.size());
+		entityModels.forEach(entityModel -> copies.add(copyEntity(entityModel)));
+		return copies;
+	}
+
+	/**
+	 * Copies an entity returned by the server, keeping the form of a {@link LazyEntityModel} or a
+	 * {@link CompactEntityModel}
+	 *
+	 * @param entityModel the entity to copy
+	 * @return a deep copy of the entity
+	 */
+	protected static EntityModel copyEntity(EntityModel entityModel) {
+		if (entityModel instanceof LazyEntityModel) {
+			return new LazyEntityModel((LazyEntityModel) entityModel);
+		}
+		if (entityModel instanceof CompactEntityModel) {
+			return new CompactEntityModel((CompactEntityModel) entityModel);
+		}
+		return new EntityModel(entityModel);
+	}
+
+	/**
+	 * Execute the request asynchronously and convert the response using the parser.
+	 * Exceptions are translated in the same way as {@link #handleException(Exception, boolean)} does for the
+	 * synchronous calls.  Cancelling the returned future cancels the underlying HTTP request
+	 *
+	 * @param octaneHttpRequest the request object
+	 * @param responseParser    converts the response to the result
+	 * @param partialSupport    whether partial success is supported
+	 * @param <T>               type of the result
+	 * @return future completed with the parsed result
+	 */
+	protected final <T> CompletableFuture<T> executeAsync(OctaneHttpRequest octaneHttpRequest, Function<OctaneHttpResponse, T> responseParser, boolean partialSupport) {
+
+		final Deadline deadline = newDeadline();
+		octaneHttpRequest.setDeadline(deadline);
+		octaneHttpRequest.setLane(lane);
+		final CompletableFuture<OctaneHttpResponse> responseFuture;
+		try {
+			responseFuture = octaneHttpClient.executeAsync(octaneHttpRequest);
+		} catch (Exception e) {
+			return failedFuture(e, partialSupport);
+		}
+
+		final CompletableFuture<T> resultFuture = new CompletableFuture<T>() {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				final boolean cancelled = super.cancel(mayInterruptIfRunning);
+				responseFuture.cancel(mayInterruptIfRunning);
+				return cancelled;
+			}
+		};
+
+		if (deadline != null) {
+			// fails the request even when the client does not check the deadline while waiting
+			final ScheduledFuture<?> timer = DefaultScheduler.getInstance().schedule(() -> {
+				if (resultFuture.completeExceptionally(new DeadlineExceededException("Deadline of the request exceeded"))) {
+					responseFuture.cancel(true);
+				}
+			}, deadline.getRemainingNanos(), TimeUnit.NANOSECONDS);
+			resultFuture.whenComplete((result, throwable) -> timer.cancel(false));
+		}
+
+		responseFuture.whenComplete((response, throwable) -> {
+			if (throwable != null) {
+				completeExceptionally(resultFuture, throwable, partialSupport);
+				return;
+			}
+			try {
+				resultFuture.complete(responseParser.apply(response));
+			} catch (Exception e) {
+				completeExceptionally(resultFuture, e, partialSupport);
+			}
+		});
+
+		return resultFuture;
+	}
+
+	/**
+	 * Create a future that has failed the same way the synchronous call would have
+	 *
+	 * @param e              - exception
+	 * @param partialSupport - Is Partial ?
+	 * @param <T>            type of the result
+	 * @return failed future
+	 */
+	protected final <T> CompletableFuture<T> failedFuture(Exception e, boolean partialSupport) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		completeExceptionally(future, e, partialSupport);
+		return future;
+	}
+
+	private void completeExceptionally(CompletableFuture<?> future, Throwable throwable, boolean partialSupport) {
+		Throwable cause = throwable;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		if (cause instanceof OctaneException || cause instanceof OctanePartialException
+				|| cause instanceof CancellationException || !(cause instanceof Exception)) {
+			future.completeExceptionally(cause);
+			return;
+		}
+		try {
+			handleException((Exception) cause, partialSupport);
+		} catch (RuntimeException handled) {
+			future.completeExceptionally(handled);
+		}
+	}
+
+	/**
+	 * Handle exceptions.  An {@link OctaneException} thrown by the http client, such as the one of an open circuit
+	 * breaker or an exceeded rate limit, is rethrown unchanged
 	 *
 	 * @param e              - exception
 	 * @param partialSupport - Is Partial ?
 	 */
 	protected final void handleException(Exception e, boolean partialSupport) {
 
-		if (e instanceof HttpResponseException) {
+		if (e instanceof OctaneException) {
+			throw (OctaneException) e;
+		} else if (e instanceof HttpResponseException) {
 
 			HttpResponseException httpResponseException = (HttpResponseException) e;
 			logger.debug(String.format(LOGGER_RESPONSE_FORMAT, httpResponseException.getStatusCode(), httpResponseException.getStatusMessage(), httpResponseException.getHeaders().toString()));
@@ -28,7 +28,7 @@ public final class OctaneUrl {
 
     private static final String LIMIT_PARAM_NAME = "limit";
     private static final String OFFSET_PARAM_NAME = "offset";
-    private static final String FIELDS_PARAM_NAME = "fields";
+    static final String FIELDS_PARAM_NAME = "fields";
     private static final String ORDER_BY_PARAM_NAME = "order_by";
     private static final String QUERY_PARAM_NAME = "query";
 
@@ -55,6 +55,14 @@ public final class OctaneUrl {
         this.paths.addAll(Arrays.asList(subPaths));
     }
 
+    /**
+     * Return the base of the url, without paths and query params
+     * @return the base url
+     */
+    String getBaseUrl(){
+        return baseUrl;
+    }
+
     /**
      * Return the current paths
      * @return list of strings representing the path of the current url
@@ -153,6 +161,33 @@ public final class OctaneUrl {
                 .collect(Collectors.joining("&"));
     }
 
+    /**
+     * Build the canonical url string from the state of this object: as {@link #toString()}, but with the query params
+     * sorted by name and the fields sorted, so that urls requesting the same data are equal whatever the order the
+     * params were set in
+     * @return canonical URL string containing base url with paths and sorted query params
+     */
+    public String toCanonicalString() {
+        final Map<String, String> sortedParams = new TreeMap<>(queryParams);
+        if (sortedParams.containsKey(FIELDS_PARAM_NAME)) {
+            sortedParams.put(FIELDS_PARAM_NAME, Arrays.stream(sortedParams.get(FIELDS_PARAM_NAME).split(","))
+                    .sorted()
+                    .collect(Collectors.joining(",")));
+        }
+        String url = baseUrl;
+        if (getPaths().size() > 0) {
+            if (!url.endsWith("/")) {
+                url += "/";
+            }
+            url += getPaths().stream().collect(Collectors.joining(PATH_SEPARATOR));
+        }
+        return sortedParams.isEmpty() ? url : url + "?" + sortedParams
+                .entrySet()
+                .stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining("&"));
+    }
+
     /**
      * Build the url string from the state of this object
      * @return URL string containing base url with paths and query params
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes a slot of the lane of each request of the wrapped client from the configured {@link PriorityLanes}, and gives
+ * it back when the request completes.  Used by the {@link com.hpe.adm.nga.sdk.Octane.Builder} when priority lanes
+ * have been set.
+ * <p>
+ * Synchronous requests wait for a slot on the calling thread, asynchronous requests are queued without blocking a
+ * thread and sent when the scheduler picks them.  Cancelling a queued asynchronous request removes it from its lane.  A
+ * synchronous request still waiting for a slot when its {@link Deadline} passes fails with a
+ * {@link DeadlineExceededException}
+ * </p>
+ */
+public final class PriorityLaneOctaneHttpClient extends DelegatingOctaneHttpClient {
+
+    private final PriorityLanes priorityLanes;
+
+    public PriorityLaneOctaneHttpClient(OctaneHttpClient delegate, PriorityLanes priorityLanes) {
+        super(delegate);
+        this.priorityLanes = priorityLanes;
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Object handle = priorityLanes.acquire(octaneHttpRequest.getLane(), acquired::countDown);
+        final Deadline deadline = octaneHttpRequest.getDeadline();
+        try {
+            if (deadline == null) {
+                acquired.await();
+            } else if (!acquired.await(deadline.getRemainingNanos(), TimeUnit.NANOSECONDS) && priorityLanes.cancel(handle)) {
+                throw new DeadlineExceededException("Deadline of the request exceeded waiting in its lane");
+            }
+        } catch (InterruptedException e) {
+            if (!priorityLanes.cancel(handle)) {
+                priorityLanes.release(octaneHttpRequest.getLane());
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Problem executing httprequest", e);
+        }
+
+        try {
+            return delegate.execute(octaneHttpRequest);
+        } finally {
+            priorityLanes.release(octaneHttpRequest.getLane());
+        }
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return executeAsync(octaneHttpRequest, DefaultAsyncExecutor.getInstance());
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        final RelayFuture result = new RelayFuture();
+        final Object handle = priorityLanes.acquire(octaneHttpRequest.getLane(), () -> send(octaneHttpRequest, executor, result));
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                priorityLanes.cancel(handle);
+            }
+        });
+        return result;
+    }
+
+    public PriorityLanes getPriorityLanes() {
+        return priorityLanes;
+    }
+
+    private void send(OctaneHttpRequest octaneHttpRequest, Executor executor, RelayFuture result) {
+        if (result.isDone()) {
+            priorityLanes.release(octaneHttpRequest.getLane());
+            return;
+        }
+        final CompletableFuture<OctaneHttpResponse> future;
+        try {
+            future = delegate.executeAsync(octaneHttpRequest, executor);
+        } catch (RuntimeException e) {
+            priorityLanes.release(octaneHttpRequest.getLane());
+            result.completeExceptionally(e);
+            return;
+        }
+        future.whenComplete((response, throwable) -> priorityLanes.release(octaneHttpRequest.getLane()));
+        result.relay(future);
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares a number of request slots between named lanes, such as the interactive requests of a UI and bulk exports.
+ * A request is put in the lane set with {@link OctaneRequest#lane(String)}, requests without a lane or with an unknown
+ * lane go to the default lane.
+ * <ul>
+ *     <li>a lane can reserve slots that the other lanes never take, so that its requests do not wait behind a full
+ *     queue of another lane</li>
+ *     <li>when a slot is released the waiting requests are served by weighted fair queueing: each lane gets a share of
+ *     the slots in proportion to its weight, and a lane that is not busy leaves its share to the others</li>
+ * </ul>
+ * Each lane reports its queue depth and the time its requests waited for a slot.
+ * <p>
+ * By default there are 20 slots and a single lane named {@value #DEFAULT_LANE} of weight 1.
+ * </p>
+ * <p>
+ * The lanes are thread safe and can be given to several {@link com.hpe.adm.nga.sdk.Octane.Builder}s so that all the
+ * contexts pointing at the same server share them
+ * </p>
+ */
+public final class PriorityLanes {
+
+    /**
+     * Name of the lane of the requests that do not set one, unless another default lane is configured
+     */
+    public static final String DEFAULT_LANE = "default";
+
+    private final int maxConcurrency;
+    private final Map<String, Lane> lanes;
+    private final Lane defaultLane;
+
+    // guarded by this
+    private int inFlight;
+    private int unusedReservedSlots;
+    private double virtualTime;
+
+    private PriorityLanes(Builder builder) {
+        maxConcurrency = builder.maxConcurrency;
+        final Map<String, Lane> newLanes = new LinkedHashMap<>();
+        builder.weights.forEach((name, weight) -> newLanes.put(name, new Lane(name, weight, builder.reservedSlots.getOrDefault(name, 0))));
+        newLanes.computeIfAbsent(builder.defaultLane, name -> new Lane(name, 1, 0));
+        lanes = Collections.unmodifiableMap(newLanes);
+        defaultLane = lanes.get(builder.defaultLane);
+        unusedReservedSlots = lanes.values().stream().mapToInt(lane -> lane.reservedSlots).sum();
+    }
+
+    /**
+     * Takes a slot of the lane for a request, running the action once it is taken: immediately if a slot is free,
+     * otherwise when the scheduler picks the request.  The action must be quick, it runs on the thread releasing the
+     * slot
+     *
+     * @param laneName   lane of the request, null for the default lane
+     * @param onAcquired action sending the request
+     * @return the handle to give to {@link #cancel(Object)} if the request is abandoned while waiting
+     */
+    Object acquire(String laneName, Runnable onAcquired) {
+        final Lane lane = getLane(laneName);
+        final Waiter waiter = new Waiter(lane, onAcquired);
+        synchronized (this) {
+            if (lane.waiters.isEmpty() && canDispatch(lane)) {
+                waiter.queued = false;
+                dispatch(waiter, System.nanoTime());
+            } else {
+                waiter.finishTag = Math.max(virtualTime, lane.lastFinishTag) + 1.0 / lane.weight;
+                lane.lastFinishTag = waiter.finishTag;
+                lane.waiters.add(waiter);
+                lane.queuedCount.increment();
+            }
+        }
+        if (!waiter.queued) {
+            onAcquired.run();
+        }
+        return waiter;
+    }
+
+    /**
+     * Removes a request that is still waiting for a slot
+     *
+     * @param handle the handle returned by {@link #acquire(String, Runnable)}
+     * @return false if the request already took its slot, which must then be released
+     */
+    boolean cancel(Object handle) {
+        final Waiter waiter = (Waiter) handle;
+        synchronized (this) {
+            return waiter.lane.waiters.remove(waiter);
+        }
+    }
+
+    /**
+     * Gives back the slot of a completed request and hands the free slots to the waiting requests
+     *
+     * @param laneName lane given to {@link #acquire(String, Runnable)}
+     */
+    void release(String laneName) {
+        final Lane lane = getLane(laneName);
+        final List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            lane.inFlight--;
+            if (lane.inFlight < lane.reservedSlots) {
+                unusedReservedSlots++;
+            }
+            final long now = System.nanoTime();
+            Waiter next;
+            while ((next = pickNext()) != null) {
+                next.lane.waiters.poll();
+                virtualTime = next.finishTag;
+                dispatch(next, now);
+                granted.add(next);
+            }
+        }
+        granted.forEach(waiter -> waiter.onAcquired.run());
+    }
+
+    // called while holding the lock; the head of the lane with the smallest finish tag among those that can take a slot
+    private Waiter pickNext() {
+        Waiter next = null;
+        for (Lane lane : lanes.values()) {
+            final Waiter head = lane.waiters.peek();
+            if (head != null && (next == null || head.finishTag < next.finishTag) && canDispatch(lane)) {
+                next = head;
+            }
+        }
+        return next;
+    }
+
+    // called while holding the lock
+    private boolean canDispatch(Lane lane) {
+        if (lane.inFlight < lane.reservedSlots) {
+            return true;
+        }
+        // the free slots that are not reserved by other lanes
+        return maxConcurrency - inFlight - unusedReservedSlots > 0;
+    }
+
+    // called while holding the lock
+    private void dispatch(Waiter waiter, long now) {
+        final Lane lane = waiter.lane;
+        if (lane.inFlight < lane.reservedSlots) {
+            unusedReservedSlots--;
+        }
+        inFlight++;
+        lane.inFlight++;
+        lane.dispatchedCount.increment();
+        if (waiter.queued) {
+            final long waitNanos = now - waiter.enqueuedNanos;
+            lane.totalWaitNanos.add(waitNanos);
+            lane.maxWaitNanos = Math.max(lane.maxWaitNanos, waitNanos);
+        }
+    }
+
+    private Lane getLane(String laneName) {
+        final Lane lane = laneName == null ? null : lanes.get(laneName);
+        return lane == null ? defaultLane : lane;
+    }
+
+    /**
+     * @return the lanes by name, in the order they were configured
+     */
+    public Map<String, Lane> getLanes() {
+        return lanes;
+    }
+
+    /**
+     * @return the lane of the requests that do not set a known lane
+     */
+    public Lane getDefaultLane() {
+        return defaultLane;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return the number of requests holding a slot
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PriorityLanes slots: %d lanes: %s", maxConcurrency, lanes.values());
+    }
+
+    /**
+     * A lane of requests and its statistics
+     */
+    public final class Lane {
+        private final String name;
+        private final int weight;
+        private final int reservedSlots;
+
+        // guarded by the enclosing PriorityLanes
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private int inFlight;
+        private double lastFinishTag;
+        private long maxWaitNanos;
+
+        private final LongAdder dispatchedCount = new LongAdder();
+        private final LongAdder queuedCount = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+
+        private Lane(String name, int weight, int reservedSlots) {
+            this.name = name;
+            this.weight = weight;
+            this.reservedSlots = reservedSlots;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public int getReservedSlots() {
+            return reservedSlots;
+        }
+
+        /**
+         * @return the number of requests of the lane waiting for a slot
+         */
+        public int getQueueLength() {
+            synchronized (PriorityLanes.this) {
+                return waiters.size();
+            }
+        }
+
+        /**
+         * @return the number of requests of the lane holding a slot
+         */
+        public int getInFlight() {
+            synchronized (PriorityLanes.this) {
+                return inFlight;
+            }
+        }
+
+        /**
+         * @return the number of requests of the lane that took a slot
+         */
+        public long getDispatchedCount() {
+            return dispatchedCount.sum();
+        }
+
+        /**
+         * @return the number of requests of the lane that had to wait for a slot
+         */
+        public long getQueuedCount() {
+            return queuedCount.sum();
+        }
+
+        /**
+         * @return the average time the requests of the lane waited for a slot, including the ones that did not wait
+         */
+        public double getAverageWaitMillis() {
+            final long dispatched = dispatchedCount.sum();
+            return dispatched == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum()) / dispatched / 1000;
+        }
+
+        /**
+         * @return the longest time a request of the lane waited for a slot
+         */
+        public long getMaxWaitMillis() {
+            synchronized (PriorityLanes.this) {
+                return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s weight: %d reserved: %d in flight: %d queued: %d average wait: %.1fms",
+                    name, weight, reservedSlots, getInFlight(), getQueueLength(), getAverageWaitMillis());
+        }
+    }
+
+    private static final class Waiter {
+        private final Lane lane;
+        private final Runnable onAcquired;
+        private final long enqueuedNanos = System.nanoTime();
+        private double finishTag;
+        private boolean queued = true;
+
+        private Waiter(Lane lane, Runnable onAcquired) {
+            this.lane = lane;
+            this.onAcquired = onAcquired;
+        }
+    }
+
+    /**
+     * Builder of {@link PriorityLanes}
+     */
+    public static final class Builder {
+        private int maxConcurrency = 20;
+        private final Map<String, Integer> weights = new LinkedHashMap<>();
+        private final Map<String, Integer> reservedSlots = new LinkedHashMap<>();
+        private String defaultLane = DEFAULT_LANE;
+
+        /**
+         * @param maxConcurrency - the number of requests in flight shared by the lanes
+         * @return this object
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be at least 1: " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Adds a lane that does not reserve slots
+         *
+         * @param name   - name of the lane
+         * @param weight - share of the slots of the lane relative to the other lanes when they all have waiting requests
+         * @return this object
+         */
+        public Builder lane(String name, int weight) {
+            return lane(name, weight, 0);
+        }
+
+        /**
+         * Adds a lane
+         *
+         * @param name          - name of the lane
+         * @param weight        - share of the slots of the lane relative to the other lanes when they all have waiting
+         *                      requests
+         * @param reserved      - the number of slots only the requests of this lane can take
+         * @return this object
+         */
+        public Builder lane(String name, int weight, int reserved) {
+            if (weight < 1 || reserved < 0) {
+                throw new IllegalArgumentException("Invalid lane " + name + " weight " + weight + " reserved slots " + reserved);
+            }
+            weights.put(name, weight);
+            reservedSlots.put(name, reserved);
+            return this;
+        }
+
+        /**
+         * @param defaultLane - the lane of the requests that do not set a known lane, added with weight 1 if it was
+         *                    not configured
+         * @return this object
+         */
+        public Builder defaultLane(String defaultLane) {
+            this.defaultLane = defaultLane;
+            return this;
+        }
+
+        public PriorityLanes build() {
+            final int reserved = reservedSlots.values().stream().mapToInt(Integer::intValue).sum();
+            if (reserved >= maxConcurrency) {
+                throw new IllegalArgumentException("The lanes reserve " + reserved + " of the " + maxConcurrency + " slots, none is left to share");
+            }
+            return new PriorityLanes(this);
+        }
+    }
+}
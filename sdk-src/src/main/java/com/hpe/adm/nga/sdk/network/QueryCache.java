@@ -0,0 +1,368 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.model.CompactEntityModel;
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import com.hpe.adm.nga.sdk.model.FieldModel;
+import com.hpe.adm.nga.sdk.model.MultiReferenceFieldModel;
+import com.hpe.adm.nga.sdk.model.ReferenceFieldModel;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In memory cache of the results of {@link com.hpe.adm.nga.sdk.entities.GetEntities} requests, set on the
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder}.  Results are keyed by the canonical url of the request (see
+ * {@link OctaneUrl#toCanonicalString()}), so the same query, fields, order, limit and offset return a copy of the
+ * cached entities without a request to the server.  The compact results of a query are cached apart from its plain
+ * results, so each request gets the form of entities it asked for.
+ * <p>
+ * Results expire after the time to live of their entity collection, {@link Builder#defaultTtl(Duration)} unless set
+ * with {@link Builder#ttl(String, Duration)}.  The least recently used results are evicted when the estimated memory
+ * of the cached entities exceeds {@link Builder#maximumMemory(long)}.  Creating, updating or deleting entities of a
+ * collection through the same context removes the cached results of that collection
+ * </p>
+ * <p>
+ * The cache is thread safe.  It should only be shared by contexts that sign in as the same user
+ * </p>
+ */
+public final class QueryCache {
+
+    // estimated memory of an entity and of a field, besides the characters of its value
+    private static final long ENTITY_OVERHEAD = 64;
+    private static final long FIELD_OVERHEAD = 48;
+
+    private final long maximumMemory;
+    private final int maximumSize;
+    private final long defaultTtlNanos;
+    private final Map<String, Long> ttlNanos;
+    private final LongSupplier ticker;
+
+    // guarded by this
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> collectionUrls = new HashMap<>();
+    private long memory;
+    private long invalidations;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private QueryCache(Builder builder) {
+        maximumMemory = builder.maximumMemory;
+        maximumSize = builder.maximumSize;
+        defaultTtlNanos = builder.defaultTtlNanos;
+        ttlNanos = new HashMap<>(builder.ttlNanos);
+        ticker = builder.ticker;
+    }
+
+    /**
+     * Returns a copy of a cached result
+     *
+     * @param canonicalUrl the canonical url of the request
+     * @return the copy, null if the result is not cached
+     */
+    Collection<EntityModel> get(String canonicalUrl) {
+        Collection<EntityModel> entityModels = null;
+        synchronized (this) {
+            final Entry entry = entries.get(canonicalUrl);
+            if (entry != null) {
+                if (entry.expiresAt - ticker.getAsLong() > 0) {
+                    entityModels = entry.entityModels;
+                } else {
+                    removeEntry(canonicalUrl, entry);
+                }
+            }
+        }
+        if (entityModels == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        // the cached entities are never changed, they can be copied outside of the lock
+        return OctaneRequest.copyEntities(entityModels);
+    }
+
+    /**
+     * @return the stamp to give to {@link #put(String, String, Collection, long)} with a result read after this call
+     */
+    synchronized long stamp() {
+        return invalidations;
+    }
+
+    /**
+     * Caches a result read from the server.  The result is ignored if results were invalidated since the stamp was
+     * taken, as it may have been read before the entities changed
+     *
+     * @param collectionUrl the url of the entity collection, including the workspace
+     * @param canonicalUrl  the canonical url of the request
+     * @param entityModels  the result, it is copied
+     * @param stamp         the {@link #stamp()} taken before the result was requested
+     */
+    void put(String collectionUrl, String canonicalUrl, Collection<EntityModel> entityModels, long stamp) {
+        final long ttl = ttlNanos.getOrDefault(collectionName(collectionUrl), defaultTtlNanos);
+        if (ttl <= 0) {
+            return;
+        }
+        final Collection<EntityModel> copy = OctaneRequest.copyEntities(entityModels);
+        final long size = estimateMemory(copy);
+        if (size > maximumMemory) {
+            return;
+        }
+        synchronized (this) {
+            if (stamp != invalidations) {
+                return;
+            }
+            final Entry previous = entries.get(canonicalUrl);
+            if (previous != null) {
+                removeEntry(canonicalUrl, previous);
+            }
+            entries.put(canonicalUrl, new Entry(collectionUrl, copy, size, ticker.getAsLong() + ttl));
+            collectionUrls.computeIfAbsent(collectionUrl, url -> new HashSet<>()).add(canonicalUrl);
+            memory += size;
+
+            final Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            while ((memory > maximumMemory || entries.size() > maximumSize) && iterator.hasNext()) {
+                final Map.Entry<String, Entry> eldest = iterator.next();
+                iterator.remove();
+                detachEntry(eldest.getKey(), eldest.getValue());
+                evictionCount.increment();
+            }
+        }
+    }
+
+    /**
+     * Removes the cached results of a collection whose entities were created, updated or deleted
+     *
+     * @param collectionUrl the url of the entity collection, including the workspace
+     */
+    synchronized void invalidate(String collectionUrl) {
+        invalidations++;
+        final Set<String> canonicalUrls = collectionUrls.remove(collectionUrl);
+        if (canonicalUrls != null) {
+            canonicalUrls.forEach(canonicalUrl -> {
+                final Entry entry = entries.remove(canonicalUrl);
+                if (entry != null) {
+                    memory -= entry.memory;
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes all the cached results
+     */
+    public synchronized void invalidateAll() {
+        invalidations++;
+        entries.clear();
+        collectionUrls.clear();
+        memory = 0;
+    }
+
+    /**
+     * @return the number of cached results
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated memory of the cached results, in bytes
+     */
+    public synchronized long getMemory() {
+        return memory;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return the share of the lookups answered from the cache, 0 if there were none
+     */
+    public double getHitRatio() {
+        final long hits = hitCount.sum();
+        final long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QueryCache size: %d/%d memory: %d/%d defaultTtl: %dms hitRatio: %.2f",
+                size(), maximumSize, getMemory(), maximumMemory, TimeUnit.NANOSECONDS.toMillis(defaultTtlNanos), getHitRatio());
+    }
+
+    private void removeEntry(String canonicalUrl, Entry entry) {
+        entries.remove(canonicalUrl);
+        detachEntry(canonicalUrl, entry);
+    }
+
+    private void detachEntry(String canonicalUrl, Entry entry) {
+        memory -= entry.memory;
+        final Set<String> canonicalUrls = collectionUrls.get(entry.collectionUrl);
+        if (canonicalUrls != null) {
+            canonicalUrls.remove(canonicalUrl);
+            if (canonicalUrls.isEmpty()) {
+                collectionUrls.remove(entry.collectionUrl);
+            }
+        }
+    }
+
+    private static String collectionName(String collectionUrl) {
+        return collectionUrl.substring(collectionUrl.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Estimates the memory held by entities, counting two bytes for every character of the values
+     */
+    static long estimateMemory(Collection<EntityModel> entityModels) {
+        long memory = ENTITY_OVERHEAD;
+        for (EntityModel entityModel : entityModels) {
+            memory += estimateMemory(entityModel);
+        }
+        return memory;
+    }
+
+    private static long estimateMemory(EntityModel entityModel) {
+        if (entityModel == null) {
+            return 0;
+        }
+        long memory = ENTITY_OVERHEAD;
+        // the fields of a plain copy, as reading the fields of a compact entity keeps their field models
+        final Collection<FieldModel> fields = entityModel instanceof CompactEntityModel
+                ? new EntityModel(entityModel).getValues() : entityModel.getValues();
+        for (FieldModel field : fields) {
+            memory += FIELD_OVERHEAD + 2L * field.getName().length();
+            if (field instanceof ReferenceFieldModel) {
+                memory += estimateMemory(((ReferenceFieldModel) field).getValue());
+            } else if (field instanceof MultiReferenceFieldModel) {
+                final Collection<EntityModel> references = ((MultiReferenceFieldModel) field).getValue();
+                if (references != null) {
+                    memory += estimateMemory(references);
+                }
+            } else if (field.getValue() != null) {
+                memory += 2L * String.valueOf(field.getValue()).length();
+            }
+        }
+        return memory;
+    }
+
+    private static final class Entry {
+        private final String collectionUrl;
+        private final Collection<EntityModel> entityModels;
+        private final long memory;
+        private final long expiresAt;
+
+        private Entry(String collectionUrl, Collection<EntityModel> entityModels, long memory, long expiresAt) {
+            this.collectionUrl = collectionUrl;
+            this.entityModels = entityModels;
+            this.memory = memory;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Builder of {@link QueryCache}
+     */
+    public static final class Builder {
+        private long maximumMemory = 32L * 1024 * 1024;
+        private int maximumSize = 1000;
+        private long defaultTtlNanos = TimeUnit.SECONDS.toNanos(30);
+        private final Map<String, Long> ttlNanos = new HashMap<>();
+        private LongSupplier ticker = System::nanoTime;
+
+        /**
+         * @param maximumMemory - the maximum estimated memory of the cached results, in bytes
+         * @return this object
+         */
+        public Builder maximumMemory(long maximumMemory) {
+            if (maximumMemory < 1) {
+                throw new IllegalArgumentException("maximumMemory must be at least 1");
+            }
+            this.maximumMemory = maximumMemory;
+            return this;
+        }
+
+        /**
+         * @param maximumSize - the maximum number of cached results
+         * @return this object
+         */
+        public Builder maximumSize(int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("maximumSize must be at least 1");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * @param defaultTtl - how long the results of a collection without its own time to live are served, zero
+         *                   disables caching of those collections
+         * @return this object
+         */
+        public Builder defaultTtl(Duration defaultTtl) {
+            if (defaultTtl.isNegative()) {
+                throw new IllegalArgumentException("defaultTtl must not be negative");
+            }
+            this.defaultTtlNanos = defaultTtl.toNanos();
+            return this;
+        }
+
+        /**
+         * Sets the time to live of the results of an entity collection
+         * <br>
+         * eg {@code ttl("releases", Duration.ofMinutes(10))}
+         *
+         * @param entityName - the name of the entity as a collection
+         * @param ttl        - how long the results are served, zero disables caching of the collection
+         * @return this object
+         */
+        public Builder ttl(String entityName, Duration ttl) {
+            if (ttl.isNegative()) {
+                throw new IllegalArgumentException("ttl must not be negative");
+            }
+            ttlNanos.put(entityName, ttl.toNanos());
+            return this;
+        }
+
+        Builder ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public QueryCache build() {
+            return new QueryCache(this);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.exception.RateLimitExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket limiting the rate of the requests sent to the server.  The bucket holds up to {@code burst} permits and
+ * is refilled at {@code permitsPerSecond}; every request takes one permit.
+ * <p>
+ * When no permit is available a request either waits for one, which is the default, or fails with a
+ * {@link RateLimitExceededException} when it would have to wait longer than {@link Builder#maxWait(Duration)}.
+ * Waiting requests queue up in order: each one reserves the next permit that becomes available.
+ * </p>
+ * <p>
+ * A limiter is thread safe and can be given to several {@link com.hpe.adm.nga.sdk.Octane.Builder}s so that all the
+ * contexts pointing at the same server share one limit
+ * </p>
+ */
+public final class RateLimiter {
+
+    private static final long BLOCK = Long.MAX_VALUE;
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final long maxWaitNanos;
+    private final double nanosPerPermit;
+
+    // guarded by this; negative permits are reservations of waiting requests
+    private double permits;
+    private long lastRefillNanos;
+
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private RateLimiter(Builder builder) {
+        permitsPerSecond = builder.permitsPerSecond;
+        burst = builder.burst > 0 ? builder.burst : (int) Math.max(1, Math.ceil(permitsPerSecond));
+        maxWaitNanos = builder.maxWaitNanos;
+        nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        permits = burst;
+        lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Creates a blocking limiter with a burst of one second worth of permits
+     *
+     * @param permitsPerSecond - the sustained rate of requests
+     * @return the new limiter
+     */
+    public static RateLimiter create(double permitsPerSecond) {
+        return new Builder().permitsPerSecond(permitsPerSecond).build();
+    }
+
+    /**
+     * Takes a permit, reserving the next one to become available if there is none
+     *
+     * @return how long the caller must wait before using the permit, in nanoseconds
+     * @throws RateLimitExceededException if the wait would be longer than the maximum wait
+     */
+    long reserve() {
+        final long wait;
+        synchronized (this) {
+            refill(System.nanoTime());
+            wait = permits >= 1 ? 0 : (long) Math.ceil((1 - permits) * nanosPerPermit);
+            if (wait <= maxWaitNanos) {
+                permits -= 1;
+            }
+        }
+        if (wait > maxWaitNanos) {
+            rejectedCount.increment();
+            throw new RateLimitExceededException(String.format("Rate limit of %s requests per second exceeded", permitsPerSecond));
+        }
+        acquiredCount.increment();
+        totalWaitNanos.add(wait);
+        return wait;
+    }
+
+    /**
+     * Gives back a permit taken by {@link #reserve()} that will not be used
+     */
+    void release() {
+        synchronized (this) {
+            permits = Math.min(burst, permits + 1);
+        }
+        acquiredCount.decrement();
+    }
+
+    private void refill(long now) {
+        final long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            permits = Math.min(burst, permits + elapsed / nanosPerPermit);
+            lastRefillNanos = now;
+        }
+    }
+
+    /**
+     * @return the permits currently available.  A negative value is the number of permits already reserved by
+     * waiting requests
+     */
+    public synchronized double getAvailablePermits() {
+        refill(System.nanoTime());
+        return permits;
+    }
+
+    /**
+     * @return the number of permits handed out
+     */
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    /**
+     * @return the number of requests failed because no permit was available in time
+     */
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * @return the total time requests waited for a permit, in milliseconds
+     */
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum());
+    }
+
+    /**
+     * @return the average time a request waited for its permit, in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        final long acquired = acquiredCount.sum();
+        return acquired == 0 ? 0 : (double) totalWaitNanos.sum() / acquired / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RateLimiter %s/s burst: %d maxWait: %s", permitsPerSecond, burst,
+                maxWaitNanos == BLOCK ? "unbounded" : TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms");
+    }
+
+    /**
+     * Builder of {@link RateLimiter}.  The rate must be set, the other settings have defaults
+     */
+    public static class Builder {
+        private double permitsPerSecond = 0;
+        private int burst = 0;
+        private long maxWaitNanos = BLOCK;
+
+        /**
+         * @param permitsPerSecond - the sustained rate of requests, must be positive
+         * @return this object
+         */
+        public Builder permitsPerSecond(double permitsPerSecond) {
+            if (!(permitsPerSecond > 0)) {
+                throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+            }
+            this.permitsPerSecond = permitsPerSecond;
+            return this;
+        }
+
+        /**
+         * @param burst - the number of requests that can be sent at once after a quiet period.  Defaults to the
+         *              number of permits of one second
+         * @return this object
+         */
+        public Builder burst(int burst) {
+            if (burst < 1) {
+                throw new IllegalArgumentException("burst must be at least 1: " + burst);
+            }
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Fails the requests that would have to wait longer than the given time for a permit
+         *
+         * @param maxWait - the longest wait, zero to fail as soon as no permit is available
+         * @return this object
+         */
+        public Builder maxWait(Duration maxWait) {
+            if (maxWait.isNegative()) {
+                throw new IllegalArgumentException("maxWait must not be negative: " + maxWait);
+            }
+            maxWaitNanos = maxWait.toNanos();
+            return this;
+        }
+
+        /**
+         * Fails the requests as soon as no permit is available, same as {@code maxWait(Duration.ZERO)}
+         *
+         * @return this object
+         */
+        public Builder failFast() {
+            maxWaitNanos = 0;
+            return this;
+        }
+
+        /**
+         * Makes the requests wait as long as needed for a permit, which is the default
+         *
+         * @return this object
+         */
+        public Builder block() {
+            maxWaitNanos = BLOCK;
+            return this;
+        }
+
+        public RateLimiter build() {
+            if (permitsPerSecond <= 0) {
+                throw new IllegalStateException("permitsPerSecond must be set");
+            }
+            return new RateLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+import com.hpe.adm.nga.sdk.exception.RateLimitExceededException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes a permit of the configured {@link RateLimiter}s before each request of the wrapped client.  Used by the
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder} when rate limiters have been set.
+ * <p>
+ * A request needs a permit of every limiter that applies to it: the limiter of all requests, the limiter of its
+ * http method and the limiter of its entity collection.  Synchronous requests wait on the calling thread, asynchronous
+ * requests are delayed without blocking a thread.  A request that would wait past its {@link Deadline} fails at once
+ * with a {@link DeadlineExceededException}
+ * </p>
+ */
+public final class RateLimitingOctaneHttpClient extends DelegatingOctaneHttpClient {
+
+    private static final String WORKSPACES = "workspaces";
+    private static final String SHARED_SPACES = "shared_spaces";
+    private static final String SITE_ADMIN = "siteadmin";
+
+    private final RateLimiter rateLimiter;
+    private final Map<OctaneHttpRequest.OctaneRequestMethod, RateLimiter> methodRateLimiters;
+    private final Map<String, RateLimiter> collectionRateLimiters;
+
+    /**
+     * @param delegate               the wrapped client
+     * @param rateLimiter            limiter of all the requests, can be null
+     * @param methodRateLimiters     limiters of the requests of an http method
+     * @param collectionRateLimiters limiters of the requests of an entity collection, such as {@code defects}
+     */
+    public RateLimitingOctaneHttpClient(OctaneHttpClient delegate,
+                                        RateLimiter rateLimiter,
+                                        Map<OctaneHttpRequest.OctaneRequestMethod, RateLimiter> methodRateLimiters,
+                                        Map<String, RateLimiter> collectionRateLimiters) {
+        super(delegate);
+        this.rateLimiter = rateLimiter;
+        this.methodRateLimiters = methodRateLimiters.isEmpty()
+                ? Collections.emptyMap() : new EnumMap<>(methodRateLimiters);
+        this.collectionRateLimiters = new HashMap<>(collectionRateLimiters);
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        final long wait = reserve(octaneHttpRequest);
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Problem executing httprequest", e);
+            }
+        }
+        return delegate.execute(octaneHttpRequest);
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return executeAsync(octaneHttpRequest, DefaultAsyncExecutor.getInstance());
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        final long wait;
+        try {
+            wait = reserve(octaneHttpRequest);
+        } catch (RateLimitExceededException | DeadlineExceededException e) {
+            final CompletableFuture<OctaneHttpResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        if (wait == 0) {
+            return delegate.executeAsync(octaneHttpRequest, executor);
+        }
+        final RelayFuture result = new RelayFuture();
+        result.setCurrent(DefaultScheduler.getInstance().schedule(() -> {
+            if (!result.isDone()) {
+                result.relay(delegate.executeAsync(octaneHttpRequest, executor));
+            }
+        }, wait, TimeUnit.NANOSECONDS));
+        return result;
+    }
+
+    /**
+     * Takes a permit of each limiter of the request, giving them back if one of the limiters rejects it
+     *
+     * @return the longest wait of the permits, in nanoseconds
+     * @throws DeadlineExceededException if the deadline of the request would pass during the wait
+     */
+    private long reserve(OctaneHttpRequest octaneHttpRequest) {
+        final List<RateLimiter> reserved = new ArrayList<>(3);
+        long wait = 0;
+        try {
+            for (RateLimiter limiter : getRateLimiters(octaneHttpRequest)) {
+                wait = Math.max(wait, limiter.reserve());
+                reserved.add(limiter);
+            }
+        } catch (RateLimitExceededException e) {
+            reserved.forEach(RateLimiter::release);
+            throw e;
+        }
+        final Deadline deadline = octaneHttpRequest.getDeadline();
+        if (deadline != null && wait > 0 && wait >= deadline.getRemainingNanos()) {
+            reserved.forEach(RateLimiter::release);
+            throw new DeadlineExceededException("Deadline of the request would pass waiting for the rate limiter");
+        }
+        return wait;
+    }
+
+    private List<RateLimiter> getRateLimiters(OctaneHttpRequest octaneHttpRequest) {
+        final List<RateLimiter> limiters = new ArrayList<>(3);
+        if (rateLimiter != null) {
+            limiters.add(rateLimiter);
+        }
+        final RateLimiter methodRateLimiter = methodRateLimiters.get(octaneHttpRequest.getOctaneRequestMethod());
+        if (methodRateLimiter != null) {
+            limiters.add(methodRateLimiter);
+        }
+        if (!collectionRateLimiters.isEmpty()) {
+            final String collection = getCollection(octaneHttpRequest.getRequestUrl());
+            final RateLimiter collectionRateLimiter = collection == null ? null : collectionRateLimiters.get(collection);
+            if (collectionRateLimiter != null) {
+                limiters.add(collectionRateLimiter);
+            }
+        }
+        return limiters;
+    }
+
+    /**
+     * Finds the entity collection of a request url, the segment that follows the workspace, the shared space or
+     * the site admin path
+     *
+     * @param url the url of the request
+     * @return the collection name, null if the url has none
+     */
+    static String getCollection(String url) {
+        final int queryStart = url.indexOf('?');
+        final String[] segments = (queryStart < 0 ? url : url.substring(0, queryStart)).split("/");
+        String collection = null;
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (segments[i].equals(SITE_ADMIN)) {
+                collection = segments[i + 1];
+            } else if ((segments[i].equals(WORKSPACES) || segments[i].equals(SHARED_SPACES)) && i + 2 < segments.length) {
+                collection = segments[i + 2];
+                // skip the id
+                i++;
+            }
+        }
+        return collection;
+    }
+}
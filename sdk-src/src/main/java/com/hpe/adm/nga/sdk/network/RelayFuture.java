@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Result of an asynchronous request that goes through several steps, such as a delay followed by the actual request.
+ * Cancelling it cancels the step currently running
+ */
+final class RelayFuture extends CompletableFuture<OctaneHttpResponse> {
+
+    private volatile Future<?> current;
+
+    /**
+     * Sets the step currently running, which is cancelled immediately if this future already was
+     */
+    void setCurrent(Future<?> future) {
+        current = future;
+        if (isCancelled()) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Completes this future with the outcome of the given one, which becomes the current step
+     */
+    void relay(CompletableFuture<OctaneHttpResponse> future) {
+        setCurrent(future);
+        future.whenComplete((response, throwable) -> {
+            if (throwable == null) {
+                complete(response);
+            } else {
+                completeExceptionally(throwable);
+            }
+        });
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        final boolean cancelled = super.cancel(mayInterruptIfRunning);
+        final Future<?> future = current;
+        if (future != null) {
+            future.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+}
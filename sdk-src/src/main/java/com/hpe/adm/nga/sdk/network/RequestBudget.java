@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget of the extra requests a client may send, such as retries or hedges.  Every request deposits a fraction of an
+ * extra request, up to a maximum, and every extra request withdraws a whole one.  The budget starts full and is thread
+ * safe
+ */
+final class RequestBudget {
+
+    // the budget is kept in thousandths of a request
+    private static final long UNIT = 1000;
+
+    private final AtomicLong budget;
+    private final long deposit;
+    private final long max;
+
+    /**
+     * @param ratio the fraction of an extra request every request deposits
+     * @param max   the maximum number of extra requests the budget holds
+     */
+    RequestBudget(double ratio, int max) {
+        this.max = max * UNIT;
+        deposit = (long) (ratio * UNIT);
+        budget = new AtomicLong(this.max);
+    }
+
+    /**
+     * Deposits the fraction of a request
+     */
+    void deposit() {
+        budget.accumulateAndGet(deposit, (current, amount) -> Math.min(max, current + amount));
+    }
+
+    /**
+     * @return whether an extra request was withdrawn, false if the budget holds less than one
+     */
+    boolean tryWithdraw() {
+        while (true) {
+            final long current = budget.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the number of extra requests left in the budget
+     */
+    double get() {
+        return (double) budget.get() / UNIT;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.metadata.FieldTypeCache;
+
+/**
+ * The objects of an {@link com.hpe.adm.nga.sdk.Octane} context that its requests use besides the
+ * {@link OctaneHttpClient}: the caches of the results and the field types used to decode the entities.  Created by the
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder} and handed to the entity lists, metadata and attachments of the context.
+ * Each object is null when the context does not use it
+ */
+public final class RequestContext {
+
+    private static final RequestContext EMPTY = new Builder().build();
+
+    private final ValidatorCache validatorCache;
+    private final EntityCache entityCache;
+    private final QueryCache queryCache;
+    private final FieldTypeCache fieldTypeCache;
+
+    private RequestContext(Builder builder) {
+        validatorCache = builder.validatorCache;
+        entityCache = builder.entityCache;
+        queryCache = builder.queryCache;
+        fieldTypeCache = builder.fieldTypeCache;
+    }
+
+    /**
+     * @return a context without caches, whose entities are decoded from their values
+     */
+    public static RequestContext empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return the cache used to send GET requests conditionally, null if requests are not conditional
+     */
+    public ValidatorCache getValidatorCache() {
+        return validatorCache;
+    }
+
+    /**
+     * @return the cache of the entities read by id, null if entities are not cached
+     */
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * @return the cache of the results of queries, null if the results are not cached
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * @return the field types used to decode the entities, null if their fields are decoded from the values
+     */
+    public FieldTypeCache getFieldTypeCache() {
+        return fieldTypeCache;
+    }
+
+    /**
+     * Builds a {@link RequestContext}, nothing is set by default
+     */
+    public static final class Builder {
+        private ValidatorCache validatorCache;
+        private EntityCache entityCache;
+        private QueryCache queryCache;
+        private FieldTypeCache fieldTypeCache;
+
+        /**
+         * @param validatorCache - the cache used to send GET requests conditionally
+         * @return this object
+         */
+        public Builder validatorCache(ValidatorCache validatorCache) {
+            this.validatorCache = validatorCache;
+            return this;
+        }
+
+        /**
+         * @param entityCache - the cache of the entities read by id
+         * @return this object
+         */
+        public Builder entityCache(EntityCache entityCache) {
+            this.entityCache = entityCache;
+            return this;
+        }
+
+        /**
+         * @param queryCache - the cache of the results of queries
+         * @return this object
+         */
+        public Builder queryCache(QueryCache queryCache) {
+            this.queryCache = queryCache;
+            return this;
+        }
+
+        /**
+         * @param fieldTypeCache - the field types used to decode the entities
+         * @return this object
+         */
+        public Builder fieldTypeCache(FieldTypeCache fieldTypeCache) {
+            this.fieldTypeCache = fieldTypeCache;
+            return this;
+        }
+
+        public RequestContext build() {
+            return new RequestContext(this);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.google.api.client.http.HttpResponseException;
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Outcome of a request as seen by the clients that protect the server, such as the {@link ConcurrencyLimit} and the
+ * {@link CircuitBreaker}
+ */
+enum RequestOutcome {
+    SUCCESS,
+    // the server is overloaded or unreachable
+    DROPPED,
+    // cancelled or failed for a reason that says nothing about the health of the server
+    IGNORED;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVER_ERROR = 500;
+
+    /**
+     * A failure is a drop when it shows the server is overloaded: a 429 or 5xx status or an I/O error such as a
+     * timeout.  Other error statuses were answered by a healthy server
+     *
+     * @param failure the failure of the request
+     * @return the outcome of the failed request
+     */
+    static RequestOutcome of(Throwable failure) {
+        Throwable current = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        while (current != null) {
+            if (current instanceof DeadlineExceededException) {
+                // the caller gave up, the server may be healthy
+                return IGNORED;
+            }
+            if (current instanceof HttpResponseException) {
+                final int statusCode = ((HttpResponseException) current).getStatusCode();
+                return statusCode == TOO_MANY_REQUESTS || statusCode >= SERVER_ERROR ? DROPPED : SUCCESS;
+            }
+            if (current instanceof IOException) {
+                return DROPPED;
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+            current = current.getCause();
+        }
+        return IGNORED;
+    }
+}
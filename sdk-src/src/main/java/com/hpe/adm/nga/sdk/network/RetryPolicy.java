@@ -0,0 +1,276 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which failed requests are retried and how long to wait before each retry.  Set it on the
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder} to have the requests of a context retried by a
+ * {@link RetryingOctaneHttpClient}.
+ * <p>
+ * By default:
+ * </p>
+ * <ul>
+ *     <li>up to 3 retries of GET, PUT and DELETE requests; POST requests are not idempotent and are not retried
+ *     unless {@link Builder#retryNonIdempotent(boolean)} is set</li>
+ *     <li>retried on connection failures and on the status codes 429, 502, 503 and 504</li>
+ *     <li>exponential backoff starting at 500ms, doubling up to 30s, of which up to half is random jitter</li>
+ *     <li>a {@code Retry-After} header of the server is honored when it asks to wait no longer than 60s, longer
+ *     waits fail the request</li>
+ *     <li>a retry budget: every request adds 0.2 retries to the budget of the client, up to 100, and every retry
+ *     takes one.  Once exhausted, failures are not retried until further requests refill the budget, so a degraded
+ *     server does not receive a multiple of the normal load</li>
+ * </ul>
+ */
+public final class RetryPolicy {
+
+    private static final Set<OctaneHttpRequest.OctaneRequestMethod> IDEMPOTENT_METHODS = Collections.unmodifiableSet(EnumSet.of(
+            OctaneHttpRequest.OctaneRequestMethod.GET,
+            OctaneHttpRequest.OctaneRequestMethod.PUT,
+            OctaneHttpRequest.OctaneRequestMethod.DELETE));
+
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final double backoffMultiplier;
+    private final double jitter;
+    private final long maxRetryAfterMillis;
+    private final Set<Integer> retryableStatusCodes;
+    private final boolean retryOnConnectionFailure;
+    private final boolean retryNonIdempotent;
+    private final double budgetRatio;
+    private final int maxBudget;
+
+    private RetryPolicy(Builder builder) {
+        maxRetries = builder.maxRetries;
+        initialBackoffMillis = builder.initialBackoffMillis;
+        maxBackoffMillis = builder.maxBackoffMillis;
+        backoffMultiplier = builder.backoffMultiplier;
+        jitter = builder.jitter;
+        maxRetryAfterMillis = builder.maxRetryAfterMillis;
+        retryableStatusCodes = Collections.unmodifiableSet(new HashSet<>(builder.retryableStatusCodes));
+        retryOnConnectionFailure = builder.retryOnConnectionFailure;
+        retryNonIdempotent = builder.retryNonIdempotent;
+        budgetRatio = builder.budgetRatio;
+        maxBudget = builder.maxBudget;
+    }
+
+    /**
+     * @return a policy with the default settings
+     */
+    public static RetryPolicy defaultPolicy() {
+        return new Builder().build();
+    }
+
+    /**
+     * @param octaneHttpRequest the failed request
+     * @return true if the request can be sent again without risking a duplicate side effect
+     */
+    public boolean isRetryable(OctaneHttpRequest octaneHttpRequest) {
+        final OctaneHttpRequest.OctaneRequestMethod method = octaneHttpRequest.getOctaneRequestMethod();
+        // the binary stream of an attachment is consumed by the first attempt
+        return IDEMPOTENT_METHODS.contains(method)
+                || (retryNonIdempotent && method == OctaneHttpRequest.OctaneRequestMethod.POST);
+    }
+
+    /**
+     * @param statusCode status code of the failed response
+     * @return true if a response with this status is retried
+     */
+    public boolean isRetryableStatusCode(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * @return true if requests that failed without a response, for example on connection reset, are retried
+     */
+    public boolean isRetryOnConnectionFailure() {
+        return retryOnConnectionFailure;
+    }
+
+    /**
+     * @return maximum number of retries of one request
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @return the longest {@code Retry-After} the client is willing to wait
+     */
+    public long getMaxRetryAfterMillis() {
+        return maxRetryAfterMillis;
+    }
+
+    /**
+     * @return fraction of a retry added to the budget by every request
+     */
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * @return maximum number of retries the budget can hold
+     */
+    public int getMaxBudget() {
+        return maxBudget;
+    }
+
+    /**
+     * Computes the wait before a retry: exponential in the number of the retry, capped, with the configured part of
+     * it randomized
+     *
+     * @param retry number of the retry, starting at 1
+     * @return the wait in milliseconds
+     */
+    public long getBackoffMillis(int retry) {
+        final double exponential = initialBackoffMillis * Math.pow(backoffMultiplier, retry - 1);
+        final long backoff = (long) Math.min(maxBackoffMillis, exponential);
+        final long randomPart = (long) (backoff * jitter);
+        return backoff - randomPart + (randomPart > 0 ? ThreadLocalRandom.current().nextLong(randomPart + 1) : 0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MaxRetries: %d Backoff: %dms-%dms x%.1f Jitter: %.2f RetryableStatusCodes: %s RetryNonIdempotent: %b Budget: %.2f/%d",
+                maxRetries, initialBackoffMillis, maxBackoffMillis, backoffMultiplier, jitter, retryableStatusCodes,
+                retryNonIdempotent, budgetRatio, maxBudget);
+    }
+
+    /**
+     * Builder of {@link RetryPolicy}
+     */
+    public static final class Builder {
+        private int maxRetries = 3;
+        private long initialBackoffMillis = 500;
+        private long maxBackoffMillis = TimeUnit.SECONDS.toMillis(30);
+        private double backoffMultiplier = 2;
+        private double jitter = 0.5;
+        private long maxRetryAfterMillis = TimeUnit.SECONDS.toMillis(60);
+        private final Set<Integer> retryableStatusCodes = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+        private boolean retryOnConnectionFailure = true;
+        private boolean retryNonIdempotent = false;
+        private double budgetRatio = 0.2;
+        private int maxBudget = 100;
+
+        /**
+         * @param maxRetries - maximum number of retries of one request, 0 disables retries
+         * @return this object
+         */
+        public Builder maxRetries(int maxRetries) {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("maxRetries must not be negative");
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * @param initialBackoff - wait before the first retry
+         * @param maxBackoff     - longest wait between retries
+         * @param multiplier     - growth of the wait with each retry
+         * @return this object
+         */
+        public Builder backoff(Duration initialBackoff, Duration maxBackoff, double multiplier) {
+            if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0 || multiplier < 1) {
+                throw new IllegalArgumentException("Invalid backoff " + initialBackoff + " - " + maxBackoff + " x" + multiplier);
+            }
+            this.initialBackoffMillis = initialBackoff.toMillis();
+            this.maxBackoffMillis = maxBackoff.toMillis();
+            this.backoffMultiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * @param jitter - fraction of each wait that is random, between 0 (no jitter) and 1 (full jitter)
+         * @return this object
+         */
+        public Builder jitter(double jitter) {
+            if (jitter < 0 || jitter > 1) {
+                throw new IllegalArgumentException("jitter must be between 0 and 1");
+            }
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * @param maxRetryAfter - longest {@code Retry-After} that is honored, requests asked to wait longer fail
+         * @return this object
+         */
+        public Builder maxRetryAfter(Duration maxRetryAfter) {
+            this.maxRetryAfterMillis = maxRetryAfter.toMillis();
+            return this;
+        }
+
+        /**
+         * Replaces the status codes that are retried
+         *
+         * @param statusCodes - the retryable status codes
+         * @return this object
+         */
+        public Builder retryableStatusCodes(Integer... statusCodes) {
+            this.retryableStatusCodes.clear();
+            this.retryableStatusCodes.addAll(Arrays.asList(statusCodes));
+            return this;
+        }
+
+        /**
+         * @param retryOnConnectionFailure - whether requests that failed without a response are retried
+         * @return this object
+         */
+        public Builder retryOnConnectionFailure(boolean retryOnConnectionFailure) {
+            this.retryOnConnectionFailure = retryOnConnectionFailure;
+            return this;
+        }
+
+        /**
+         * Allows to retry POST requests.  Only safe if creating the same entities twice is acceptable; attachment
+         * uploads are never retried
+         *
+         * @param retryNonIdempotent - whether POST requests are retried
+         * @return this object
+         */
+        public Builder retryNonIdempotent(boolean retryNonIdempotent) {
+            this.retryNonIdempotent = retryNonIdempotent;
+            return this;
+        }
+
+        /**
+         * @param ratio     - fraction of a retry every request adds to the budget of the client
+         * @param maxBudget - maximum number of retries the budget holds, it starts full
+         * @return this object
+         */
+        public Builder retryBudget(double ratio, int maxBudget) {
+            if (ratio < 0 || maxBudget < 0) {
+                throw new IllegalArgumentException("The retry budget must not be negative");
+            }
+            this.budgetRatio = ratio;
+            this.maxBudget = maxBudget;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
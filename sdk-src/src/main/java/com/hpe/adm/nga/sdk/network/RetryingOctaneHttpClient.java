@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.google.api.client.http.HttpResponseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retries the failed requests of the wrapped client according to a {@link RetryPolicy}.  Used by the
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder} when a retry policy has been set.
+ * <p>
+ * Synchronous requests wait for the backoff on the calling thread; asynchronous requests schedule the retry, no thread
+ * is blocked in between.  Cancelling an asynchronous request also cancels pending retries.  The retry budget is per
+ * instance of this class, so every {@link com.hpe.adm.nga.sdk.Octane} context has its own
+ * </p>
+ */
+public final class RetryingOctaneHttpClient extends DelegatingOctaneHttpClient {
+
+    private static final long NO_RETRY = -1;
+
+    private final Logger logger = LogManager.getLogger(RetryingOctaneHttpClient.class.getName());
+    private final RetryPolicy retryPolicy;
+    private final RequestBudget budget;
+    private final LongAdder retries = new LongAdder();
+
+    public RetryingOctaneHttpClient(OctaneHttpClient delegate, RetryPolicy retryPolicy) {
+        super(delegate);
+        this.retryPolicy = retryPolicy;
+        budget = new RequestBudget(retryPolicy.getBudgetRatio(), retryPolicy.getMaxBudget());
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        budget.deposit();
+        int retry = 0;
+        while (true) {
+            try {
+                return delegate.execute(octaneHttpRequest);
+            } catch (RuntimeException e) {
+                final long delay = getRetryDelay(octaneHttpRequest, e, ++retry);
+                if (delay == NO_RETRY || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+        return executeAsync(octaneHttpRequest, DefaultAsyncExecutor.getInstance());
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        budget.deposit();
+        final RelayFuture result = new RelayFuture();
+        attempt(octaneHttpRequest, executor, result, 1);
+        return result;
+    }
+
+    /**
+     * @return the number of retries made by this client
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * @return the number of retries currently left in the budget
+     */
+    public double getAvailableBudget() {
+        return budget.get();
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    private void attempt(OctaneHttpRequest octaneHttpRequest, Executor executor, RelayFuture result, int retry) {
+        if (result.isDone()) {
+            return;
+        }
+        final CompletableFuture<OctaneHttpResponse> attemptFuture;
+        try {
+            attemptFuture = delegate.executeAsync(octaneHttpRequest, executor);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        result.setCurrent(attemptFuture);
+        attemptFuture.whenComplete((response, throwable) -> {
+            if (throwable == null) {
+                result.complete(response);
+                return;
+            }
+            final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable;
+            final long delay = result.isCancelled() || !(cause instanceof RuntimeException)
+                    ? NO_RETRY : getRetryDelay(octaneHttpRequest, (RuntimeException) cause, retry);
+            if (delay == NO_RETRY) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            result.setCurrent(DefaultScheduler.getInstance().schedule(
+                    () -> attempt(octaneHttpRequest, executor, result, retry + 1), delay, TimeUnit.MILLISECONDS));
+        });
+    }
+
+    /**
+     * @return how long to wait before retrying the request, {@link #NO_RETRY} if the failure must be reported
+     */
+    private long getRetryDelay(OctaneHttpRequest octaneHttpRequest, RuntimeException failure, int retry) {
+        if (retry > retryPolicy.getMaxRetries() || !retryPolicy.isRetryable(octaneHttpRequest)) {
+            return NO_RETRY;
+        }
+
+        final long delay;
+        final HttpResponseException responseException = findCause(failure, HttpResponseException.class);
+        if (responseException != null) {
+            if (!retryPolicy.isRetryableStatusCode(responseException.getStatusCode())) {
+                return NO_RETRY;
+            }
+            final long retryAfter = parseRetryAfter(responseException.getHeaders().getRetryAfter());
+            if (retryAfter > retryPolicy.getMaxRetryAfterMillis()) {
+                logger.debug("Server asked to retry after {}ms, longer than allowed", retryAfter);
+                return NO_RETRY;
+            }
+            delay = retryAfter >= 0 ? retryAfter : retryPolicy.getBackoffMillis(retry);
+        } else if (retryPolicy.isRetryOnConnectionFailure() && findCause(failure, IOException.class) != null) {
+            delay = retryPolicy.getBackoffMillis(retry);
+        } else {
+            return NO_RETRY;
+        }
+
+        final Deadline deadline = octaneHttpRequest.getDeadline();
+        if (deadline != null && delay >= deadline.getRemainingMillis()) {
+            logger.debug("Not retrying {} {}, the deadline would pass during the backoff", octaneHttpRequest.getOctaneRequestMethod(), octaneHttpRequest.getRequestUrl());
+            return NO_RETRY;
+        }
+        if (!budget.tryWithdraw()) {
+            logger.debug("Retry budget exhausted, not retrying {} {}", octaneHttpRequest.getOctaneRequestMethod(), octaneHttpRequest.getRequestUrl());
+            return NO_RETRY;
+        }
+        retries.increment();
+        logger.debug("Retry {} of {} {} in {}ms: {}", retry, octaneHttpRequest.getOctaneRequestMethod(),
+                octaneHttpRequest.getRequestUrl(), delay, failure.getMessage());
+        return delay;
+    }
+
+    /**
+     * Parses a {@code Retry-After} value, either a number of seconds or an HTTP date
+     *
+     * @return the wait in milliseconds, -1 if there is no valid value
+     */
+    static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+        final String value = retryAfter.trim();
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            try {
+                final ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException ex) {
+                return -1;
+            }
+        }
+    }
+
+    private static <T extends Throwable> T findCause(Throwable throwable, Class<T> type) {
+        Throwable current = throwable;
+        while (current != null) {
+            if (type.isInstance(current)) {
+                return type.cast(current);
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+            current = current.getCause();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the proactive refresh of the session of a {@link OctaneHttpClient}.
+ * <p>
+ * When the server gives the LWSSO cookie an expiry, the client signs in again shortly before the cookie expires so
+ * that requests do not have to fail with a 401 first.  The refresh happens {@code refreshBefore} the expiry, or half
+ * way through the lifetime of the cookie if that is shorter.  Once no request has been made for {@code idleTimeout}
+ * the session is left to expire; the next request renews it on demand.
+ * </p>
+ * <p>
+ * By default, a client does not refresh its session.  Set the settings with
+ * {@link com.hpe.adm.nga.sdk.Octane.Builder#sessionRefresh(SessionRefreshSettings)}
+ * </p>
+ */
+public final class SessionRefreshSettings {
+
+    private static final long DEFAULT_REFRESH_BEFORE_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final long refreshBeforeMillis;
+    private final long idleTimeoutMillis;
+
+    private SessionRefreshSettings(Builder builder) {
+        refreshBeforeMillis = builder.refreshBeforeMillis;
+        idleTimeoutMillis = builder.idleTimeoutMillis;
+    }
+
+    /**
+     * @return settings refreshing the session 60s before it expires while requests were made in the last 10 minutes
+     */
+    public static SessionRefreshSettings defaultSettings() {
+        return new Builder().build();
+    }
+
+    /**
+     * @return how long before the expiry of the session it is refreshed, in milliseconds
+     */
+    public long getRefreshBeforeMillis() {
+        return refreshBeforeMillis;
+    }
+
+    /**
+     * @return how long without requests after which the session is no longer refreshed, in milliseconds
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RefreshBefore: %dms IdleTimeout: %dms", refreshBeforeMillis, idleTimeoutMillis);
+    }
+
+    /**
+     * Builder of {@link SessionRefreshSettings}
+     */
+    public static final class Builder {
+        private long refreshBeforeMillis = DEFAULT_REFRESH_BEFORE_MILLIS;
+        private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+
+        /**
+         * @param refreshBefore - how long before the expiry of the session it is refreshed
+         * @return this object
+         */
+        public Builder refreshBefore(Duration refreshBefore) {
+            if (refreshBefore.isNegative()) {
+                throw new IllegalArgumentException("refreshBefore must not be negative: " + refreshBefore);
+            }
+            this.refreshBeforeMillis = refreshBefore.toMillis();
+            return this;
+        }
+
+        /**
+         * @param idleTimeout - how long without requests after which the session is no longer refreshed
+         * @return this object
+         */
+        public Builder idleTimeout(Duration idleTimeout) {
+            if (idleTimeout.isNegative()) {
+                throw new IllegalArgumentException("idleTimeout must not be negative: " + idleTimeout);
+            }
+            this.idleTimeoutMillis = idleTimeout.toMillis();
+            return this;
+        }
+
+        public SessionRefreshSettings build() {
+            return new SessionRefreshSettings(this);
+        }
+    }
+}
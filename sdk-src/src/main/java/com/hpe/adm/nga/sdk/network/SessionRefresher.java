@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes the session of a client shortly before its LWSSO cookie expires, according to the
+ * {@link SessionRefreshSettings}.  The client reports the expiry of every cookie it receives and every request it
+ * starts; the refresh goes through the {@link SessionRenewal} of the client so it never overlaps with a renewal
+ * triggered by a 401.
+ * <p>
+ * A single timer is pending at a time, on the shared scheduler; the sign in itself runs on the default asynchronous
+ * executor.  Nothing is scheduled while refresh is disabled, the cookie has no expiry or the client is idle
+ * </p>
+ */
+public final class SessionRefresher {
+
+    private final Logger logger = LogManager.getLogger(SessionRefresher.class.getName());
+    private final SessionRenewal sessionRenewal;
+    private final Runnable signIn;
+
+    private volatile SessionRefreshSettings settings;
+    // 0 while the expiry of the session is not known
+    private volatile long expiresAtNanos;
+    private volatile long lifetimeNanos;
+    private volatile long lastRequestNanos = System.nanoTime();
+    private volatile boolean idle;
+
+    // guarded by this
+    private ScheduledFuture<?> pending;
+    private boolean refreshing;
+
+    /**
+     * @param sessionRenewal the renewal of the sessions of the client
+     * @param signIn         signs in again with the last used authentication and stores the new cookie
+     */
+    public SessionRefresher(SessionRenewal sessionRenewal, Runnable signIn) {
+        this.sessionRenewal = sessionRenewal;
+        this.signIn = signIn;
+    }
+
+    /**
+     * @param settings the refresh settings, null to disable the refresh
+     */
+    public void setSettings(SessionRefreshSettings settings) {
+        this.settings = settings;
+        if (settings == null) {
+            cancel();
+        } else {
+            schedule();
+        }
+    }
+
+    /**
+     * Called for every session cookie received
+     *
+     * @param maxAgeSeconds the lifetime of the cookie, negative if it has none
+     */
+    public void cookieReceived(long maxAgeSeconds) {
+        if (maxAgeSeconds < 0) {
+            expiresAtNanos = 0;
+            return;
+        }
+        lifetimeNanos = TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+        expiresAtNanos = System.nanoTime() + lifetimeNanos;
+        if (settings != null) {
+            schedule();
+        }
+    }
+
+    /**
+     * Called when a request starts, resumes the refresh if it was stopped because the client was idle
+     */
+    public void requestStarted() {
+        lastRequestNanos = System.nanoTime();
+        if (idle) {
+            idle = false;
+            schedule();
+        }
+    }
+
+    /**
+     * Stops refreshing the current session, used when signing out
+     */
+    public void stop() {
+        expiresAtNanos = 0;
+        cancel();
+    }
+
+    private synchronized void cancel() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    private synchronized void schedule() {
+        final SessionRefreshSettings currentSettings = settings;
+        if (currentSettings == null || expiresAtNanos == 0 || pending != null || refreshing) {
+            return;
+        }
+        final long delay = Math.max(0, getRefreshAtNanos(currentSettings) - System.nanoTime());
+        pending = DefaultScheduler.getInstance().schedule(this::onTimer, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private long getRefreshAtNanos(SessionRefreshSettings currentSettings) {
+        final long refreshBefore = Math.min(TimeUnit.MILLISECONDS.toNanos(currentSettings.getRefreshBeforeMillis()), lifetimeNanos / 2);
+        return expiresAtNanos - refreshBefore;
+    }
+
+    private void onTimer() {
+        final SessionRefreshSettings currentSettings = settings;
+        final long now = System.nanoTime();
+        synchronized (this) {
+            pending = null;
+            if (currentSettings == null || expiresAtNanos == 0) {
+                return;
+            }
+            if (now - getRefreshAtNanos(currentSettings) < 0) {
+                // the server renewed the cookie in the meantime
+                schedule();
+                return;
+            }
+            if (now - lastRequestNanos > TimeUnit.MILLISECONDS.toNanos(currentSettings.getIdleTimeoutMillis())) {
+                logger.debug("Client idle, the session is left to expire");
+                idle = true;
+                return;
+            }
+            refreshing = true;
+        }
+        DefaultAsyncExecutor.getInstance().execute(this::refresh);
+    }
+
+    private void refresh() {
+        final long expiresAt = expiresAtNanos;
+        try {
+            logger.debug("Refreshing the session before it expires");
+            sessionRenewal.renew(sessionRenewal.getGeneration(), signIn);
+        } catch (RuntimeException e) {
+            logger.debug("Could not refresh the session: {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                refreshing = false;
+                if (expiresAtNanos == expiresAt) {
+                    // no new cookie, the next request renews the session on demand
+                    expiresAtNanos = 0;
+                }
+            }
+            schedule();
+        }
+    }
+}
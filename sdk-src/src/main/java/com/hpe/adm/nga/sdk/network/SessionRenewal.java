@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Makes the renewal of an expired session single-flight.  When the session expires all the threads using a client get
+ * a 401 at once; the first one signs in again while the others wait for it and then replay their request with the
+ * new cookie instead of signing in themselves.
+ * <p>
+ * Each completed renewal starts a new session generation.  A request reads the generation before it is sent and
+ * passes it to {@link #renew(long, Runnable)} when rejected, so a renewal that happened in the meantime is not repeated
+ * </p>
+ */
+public final class SessionRenewal {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long generation;
+
+    /**
+     * @return the generation of the current session, to be read before sending a request
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Renews the session if it still is the one of the given generation, otherwise returns as soon as the running
+     * renewal, if any, is finished
+     *
+     * @param failedGeneration the generation read before sending the rejected request
+     * @param signIn           signs in again and stores the new session cookie
+     * @throws RuntimeException wrapping the {@link InterruptedException} if interrupted while waiting for another
+     *                          thread to renew the session
+     */
+    public void renew(long failedGeneration, Runnable signIn) {
+        renew(failedGeneration, signIn, null);
+    }
+
+    /**
+     * Same as {@link #renew(long, Runnable)}, giving up waiting for another thread to renew the session once the
+     * deadline of the rejected request has passed
+     *
+     * @param failedGeneration the generation read before sending the rejected request
+     * @param signIn           signs in again and stores the new session cookie
+     * @param deadline         deadline of the rejected request, null for none
+     * @throws DeadlineExceededException if the deadline passes before the session is renewed
+     */
+    public void renew(long failedGeneration, Runnable signIn, Deadline deadline) {
+        try {
+            if (deadline == null) {
+                lock.lockInterruptibly();
+            } else if (!lock.tryLock(deadline.getRemainingNanos(), TimeUnit.NANOSECONDS)) {
+                throw new DeadlineExceededException("Deadline of the request exceeded while renewing the session");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Problem executing httprequest", e);
+        }
+        try {
+            if (generation == failedGeneration) {
+                try {
+                    signIn.run();
+                } finally {
+                    // a failed sign in also ends the generation, the waiting threads replay and fail instead of
+                    // each trying again with the same credentials
+                    generation = failedGeneration + 1;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.time.Duration;
+
+/**
+ * Timeouts of the requests of a {@link OctaneHttpClient}.
+ * <ul>
+ *     <li>connect timeout: how long opening a connection may take</li>
+ *     <li>read timeout: how long the client waits for data from the server</li>
+ *     <li>total timeout: how long a request may take from the call to the response, including its retries and
+ *     re-authentication.  It is the default {@link Deadline} of the requests, a request can set its own with
+ *     {@link OctaneRequest#timeout(Duration)}</li>
+ * </ul>
+ * By default the connect timeout is 20 seconds, the read timeout 60 seconds, and there is no total timeout
+ */
+public final class TimeoutSettings {
+
+    /**
+     * Value of a timeout that is not set
+     */
+    public static final long NO_TIMEOUT = 0;
+
+    private static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 20000;
+    private static final long DEFAULT_READ_TIMEOUT_MILLIS = 60000;
+
+    private final long connectTimeoutMillis;
+    private final long readTimeoutMillis;
+    private final long totalTimeoutMillis;
+
+    private TimeoutSettings(Builder builder) {
+        connectTimeoutMillis = builder.connectTimeoutMillis;
+        readTimeoutMillis = builder.readTimeoutMillis;
+        totalTimeoutMillis = builder.totalTimeoutMillis;
+    }
+
+    /**
+     * @return settings with the default timeouts
+     */
+    public static TimeoutSettings defaultSettings() {
+        return new Builder().build();
+    }
+
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public long getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    /**
+     * @return the total timeout, {@link #NO_TIMEOUT} if the requests have no default deadline
+     */
+    public long getTotalTimeoutMillis() {
+        return totalTimeoutMillis;
+    }
+
+    /**
+     * @return a deadline of the total timeout from now, null if there is no total timeout
+     */
+    public Deadline newDeadline() {
+        return totalTimeoutMillis == NO_TIMEOUT ? null : Deadline.after(Duration.ofMillis(totalTimeoutMillis));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Connect: %dms Read: %dms Total: %s", connectTimeoutMillis, readTimeoutMillis,
+                totalTimeoutMillis == NO_TIMEOUT ? "none" : totalTimeoutMillis + "ms");
+    }
+
+    /**
+     * Builder of {@link TimeoutSettings}
+     */
+    public static final class Builder {
+        private long connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+        private long readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+        private long totalTimeoutMillis = NO_TIMEOUT;
+
+        /**
+         * @param connectTimeout - how long opening a connection may take, zero for no timeout
+         * @return this object
+         */
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeoutMillis = toMillis(connectTimeout, "connectTimeout");
+            return this;
+        }
+
+        /**
+         * @param readTimeout - how long the client waits for data from the server, zero for no timeout
+         * @return this object
+         */
+        public Builder readTimeout(Duration readTimeout) {
+            this.readTimeoutMillis = toMillis(readTimeout, "readTimeout");
+            return this;
+        }
+
+        /**
+         * @param totalTimeout - how long a request may take including its retries, zero for no timeout
+         * @return this object
+         */
+        public Builder totalTimeout(Duration totalTimeout) {
+            this.totalTimeoutMillis = toMillis(totalTimeout, "totalTimeout");
+            return this;
+        }
+
+        private static long toMillis(Duration timeout, String name) {
+            if (timeout.isNegative() || timeout.toMillis() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid " + name + ": " + timeout);
+            }
+            return timeout.toMillis();
+        }
+
+        public TimeoutSettings build() {
+            return new TimeoutSettings(this);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of the validators (ETag and Last-Modified) of GET responses, stored together with the result parsed from the
+ * response.  When set on the {@link com.hpe.adm.nga.sdk.Octane.Builder} the GET requests of entities and metadata are
+ * sent conditionally, and a 304 Not Modified is answered with a copy of the cached result without reading or parsing
+ * a body.
+ * <p>
+ * The cache is keyed by request url and by the form of the entities, plain, lazy or compact, and holds up to
+ * {@code maxEntries} results, evicting the least recently used.  It can be shared by contexts that sign in as the same user; the results of different users must not be mixed
+ * </p>
+ */
+public final class ValidatorCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    // separates the url from the form of the entities in the keys, urls have no spaces
+    static final String FORM_SEPARATOR = " ";
+
+    private final int maxEntries;
+    // guarded by this
+    private final Map<String, Entry> entries;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public ValidatorCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries the maximum number of cached results
+     */
+    public ValidatorCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ValidatorCache.this.maxEntries;
+            }
+        };
+    }
+
+    synchronized Entry get(String url) {
+        return entries.get(url);
+    }
+
+    synchronized void put(String url, Entry entry) {
+        entries.put(url, entry);
+    }
+
+    void recordHit() {
+        hitCount.increment();
+    }
+
+    void recordMiss() {
+        missCount.increment();
+    }
+
+    /**
+     * Removes the cached results of a url, in every form
+     *
+     * @param url the request url
+     */
+    public synchronized void invalidate(String url) {
+        entries.keySet().removeIf(key -> key.equals(url) || key.startsWith(url + FORM_SEPARATOR));
+    }
+
+    /**
+     * Removes all the cached results
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return the number of conditional requests answered from the cache
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of requests whose result had to be read from the response
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the share of the requests answered from the cache, 0 if there were none
+     */
+    public double getHitRatio() {
+        final long hits = hitCount.sum();
+        final long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ValidatorCache size: %d/%d hitRatio: %.2f", size(), maxEntries, getHitRatio());
+    }
+
+    /**
+     * A cached result with the validators of its response
+     */
+    static final class Entry {
+        private final String eTag;
+        private final String lastModified;
+        private final Object value;
+
+        Entry(String eTag, String lastModified, Object value) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+
+        String getETag() {
+            return eTag;
+        }
+
+        String getLastModified() {
+            return lastModified;
+        }
+
+        Object getValue() {
+            return value;
+        }
+    }
+}
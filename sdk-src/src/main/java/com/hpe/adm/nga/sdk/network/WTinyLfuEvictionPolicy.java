@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import java.util.LinkedHashMap;
+
+/**
+ * Window TinyLFU: new entries go to a small LRU window; entries leaving the window are admitted to the main segmented
+ * LRU only if they are used more often than the entry they would replace.  The use of the keys is estimated with a
+ * {@link FrequencySketch}, so a scan of entries used once does not flush the entries that are used all the time
+ */
+final class WTinyLfuEvictionPolicy<K> implements EvictionPolicy<K> {
+
+    private static final double PROTECTED_SHARE = 0.8;
+
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final FrequencySketch sketch;
+    private final LinkedHashMap<K, Boolean> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Boolean> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    // the entry that last left the window, it has to win against the victim of the main segment to stay
+    private K candidate;
+
+    WTinyLfuEvictionPolicy(long maximumSize) {
+        final int capacity = (int) Math.min(maximumSize, Integer.MAX_VALUE);
+        windowCapacity = Math.max(1, capacity / 100);
+        protectedCapacity = (int) ((capacity - windowCapacity) * PROTECTED_SHARE);
+        sketch = new FrequencySketch(capacity);
+    }
+
+    @Override
+    public void recordRead(K key) {
+        sketch.increment(key);
+    }
+
+    @Override
+    public void recordAccess(K key) {
+        if (window.get(key) != null || protectedSegment.get(key) != null) {
+            return;
+        }
+        if (probation.remove(key) != null) {
+            if (key.equals(candidate)) {
+                candidate = null;
+            }
+            protectedSegment.put(key, Boolean.TRUE);
+            if (protectedSegment.size() > protectedCapacity) {
+                probation.put(LruEvictionPolicy.removeEldest(protectedSegment), Boolean.TRUE);
+            }
+        }
+    }
+
+    @Override
+    public void add(K key) {
+        sketch.increment(key);
+        window.put(key, Boolean.TRUE);
+        if (window.size() > windowCapacity) {
+            candidate = LruEvictionPolicy.removeEldest(window);
+            probation.put(candidate, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void remove(K key) {
+        if (key.equals(candidate)) {
+            candidate = null;
+        }
+        if (window.remove(key) == null && probation.remove(key) == null) {
+            protectedSegment.remove(key);
+        }
+    }
+
+    @Override
+    public K evict() {
+        final K victim = probation.isEmpty() ? null : probation.keySet().iterator().next();
+        if (victim != null && candidate != null && !candidate.equals(victim) && probation.containsKey(candidate)
+                && sketch.frequency(candidate) <= sketch.frequency(victim)) {
+            // the candidate is not used more often than the victim, which stays
+            probation.remove(candidate);
+            final K rejected = candidate;
+            candidate = null;
+            return rejected;
+        }
+        if (victim != null) {
+            probation.remove(victim);
+            if (victim.equals(candidate)) {
+                candidate = null;
+            }
+            return victim;
+        }
+        final K eldestProtected = LruEvictionPolicy.removeEldest(protectedSegment);
+        return eldestProtected != null ? eldestProtected : LruEvictionPolicy.removeEldest(window);
+    }
+
+    @Override
+    public void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        candidate = null;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+import com.hpe.adm.nga.sdk.network.AbortableFuture;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Apache {@link HttpClient} that registers every request it executes with the running {@link AbortableFuture},
+ * so cancelling an asynchronous call aborts the request and releases its pooled connection
+ */
+final class AbortableHttpClient implements HttpClient {
+
+    private final HttpClient delegate;
+    private final AtomicLong executedRequests = new AtomicLong();
+    private final AtomicLong abortedRequests = new AtomicLong();
+
+    AbortableHttpClient(HttpClient delegate) {
+        this.delegate = delegate;
+    }
+
+    long getExecutedRequests() {
+        return executedRequests.get();
+    }
+
+    long getAbortedRequests() {
+        return abortedRequests.get();
+    }
+
+    private void register(HttpUriRequest request) {
+        executedRequests.incrementAndGet();
+        AbortableFuture.onAbort(() -> {
+            abortedRequests.incrementAndGet();
+            request.abort();
+        });
+    }
+
+    @Override
+    public HttpParams getParams() {
+        return delegate.getParams();
+    }
+
+    @Override
+    public ClientConnectionManager getConnectionManager() {
+        return delegate.getConnectionManager();
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        register(request);
+        return delegate.execute(request);
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
+        register(request);
+        return delegate.execute(request, context);
+    }
+
+    @Override
+    public HttpResponse execute(HttpHost target, HttpRequest request) throws IOException {
+        executedRequests.incrementAndGet();
+        return delegate.execute(target, request);
+    }
+
+    @Override
+    public HttpResponse execute(HttpHost target, HttpRequest request, HttpContext context) throws IOException {
+        executedRequests.incrementAndGet();
+        return delegate.execute(target, request, context);
+    }
+
+    @Override
+    public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler) throws IOException {
+        register(request);
+        return delegate.execute(request, responseHandler);
+    }
+
+    @Override
+    public <T> T execute(HttpUriRequest request, ResponseHandler<? extends T> responseHandler, HttpContext context) throws IOException {
+        register(request);
+        return delegate.execute(request, responseHandler, context);
+    }
+
+    @Override
+    public <T> T execute(HttpHost target, HttpRequest request, ResponseHandler<? extends T> responseHandler) throws IOException {
+        executedRequests.incrementAndGet();
+        return delegate.execute(target, request, responseHandler);
+    }
+
+    @Override
+    public <T> T execute(HttpHost target, HttpRequest request, ResponseHandler<? extends T> responseHandler, HttpContext context) throws IOException {
+        executedRequests.incrementAndGet();
+        return delegate.execute(target, request, responseHandler, context);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the connection pool used by {@link PooledGoogleHttpClient}.
+ * <p>
+ * Instances are created using the {@link Builder} or from system properties with {@link #fromSystemProperties()}
+ * </p>
+ */
+public final class ConnectionPoolSettings {
+
+    /**
+     * Sys param names used by {@link #fromSystemProperties()}
+     */
+    public static final String MAX_CONNECTIONS_PROPERTY = "octanePoolMaxConnections";
+    public static final String MAX_CONNECTIONS_PER_HOST_PROPERTY = "octanePoolMaxConnectionsPerHost";
+    public static final String KEEP_ALIVE_MILLIS_PROPERTY = "octanePoolKeepAliveMillis";
+    public static final String IDLE_TIMEOUT_MILLIS_PROPERTY = "octanePoolIdleTimeoutMillis";
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 200;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 50;
+    private static final long DEFAULT_KEEP_ALIVE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private final int maxConnections;
+    private final int maxConnectionsPerHost;
+    private final Map<String, Integer> maxConnectionsForHosts;
+    private final long keepAliveMillis;
+    private final long idleTimeoutMillis;
+
+    private ConnectionPoolSettings(Builder builder) {
+        maxConnections = builder.maxConnections;
+        maxConnectionsPerHost = builder.maxConnectionsPerHost;
+        maxConnectionsForHosts = Collections.unmodifiableMap(new HashMap<>(builder.maxConnectionsForHosts));
+        keepAliveMillis = builder.keepAliveMillis;
+        idleTimeoutMillis = builder.idleTimeoutMillis;
+    }
+
+    /**
+     * Creates settings from the {@code octanePool*} system properties, using the defaults for missing properties
+     *
+     * @return settings read from the system properties
+     */
+    public static ConnectionPoolSettings fromSystemProperties() {
+        final Builder builder = new Builder();
+        builder.maxConnections(Integer.getInteger(MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS));
+        builder.maxConnectionsPerHost(Integer.getInteger(MAX_CONNECTIONS_PER_HOST_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_HOST));
+        builder.keepAlive(Long.getLong(KEEP_ALIVE_MILLIS_PROPERTY, DEFAULT_KEEP_ALIVE_MILLIS), TimeUnit.MILLISECONDS);
+        builder.idleTimeout(Long.getLong(IDLE_TIMEOUT_MILLIS_PROPERTY, DEFAULT_IDLE_TIMEOUT_MILLIS), TimeUnit.MILLISECONDS);
+        return builder.build();
+    }
+
+    /**
+     * @return maximum number of connections in the pool
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return maximum number of connections to a single host, unless overridden for the host
+     */
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    /**
+     * @return per host overrides of the connection limit, keyed by {@code scheme://host:port}
+     */
+    public Map<String, Integer> getMaxConnectionsForHosts() {
+        return maxConnectionsForHosts;
+    }
+
+    /**
+     * @return how long an idle connection is kept open when the server does not send a keep-alive timeout
+     */
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    /**
+     * @return how long a connection can stay idle in the pool before it is closed by the reaper
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MaxConnections: %d MaxConnectionsPerHost: %d KeepAlive: %dms IdleTimeout: %dms",
+                maxConnections, maxConnectionsPerHost, keepAliveMillis, idleTimeoutMillis);
+    }
+
+    /**
+     * Builder of {@link ConnectionPoolSettings}
+     */
+    public static final class Builder {
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        private int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+        private final Map<String, Integer> maxConnectionsForHosts = new HashMap<>();
+        private long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+        private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+
+        /**
+         * @param maxConnections - maximum number of connections in the pool
+         * @return this object
+         */
+        public Builder maxConnections(int maxConnections) {
+            if (maxConnections <= 0) {
+                throw new IllegalArgumentException("maxConnections must be positive");
+            }
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsPerHost - maximum number of connections to a single host
+         * @return this object
+         */
+        public Builder maxConnectionsPerHost(int maxConnectionsPerHost) {
+            if (maxConnectionsPerHost <= 0) {
+                throw new IllegalArgumentException("maxConnectionsPerHost must be positive");
+            }
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+            return this;
+        }
+
+        /**
+         * Overrides the connection limit for one host
+         *
+         * @param hostUrl        - {@code scheme://host[:port]} of the host
+         * @param maxConnections - maximum number of connections to this host
+         * @return this object
+         */
+        public Builder maxConnectionsForHost(String hostUrl, int maxConnections) {
+            if (maxConnections <= 0) {
+                throw new IllegalArgumentException("maxConnections must be positive");
+            }
+            maxConnectionsForHosts.put(hostUrl, maxConnections);
+            return this;
+        }
+
+        /**
+         * @param keepAlive - how long an idle connection is kept when the server does not say otherwise
+         * @param unit      - unit of keepAlive
+         * @return this object
+         */
+        public Builder keepAlive(long keepAlive, TimeUnit unit) {
+            this.keepAliveMillis = unit.toMillis(keepAlive);
+            return this;
+        }
+
+        /**
+         * @param idleTimeout - how long a connection can be idle in the pool before it is closed
+         * @param unit        - unit of idleTimeout
+         * @return this object
+         */
+        public Builder idleTimeout(long idleTimeout, TimeUnit unit) {
+            this.idleTimeoutMillis = unit.toMillis(idleTimeout);
+            return this;
+        }
+
+        public ConnectionPoolSettings build() {
+            return new ConnectionPoolSettings(this);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+/**
+ * Point in time statistics of the connection pool of a {@link PooledGoogleHttpClient}
+ */
+public final class ConnectionPoolStatistics {
+
+    private final int connectionsInPool;
+    private final int serverConnectionsInPool;
+    private final int maxConnections;
+    private final int maxServerConnections;
+    private final long executedRequests;
+    private final long abortedRequests;
+
+    ConnectionPoolStatistics(int connectionsInPool, int serverConnectionsInPool, int maxConnections,
+                             int maxServerConnections, long executedRequests, long abortedRequests) {
+        this.connectionsInPool = connectionsInPool;
+        this.serverConnectionsInPool = serverConnectionsInPool;
+        this.maxConnections = maxConnections;
+        this.maxServerConnections = maxServerConnections;
+        this.executedRequests = executedRequests;
+        this.abortedRequests = abortedRequests;
+    }
+
+    /**
+     * @return number of open connections, both leased and idle
+     */
+    public int getConnectionsInPool() {
+        return connectionsInPool;
+    }
+
+    /**
+     * @return number of open connections to the Octane server of the client
+     */
+    public int getServerConnectionsInPool() {
+        return serverConnectionsInPool;
+    }
+
+    /**
+     * @return configured maximum number of connections
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return configured maximum number of connections to the Octane server of the client
+     */
+    public int getMaxServerConnections() {
+        return maxServerConnections;
+    }
+
+    /**
+     * @return number of requests sent through the pool
+     */
+    public long getExecutedRequests() {
+        return executedRequests;
+    }
+
+    /**
+     * @return number of requests aborted by cancellation
+     */
+    public long getAbortedRequests() {
+        return abortedRequests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Connections: %d/%d ServerConnections: %d/%d ExecutedRequests: %d AbortedRequests: %d",
+                connectionsInPool, maxConnections, serverConnectionsInPool, maxServerConnections, executedRequests, abortedRequests);
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+import com.google.api.client.http.javanet.ConnectionFactory;
+import com.hpe.adm.nga.sdk.network.CompressionStatistics;
+import com.hpe.adm.nga.sdk.network.CountingInputStream;
+import com.hpe.adm.nga.sdk.network.CountingOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.net.URL;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Connection factory of the {@link com.google.api.client.http.javanet.NetHttpTransport} that counts the bytes of the
+ * request and response bodies written to and read from the connections of another factory.
+ * <p>
+ * Request bodies with a {@code Content-Encoding: gzip} header are compressed here while they are written to the
+ * connection, counting the bytes before and after compression.
+ * </p>
+ * <p>
+ * Gzip encoded responses are decoded here rather than by the google {@link com.google.api.client.http.HttpResponse},
+ * so that both the bytes read from the wire and the decoded bytes can be counted.  Decoding is streaming, the body is
+ * inflated while it is read
+ * </p>
+ */
+final class CountingConnectionFactory implements ConnectionFactory {
+
+    static final String GZIP_ENCODING = "gzip";
+    static final String CONTENT_ENCODING = "Content-Encoding";
+    static final String CONTENT_LENGTH = "Content-Length";
+
+    private final ConnectionFactory delegate;
+    private final CompressionStatistics compressionStatistics;
+
+    CountingConnectionFactory(ConnectionFactory delegate, CompressionStatistics compressionStatistics) {
+        this.delegate = delegate;
+        this.compressionStatistics = compressionStatistics;
+    }
+
+    @Override
+    public HttpURLConnection openConnection(URL url) throws IOException {
+        return new CountingConnection(delegate.openConnection(url));
+    }
+
+    /**
+     * Connection encoding the request body and decoding the response body of another connection.  The headers of a
+     * decoded response have no Content-Encoding and Content-Length, as they describe the body on the wire
+     */
+    private final class CountingConnection extends HttpURLConnection {
+
+        private final HttpURLConnection connection;
+        private boolean gzipContent = false;
+        private Boolean gzipEncoded;
+        private Map<String, List<String>> headerFields;
+        private List<String[]> indexedHeaderFields;
+
+        private CountingConnection(HttpURLConnection connection) {
+            super(connection.getURL());
+            this.connection = connection;
+        }
+
+        @Override
+        public void addRequestProperty(String key, String value) {
+            if (CONTENT_ENCODING.equalsIgnoreCase(key) && GZIP_ENCODING.equalsIgnoreCase(value)) {
+                gzipContent = true;
+            }
+            if (!gzipContent || !CONTENT_LENGTH.equalsIgnoreCase(key)) {
+                connection.addRequestProperty(key, value);
+            }
+        }
+
+        @Override
+        public void setRequestProperty(String key, String value) {
+            if (CONTENT_ENCODING.equalsIgnoreCase(key)) {
+                gzipContent = GZIP_ENCODING.equalsIgnoreCase(value);
+            }
+            connection.setRequestProperty(key, value);
+        }
+
+        @Override
+        public String getRequestProperty(String key) {
+            return connection.getRequestProperty(key);
+        }
+
+        @Override
+        public Map<String, List<String>> getRequestProperties() {
+            return connection.getRequestProperties();
+        }
+
+        @Override
+        public void setFixedLengthStreamingMode(int contentLength) {
+            setFixedLengthStreamingMode((long) contentLength);
+        }
+
+        @Override
+        public void setFixedLengthStreamingMode(long contentLength) {
+            if (gzipContent) {
+                // the compressed length is not known in advance, the body is sent chunked
+                connection.setChunkedStreamingMode(0);
+            } else {
+                connection.setFixedLengthStreamingMode(contentLength);
+            }
+        }
+
+        @Override
+        public void setChunkedStreamingMode(int chunkLength) {
+            connection.setChunkedStreamingMode(chunkLength);
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            final OutputStream out = connection.getOutputStream();
+            if (!gzipContent) {
+                return new CountingOutputStream(out, bytes -> {
+                    compressionStatistics.addRequestBytesOnWire(bytes);
+                    compressionStatistics.addRequestBytesDecoded(bytes);
+                });
+            }
+            // closing the stream finishes the compression and closes the stream of the connection
+            return new CountingOutputStream(new GZIPOutputStream(
+                    new CountingOutputStream(out, compressionStatistics::addRequestBytesOnWire)),
+                    compressionStatistics::addRequestBytesDecoded);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return decode(connection.getInputStream());
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            final InputStream errorStream = connection.getErrorStream();
+            try {
+                return errorStream == null ? null : decode(errorStream);
+            } catch (IOException e) {
+                // no readable body, as for a connection without error stream
+                return null;
+            }
+        }
+
+        private InputStream decode(InputStream content) throws IOException {
+            final InputStream wireContent = new CountingInputStream(content, compressionStatistics::addResponseBytesOnWire);
+            final InputStream decodedContent = isGzipEncoded() ? new GZIPInputStream(wireContent) : wireContent;
+            return new CountingInputStream(decodedContent, compressionStatistics::addResponseBytesDecoded);
+        }
+
+        private synchronized boolean isGzipEncoded() {
+            if (gzipEncoded == null) {
+                final String contentEncoding = connection.getContentEncoding();
+                gzipEncoded = contentEncoding != null && contentEncoding.trim().equalsIgnoreCase(GZIP_ENCODING);
+            }
+            return gzipEncoded;
+        }
+
+        private boolean isHidden(String key) {
+            return key != null && isGzipEncoded()
+                    && (CONTENT_ENCODING.equalsIgnoreCase(key) || CONTENT_LENGTH.equalsIgnoreCase(key));
+        }
+
+        @Override
+        public synchronized Map<String, List<String>> getHeaderFields() {
+            if (headerFields == null) {
+                final Map<String, List<String>> fields = new LinkedHashMap<>();
+                connection.getHeaderFields().forEach((key, values) -> {
+                    if (!isHidden(key)) {
+                        fields.put(key, values);
+                    }
+                });
+                headerFields = Collections.unmodifiableMap(fields);
+            }
+            return headerFields;
+        }
+
+        @Override
+        public String getHeaderField(String name) {
+            return isHidden(name) ? null : connection.getHeaderField(name);
+        }
+
+        @Override
+        public String getHeaderFieldKey(int n) {
+            final List<String[]> fields = getIndexedHeaderFields();
+            return n < fields.size() ? fields.get(n)[0] : null;
+        }
+
+        @Override
+        public String getHeaderField(int n) {
+            final List<String[]> fields = getIndexedHeaderFields();
+            return n < fields.size() ? fields.get(n)[1] : null;
+        }
+
+        private synchronized List<String[]> getIndexedHeaderFields() {
+            if (indexedHeaderFields == null) {
+                final List<String[]> fields = new ArrayList<>();
+                String value;
+                for (int i = 0; (value = connection.getHeaderField(i)) != null; i++) {
+                    final String key = connection.getHeaderFieldKey(i);
+                    if (!isHidden(key)) {
+                        fields.add(new String[]{key, value});
+                    }
+                }
+                indexedHeaderFields = fields;
+            }
+            return indexedHeaderFields;
+        }
+
+        @Override
+        public int getResponseCode() throws IOException {
+            return connection.getResponseCode();
+        }
+
+        @Override
+        public String getResponseMessage() throws IOException {
+            return connection.getResponseMessage();
+        }
+
+        @Override
+        public void setRequestMethod(String method) throws ProtocolException {
+            connection.setRequestMethod(method);
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return connection.getRequestMethod();
+        }
+
+        @Override
+        public void setInstanceFollowRedirects(boolean followRedirects) {
+            connection.setInstanceFollowRedirects(followRedirects);
+        }
+
+        @Override
+        public boolean getInstanceFollowRedirects() {
+            return connection.getInstanceFollowRedirects();
+        }
+
+        @Override
+        public void setConnectTimeout(int timeout) {
+            connection.setConnectTimeout(timeout);
+        }
+
+        @Override
+        public int getConnectTimeout() {
+            return connection.getConnectTimeout();
+        }
+
+        @Override
+        public void setReadTimeout(int timeout) {
+            connection.setReadTimeout(timeout);
+        }
+
+        @Override
+        public int getReadTimeout() {
+            return connection.getReadTimeout();
+        }
+
+        @Override
+        public void setDoOutput(boolean doOutput) {
+            connection.setDoOutput(doOutput);
+        }
+
+        @Override
+        public boolean getDoOutput() {
+            return connection.getDoOutput();
+        }
+
+        @Override
+        public void setDoInput(boolean doInput) {
+            connection.setDoInput(doInput);
+        }
+
+        @Override
+        public boolean getDoInput() {
+            return connection.getDoInput();
+        }
+
+        @Override
+        public void setUseCaches(boolean useCaches) {
+            connection.setUseCaches(useCaches);
+        }
+
+        @Override
+        public boolean getUseCaches() {
+            return connection.getUseCaches();
+        }
+
+        @Override
+        public void setIfModifiedSince(long ifModifiedSince) {
+            connection.setIfModifiedSince(ifModifiedSince);
+        }
+
+        @Override
+        public long getIfModifiedSince() {
+            return connection.getIfModifiedSince();
+        }
+
+        @Override
+        public void setAllowUserInteraction(boolean allowUserInteraction) {
+            connection.setAllowUserInteraction(allowUserInteraction);
+        }
+
+        @Override
+        public boolean getAllowUserInteraction() {
+            return connection.getAllowUserInteraction();
+        }
+
+        @Override
+        public Permission getPermission() throws IOException {
+            return connection.getPermission();
+        }
+
+        @Override
+        public void connect() throws IOException {
+            connection.connect();
+        }
+
+        @Override
+        public void disconnect() {
+            connection.disconnect();
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return connection.usingProxy();
+        }
+
+        @Override
+        public String toString() {
+            return connection.toString();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+import com.hpe.adm.nga.sdk.network.CompressionStatistics;
+import com.hpe.adm.nga.sdk.network.CountingInputStream;
+import com.hpe.adm.nga.sdk.network.CountingOutputStream;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.hpe.adm.nga.sdk.network.google.CountingConnectionFactory.CONTENT_ENCODING;
+import static com.hpe.adm.nga.sdk.network.google.CountingConnectionFactory.CONTENT_LENGTH;
+import static com.hpe.adm.nga.sdk.network.google.CountingConnectionFactory.GZIP_ENCODING;
+
+/**
+ * Interceptor of the Apache http client of {@link PooledGoogleHttpClient} that counts the bytes of the request and
+ * response bodies, the counterpart of {@link CountingConnectionFactory}.  Request bodies with a
+ * {@code Content-Encoding: gzip} header are compressed while they are written, and gzip encoded responses are decoded
+ * while they are read.  The request interceptor must run before the interceptor setting the Content-Length
+ */
+final class CountingHttpInterceptor implements HttpRequestInterceptor, HttpResponseInterceptor {
+
+    private final CompressionStatistics compressionStatistics;
+
+    CountingHttpInterceptor(CompressionStatistics compressionStatistics) {
+        this.compressionStatistics = compressionStatistics;
+    }
+
+    @Override
+    public void process(HttpRequest request, HttpContext context) {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return;
+        }
+        final HttpEntityEnclosingRequest entityRequest = (HttpEntityEnclosingRequest) request;
+        final HttpEntity entity = entityRequest.getEntity();
+        if (entity != null) {
+            entityRequest.setEntity(new CountingRequestEntity(entity, isGzip(request.getFirstHeader(CONTENT_ENCODING))
+                    || isGzip(entity.getContentEncoding())));
+        }
+    }
+
+    @Override
+    public void process(HttpResponse response, HttpContext context) {
+        final HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return;
+        }
+        final boolean gzipEncoded = isGzip(entity.getContentEncoding());
+        response.setEntity(new CountingResponseEntity(entity, gzipEncoded));
+        if (gzipEncoded) {
+            // the headers describe the body on the wire
+            response.removeHeaders(CONTENT_ENCODING);
+            response.removeHeaders(CONTENT_LENGTH);
+        }
+    }
+
+    private static boolean isGzip(Header contentEncoding) {
+        return contentEncoding != null && contentEncoding.getValue() != null
+                && contentEncoding.getValue().trim().equalsIgnoreCase(GZIP_ENCODING);
+    }
+
+    private final class CountingRequestEntity extends HttpEntityWrapper {
+
+        private final boolean gzipContent;
+
+        private CountingRequestEntity(HttpEntity entity, boolean gzipContent) {
+            super(entity);
+            this.gzipContent = gzipContent;
+        }
+
+        @Override
+        public long getContentLength() {
+            // the compressed length is not known in advance, the body is sent chunked
+            return gzipContent ? -1 : super.getContentLength();
+        }
+
+        @Override
+        public boolean isChunked() {
+            return gzipContent || super.isChunked();
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            if (!gzipContent) {
+                super.writeTo(new CountingOutputStream(out, bytes -> {
+                    compressionStatistics.addRequestBytesOnWire(bytes);
+                    compressionStatistics.addRequestBytesDecoded(bytes);
+                }));
+                return;
+            }
+            final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(
+                    new CountingOutputStream(out, compressionStatistics::addRequestBytesOnWire));
+            super.writeTo(new CountingOutputStream(gzipOutputStream, compressionStatistics::addRequestBytesDecoded));
+            // the connection stream is closed by the client, not by the gzip stream writing to it
+            gzipOutputStream.finish();
+            gzipOutputStream.flush();
+        }
+    }
+
+    private final class CountingResponseEntity extends HttpEntityWrapper {
+
+        private final boolean gzipEncoded;
+
+        private CountingResponseEntity(HttpEntity entity, boolean gzipEncoded) {
+            super(entity);
+            this.gzipEncoded = gzipEncoded;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            final InputStream content = super.getContent();
+            if (content == null) {
+                return null;
+            }
+            final InputStream wireContent = new CountingInputStream(content, compressionStatistics::addResponseBytesOnWire);
+            final InputStream decodedContent = gzipEncoded ? new GZIPInputStream(wireContent) : wireContent;
+            return new CountingInputStream(decodedContent, compressionStatistics::addResponseBytesDecoded);
+        }
+
+        @Override
+        public Header getContentEncoding() {
+            return gzipEncoded ? null : super.getContentEncoding();
+        }
+
+        @Override
+        public long getContentLength() {
+            return gzipEncoded ? -1 : super.getContentLength();
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (InputStream content = getContent()) {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+    }
+}
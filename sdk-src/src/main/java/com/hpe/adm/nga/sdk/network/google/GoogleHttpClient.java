@@ -15,21 +15,34 @@
 package com.hpe.adm.nga.sdk.network.google;
 
 import com.google.api.client.http.*;
+import com.google.api.client.http.javanet.ConnectionFactory;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.http.json.JsonHttpContent;
 import com.google.api.client.json.jackson2.JacksonFactory;
 import com.hpe.adm.nga.sdk.authentication.Authentication;
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
 import com.hpe.adm.nga.sdk.exception.OctaneException;
 import com.hpe.adm.nga.sdk.model.ErrorModel;
+import com.hpe.adm.nga.sdk.network.AbortableFuture;
+import com.hpe.adm.nga.sdk.network.CompressionSettings;
+import com.hpe.adm.nga.sdk.network.CompressionStatistics;
+import com.hpe.adm.nga.sdk.network.Deadline;
 import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
 import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
 import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
+import com.hpe.adm.nga.sdk.network.SessionRefreshSettings;
+import com.hpe.adm.nga.sdk.network.SessionRefresher;
+import com.hpe.adm.nga.sdk.network.SessionRenewal;
+import com.hpe.adm.nga.sdk.network.TimeoutSettings;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpCookie;
+import java.net.HttpURLConnection;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,13 +63,20 @@ public class GoogleHttpClient implements OctaneHttpClient {
     private static final String HTTP_MULTIPART_PART1_DISPOSITION_FORMAT = "form-data; name=\"%s\"; filename=\"blob\"";
     private static final String HTTP_MULTIPART_PART1_DISPOSITION_ENTITY_VALUE = "entity";
     private static final String HTTP_MULTIPART_PART2_DISPOSITION_FORMAT = "form-data; name=\"content\"; filename=\"%s\"";
+    private static final String JSON_MEDIA_SUBTYPE = "json";
+    private static final String GZIP_ENCODING = "gzip";
     private static final int HTTP_REQUEST_RETRY_COUNT = 1;
 
     private final Logger logger = LogManager.getLogger(GoogleHttpClient.class.getName());
     protected HttpRequestFactory requestFactory;
-    protected String lwssoValue = "";
+    protected volatile String lwssoValue = "";
     protected final String urlDomain;
-    protected Authentication lastUsedAuthentication;
+    protected volatile Authentication lastUsedAuthentication;
+    protected final SessionRenewal sessionRenewal = new SessionRenewal();
+    protected final SessionRefresher sessionRefresher = new SessionRefresher(sessionRenewal, this::refreshSession);
+    protected volatile CompressionSettings compressionSettings = CompressionSettings.fromSystemProperties();
+    protected final CompressionStatistics compressionStatistics;
+    protected volatile TimeoutSettings timeoutSettings = TimeoutSettings.defaultSettings();
 
     /**
      * Request initializer called on every request made by the requestFactory
@@ -70,35 +90,107 @@ public class GoogleHttpClient implements OctaneHttpClient {
 
         request.setUnsuccessfulResponseHandler((httpRequest, httpResponse, b) -> false);
 
-        if (lwssoValue != null && !lwssoValue.isEmpty()) {
-            request.getHeaders().setCookie(LWSSO_COOKIE_KEY + "=" + lwssoValue);
+        if (!compressionSettings.isAcceptGzip()) {
+            request.getHeaders().setAcceptEncoding(null);
         }
 
-        if (lastUsedAuthentication != null) {
-            String clientTypeHeader = lastUsedAuthentication.getClientHeader();
+        final String cookieValue = lwssoValue;
+        if (cookieValue != null && !cookieValue.isEmpty()) {
+            request.getHeaders().setCookie(LWSSO_COOKIE_KEY + "=" + cookieValue);
+        }
+
+        final Authentication authentication = lastUsedAuthentication;
+        if (authentication != null) {
+            String clientTypeHeader = authentication.getClientHeader();
             if (clientTypeHeader != null && !clientTypeHeader.isEmpty()) {
                 request.getHeaders().set(HPE_CLIENT_TYPE, clientTypeHeader);
             }
         }
-        request.setReadTimeout(60000);
+        final TimeoutSettings timeouts = timeoutSettings;
+        request.setConnectTimeout((int) timeouts.getConnectTimeoutMillis());
+        request.setReadTimeout((int) timeouts.getReadTimeoutMillis());
+    };
+
+    /**
+     * Opens the connections of the transport, registering each of them so that cancelling an asynchronous call
+     * closes the socket the call is blocked on
+     */
+    private static final ConnectionFactory abortableConnectionFactory = url -> {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        AbortableFuture.onAbort(connection::disconnect);
+        return connection;
     };
 
     public GoogleHttpClient(final String urlDomain) {
+        this(urlDomain, new CompressionStatistics());
+    }
+
+    private GoogleHttpClient(final String urlDomain, final CompressionStatistics compressionStatistics) {
+        this(urlDomain, new NetHttpTransport.Builder()
+                .setConnectionFactory(new CountingConnectionFactory(abortableConnectionFactory, compressionStatistics))
+                .build(), compressionStatistics);
+    }
+
+    /**
+     * Creates a client that sends its requests through the given transport.  The transport encodes the request bodies
+     * with a gzip Content-Encoding header and decodes the gzip encoded responses, counting their bytes in the
+     * statistics, as {@link CountingConnectionFactory} does
+     *
+     * @param urlDomain             the server url
+     * @param httpTransport         the transport used for all requests of this client
+     * @param compressionStatistics the statistics the transport counts the bytes of the bodies in
+     */
+    protected GoogleHttpClient(final String urlDomain, final HttpTransport httpTransport, final CompressionStatistics compressionStatistics) {
         this.urlDomain = urlDomain;
-        HttpTransport HTTP_TRANSPORT = new NetHttpTransport();
-        requestFactory = HTTP_TRANSPORT.createRequestFactory(requestInitializer);
+        this.compressionStatistics = compressionStatistics;
+        requestFactory = httpTransport.createRequestFactory(requestInitializer);
+    }
+
+    @Override
+    public void setCompressionSettings(CompressionSettings compressionSettings) {
+        this.compressionSettings = compressionSettings;
+    }
+
+    @Override
+    public CompressionStatistics getCompressionStatistics() {
+        return compressionStatistics;
+    }
+
+    @Override
+    public void setTimeoutSettings(TimeoutSettings timeoutSettings) {
+        this.timeoutSettings = timeoutSettings;
+    }
+
+    @Override
+    public TimeoutSettings getTimeoutSettings() {
+        return timeoutSettings;
+    }
+
+    @Override
+    public void setSessionRefreshSettings(SessionRefreshSettings sessionRefreshSettings) {
+        sessionRefresher.setSettings(sessionRefreshSettings);
     }
 
     /**
      * @return - Returns true if the authentication succeeded, false otherwise.
      */
     public boolean authenticate(Authentication authentication) {
+        return authenticate(authentication, null);
+    }
+
+    /**
+     * Signs in, the sign in request being shortened to the deadline if any
+     */
+    private boolean authenticate(Authentication authentication, Deadline deadline) {
         lastUsedAuthentication = authentication;
         try {
             final ByteArrayContent content = ByteArrayContent.fromString("application/json", authentication.getAuthenticationString());
             HttpRequest httpRequest = requestFactory.buildPostRequest(new GenericUrl(urlDomain + OAUTH_AUTH_URL), content);
+            applyDeadline(httpRequest, deadline);
 
             HttpResponse response = executeRequest(httpRequest);
+            // the body is not needed, release the connection
+            response.ignore();
 
             // Initialize Cookies keys
             return response.isSuccessStatusCode();
@@ -111,10 +203,12 @@ public class GoogleHttpClient implements OctaneHttpClient {
     }
 
     public void signOut() {
+        sessionRefresher.stop();
         GenericUrl genericUrl = new GenericUrl(urlDomain + OAUTH_SIGNOUT_URL);
         try {
             HttpRequest httpRequest = requestFactory.buildPostRequest(genericUrl, null);
             HttpResponse response = executeRequest(httpRequest);
+            response.ignore();
 
             if (response.isSuccessStatusCode()) {
                 HttpHeaders hdr1 = response.getHeaders();
@@ -139,15 +233,20 @@ public class GoogleHttpClient implements OctaneHttpClient {
         try {
             switch (octaneHttpRequest.getOctaneRequestMethod()) {
                 case GET: {
+                    OctaneHttpRequest.GetOctaneHttpRequest getOctaneHttpRequest = (OctaneHttpRequest.GetOctaneHttpRequest) octaneHttpRequest;
                     GenericUrl domain = new GenericUrl(octaneHttpRequest.getRequestUrl());
                     httpRequest = requestFactory.buildGetRequest(domain);
-                    httpRequest.getHeaders().setAccept(((OctaneHttpRequest.GetOctaneHttpRequest) octaneHttpRequest).getAcceptType());
+                    httpRequest.getHeaders().setAccept(getOctaneHttpRequest.getAcceptType());
+                    httpRequest.getHeaders().setIfNoneMatch(getOctaneHttpRequest.getIfNoneMatch());
+                    httpRequest.getHeaders().setIfModifiedSince(getOctaneHttpRequest.getIfModifiedSince());
                     break;
                 }
                 case POST: {
                     OctaneHttpRequest.PostOctaneHttpRequest postOctaneHttpRequest = (OctaneHttpRequest.PostOctaneHttpRequest) octaneHttpRequest;
                     GenericUrl domain = new GenericUrl(octaneHttpRequest.getRequestUrl());
-                    httpRequest = requestFactory.buildPostRequest(domain, ByteArrayContent.fromString(null, postOctaneHttpRequest.getContent()));
+                    httpRequest = requestFactory.buildPostRequest(domain, postOctaneHttpRequest.isStreamingContent()
+                            ? new StreamingHttpContent(postOctaneHttpRequest::writeContentTo)
+                            : ByteArrayContent.fromString(null, postOctaneHttpRequest.getContent()));
                     httpRequest.getHeaders().setAccept(postOctaneHttpRequest.getAcceptType());
                     httpRequest.getHeaders().setContentType(postOctaneHttpRequest.getContentType());
                     break;
@@ -159,7 +258,9 @@ public class GoogleHttpClient implements OctaneHttpClient {
                 case PUT: {
                     OctaneHttpRequest.PutOctaneHttpRequest putHttpOctaneHttpRequest = (OctaneHttpRequest.PutOctaneHttpRequest) octaneHttpRequest;
                     GenericUrl domain = new GenericUrl(octaneHttpRequest.getRequestUrl());
-                    httpRequest = requestFactory.buildPutRequest(domain, ByteArrayContent.fromString(null, putHttpOctaneHttpRequest.getContent()));
+                    httpRequest = requestFactory.buildPutRequest(domain, putHttpOctaneHttpRequest.isStreamingContent()
+                            ? new StreamingHttpContent(putHttpOctaneHttpRequest::writeContentTo)
+                            : ByteArrayContent.fromString(null, putHttpOctaneHttpRequest.getContent()));
                     httpRequest.getHeaders().setAccept(putHttpOctaneHttpRequest.getAcceptType());
                     httpRequest.getHeaders().setContentType(putHttpOctaneHttpRequest.getContentType());
                     break;
@@ -181,16 +282,19 @@ public class GoogleHttpClient implements OctaneHttpClient {
 
     /**
      * Convert google implementation of {@link HttpResponse} to an implementation abstract {@link OctaneHttpResponse}
+     * The content is not read here, the returned response streams it from the connection
      * @param httpResponse implementation specific {@link HttpResponse}
      * @return {@link OctaneHttpResponse} created from the impl response object
      * @throws IOException if the response output stream stream cannot be read
      */
     protected OctaneHttpResponse convertHttpResponseToOctaneHttpResponse(HttpResponse httpResponse) throws IOException {
-        return new OctaneHttpResponse(httpResponse.getStatusCode(), httpResponse.parseAsString(), httpResponse.getContent());
+        return new OctaneHttpResponse(httpResponse.getStatusCode(), httpResponse.getContent(), httpResponse.getContentCharset())
+                .setValidators(httpResponse.getHeaders().getETag(), httpResponse.getHeaders().getLastModified());
     }
 
     @Override
     public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        sessionRefresher.requestStarted();
         return execute(octaneHttpRequest, HTTP_REQUEST_RETRY_COUNT);
     }
 
@@ -204,7 +308,11 @@ public class GoogleHttpClient implements OctaneHttpClient {
      */
     private OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest, int retryCount) {
 
+        // read before the cookie is put on the request, see SessionRenewal
+        final long sessionGeneration = sessionRenewal.getGeneration();
+        final Deadline deadline = octaneHttpRequest.getDeadline();
         final HttpRequest httpRequest = convertOctaneRequestToGoogleHttpRequest(octaneHttpRequest);
+        applyDeadline(httpRequest, deadline);
         final HttpResponse httpResponse;
 
         try {
@@ -212,6 +320,12 @@ public class GoogleHttpClient implements OctaneHttpClient {
             return convertHttpResponseToOctaneHttpResponse(httpResponse);
         } catch (HttpResponseException e) {
 
+            //Not an error, the cached response of a conditional request is still valid
+            if (e.getStatusCode() == OctaneHttpResponse.NOT_MODIFIED_STATUS_CODE) {
+                return new OctaneHttpResponse(e.getStatusCode(), (InputStream) null, null)
+                        .setValidators(e.getHeaders().getETag(), e.getHeaders().getLastModified());
+            }
+
             //Try to handle the exception
             if (retryCount > 0) {
 
@@ -220,13 +334,10 @@ public class GoogleHttpClient implements OctaneHttpClient {
                 if ((e.getStatusCode() == 401 || e.getStatusCode() == 403) && lastUsedAuthentication != null) {
                     logger.debug("Auth token invalid, trying to re-authenticate");
 
-                    try {
-                        //NOTE: if the credentials are somehow invalidated after your Octane objects has been created,
-                        // this will retry authentication @code retryCount times, even if the @method authenticate() throws the exception
-                        authenticate(lastUsedAuthentication);
-                    } catch (OctaneException ex) {
-                        logger.debug("Exception while retrying authentication: {}", ex.getMessage());
-                    }
+                    //NOTE: if the credentials are somehow invalidated after your Octane objects has been created,
+                    // this will retry authentication @code retryCount times, even if the @method authenticate() throws the exception
+                    //Only one thread signs in again, concurrent requests rejected with the same session wait for it
+                    sessionRenewal.renew(sessionGeneration, () -> reAuthenticate(deadline), deadline);
 
                     //Only retry if you've actually handled the exception in some way
                     //Retrying a 400 bad request makes no sense without some kind of handling
@@ -241,29 +352,98 @@ public class GoogleHttpClient implements OctaneHttpClient {
             throw new RuntimeException("Problem executing httprequest", e);
 
         } catch (IOException e) {
+            if (deadline != null && deadline.isExpired()) {
+                // the timeouts were shortened to the deadline
+                throw new DeadlineExceededException("Deadline of the request exceeded: " + e.getMessage());
+            }
             throw new RuntimeException("Problem executing httprequest", e);
         }
 
     }
 
-    private HttpResponse executeRequest(final HttpRequest httpRequest) throws IOException {
-        logger.debug(LOGGER_REQUEST_FORMAT, httpRequest.getRequestMethod(), httpRequest.getUrl().toString(), httpRequest.getHeaders().toString());
-        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        final HttpContent content = httpRequest.getContent();
-        if (content != null) {
-            content.writeTo(byteArrayOutputStream);
+    /**
+     * Shortens the connect and read timeouts of the request to the time left before the deadline
+     *
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    private static void applyDeadline(HttpRequest httpRequest, Deadline deadline) {
+        if (deadline == null) {
+            return;
+        }
+        deadline.check();
+        httpRequest.setConnectTimeout(deadline.shorten(httpRequest.getConnectTimeout()));
+        httpRequest.setReadTimeout(deadline.shorten(httpRequest.getReadTimeout()));
+    }
 
-            //Do not print the body of the sign in request
-            if (!httpRequest.getUrl().toString().contains(OAUTH_AUTH_URL)) {
-                logger.debug("Content: " + byteArrayOutputStream.toString());
+    /**
+     * Signs in again ahead of the expiry of the session.  A failed refresh keeps the authentication so that the
+     * session can still be renewed when a request is rejected
+     */
+    private void refreshSession() {
+        final Authentication authentication = lastUsedAuthentication;
+        if (authentication == null) {
+            return;
+        }
+        try {
+            authenticate(authentication);
+        } catch (OctaneException ex) {
+            lastUsedAuthentication = authentication;
+            logger.debug("Exception while refreshing the session: {}", ex.getMessage());
+        }
+    }
+
+    private void reAuthenticate(Deadline deadline) {
+        final Authentication authentication = lastUsedAuthentication;
+        if (authentication == null) {
+            return;
+        }
+        try {
+            authenticate(authentication, deadline);
+        } catch (OctaneException ex) {
+            logger.debug("Exception while retrying authentication: {}", ex.getMessage());
+        }
+    }
+
+    private HttpResponse executeRequest(final HttpRequest httpRequest) throws IOException {
+        if (logger.isDebugEnabled()) {
+            logger.debug(LOGGER_REQUEST_FORMAT, httpRequest.getRequestMethod(), httpRequest.getUrl().toString(), httpRequest.getHeaders().toString());
+            final HttpContent content = httpRequest.getContent();
+
+            //Do not print the body of the sign in request, nor content that can only be written once
+            if (content != null && content.retrySupported() && !httpRequest.getUrl().toString().contains(OAUTH_AUTH_URL)) {
+                final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+                content.writeTo(byteArrayOutputStream);
+                logger.debug("Content: " + byteArrayOutputStream.toString("UTF-8"));
             }
         }
 
+        applyRequestEncoding(httpRequest);
         HttpResponse response = httpRequest.execute();
         logger.debug(LOGGER_RESPONSE_FORMAT, response.getStatusCode(), response.getStatusMessage(), response.getHeaders().toString());
         return response;
     }
 
+    /**
+     * Marks JSON bodies that are large enough according to the {@link CompressionSettings} to be gzip encoded by the
+     * transport.  Binary attachments are sent as is, they are usually compressed already
+     */
+    private void applyRequestEncoding(final HttpRequest httpRequest) {
+        final HttpContent content = httpRequest.getContent();
+        if (content == null) {
+            return;
+        }
+        final String contentType = httpRequest.getHeaders().getContentType() != null
+                ? httpRequest.getHeaders().getContentType() : content.getType();
+        try {
+            if (contentType != null && contentType.contains(JSON_MEDIA_SUBTYPE)
+                    && compressionSettings.shouldGzipRequest(content.getLength())) {
+                httpRequest.getHeaders().setContentEncoding(GZIP_ENCODING);
+            }
+        } catch (IOException e) {
+            logger.debug("Could not determine the length of the request content, sending it uncompressed", e);
+        }
+    }
+
     private HttpRequest buildBinaryPostRequest(OctaneHttpRequest.PostBinaryOctaneHttpRequest octaneHttpRequest) throws IOException {
         GenericUrl domain = new GenericUrl(octaneHttpRequest.getRequestUrl());
 
@@ -329,6 +509,7 @@ public class GoogleHttpClient implements OctaneHttpClient {
             Optional<HttpCookie> lwssoCookie = cookies.stream().filter(a -> a.getName().equals(LWSSO_COOKIE_KEY)).findFirst();
             if (lwssoCookie.isPresent()) {
                 lwssoValue = lwssoCookie.get().getValue();
+                sessionRefresher.cookieReceived(lwssoCookie.get().getMaxAge());
                 renewed = true;
                 break;
             }
@@ -340,4 +521,28 @@ public class GoogleHttpClient implements OctaneHttpClient {
     public static int getHttpRequestRetryCount() {
         return HTTP_REQUEST_RETRY_COUNT;
     }
+
+    /**
+     * Content of unknown length written straight to the connection by the request
+     */
+    private static final class StreamingHttpContent extends AbstractHttpContent {
+
+        private final OctaneHttpRequest.ContentWriter contentWriter;
+
+        private StreamingHttpContent(OctaneHttpRequest.ContentWriter contentWriter) {
+            super((String) null);
+            this.contentWriter = contentWriter;
+        }
+
+        @Override
+        public long getLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            contentWriter.writeTo(out);
+            out.flush();
+        }
+    }
 }
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+import com.google.api.client.http.apache.ApacheHttpTransport;
+import com.hpe.adm.nga.sdk.network.CompressionStatistics;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.conn.ProxySelectorRoutePlanner;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HTTP;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.ref.WeakReference;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP Client using Google's API on top of a pool of keep-alive connections.
+ * <p>
+ * Connections to the server are reused between requests instead of being opened for every call, which also avoids
+ * repeating the TLS handshake.  The pool size, the per host limits, the keep-alive duration and the time after which
+ * idle connections are closed are set with {@link ConnectionPoolSettings}.
+ * </p>
+ * <p>
+ * Use {@link com.hpe.adm.nga.sdk.PooledOctaneClassFactory} to make the {@link com.hpe.adm.nga.sdk.Octane} context
+ * use this client.  Call {@link #shutdown()} once the client is no longer needed to close the pooled connections,
+ * otherwise they are closed once the client is garbage collected.
+ * </p>
+ */
+public class PooledGoogleHttpClient extends GoogleHttpClient {
+
+    private static final long MIN_REAPER_INTERVAL_MILLIS = 1000;
+    private static final String KEEP_ALIVE_TIMEOUT_PARAM = "timeout";
+
+    /**
+     * Closes expired and idle connections of all pools
+     */
+    private static final ScheduledThreadPoolExecutor idleConnectionReaper = new ScheduledThreadPoolExecutor(1, runnable -> {
+        final Thread thread = new Thread(runnable, "octane-idle-connection-reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        idleConnectionReaper.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Logger logger = LogManager.getLogger(PooledGoogleHttpClient.class.getName());
+    private final ConnectionPoolSettings connectionPoolSettings;
+    private final ThreadSafeClientConnManager connectionManager;
+    private final AbortableHttpClient httpClient;
+    private final HttpRoute serverRoute;
+    private final IdleConnectionReaper reaperTask;
+
+    /**
+     * Creates a pooled client configured from the system properties, see {@link ConnectionPoolSettings#fromSystemProperties()}
+     *
+     * @param urlDomain the server url
+     */
+    public PooledGoogleHttpClient(final String urlDomain) {
+        this(urlDomain, ConnectionPoolSettings.fromSystemProperties());
+    }
+
+    /**
+     * Creates a pooled client
+     *
+     * @param urlDomain              the server url
+     * @param connectionPoolSettings settings of the connection pool
+     */
+    public PooledGoogleHttpClient(final String urlDomain, final ConnectionPoolSettings connectionPoolSettings) {
+        this(urlDomain, connectionPoolSettings, new CompressionStatistics());
+    }
+
+    private PooledGoogleHttpClient(final String urlDomain, final ConnectionPoolSettings connectionPoolSettings, final CompressionStatistics compressionStatistics) {
+        this(urlDomain, connectionPoolSettings,
+                new AbortableHttpClient(createHttpClient(connectionPoolSettings, compressionStatistics)), compressionStatistics);
+    }
+
+    private PooledGoogleHttpClient(final String urlDomain, final ConnectionPoolSettings connectionPoolSettings,
+                                   final AbortableHttpClient httpClient, final CompressionStatistics compressionStatistics) {
+        super(urlDomain, new ApacheHttpTransport(httpClient), compressionStatistics);
+        this.connectionPoolSettings = connectionPoolSettings;
+        this.httpClient = httpClient;
+        this.connectionManager = (ThreadSafeClientConnManager) httpClient.getConnectionManager();
+        this.serverRoute = toRoute(urlDomain);
+
+        final long idleTimeoutMillis = connectionPoolSettings.getIdleTimeoutMillis();
+        final long reaperInterval = Math.max(MIN_REAPER_INTERVAL_MILLIS, idleTimeoutMillis / 2);
+        reaperTask = new IdleConnectionReaper(connectionManager, idleTimeoutMillis);
+        reaperTask.schedule(reaperInterval);
+
+        logger.debug("Created connection pool: {}", connectionPoolSettings);
+    }
+
+    /**
+     * @return current statistics of the connection pool
+     */
+    public ConnectionPoolStatistics getConnectionPoolStatistics() {
+        final ConnPerRouteBean connPerRoute = (ConnPerRouteBean) ConnManagerParams.getMaxConnectionsPerRoute(httpClient.getParams());
+        return new ConnectionPoolStatistics(
+                connectionManager.getConnectionsInPool(),
+                serverRoute != null ? connectionManager.getConnectionsInPool(serverRoute) : 0,
+                connectionPoolSettings.getMaxConnections(),
+                serverRoute != null ? connPerRoute.getMaxForRoute(serverRoute) : connPerRoute.getDefaultMax(),
+                httpClient.getExecutedRequests(),
+                httpClient.getAbortedRequests());
+    }
+
+    /**
+     * Stops the idle connection reaper and closes all connections of the pool.  The client cannot be used afterwards
+     */
+    public void shutdown() {
+        reaperTask.cancel();
+        connectionManager.shutdown();
+    }
+
+    /**
+     * @return the number of pools whose idle connections are closed by the reaper
+     */
+    static int getReapedPoolCount() {
+        return idleConnectionReaper.getQueue().size();
+    }
+
+    private static DefaultHttpClient createHttpClient(final ConnectionPoolSettings connectionPoolSettings,
+                                                      final CompressionStatistics compressionStatistics) {
+        final HttpParams params = new BasicHttpParams();
+        ConnManagerParams.setMaxTotalConnections(params, connectionPoolSettings.getMaxConnections());
+        final ConnPerRouteBean connPerRoute = new ConnPerRouteBean(connectionPoolSettings.getMaxConnectionsPerHost());
+        connectionPoolSettings.getMaxConnectionsForHosts().forEach((hostUrl, max) -> {
+            final HttpRoute route = toRoute(hostUrl);
+            if (route != null) {
+                connPerRoute.setMaxForRoute(route, max);
+            }
+        });
+        ConnManagerParams.setMaxConnectionsPerRoute(params, connPerRoute);
+
+        final SchemeRegistry registry = new SchemeRegistry();
+        registry.register(new Scheme("http", PlainSocketFactory.getSocketFactory(), 80));
+        registry.register(new Scheme("https", SSLSocketFactory.getSocketFactory(), 443));
+
+        final DefaultHttpClient defaultHttpClient = new DefaultHttpClient(new ThreadSafeClientConnManager(params, registry), params);
+        // retries are handled by the octane client, never resend a request on a broken connection here
+        defaultHttpClient.setHttpRequestRetryHandler(new DefaultHttpRequestRetryHandler(0, false));
+        defaultHttpClient.setRoutePlanner(new ProxySelectorRoutePlanner(registry, ProxySelector.getDefault()));
+        defaultHttpClient.setKeepAliveStrategy(createKeepAliveStrategy(connectionPoolSettings.getKeepAliveMillis()));
+        final CountingHttpInterceptor countingInterceptor = new CountingHttpInterceptor(compressionStatistics);
+        // first, so that the length of the body is set from the encoded body
+        defaultHttpClient.addRequestInterceptor(countingInterceptor, 0);
+        defaultHttpClient.addResponseInterceptor(countingInterceptor);
+        return defaultHttpClient;
+    }
+
+    /**
+     * Keep connections open for the time the server announces in the Keep-Alive header, or for the configured
+     * duration if the server does not announce one
+     */
+    private static ConnectionKeepAliveStrategy createKeepAliveStrategy(final long defaultKeepAliveMillis) {
+        return (response, context) -> {
+            final BasicHeaderElementIterator iterator = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+            while (iterator.hasNext()) {
+                final HeaderElement element = iterator.nextElement();
+                if (KEEP_ALIVE_TIMEOUT_PARAM.equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+                    try {
+                        return Math.min(TimeUnit.SECONDS.toMillis(Long.parseLong(element.getValue())), defaultKeepAliveMillis);
+                    } catch (NumberFormatException ignored) {
+                        // fall back to the configured keep-alive
+                    }
+                }
+            }
+            return defaultKeepAliveMillis;
+        };
+    }
+
+    /**
+     * Closes the expired and idle connections of a pool.  The pool is held weakly, so that a client dropped without
+     * {@link #shutdown()} is collected; the task then cancels itself
+     */
+    private static final class IdleConnectionReaper implements Runnable {
+        private final WeakReference<ThreadSafeClientConnManager> connectionManager;
+        private final long idleTimeoutMillis;
+        private volatile ScheduledFuture<?> future;
+
+        private IdleConnectionReaper(final ThreadSafeClientConnManager connectionManager, final long idleTimeoutMillis) {
+            this.connectionManager = new WeakReference<>(connectionManager);
+            this.idleTimeoutMillis = idleTimeoutMillis;
+        }
+
+        private void schedule(final long intervalMillis) {
+            future = idleConnectionReaper.scheduleWithFixedDelay(this, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancel() {
+            final ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            final ThreadSafeClientConnManager manager = connectionManager.get();
+            if (manager == null) {
+                cancel();
+                return;
+            }
+            manager.closeExpiredConnections();
+            manager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Builds the direct route to the host of the url, in the same way the route planner does for requests
+     */
+    private static HttpRoute toRoute(final String url) {
+        try {
+            final URI uri = URI.create(url);
+            if (uri.getHost() == null) {
+                return null;
+            }
+            final HttpHost host = new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
+            return new HttpRoute(host, null, "https".equalsIgnoreCase(uri.getScheme()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link CompactEntityModel}
+ */
+public class TestCompactEntityModel {
+
+    private static final String DEFECT = "{\"type\":\"defect\",\"id\":\"1001\",\"name\":\"first\",\"estimate\":1.5," +
+            "\"version_stamp\":3,\"is_draft\":false,\"owner\":null,\"creation_time\":\"2017-03-08T09:21:51Z\"," +
+            "\"phase\":{\"type\":\"phase\",\"id\":\"1002\"}," +
+            "\"user_tags\":{\"total_count\":1,\"data\":[{\"type\":\"user_tag\",\"id\":\"3001\"}]}}";
+    private static final String ENTITIES = "{\"total_count\":2,\"data\":[" + DEFECT +
+            ",{\"type\":\"defect\",\"id\":\"1005\",\"phase\":{\"type\":\"phase\",\"id\":\"1003\"},\"severity\":\"high\"}]}";
+
+    private final ModelParser modelParser = ModelParser.getInstance();
+
+    @Test
+    public void testSameFieldsAsEagerParsing() {
+        final Collection<EntityModel> eager = modelParser.getEntities(ENTITIES);
+        final List<EntityModel> compact = compactEntities();
+        Assert.assertEquals(eager.size(), compact.size());
+        int i = 0;
+        for (EntityModel entityModel : eager) {
+            final EntityModel compactEntityModel = compact.get(i++);
+            Assert.assertTrue(compactEntityModel instanceof CompactEntityModel);
+            Assert.assertEquals(entityModel.getValues().size(), compactEntityModel.getValues().size());
+            Assert.assertTrue(modelParser.getEntityJSONObject(entityModel).similar(modelParser.getEntityJSONObject(compactEntityModel)));
+        }
+    }
+
+    @Test
+    public void testValues() {
+        final List<EntityModel> compact = compactEntities();
+        final EntityModel defect = compact.get(0);
+        Assert.assertEquals("first", defect.getValue("name").getValue());
+        Assert.assertEquals(3L, defect.getValue("version_stamp").getValue());
+        Assert.assertEquals(1.5f, (Float) defect.getValue("estimate").getValue(), 0);
+        Assert.assertEquals(false, defect.getValue("is_draft").getValue());
+        Assert.assertEquals(ZonedDateTime.parse("2017-03-08T09:21:51Z"), defect.getValue("creation_time").getValue());
+        Assert.assertTrue(defect.getValue("owner") instanceof ReferenceFieldModel);
+        Assert.assertNull(defect.getValue("owner").getValue());
+        Assert.assertEquals(1, ((MultiReferenceFieldModel) defect.getValue("user_tags")).getValue().size());
+        Assert.assertNull("a field of another entity of the response", defect.getValue("severity"));
+        Assert.assertNull(defect.getValue("unknown"));
+
+        final EntityModel other = compact.get(1);
+        Assert.assertEquals("high", other.getValue("severity").getValue());
+        Assert.assertNull(other.getValue("name"));
+        final EntityModel phase = ((ReferenceFieldModel) other.getValue("phase")).getValue();
+        Assert.assertTrue("referenced entities are compact", phase instanceof CompactEntityModel);
+        Assert.assertEquals("1003", phase.getValue("id").getValue());
+    }
+
+    @Test
+    public void testSetValues() {
+        final EntityModel defect = compactEntities().get(0);
+        defect.getValue("name");
+        defect.setValue(new StringFieldModel("name", "renamed"));
+        defect.setValue(new LongFieldModel("added", 7L));
+        Assert.assertEquals("renamed", defect.getValue("name").getValue());
+        Assert.assertEquals(7L, defect.getValue("added").getValue());
+        Assert.assertEquals(11, defect.getValues().size());
+
+        defect.setValues(Collections.singleton(new StringFieldModel("id", "1001")));
+        Assert.assertEquals(1, defect.getValues().size());
+        Assert.assertNull(defect.getValue("name"));
+    }
+
+    @Test
+    public void testNewFieldsAreKeptByTheEntity() {
+        final List<EntityModel> compact = compactEntities();
+        final CompactEntityModel defect = (CompactEntityModel) compact.get(0);
+        final CompactEntityModel copy = new CompactEntityModel(defect);
+        copy.setValue(new LongFieldModel("added", 7L));
+        Assert.assertEquals(7L, copy.getValue("added").getValue());
+        Assert.assertEquals(11, copy.getValues().size());
+
+        Assert.assertNull(defect.getValue("added"));
+        Assert.assertEquals(10, defect.getValues().size());
+        Assert.assertEquals(4, compact.get(1).getValues().size());
+        Assert.assertEquals("the copy of a copy keeps the field", 7L,
+                new CompactEntityModel(copy).getValue("added").getValue());
+        Assert.assertEquals(10, new CompactEntityModel(defect).getValues().size());
+
+        final EntitySchema schema = new EntitySchema();
+        final CompactEntityModel parsed = new CompactEntityModel(schema);
+        parsed.addField(new StringFieldModel("id", "1001"));
+        new CompactEntityModel(parsed).setValue(new StringFieldModel("name", "added"));
+        Assert.assertEquals("the schema shared by the copies is not changed", 1, schema.size());
+    }
+
+    @Test
+    public void testFieldModelsAreStable() {
+        final EntityModel defect = compactEntities().get(0);
+        final FieldModel name = defect.getValue("name");
+        Assert.assertSame(name, defect.getValue("name"));
+        ((StringFieldModel) name).setValue("name", "renamed");
+        Assert.assertEquals("renamed", defect.getValue("name").getValue());
+        Assert.assertTrue(defect.getValues().contains(name));
+
+        final StringFieldModel severity = new StringFieldModel("severity", "low");
+        defect.setValue(severity);
+        Assert.assertSame(severity, defect.getValue("severity"));
+    }
+
+    @Test
+    public void testCompactCopy() {
+        final EntityModel defect = compactEntities().get(0);
+        ((StringFieldModel) defect.getValue("name")).setValue("name", "renamed");
+        final CompactEntityModel copy = new CompactEntityModel((CompactEntityModel) defect);
+        Assert.assertEquals("renamed", copy.getValue("name").getValue());
+        Assert.assertEquals(10, copy.getValues().size());
+        Assert.assertTrue(modelParser.getEntityJSONObject(defect).similar(modelParser.getEntityJSONObject(copy)));
+
+        final EntityModel phase = ((ReferenceFieldModel) copy.getValue("phase")).getValue();
+        Assert.assertTrue("referenced entities stay compact", phase instanceof CompactEntityModel);
+        phase.setValue(new StringFieldModel("id", "1004"));
+        ((MultiReferenceFieldModel) copy.getValue("user_tags")).getValue().clear();
+        copy.setValue(new StringFieldModel("name", "changed"));
+        Assert.assertEquals("renamed", defect.getValue("name").getValue());
+        Assert.assertEquals("1002", ((ReferenceFieldModel) defect.getValue("phase")).getValue().getValue("id").getValue());
+        Assert.assertEquals(1, ((MultiReferenceFieldModel) defect.getValue("user_tags")).getValue().size());
+    }
+
+    @Test
+    public void testCopyIsPlainEntity() {
+        final EntityModel defect = compactEntities().get(0);
+        final EntityModel copy = new EntityModel(defect);
+        Assert.assertFalse(copy instanceof CompactEntityModel);
+        Assert.assertEquals(10, copy.getValues().size());
+        copy.setValue(new StringFieldModel("name", "changed"));
+        Assert.assertEquals("first", defect.getValue("name").getValue());
+    }
+
+    @Test
+    public void testSingleEntity() {
+        final EntityModel defect = modelParser.getCompactEntityModel(stream(DEFECT), null);
+        Assert.assertEquals("1001", defect.getValue("id").getValue());
+        Assert.assertNull(modelParser.getCompactEntityModel(stream(""), null));
+    }
+
+    private List<EntityModel> compactEntities() {
+        return new ArrayList<>(modelParser.getCompactEntities(stream(ENTITIES), null));
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests for {@link EntityFrame}
+ */
+public class TestEntityFrame {
+
+    private static final String ENTITIES = "{\"total_count\":4,\"data\":[" +
+            "{\"type\":\"defect\",\"id\":\"1\",\"severity\":\"high\",\"story_points\":3,\"is_draft\":false," +
+            "\"creation_time\":\"2017-03-08T09:21:51Z\",\"phase\":{\"type\":\"phase\",\"id\":\"phase.new\",\"name\":\"New\"}," +
+            "\"user_tags\":{\"total_count\":1,\"data\":[{\"type\":\"user_tag\",\"id\":\"3001\"}]}}," +
+            "{\"type\":\"defect\",\"id\":\"2\",\"severity\":\"low\",\"story_points\":1.5,\"is_draft\":true," +
+            "\"phase\":{\"type\":\"phase\",\"id\":\"phase.closed\"}}," +
+            "{\"type\":\"defect\",\"id\":\"3\",\"severity\":\"high\",\"story_points\":null,\"is_draft\":false," +
+            "\"phase\":{\"type\":\"phase\",\"id\":\"phase.new\"}}," +
+            "{\"type\":\"defect\",\"id\":\"4\",\"severity\":\"high\",\"story_points\":5,\"phase\":null}" +
+            "],\"exceeds_total_count\":false}";
+
+    @Test
+    public void testColumnsFilledFromStream() {
+        final EntityFrame frame = frame(ENTITIES);
+        Assert.assertEquals(4, frame.size());
+        Assert.assertEquals(Arrays.asList("type", "id", "severity", "story_points", "is_draft", "creation_time", "phase"), frame.getColumnNames());
+        Assert.assertNull("multi references are not part of a frame", frame.getColumn("user_tags"));
+
+        final EntityFrame.Column storyPoints = frame.getColumn("story_points");
+        Assert.assertEquals("integers mixed with floats are floats", EntityFrame.ColumnType.DOUBLE, storyPoints.getType());
+        Assert.assertEquals(3, storyPoints.getDoubles()[0], 0);
+        Assert.assertEquals(1.5, storyPoints.getDoubles()[1], 0);
+        Assert.assertTrue(storyPoints.isNull(2));
+
+        final EntityFrame.Column severity = frame.getColumn("severity");
+        Assert.assertEquals(EntityFrame.ColumnType.STRING, severity.getType());
+        Assert.assertArrayEquals(new String[]{"high", "low"}, severity.getDictionary());
+        Assert.assertArrayEquals(new int[]{0, 1, 0, 0}, severity.getCodes());
+
+        final EntityFrame.Column phase = frame.getColumn("phase");
+        Assert.assertEquals(EntityFrame.ColumnType.REFERENCE, phase.getType());
+        Assert.assertEquals("phase.closed", phase.getString(1));
+        Assert.assertTrue(phase.isNull(3));
+
+        final EntityFrame.Column creationTime = frame.getColumn("creation_time");
+        Assert.assertEquals(EntityFrame.ColumnType.DATE, creationTime.getType());
+        Assert.assertEquals(ZonedDateTime.parse("2017-03-08T09:21:51Z").toInstant().toEpochMilli(), creationTime.getLongs()[0]);
+        Assert.assertEquals("2017-03-08T09:21:51Z", creationTime.getString(0));
+        Assert.assertEquals(EntityFrame.ColumnType.BOOLEAN, frame.getColumn("is_draft").getType());
+    }
+
+    @Test
+    public void testOperators() {
+        final EntityFrame frame = frame(ENTITIES);
+        final Map<String, Long> bySeverity = new LinkedHashMap<>();
+        bySeverity.put("high", 3L);
+        bySeverity.put("low", 1L);
+        Assert.assertEquals(bySeverity, frame.groupByCount("severity"));
+
+        final Map<String, Long> byPhase = new LinkedHashMap<>();
+        byPhase.put("phase.new", 2L);
+        byPhase.put("phase.closed", 1L);
+        byPhase.put(null, 1L);
+        Assert.assertEquals(byPhase, frame.groupByCount("phase"));
+        Assert.assertEquals(9.5, frame.sum("story_points"), 0);
+        Assert.assertEquals(8, frame.groupBySum("severity", "story_points").get("high"), 0);
+
+        final EntityFrame high = frame.filterEquals("severity", "high");
+        Assert.assertEquals(3, high.size());
+        Assert.assertEquals(Long.valueOf(2), high.groupByCount("phase").get("phase.new"));
+        Assert.assertFalse("the dictionary values no row has are not groups", high.groupByCount("severity").containsKey("low"));
+        Assert.assertEquals(2, high.filterBoolean("is_draft", false).size());
+        Assert.assertEquals(1, high.filterDouble("story_points", points -> points > 4).size());
+        Assert.assertEquals(1, frame.filterLong("creation_time", time -> time > 0).size());
+        Assert.assertEquals(0, frame.filterEquals("severity", "unknown").size());
+        Assert.assertEquals("a missing column has no values", 0, frame.filterEquals("unknown", "high").size());
+        Assert.assertEquals(0, frame.sum("unknown"), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOperatorOnWrongColumnType() {
+        frame(ENTITIES).sum("severity");
+    }
+
+    @Test
+    public void testPagesAppended() {
+        final EntityFrame.Builder builder = EntityFrame.builder()
+                .append(frame(ENTITIES))
+                .append(frame("{\"data\":[{\"id\":\"5\",\"severity\":\"medium\",\"story_points\":2," +
+                        "\"phase\":{\"type\":\"phase\",\"id\":\"phase.new\"},\"is_draft\":\"unknown\"}]}"));
+        final EntityFrame frame = builder.build();
+        Assert.assertEquals(5, frame.size());
+        Assert.assertEquals(11.5, frame.sum("story_points"), 0);
+        Assert.assertEquals(Long.valueOf(3), frame.groupByCount("phase").get("phase.new"));
+        Assert.assertEquals("medium", frame.getColumn("severity").getString(4));
+
+        final EntityFrame.Column isDraft = frame.getColumn("is_draft");
+        Assert.assertEquals("a column whose values do not share a type holds strings", EntityFrame.ColumnType.STRING, isDraft.getType());
+        Assert.assertEquals("true", isDraft.getString(1));
+        Assert.assertEquals("unknown", isDraft.getString(4));
+        Assert.assertTrue(isDraft.isNull(3));
+    }
+
+    @Test
+    public void testEmptyResponse() {
+        Assert.assertNull(ModelParser.getInstance().getEntityFrame(new ByteArrayInputStream(new byte[0]), null));
+        final EntityFrame frame = frame("{\"total_count\":0,\"data\":[]}");
+        Assert.assertEquals(0, frame.size());
+        Assert.assertTrue(frame.groupByCount("severity").isEmpty());
+    }
+
+    private static EntityFrame frame(String json) {
+        return ModelParser.getInstance().getEntityFrame(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.model;
+
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link LazyEntityModel}
+ */
+public class TestLazyEntityModel {
+
+    private static final String DEFECT = "{ \"type\" : \"defect\",\"id\":\"1001\" ,\n\t\"name\":\"say \\\"hi\\\" \\u00e9t\u00e9\"," +
+            "\"estimate\":1.50,\"version_stamp\":3,\"ignored\":[1,2],\"is_draft\":false,\"owner\":null," +
+            "\"creation_time\":\"2017-03-08T09:21:51Z\",\"phase\":{\"type\":\"phase\",\"id\":\"1002\"}," +
+            "\"user_tags\":{\"total_count\":1,\"data\":[{\"type\":\"user_tag\",\"id\":\"3001\"}]} }";
+    private static final String ENTITIES = "{\"total_count\":2,\"data\":[" + DEFECT + ",{\"type\":\"defect\",\"id\":\"1005\"}],\"exceeds_total_count\":false}";
+
+    private final ModelParser modelParser = ModelParser.getInstance();
+
+    @Test
+    public void testFieldsDecodedOnFirstRead() {
+        final LazyEntityModel defect = (LazyEntityModel) lazyEntities().get(0);
+        Assert.assertEquals(10, defect.getUndecodedCount());
+
+        Assert.assertEquals("say \"hi\" été", defect.getValue("name").getValue());
+        Assert.assertEquals(9, defect.getUndecodedCount());
+        Assert.assertSame("repeated reads are cached", defect.getValue("name"), defect.getValue("name"));
+        Assert.assertEquals(9, defect.getUndecodedCount());
+
+        Assert.assertNull(defect.getValue("ignored"));
+        Assert.assertNull(defect.getValue("unknown"));
+        Assert.assertEquals(ZonedDateTime.parse("2017-03-08T09:21:51Z"), defect.getValue("creation_time").getValue());
+        Assert.assertEquals("1002", ((ReferenceFieldModel) defect.getValue("phase")).getValue().getValue("id").getValue());
+    }
+
+    @Test
+    public void testCopyStaysLazy() {
+        final LazyEntityModel defect = (LazyEntityModel) lazyEntities().get(0);
+        defect.getValue("name");
+        final LazyEntityModel copy = new LazyEntityModel(defect);
+        Assert.assertEquals(9, copy.getUndecodedCount());
+
+        copy.setValue(new StringFieldModel("name", "renamed"));
+        Assert.assertEquals("say \"hi\" été", defect.getValue("name").getValue());
+        Assert.assertEquals("1002", ((ReferenceFieldModel) copy.getValue("phase")).getValue().getValue("id").getValue());
+        Assert.assertEquals("decoding the copy does not decode the original", 9, defect.getUndecodedCount());
+    }
+
+    @Test
+    public void testSameFieldsAsEagerParsing() {
+        final Collection<EntityModel> eager = modelParser.getEntities(ENTITIES);
+        final List<EntityModel> lazy = lazyEntities();
+        Assert.assertEquals(eager.size(), lazy.size());
+        int i = 0;
+        for (EntityModel entityModel : eager) {
+            final EntityModel lazyEntityModel = lazy.get(i++);
+            Assert.assertEquals(entityModel.getValues().size(), lazyEntityModel.getValues().size());
+            Assert.assertTrue(modelParser.getEntityJSONObject(entityModel).similar(modelParser.getEntityJSONObject(lazyEntityModel)));
+        }
+        Assert.assertEquals(0, ((LazyEntityModel) lazy.get(0)).getUndecodedCount());
+    }
+
+    @Test
+    public void testUntouchedFieldsWrittenAsReceived() throws Exception {
+        final LazyEntityModel defect = (LazyEntityModel) lazyEntities().get(0);
+        defect.setValue(new StringFieldModel("name", "renamed"));
+        defect.getValue("version_stamp");
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        modelParser.writeEntities(Collections.singletonList(defect), outputStream);
+        final String json = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertTrue(json.contains("\"estimate\":1.50"));
+        Assert.assertTrue(json.contains("\"user_tags\":{\"total_count\":1,\"data\":[{\"type\":\"user_tag\",\"id\":\"3001\"}]}"));
+        Assert.assertTrue(json.contains("\"name\":\"renamed\""));
+        Assert.assertEquals("fields are not decoded to be written", 8, defect.getUndecodedCount());
+
+        final String jsonObject = modelParser.getEntityJSONObject(defect).toString();
+        Assert.assertTrue(jsonObject.contains("\"estimate\":1.50"));
+        Assert.assertEquals("renamed", new JSONObject(jsonObject).getString("name"));
+        Assert.assertEquals(3, new JSONObject(jsonObject).getInt("version_stamp"));
+    }
+
+    @Test
+    public void testCopyIsDecoded() {
+        final EntityModel defect = lazyEntities().get(0);
+        final EntityModel copy = new EntityModel(defect);
+        Assert.assertFalse(copy instanceof LazyEntityModel);
+        Assert.assertEquals(10, copy.getValues().size());
+    }
+
+    @Test
+    public void testSingleEntity() {
+        final EntityModel defect = modelParser.getLazyEntityModel(stream(DEFECT), null);
+        Assert.assertEquals("1001", defect.getValue("id").getValue());
+        Assert.assertNull(modelParser.getLazyEntityModel(stream(""), null));
+    }
+
+    private List<EntityModel> lazyEntities() {
+        return new ArrayList<>(modelParser.getLazyEntities(stream(ENTITIES), null));
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
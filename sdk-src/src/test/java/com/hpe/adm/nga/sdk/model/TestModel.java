@@ -22,6 +22,8 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
@@ -210,6 +212,38 @@ public class TestModel {
         }
     }
 
+    @Test
+    public void testWriteEntitiesMatchesJsonObject() {
+        Set<FieldModel> refSet = new HashSet<>();
+        refSet.add(new StringFieldModel("type", "work_item"));
+        refSet.add(new LongFieldModel("id", 1001L));
+        Collection<EntityModel> refCol = new ArrayList<>();
+        refCol.add(new EntityModel(refSet));
+
+        set.add(new MultiReferenceFieldModel("multiRefField", refCol));
+        set.add(new ReferenceFieldModel("refField", new EntityModel(refSet)));
+        set.add(new ReferenceFieldModel("emptyRefField", null));
+        set.add(new DateFieldModel("dateField", ZonedDateTime.now().withZoneSameInstant(ZoneId.of("Z"))));
+        set.add(new FloatFieldModel("floatField", 2.5f));
+        set.add(new StringFieldModel("stringField", "quote \" and \u00e9"));
+        set.add(new StringFieldModel("nullField", null));
+        set.add(new BooleanFieldModel("boolField", true));
+        Collection<EntityModel> entities = new ArrayList<>();
+        entities.add(new EntityModel(set));
+        entities.add(new EntityModel(refSet));
+
+        expectedResult = Boolean.TRUE.toString();
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            ModelParser.getInstance().writeEntities(entities, outputStream);
+            JSONObject streamed = new JSONObject(new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+            JSONObject built = new JSONObject(ModelParser.getInstance().getEntitiesJSONObject(entities).toString());
+            gotResult = Boolean.toString(built.similar(streamed));
+        } catch (Exception ex) {
+            fail("Failed with exception: " + ex);
+        }
+    }
+
     @Test
     public void testAddSingleValue() {
         expectedResult = "{\"trueValue\":true}";
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.model;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tests for the streaming parsing of {@link ModelParser}
+ */
+public class TestModelParser {
+
+    private static final String ENTITIES = "{\"total_count\":2,\"data\":[" +
+            "{\"type\":\"defect\",\"id\":\"1001\",\"name\":\"crash on save\",\"version_stamp\":3,\"is_draft\":false," +
+            "\"creation_time\":\"2017-03-08T09:21:51Z\",\"story_points\":null," +
+            "\"phase\":{\"type\":\"phase\",\"id\":\"1002\",\"name\":\"New\"}," +
+            "\"taxonomies\":{\"total_count\":2,\"data\":[{\"type\":\"taxonomy_item_node\",\"id\":\"1003\"},{\"type\":\"taxonomy_item_node\",\"id\":\"1004\"}]}," +
+            "\"user_tags\":{\"total_count\":0,\"data\":[]},\"ignored\":[1,2,{\"a\":[]}]}," +
+            "{\"type\":\"defect\",\"id\":\"1005\",\"name\":\"Z\",\"owner\":null}" +
+            "],\"exceeds_total_count\":false}";
+
+    private final ModelParser modelParser = ModelParser.getInstance();
+
+    @Test
+    public void testSameEntitiesAsJsonTree() {
+        final JSONArray data = new JSONObject(ENTITIES).getJSONArray("data");
+        final List<EntityModel> expected = new ArrayList<>();
+        for (int i = 0; i < data.length(); i++) {
+            expected.add(modelParser.getEntityModel(data.getJSONObject(i)));
+        }
+
+        final Collection<EntityModel> entities = modelParser.getEntities(ENTITIES);
+        Assert.assertEquals(expected.size(), entities.size());
+        final Iterator<EntityModel> iterator = entities.iterator();
+        for (EntityModel entityModel : expected) {
+            Assert.assertTrue(modelParser.getEntityJSONObject(entityModel).similar(modelParser.getEntityJSONObject(iterator.next())));
+        }
+    }
+
+    @Test
+    public void testFieldTypes() {
+        final EntityModel defect = modelParser.getEntities(ENTITIES).iterator().next();
+
+        Assert.assertEquals("1001", defect.getValue("id").getValue());
+        Assert.assertEquals(3L, defect.getValue("version_stamp").getValue());
+        Assert.assertEquals(Boolean.FALSE, defect.getValue("is_draft").getValue());
+        Assert.assertEquals(ZonedDateTime.parse("2017-03-08T09:21:51Z"), defect.getValue("creation_time").getValue());
+        Assert.assertTrue(defect.getValue("story_points") instanceof ReferenceFieldModel);
+        Assert.assertNull(defect.getValue("story_points").getValue());
+        Assert.assertNull("arrays are not fields", defect.getValue("ignored"));
+
+        final EntityModel phase = ((ReferenceFieldModel) defect.getValue("phase")).getValue();
+        Assert.assertEquals("New", phase.getValue("name").getValue());
+
+        final MultiReferenceFieldModel taxonomies = (MultiReferenceFieldModel) defect.getValue("taxonomies");
+        Assert.assertEquals(2, taxonomies.getValue().size());
+        Assert.assertEquals("1004", new ArrayList<>(taxonomies.getValue()).get(1).getValue("id").getValue());
+        Assert.assertTrue(((MultiReferenceFieldModel) defect.getValue("user_tags")).getValue().isEmpty());
+    }
+
+    @Test
+    public void testDecimalField() {
+        final EntityModel entityModel = modelParser.getEntities("{\"data\":[{\"id\":\"1\",\"estimate\":2.5}]}").iterator().next();
+        Assert.assertEquals(2.5f, (Float) entityModel.getValue("estimate").getValue(), 0);
+    }
+
+    @Test
+    public void testStream() {
+        final Collection<EntityModel> entities = modelParser.getEntities(new ByteArrayInputStream(ENTITIES.getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(2, entities.size());
+
+        final EntityModel entityModel = modelParser.getEntityModel(new ByteArrayInputStream("{\"type\":\"defect\",\"id\":\"1001\",\"name\":\"été\"}".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals("été", entityModel.getValue("name").getValue());
+    }
+
+    @Test
+    public void testEmptyContent() {
+        Assert.assertNull(modelParser.getEntities(""));
+        Assert.assertNull(modelParser.getEntityModel(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testMissingData() {
+        modelParser.getEntities("{\"total_count\":0}");
+    }
+}
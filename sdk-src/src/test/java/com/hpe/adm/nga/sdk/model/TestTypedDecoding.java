@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.model;
+
+import com.google.gson.Gson;
+import com.hpe.adm.nga.sdk.metadata.FieldMetadata;
+import com.hpe.adm.nga.sdk.metadata.FieldTypeCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the decoding of the entities by the field types of {@link FieldTypeCache}
+ */
+public class TestTypedDecoding {
+
+    private static final String DEFECT = "{\"type\":\"defect\",\"id\":\"1001\",\"name\":\"2017-03-08T09:21:51Z\"," +
+            "\"estimated_hours\":4,\"creation_time\":\"2017-03-08T09:21:51Z\",\"due_date\":\"2017-03-08\"," +
+            "\"version_stamp\":\"3\",\"owner\":null," +
+            "\"release\":{\"type\":\"release\",\"id\":\"2001\",\"story_points\":12}}";
+
+    private final List<String[]> loads = new ArrayList<>();
+
+    @Test
+    public void testDecodingByFieldType() {
+        final FieldTypeCache fieldTypeCache = fieldTypeCache();
+        fieldTypeCache.put(Arrays.asList("defect", "release"), Arrays.asList(
+                field("defect", "name", "string"), field("defect", "estimated_hours", "float"),
+                field("defect", "creation_time", "date_time"), field("defect", "due_date", "date"),
+                field("defect", "version_stamp", "integer"), field("defect", "owner", "reference"),
+                field("release", "story_points", "float")));
+
+        final EntityModel defect = parse(DEFECT, fieldTypeCache);
+        Assert.assertEquals("a string field is never a date", "2017-03-08T09:21:51Z", defect.getValue("name").getValue());
+        Assert.assertEquals(4f, (Float) defect.getValue("estimated_hours").getValue(), 0);
+        Assert.assertEquals(ZonedDateTime.parse("2017-03-08T09:21:51Z"), defect.getValue("creation_time").getValue());
+        Assert.assertEquals("2017-03-08", defect.getValue("due_date").getValue());
+        Assert.assertEquals("a value not matching its type is decoded from the value", "3", defect.getValue("version_stamp").getValue());
+        Assert.assertNull(defect.getValue("owner").getValue());
+
+        final EntityModel release = ((ReferenceFieldModel) defect.getValue("release")).getValue();
+        Assert.assertEquals("referenced entities are decoded by their type", 12f, (Float) release.getValue("story_points").getValue(), 0);
+        Assert.assertTrue(loads.isEmpty());
+    }
+
+    @Test
+    public void testMetadataLoadedAfterFirstResponse() throws Exception {
+        final FieldTypeCache fieldTypeCache = fieldTypeCache();
+
+        EntityModel defect = parse(DEFECT, fieldTypeCache);
+        Assert.assertEquals(4L, defect.getValue("estimated_hours").getValue());
+        Assert.assertTrue("nothing is fetched while parsing", loads.isEmpty());
+
+        fieldTypeCache.loadPending().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(1, loads.size());
+        Assert.assertEquals(Arrays.asList("defect", "release"), sorted(loads.get(0)));
+
+        defect = parse(DEFECT, fieldTypeCache);
+        Assert.assertEquals(4f, (Float) defect.getValue("estimated_hours").getValue(), 0);
+        fieldTypeCache.loadPending().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("the metadata is fetched once", 1, fieldTypeCache.getLoadCount());
+        Assert.assertEquals(2, fieldTypeCache.size());
+    }
+
+    @Test
+    public void testFailedLoadFallsBackToValues() throws Exception {
+        final FieldTypeCache fieldTypeCache = new FieldTypeCache(entityNames -> {
+            throw new RuntimeException("forbidden");
+        }, Duration.ofMinutes(1));
+        parse(DEFECT, fieldTypeCache);
+        fieldTypeCache.loadPending().get(5, TimeUnit.SECONDS);
+
+        final EntityModel defect = parse(DEFECT, fieldTypeCache);
+        Assert.assertEquals(4L, defect.getValue("estimated_hours").getValue());
+        fieldTypeCache.loadPending().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals("a failed type is not fetched again before the retry delay", 1, fieldTypeCache.getLoadCount());
+    }
+
+    @Test
+    public void testFailedLoadRetried() throws Exception {
+        final CompletableFuture<Collection<FieldMetadata>> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new RuntimeException("service unavailable"));
+        final FieldTypeCache fieldTypeCache = new FieldTypeCache(entityNames -> {
+            loads.add(entityNames);
+            return loads.size() == 1 ? failure
+                    : CompletableFuture.completedFuture(Collections.singletonList(field("defect", "estimated_hours", "float")));
+        }, Duration.ofMillis(1));
+        parse(DEFECT, fieldTypeCache);
+        fieldTypeCache.loadPending().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(0, fieldTypeCache.size());
+
+        Thread.sleep(10);
+        parse(DEFECT, fieldTypeCache);
+        fieldTypeCache.loadPending().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(2, fieldTypeCache.getLoadCount());
+        final EntityModel defect = parse(DEFECT, fieldTypeCache);
+        Assert.assertEquals(4f, (Float) defect.getValue("estimated_hours").getValue(), 0);
+    }
+
+    @Test
+    public void testLoadDoesNotBlock() throws Exception {
+        final CompletableFuture<Collection<FieldMetadata>> fieldsMetadata = new CompletableFuture<>();
+        final FieldTypeCache fieldTypeCache = new FieldTypeCache(entityNames -> fieldsMetadata);
+        parse(DEFECT, fieldTypeCache);
+        final CompletableFuture<Void> load = fieldTypeCache.loadPending();
+        Assert.assertFalse(load.isDone());
+
+        parse(DEFECT, fieldTypeCache);
+        fieldTypeCache.loadPending();
+        Assert.assertEquals("types being fetched are not fetched again", 1, fieldTypeCache.getLoadCount());
+
+        fieldsMetadata.complete(Collections.singletonList(field("defect", "estimated_hours", "float")));
+        load.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(4f, (Float) parse(DEFECT, fieldTypeCache).getValue("estimated_hours").getValue(), 0);
+    }
+
+    private FieldTypeCache fieldTypeCache() {
+        return new FieldTypeCache(entityNames -> {
+            loads.add(entityNames);
+            return CompletableFuture.completedFuture(
+                    Arrays.asList(field("defect", "estimated_hours", "float"), field("release", "story_points", "float")));
+        });
+    }
+
+    private static EntityModel parse(String json, FieldTypeCache fieldTypeCache) {
+        final String entities = "{\"total_count\":1,\"data\":[" + json + "]}";
+        final Collection<EntityModel> entityModels = ModelParser.getInstance()
+                .getEntities(new ByteArrayInputStream(entities.getBytes(StandardCharsets.UTF_8)), fieldTypeCache);
+        return entityModels.iterator().next();
+    }
+
+    private static FieldMetadata field(String entityName, String name, String fieldType) {
+        return new Gson().fromJson(String.format("{\"entity_name\":\"%s\",\"name\":\"%s\",\"field_type\":\"%s\"}",
+                entityName, name, fieldType), FieldMetadata.class);
+    }
+
+    private static List<String> sorted(String[] entityNames) {
+        final List<String> names = new ArrayList<>(Arrays.asList(entityNames));
+        names.sort(null);
+        return names;
+    }
+}
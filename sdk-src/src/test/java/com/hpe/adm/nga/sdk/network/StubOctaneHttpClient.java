@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.hpe.adm.nga.sdk.authentication.Authentication;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Stub http client for the tests of the network package.  It records the requests it receives and answers them with
+ * its responder, a 200 response with an empty object by default.  After {@link #holdAsync(boolean)} the asynchronous
+ * requests are left pending, the test completes them through {@link #getPending()}
+ */
+final class StubOctaneHttpClient implements OctaneHttpClient {
+
+    private final List<OctaneHttpRequest> requests = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<OctaneHttpResponse>> pending = new CopyOnWriteArrayList<>();
+    private volatile Function<OctaneHttpRequest, OctaneHttpResponse> responder;
+    private volatile boolean holdAsync;
+    private volatile TimeoutSettings timeoutSettings;
+
+    StubOctaneHttpClient() {
+        this("{}");
+    }
+
+    /**
+     * @param content the content of the 200 responses
+     */
+    StubOctaneHttpClient(String content) {
+        this(status(200, content));
+    }
+
+    /**
+     * @param responder answers the requests, it may throw like the http clients do
+     */
+    StubOctaneHttpClient(Function<OctaneHttpRequest, OctaneHttpResponse> responder) {
+        this.responder = responder;
+    }
+
+    /**
+     * @param holdAsync whether the asynchronous requests are left pending instead of being answered by the responder
+     * @return this object
+     */
+    StubOctaneHttpClient holdAsync(boolean holdAsync) {
+        this.holdAsync = holdAsync;
+        return this;
+    }
+
+    /**
+     * @param statusCode the status of the responses, the statuses from 400 fail the requests
+     * @param content    the content of the successful responses
+     */
+    void respondWith(int statusCode, String content) {
+        responder = status(statusCode, content);
+    }
+
+    /**
+     * @return the requests received, in order
+     */
+    List<OctaneHttpRequest> getRequests() {
+        return requests;
+    }
+
+    int getCalls() {
+        return requests.size();
+    }
+
+    OctaneHttpRequest getLastRequest() {
+        return requests.isEmpty() ? null : requests.get(requests.size() - 1);
+    }
+
+    /**
+     * @return the futures of the asynchronous requests held by {@link #holdAsync(boolean)}, in order
+     */
+    List<CompletableFuture<OctaneHttpResponse>> getPending() {
+        return pending;
+    }
+
+    /**
+     * @param statusCode the status of the responses, the statuses from 400 fail the requests
+     * @param content    the content of the successful responses
+     * @return a responder answering every request with the status
+     */
+    static Function<OctaneHttpRequest, OctaneHttpResponse> status(int statusCode, String content) {
+        return octaneHttpRequest -> {
+            if (statusCode >= 400) {
+                throw failure(statusCode, null);
+            }
+            return new OctaneHttpResponse(statusCode, content, null);
+        };
+    }
+
+    /**
+     * @param statusCode the status of the failed response
+     * @param retryAfter the Retry-After header of the response, null for none
+     * @return the exception thrown by the google http client for an error response
+     */
+    static RuntimeException failure(int statusCode, String retryAfter) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setRetryAfter(retryAfter);
+        return new RuntimeException("Problem executing httprequest",
+                new HttpResponseException.Builder(statusCode, "failed", headers).build());
+    }
+
+    @Override
+    public boolean authenticate(Authentication authentication) {
+        return true;
+    }
+
+    @Override
+    public void signOut() {
+    }
+
+    @Override
+    public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+        requests.add(octaneHttpRequest);
+        return responder.apply(octaneHttpRequest);
+    }
+
+    @Override
+    public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest, Executor executor) {
+        if (!holdAsync) {
+            return OctaneHttpClient.super.executeAsync(octaneHttpRequest, executor);
+        }
+        requests.add(octaneHttpRequest);
+        final CompletableFuture<OctaneHttpResponse> future = new CompletableFuture<>();
+        pending.add(future);
+        return future;
+    }
+
+    @Override
+    public void setTimeoutSettings(TimeoutSettings timeoutSettings) {
+        this.timeoutSettings = timeoutSettings;
+    }
+
+    @Override
+    public TimeoutSettings getTimeoutSettings() {
+        return timeoutSettings;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.authentication.Authentication;
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.exception.OctaneException;
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the asynchronous execution of requests
+ */
+public class TestAsyncExecution {
+
+    private static final String ENTITIES_JSON = "{\"total_count\":1,\"data\":[{\"id\":\"1001\",\"name\":\"async\"}],\"exceeds_total_count\":false}";
+
+    @Test
+    public void testExecuteAsyncParsesResponse() throws Exception {
+        OctaneHttpClient octaneHttpClient = new BlockingOctaneHttpClient(null);
+
+        Collection<EntityModel> entityModels = new EntityList(octaneHttpClient, "http://localhost/defects")
+                .get()
+                .executeAsync()
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1, entityModels.size());
+        Assert.assertEquals("async", entityModels.iterator().next().getValue("name").getValue());
+    }
+
+    @Test
+    public void testExecuteAsyncFailureIsTranslated() throws Exception {
+        OctaneHttpClient octaneHttpClient = new BlockingOctaneHttpClient(null) {
+            @Override
+            public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+                throw new RuntimeException("Problem executing httprequest", new IllegalStateException("server gone"));
+            }
+        };
+
+        try {
+            new EntityList(octaneHttpClient, "http://localhost/defects").get().executeAsync().get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the future to fail");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof OctaneException);
+            Assert.assertEquals("server gone", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testCancelAbortsRunningRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch aborted = new CountDownLatch(1);
+        BlockingOctaneHttpClient octaneHttpClient = new BlockingOctaneHttpClient(started) {
+            @Override
+            public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+                AbortableFuture.onAbort(aborted::countDown);
+                return super.execute(octaneHttpRequest);
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            OctaneHttpClient asyncClient = new AsyncOctaneHttpClient(octaneHttpClient, executor);
+            CompletableFuture<Collection<EntityModel>> future =
+                    new EntityList(asyncClient, "http://localhost/defects").get().executeAsync();
+
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(future.cancel(true));
+
+            Assert.assertTrue("abort action was not run", aborted.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue("worker was not interrupted", octaneHttpClient.interrupted.await(5, TimeUnit.SECONDS));
+            try {
+                future.join();
+                Assert.fail("Expected the future to be cancelled");
+            } catch (CancellationException e) {
+                // expected
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Client that blocks until interrupted when given a latch, otherwise returns a single entity
+     */
+    private static class BlockingOctaneHttpClient implements OctaneHttpClient {
+
+        private final CountDownLatch started;
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        private BlockingOctaneHttpClient(CountDownLatch started) {
+            this.started = started;
+        }
+
+        @Override
+        public boolean authenticate(Authentication authentication) {
+            return true;
+        }
+
+        @Override
+        public void signOut() {
+        }
+
+        @Override
+        public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+            if (started != null) {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new RuntimeException("Problem executing httprequest", e);
+                }
+            }
+            return new OctaneHttpResponse(200, ENTITIES_JSON, null);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.exception.CircuitBreakerOpenException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tests for {@link CircuitBreakingOctaneHttpClient} and {@link CircuitBreaker}
+ */
+public class TestCircuitBreakingOctaneHttpClient {
+
+    private static final String DEFECTS_URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/defects";
+    private static final String TESTS_URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/tests";
+    private static final String CONTENT = "{\"total_count\":0,\"data\":[]}";
+
+    private static CircuitBreaker.Builder breakerBuilder() {
+        return new CircuitBreaker.Builder().slidingWindow(4, 4).failureRateThreshold(0.5).halfOpenCalls(2);
+    }
+
+    @Test
+    public void testOpensOnFailureRateAndFailsFast() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT);
+        CircuitBreaker breaker = breakerBuilder().openDuration(Duration.ofMinutes(1)).build("server");
+        CircuitBreakingOctaneHttpClient client = new CircuitBreakingOctaneHttpClient(server, breaker, null);
+
+        server.respondWith(200, CONTENT);
+        execute(client, DEFECTS_URL);
+        execute(client, DEFECTS_URL);
+        server.respondWith(503, CONTENT);
+        execute(client, DEFECTS_URL);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        execute(client, DEFECTS_URL);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        try {
+            client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(DEFECTS_URL));
+            Assert.fail("expected the breaker to reject the request");
+        } catch (CircuitBreakerOpenException e) {
+            Assert.assertEquals("server", e.getCircuitBreakerName());
+        }
+        Assert.assertEquals(4, server.getCalls());
+        Assert.assertEquals(1, breaker.getRejectedCount());
+    }
+
+    @Test
+    public void testEntityListThrowsOpenBreaker() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT);
+        CircuitBreaker breaker = breakerBuilder().openDuration(Duration.ofMinutes(1)).build("server");
+        CircuitBreakingOctaneHttpClient client = new CircuitBreakingOctaneHttpClient(server, breaker, null);
+        EntityList defects = new EntityList(client, DEFECTS_URL);
+
+        server.respondWith(503, CONTENT);
+        for (int i = 0; i < 4; i++) {
+            execute(client, DEFECTS_URL);
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        try {
+            defects.get().execute();
+            Assert.fail("expected the breaker to reject the request");
+        } catch (CircuitBreakerOpenException e) {
+            Assert.assertEquals("server", e.getCircuitBreakerName());
+        }
+        Assert.assertEquals(4, server.getCalls());
+    }
+
+    @Test
+    public void testClientErrorsDoNotOpen() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT);
+        CircuitBreaker breaker = breakerBuilder().build("server");
+        CircuitBreakingOctaneHttpClient client = new CircuitBreakingOctaneHttpClient(server, breaker, null);
+
+        server.respondWith(404, CONTENT);
+        for (int i = 0; i < 10; i++) {
+            execute(client, DEFECTS_URL);
+        }
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenProbesCloseOrReopen() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT);
+        CircuitBreaker breaker = breakerBuilder().openDuration(Duration.ZERO).build("server");
+        CircuitBreakingOctaneHttpClient client = new CircuitBreakingOctaneHttpClient(server, breaker, null);
+
+        server.respondWith(500, CONTENT);
+        for (int i = 0; i < 4; i++) {
+            execute(client, DEFECTS_URL);
+        }
+        Assert.assertEquals(1, breaker.getOpenedCount());
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // a failed probe opens the breaker again
+        execute(client, DEFECTS_URL);
+        Assert.assertEquals(2, breaker.getOpenedCount());
+
+        server.respondWith(200, CONTENT);
+        execute(client, DEFECTS_URL);
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        execute(client, DEFECTS_URL);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assert.assertEquals(0, breaker.getFailureRate(), 0);
+    }
+
+    @Test
+    public void testHalfOpenLimitsProbes() {
+        CircuitBreaker breaker = breakerBuilder().openDuration(Duration.ZERO).build("server");
+        for (int i = 0; i < 4; i++) {
+            breaker.acquire().release(0, RequestOutcome.DROPPED);
+        }
+        breaker.acquire();
+        breaker.acquire();
+        try {
+            breaker.acquire();
+            Assert.fail("expected only two probes");
+        } catch (CircuitBreakerOpenException e) {
+            Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        }
+    }
+
+    @Test
+    public void testRequestsInFlightWhenOpenedAreNotProbes() {
+        CircuitBreaker breaker = breakerBuilder().openDuration(Duration.ZERO).build("server");
+        CircuitBreaker.Permit stale = breaker.acquire();
+        CircuitBreaker.Permit staleIgnored = breaker.acquire();
+        CircuitBreaker.Permit staleFailed = breaker.acquire();
+        for (int i = 0; i < 4; i++) {
+            breaker.acquire().release(0, RequestOutcome.DROPPED);
+        }
+        CircuitBreaker.Permit probe = breaker.acquire();
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // the requests sent while closed complete once the breaker is half open
+        stale.release(0, RequestOutcome.SUCCESS);
+        staleIgnored.release(0, RequestOutcome.IGNORED);
+        staleFailed.release(0, RequestOutcome.DROPPED);
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assert.assertEquals(1, breaker.getOpenedCount());
+        breaker.acquire();
+        try {
+            breaker.acquire();
+            Assert.fail("expected a stale ignored request not to let another probe through");
+        } catch (CircuitBreakerOpenException e) {
+            Assert.assertEquals(1, breaker.getRejectedCount());
+        }
+
+        probe.release(0, RequestOutcome.SUCCESS);
+        Assert.assertEquals("only one of the two probes returned", CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testSlowCallsOpen() {
+        CircuitBreaker breaker = breakerBuilder().slowCallThreshold(0.5, Duration.ofMillis(100)).build("server");
+        for (int i = 0; i < 4; i++) {
+            breaker.acquire().release(Duration.ofSeconds(1).toNanos(), RequestOutcome.SUCCESS);
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        Assert.assertEquals(1, breaker.getSlowCallRate(), 0);
+    }
+
+    @Test
+    public void testCollectionsAreTrackedSeparately() throws Exception {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT);
+        CircuitBreakingOctaneHttpClient client = new CircuitBreakingOctaneHttpClient(server, null,
+                breakerBuilder().openDuration(Duration.ofMinutes(1)));
+
+        server.respondWith(500, CONTENT);
+        for (int i = 0; i < 4; i++) {
+            execute(client, DEFECTS_URL + "/" + i);
+        }
+        CompletableFuture<OctaneHttpResponse> rejected = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(DEFECTS_URL));
+        try {
+            rejected.get();
+            Assert.fail("expected the breaker of the defects to reject the request");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+            Assert.assertEquals("defects", ((CircuitBreakerOpenException) e.getCause()).getCircuitBreakerName());
+        }
+
+        server.respondWith(200, CONTENT);
+        execute(client, TESTS_URL);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, client.getCollectionCircuitBreakers().get("defects").getState());
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, client.getCollectionCircuitBreakers().get("tests").getState());
+    }
+
+    private static void execute(OctaneHttpClient client, String url) {
+        try {
+            client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(url));
+        } catch (CircuitBreakerOpenException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // failed on the server
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.authentication.Authentication;
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import com.hpe.adm.nga.sdk.model.LazyEntityModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link CoalescingOctaneHttpClient}
+ */
+public class TestCoalescingOctaneHttpClient {
+
+    private static final String URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/defects";
+    private static final String CONTENT = "{\"total_count\":1,\"data\":[{\"type\":\"defect\",\"id\":\"1\",\"name\":\"first\"}]}";
+    private static final int THREADS = 8;
+
+    @Test
+    public void testConcurrentGetsShareOneRequest() throws Exception {
+        BlockingOctaneHttpClient blocking = new BlockingOctaneHttpClient();
+        CoalescingOctaneHttpClient client = new CoalescingOctaneHttpClient(blocking);
+        EntityList defects = new EntityList(client, URL);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Collection<EntityModel>>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> defects.get().execute()));
+            }
+            awaitCoalesced(client, THREADS - 1);
+            blocking.release.countDown();
+
+            List<EntityModel> entityModels = new ArrayList<>();
+            for (Future<Collection<EntityModel>> result : results) {
+                Collection<EntityModel> defectModels = result.get(5, TimeUnit.SECONDS);
+                Assert.assertEquals(1, defectModels.size());
+                Assert.assertEquals("first", defectModels.iterator().next().getValue("name").getValue());
+                entityModels.addAll(defectModels);
+            }
+            Assert.assertEquals(1, blocking.calls.get());
+            Assert.assertEquals(1, client.getExecutedCount());
+            Assert.assertEquals("every caller gets its own entities", THREADS, entityModels.stream().distinct().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLazyEntitiesStayLazy() {
+        BlockingOctaneHttpClient blocking = new BlockingOctaneHttpClient(true);
+        QueryCache queryCache = new QueryCache.Builder().build();
+        EntityList defects = new EntityList(new CoalescingOctaneHttpClient(blocking),
+                new RequestContext.Builder().queryCache(queryCache).build(), URL);
+
+        for (int i = 0; i < 2; i++) {
+            Collection<EntityModel> entityModels = defects.get().lazy(true).execute();
+            Assert.assertEquals(1, entityModels.size());
+            Assert.assertEquals(3, ((LazyEntityModel) entityModels.iterator().next()).getUndecodedCount());
+        }
+        Assert.assertEquals("lazy requests do not use the query cache", 0, queryCache.size());
+        Assert.assertEquals(2, blocking.calls.get());
+    }
+
+    @Test
+    public void testCopiesParseOnce() throws Exception {
+        BlockingOctaneHttpClient blocking = new BlockingOctaneHttpClient();
+        CoalescingOctaneHttpClient client = new CoalescingOctaneHttpClient(blocking);
+        CompletableFuture<OctaneHttpResponse> first = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        CompletableFuture<OctaneHttpResponse> second = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        blocking.futures.get(0).complete(streaming(CONTENT));
+        Assert.assertEquals(CONTENT, first.get(5, TimeUnit.SECONDS).getContent());
+
+        // the copies of a shared response keep the parsed result of each name
+        AtomicInteger parses = new AtomicInteger();
+        first.get().parseContent("test", content -> parses.incrementAndGet(), count -> count);
+        second.get().parseContent("test", content -> parses.incrementAndGet(), count -> count);
+        Assert.assertEquals(1, parses.get());
+        Assert.assertEquals(CONTENT, new String(readAll(second.get().getInputStream()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testRequestNobodyJoinedGetsTheResponseAsIs() throws Exception {
+        OctaneHttpResponse response = streaming(CONTENT);
+        CoalescingOctaneHttpClient client = new CoalescingOctaneHttpClient(new StubOctaneHttpClient(octaneHttpRequest -> response));
+        Assert.assertSame(response, client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL)));
+
+        BlockingOctaneHttpClient blocking = new BlockingOctaneHttpClient();
+        client = new CoalescingOctaneHttpClient(blocking);
+        CompletableFuture<OctaneHttpResponse> cancelled = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        CompletableFuture<OctaneHttpResponse> joined = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        cancelled.cancel(true);
+        OctaneHttpResponse asyncResponse = streaming(CONTENT);
+        blocking.futures.get(0).complete(asyncResponse);
+        Assert.assertSame("the one caller left gets the response", asyncResponse, joined.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testOnlyIdenticalGetsAreCoalesced() throws Exception {
+        BlockingOctaneHttpClient blocking = new BlockingOctaneHttpClient();
+        CoalescingOctaneHttpClient client = new CoalescingOctaneHttpClient(blocking);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<OctaneHttpResponse>> results = new ArrayList<>();
+            results.add(executor.submit(() -> client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL))));
+            results.add(executor.submit(() -> client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL + "/1"))));
+            results.add(executor.submit(() -> client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL)
+                    .setAcceptType(OctaneHttpRequest.OCTET_STREAM_CONTENT_TYPE))));
+            results.add(executor.submit(() -> client.execute(new OctaneHttpRequest.PutOctaneHttpRequest(URL, OctaneHttpRequest.JSON_CONTENT_TYPE, "{}"))));
+            awaitCalls(blocking, 4);
+            blocking.release.countDown();
+            for (Future<OctaneHttpResponse> result : results) {
+                Assert.assertNotNull(result.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(0, client.getCoalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSharedRequestAbortedWhenAllCallersCancel() {
+        BlockingOctaneHttpClient blocking = new BlockingOctaneHttpClient();
+        CoalescingOctaneHttpClient client = new CoalescingOctaneHttpClient(blocking);
+
+        CompletableFuture<OctaneHttpResponse> first = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        CompletableFuture<OctaneHttpResponse> second = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        Assert.assertEquals(1, blocking.futures.size());
+
+        first.cancel(true);
+        Assert.assertFalse(blocking.futures.get(0).isCancelled());
+        second.cancel(true);
+        Assert.assertTrue(blocking.futures.get(0).isCancelled());
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotCached() throws Exception {
+        BlockingOctaneHttpClient blocking = new BlockingOctaneHttpClient();
+        CoalescingOctaneHttpClient client = new CoalescingOctaneHttpClient(blocking);
+
+        CompletableFuture<OctaneHttpResponse> first = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        CompletableFuture<OctaneHttpResponse> second = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        blocking.futures.get(0).completeExceptionally(new IllegalStateException("failed"));
+        Assert.assertTrue(first.isCompletedExceptionally());
+        Assert.assertTrue(second.isCompletedExceptionally());
+
+        CompletableFuture<OctaneHttpResponse> third = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        Assert.assertEquals(2, blocking.futures.size());
+        blocking.futures.get(1).complete(new OctaneHttpResponse(200, CONTENT, null));
+        Assert.assertEquals(CONTENT, third.get(5, TimeUnit.SECONDS).getContent());
+    }
+
+    private static OctaneHttpResponse streaming(String content) {
+        return new OctaneHttpResponse(200, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static void awaitCoalesced(CoalescingOctaneHttpClient client, int coalesced) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (client.getCoalescedCount() < coalesced && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(coalesced, client.getCoalescedCount());
+    }
+
+    private static void awaitCalls(BlockingOctaneHttpClient blocking, int calls) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (blocking.calls.get() < calls && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(calls, blocking.calls.get());
+    }
+
+    /**
+     * Answers the synchronous requests once released, and the asynchronous ones with futures completed by the test
+     */
+    private static final class BlockingOctaneHttpClient implements OctaneHttpClient {
+
+        private final CountDownLatch release;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<CompletableFuture<OctaneHttpResponse>> futures = new ArrayList<>();
+
+        private BlockingOctaneHttpClient() {
+            this(false);
+        }
+
+        private BlockingOctaneHttpClient(boolean released) {
+            release = new CountDownLatch(released ? 0 : 1);
+        }
+
+        @Override
+        public boolean authenticate(Authentication authentication) {
+            return true;
+        }
+
+        @Override
+        public void signOut() {
+        }
+
+        @Override
+        public OctaneHttpResponse execute(OctaneHttpRequest octaneHttpRequest) {
+            calls.incrementAndGet();
+            try {
+                Assert.assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return new OctaneHttpResponse(200, CONTENT, null);
+        }
+
+        @Override
+        public CompletableFuture<OctaneHttpResponse> executeAsync(OctaneHttpRequest octaneHttpRequest) {
+            CompletableFuture<OctaneHttpResponse> future = new CompletableFuture<>();
+            futures.add(future);
+            return future;
+        }
+    }
+}
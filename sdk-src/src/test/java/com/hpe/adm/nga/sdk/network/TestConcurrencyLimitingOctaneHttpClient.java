@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link ConcurrencyLimitingOctaneHttpClient} and {@link ConcurrencyLimit}
+ */
+public class TestConcurrencyLimitingOctaneHttpClient {
+
+    private static final String URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/defects";
+    private static final String CONTENT = "{\"total_count\":0,\"data\":[]}";
+
+    @Test
+    public void testRequestsOverTheLimitWait() throws Exception {
+        StubOctaneHttpClient pending = new StubOctaneHttpClient().holdAsync(true);
+        ConcurrencyLimit limit = new ConcurrencyLimit.Builder().limits(2, 1, 10).build();
+        ConcurrencyLimitingOctaneHttpClient client = new ConcurrencyLimitingOctaneHttpClient(pending, limit);
+
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        CompletableFuture<OctaneHttpResponse> third = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        Assert.assertEquals(2, pending.getPending().size());
+        Assert.assertEquals(1, limit.getQueueLength());
+
+        pending.getPending().get(0).complete(new OctaneHttpResponse(200, CONTENT, null));
+        Assert.assertEquals(3, pending.getPending().size());
+        pending.getPending().get(2).complete(new OctaneHttpResponse(200, CONTENT, null));
+        Assert.assertEquals(CONTENT, third.get(5, TimeUnit.SECONDS).getContent());
+        Assert.assertEquals(1, limit.getQueuedCount());
+        Assert.assertEquals(1, limit.getInFlight());
+    }
+
+    @Test
+    public void testCancelledRequestLeavesTheQueue() {
+        StubOctaneHttpClient pending = new StubOctaneHttpClient().holdAsync(true);
+        ConcurrencyLimit limit = new ConcurrencyLimit.Builder().limits(1, 1, 10).build();
+        ConcurrencyLimitingOctaneHttpClient client = new ConcurrencyLimitingOctaneHttpClient(pending, limit);
+
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        CompletableFuture<OctaneHttpResponse> second = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        second.cancel(true);
+        Assert.assertEquals(0, limit.getQueueLength());
+
+        pending.getPending().get(0).complete(new OctaneHttpResponse(200, CONTENT, null));
+        Assert.assertEquals(1, pending.getPending().size());
+        Assert.assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void testAimdGrowsWhileBusyAndBacksOffOnDrops() {
+        ConcurrencyLimit limit = new ConcurrencyLimit.Builder().limits(4, 1, 10).backoffRatio(0.5).build();
+        ConcurrencyLimitingOctaneHttpClient client = new ConcurrencyLimitingOctaneHttpClient(new StubOctaneHttpClient().holdAsync(true), limit);
+
+        for (int i = 0; i < 40; i++) {
+            fill(limit);
+            drain(limit, RequestOutcome.SUCCESS);
+        }
+        Assert.assertEquals(10, limit.getLimit());
+
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        ((StubOctaneHttpClient) client.getDelegate()).getPending().get(0).completeExceptionally(StubOctaneHttpClient.failure(503, null));
+        Assert.assertEquals(5, limit.getLimit());
+        Assert.assertEquals(1, limit.getDroppedCount());
+    }
+
+    @Test
+    public void testIdleLimitDoesNotGrow() {
+        ConcurrencyLimit limit = new ConcurrencyLimit.Builder().limits(4, 1, 10).build();
+        for (int i = 0; i < 100; i++) {
+            limit.acquire(() -> { });
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), RequestOutcome.SUCCESS);
+        }
+        Assert.assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void testAimdBacksOffOnSlowCalls() {
+        ConcurrencyLimit limit = new ConcurrencyLimit.Builder().limits(8, 1, 10).backoffRatio(0.5)
+                .slowCallThreshold(Duration.ofMillis(100)).build();
+        limit.acquire(() -> { });
+        limit.release(TimeUnit.SECONDS.toNanos(1), RequestOutcome.SUCCESS);
+        Assert.assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void testGradientFollowsLatency() {
+        ConcurrencyLimit limit = new ConcurrencyLimit.Builder().algorithm(ConcurrencyLimit.Algorithm.GRADIENT)
+                .limits(10, 1, 100).gradient(1.5, 0.5).build();
+
+        for (int i = 0; i < 20; i++) {
+            fill(limit);
+            drain(limit, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int grown = limit.getLimit();
+        Assert.assertTrue("limit grows while the latency is flat: " + grown, grown > 10);
+
+        for (int i = 0; i < 2; i++) {
+            fill(limit);
+            drain(limit, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+        Assert.assertTrue("limit shrinks when the latency climbs: " + limit.getLimit(), limit.getLimit() < grown);
+    }
+
+    @Test
+    public void testOutcomes() {
+        Assert.assertEquals(RequestOutcome.DROPPED, RequestOutcome.of(StubOctaneHttpClient.failure(429, null)));
+        Assert.assertEquals(RequestOutcome.SUCCESS, RequestOutcome.of(StubOctaneHttpClient.failure(404, null)));
+        Assert.assertEquals(RequestOutcome.DROPPED, RequestOutcome.of(
+                new RuntimeException(new IOException("Read timed out"))));
+        Assert.assertEquals(RequestOutcome.IGNORED, RequestOutcome.of(
+                new IllegalArgumentException("Request method not known!")));
+    }
+
+    private static void fill(ConcurrencyLimit limit) {
+        for (int i = limit.getInFlight(); i < limit.getLimit(); i++) {
+            limit.acquire(() -> { });
+        }
+    }
+
+    private static void drain(ConcurrencyLimit limit, RequestOutcome outcome) {
+        while (limit.getInFlight() > 0) {
+            limit.release(TimeUnit.MILLISECONDS.toNanos(10), outcome);
+        }
+    }
+
+    private static void drain(ConcurrencyLimit limit, long rttNanos) {
+        while (limit.getInFlight() > 0) {
+            limit.release(rttNanos, RequestOutcome.SUCCESS);
+        }
+    }
+}
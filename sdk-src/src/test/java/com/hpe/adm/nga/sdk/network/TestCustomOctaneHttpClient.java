@@ -75,6 +75,19 @@ public class TestCustomOctaneHttpClient {
                 0);
     }
 
+    @Test
+    public void testSettingsIgnoredByCustomOctaneHttpClient() {
+        Octane octane = new Octane.Builder(new SimpleUserAuthentication("", ""))
+                .Server(UUID.randomUUID().toString())
+                .compression(CompressionSettings.fromSystemProperties())
+                .timeouts(TimeoutSettings.defaultSettings())
+                .sessionRefresh(SessionRefreshSettings.defaultSettings())
+                .build();
+
+        Assert.assertNotNull(octane);
+        Assert.assertEquals(0, octane.entityList("doesn't_matter").get().execute().size());
+    }
+
     @After
     public void unsetSysProp(){
         //Unset the system property
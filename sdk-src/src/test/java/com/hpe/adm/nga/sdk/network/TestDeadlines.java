@@ -0,0 +1,173 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link Deadline}, {@link TimeoutSettings} and {@link OctaneRequest#timeout(Duration)}
+ */
+public class TestDeadlines {
+
+    private static final String DEFECTS_URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/defects";
+    private static final String CONTENT = "{\"total_count\":0,\"data\":[]}";
+
+    @Test
+    public void testShorten() {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(10));
+        Assert.assertEquals(100, deadline.shorten(100));
+        Assert.assertTrue(deadline.shorten(60000) <= 10000);
+        Assert.assertTrue("no timeout becomes the time left", deadline.shorten(0) <= 10000);
+
+        Deadline expired = Deadline.after(Duration.ZERO);
+        Assert.assertTrue(expired.isExpired());
+        Assert.assertEquals(1, expired.shorten(100));
+        try {
+            expired.check();
+            Assert.fail("expected the deadline to be exceeded");
+        } catch (DeadlineExceededException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTotalTimeoutSetsDeadline() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT);
+        server.setTimeoutSettings(new TimeoutSettings.Builder().totalTimeout(Duration.ofSeconds(30)).build());
+        EntityList defects = new EntityList(server, DEFECTS_URL);
+
+        defects.get().execute();
+        Assert.assertNotNull(server.getLastRequest().getDeadline());
+        Assert.assertTrue(server.getLastRequest().getDeadline().getRemainingMillis() <= 30000);
+
+        defects.get().timeout(Duration.ofHours(1)).execute();
+        Assert.assertTrue("the timeout of the request wins", server.getLastRequest().getDeadline().getRemainingMillis() > 30000);
+
+        server.setTimeoutSettings(TimeoutSettings.defaultSettings());
+        defects.get().execute();
+        Assert.assertNull(server.getLastRequest().getDeadline());
+    }
+
+    @Test
+    public void testNoRetryPastDeadline() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT);
+        server.respondWith(503, CONTENT);
+        RetryPolicy policy = new RetryPolicy.Builder().backoff(Duration.ofSeconds(1), Duration.ofSeconds(1), 1).jitter(0).build();
+        EntityList defects = new EntityList(new RetryingOctaneHttpClient(server, policy), DEFECTS_URL);
+
+        final long start = System.nanoTime();
+        try {
+            defects.get().timeout(Duration.ofMillis(200)).execute();
+            Assert.fail("expected the request to fail");
+        } catch (RuntimeException e) {
+            // the failure of the server is reported
+        }
+        Assert.assertEquals(1, server.getCalls());
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    @Test
+    public void testRateLimiterWaitPastDeadline() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT);
+        RateLimiter rateLimiter = new RateLimiter.Builder().permitsPerSecond(1).burst(1).build();
+        RateLimitingOctaneHttpClient client = new RateLimitingOctaneHttpClient(server, rateLimiter,
+                Collections.emptyMap(), Collections.emptyMap());
+        EntityList defects = new EntityList(client, DEFECTS_URL);
+
+        defects.get().execute();
+        try {
+            defects.get().timeout(Duration.ofMillis(100)).execute();
+            Assert.fail("expected the deadline to be exceeded");
+        } catch (DeadlineExceededException e) {
+            // expected
+        }
+        Assert.assertEquals(1, server.getCalls());
+        Assert.assertTrue("the permit is given back", rateLimiter.getAvailablePermits() > -0.5);
+    }
+
+    @Test
+    public void testConcurrencySlotWaitBoundedByDeadline() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT).holdAsync(true);
+        ConcurrencyLimit limit = new ConcurrencyLimit.Builder().limits(1, 1, 1).build();
+        ConcurrencyLimitingOctaneHttpClient client = new ConcurrencyLimitingOctaneHttpClient(server, limit);
+
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(DEFECTS_URL));
+        OctaneHttpRequest request = new OctaneHttpRequest.GetOctaneHttpRequest(DEFECTS_URL);
+        request.setDeadline(Deadline.after(Duration.ofMillis(100)));
+        try {
+            client.execute(request);
+            Assert.fail("expected the deadline to be exceeded");
+        } catch (DeadlineExceededException e) {
+            // expected
+        }
+        Assert.assertEquals(0, limit.getQueueLength());
+
+        server.getPending().get(0).complete(new OctaneHttpResponse(200, CONTENT, null));
+        Assert.assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void testCoalescedWaitBoundedByDeadline() throws Exception {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT).holdAsync(true);
+        CoalescingOctaneHttpClient client = new CoalescingOctaneHttpClient(server);
+        EntityList defects = new EntityList(client, DEFECTS_URL);
+
+        CompletableFuture<OctaneHttpResponse> shared = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(DEFECTS_URL)
+                .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE));
+        final long start = System.nanoTime();
+        try {
+            defects.get().timeout(Duration.ofMillis(100)).execute();
+            Assert.fail("expected the deadline to be exceeded");
+        } catch (DeadlineExceededException e) {
+            // expected
+        }
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        Assert.assertEquals(1, client.getCoalescedCount());
+
+        server.getPending().get(0).complete(new OctaneHttpResponse(200, CONTENT, null));
+        Assert.assertEquals("the shared request goes on", CONTENT, shared.get(5, TimeUnit.SECONDS).getContent());
+    }
+
+    @Test
+    public void testAsyncRequestFailsAtDeadline() throws Exception {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT).holdAsync(true);
+        EntityList defects = new EntityList(server, DEFECTS_URL);
+
+        CompletableFuture<Collection<EntityModel>> future = defects.get().timeout(Duration.ofMillis(100)).executeAsync();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail("expected the deadline to be exceeded");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof DeadlineExceededException);
+        }
+        // the timer cancels the http request right after failing the result
+        final long waitUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!server.getPending().get(0).isCancelled() && System.nanoTime() < waitUntil) {
+            Thread.sleep(1);
+        }
+        Assert.assertTrue("the http request is aborted", server.getPending().get(0).isCancelled());
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import com.hpe.adm.nga.sdk.model.FieldModel;
+import com.hpe.adm.nga.sdk.model.ReferenceFieldModel;
+import com.hpe.adm.nga.sdk.model.StringFieldModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link EntityCache}
+ */
+public class TestEntityCache {
+
+    private static final String WORKSPACE_URL = "http://localhost/api/shared_spaces/1001/workspaces/1002";
+    private static final String DEFECTS_URL = WORKSPACE_URL + "/defects";
+    private static final String RELEASES_URL = WORKSPACE_URL + "/releases";
+
+    @Test
+    public void testHitReturnsCopy() {
+        EntityCache cache = new EntityCache.Builder().build();
+        cache.put(DEFECTS_URL, "1", "name", defect("1", "first", null), cache.stamp());
+
+        EntityModel cached = cache.get(DEFECTS_URL, "1", "name");
+        Assert.assertEquals("first", value(cached, "name"));
+        cached.setValue(new StringFieldModel("name", "changed"));
+
+        Assert.assertEquals("first", value(cache.get(DEFECTS_URL, "1", "name"), "name"));
+        Assert.assertNull("other fields are another result", cache.get(DEFECTS_URL, "1", "name,severity"));
+        Assert.assertNull(cache.get(DEFECTS_URL, "2", "name"));
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testReferencedEntityIsShared() {
+        EntityCache cache = new EntityCache.Builder().build();
+        cache.put(DEFECTS_URL, "1", null, defect("1", "first", release("5", "R1")), cache.stamp());
+        cache.put(DEFECTS_URL, "2", null, defect("2", "second", release("5", "R1")), cache.stamp());
+        Assert.assertEquals("two defects and their release", 3, cache.getEntityCount());
+
+        // the release read by id updates the defects referencing it
+        cache.put(RELEASES_URL, "5", "name", release("5", "R2"), cache.stamp());
+        Assert.assertEquals(3, cache.getEntityCount());
+        EntityModel releaseOfDefect = ((ReferenceFieldModel) cache.get(DEFECTS_URL, "1", null).getValue("release")).getValue();
+        Assert.assertEquals("R2", value(releaseOfDefect, "name"));
+        Assert.assertEquals("5", value(releaseOfDefect, "id"));
+    }
+
+    @Test
+    public void testReferencedEntityServedWithoutRead() {
+        EntityCache cache = new EntityCache.Builder().build();
+        cache.put(DEFECTS_URL, "1", null, defect("1", "first", release("5", "R1")), cache.stamp());
+
+        EntityModel release = cache.get(RELEASES_URL, "5", "name");
+        Assert.assertNotNull(release);
+        Assert.assertEquals("R1", value(release, "name"));
+        Assert.assertNull("field not known", cache.get(RELEASES_URL, "5", "name,end_date"));
+        Assert.assertNull("all fields not known", cache.get(RELEASES_URL, "5", null));
+    }
+
+    @Test
+    public void testExpiry() {
+        AtomicLong now = new AtomicLong();
+        EntityCache cache = new EntityCache.Builder().expireAfterWrite(Duration.ofMinutes(1)).ticker(now::get).build();
+        cache.put(DEFECTS_URL, "1", null, defect("1", "first", null), cache.stamp());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        Assert.assertNotNull(cache.get(DEFECTS_URL, "1", null));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        Assert.assertNull(cache.get(DEFECTS_URL, "1", null));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getEntityCount());
+    }
+
+    @Test
+    public void testFieldsExpireWithTheResultThatReadThem() {
+        AtomicLong now = new AtomicLong();
+        EntityCache cache = new EntityCache.Builder().expireAfterWrite(Duration.ofMinutes(1)).ticker(now::get).build();
+        EntityModel defect = defect("1", "first", null);
+        defect.setValue(new StringFieldModel("phase", "new"));
+        cache.put(DEFECTS_URL, "1", "name,phase", defect, cache.stamp());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        cache.put(DEFECTS_URL, "1", "name", defect("1", "first", null), cache.stamp());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        Assert.assertNull(cache.get(DEFECTS_URL, "1", "name,phase"));
+        Assert.assertNull("the phase read first is not served", cache.get(DEFECTS_URL, "1", "name,phase"));
+        Assert.assertEquals("first", value(cache.get(DEFECTS_URL, "1", "name"), "name"));
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testLruEviction() {
+        EntityCache cache = new EntityCache.Builder().maximumSize(2).eviction(EntityCache.Eviction.LRU).build();
+        cache.put(DEFECTS_URL, "1", null, defect("1", "first", null), cache.stamp());
+        cache.put(DEFECTS_URL, "2", null, defect("2", "second", null), cache.stamp());
+        Assert.assertNotNull(cache.get(DEFECTS_URL, "1", null));
+        cache.put(DEFECTS_URL, "3", null, defect("3", "third", null), cache.stamp());
+
+        Assert.assertNotNull(cache.get(DEFECTS_URL, "1", null));
+        Assert.assertNull(cache.get(DEFECTS_URL, "2", null));
+        Assert.assertNotNull(cache.get(DEFECTS_URL, "3", null));
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testWeightBound() {
+        // a defect without references weighs 3 fields
+        EntityCache cache = new EntityCache.Builder().maximumWeight(10).build();
+        for (int i = 0; i < 10; i++) {
+            cache.put(DEFECTS_URL, String.valueOf(i), null, defect(String.valueOf(i), "defect" + i, null), cache.stamp());
+        }
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(9, cache.getWeight());
+    }
+
+    @Test
+    public void testTinyLfuKeepsFrequentEntitiesDuringScan() {
+        Assert.assertEquals(50, hotEntitiesAfterScan(EntityCache.Eviction.W_TINY_LFU), 5);
+        Assert.assertEquals(0, hotEntitiesAfterScan(EntityCache.Eviction.LRU));
+    }
+
+    private static int hotEntitiesAfterScan(EntityCache.Eviction eviction) {
+        EntityCache cache = new EntityCache.Builder().maximumSize(100).eviction(eviction).build();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                if (cache.get(DEFECTS_URL, String.valueOf(i), null) == null) {
+                    cache.put(DEFECTS_URL, String.valueOf(i), null, defect(String.valueOf(i), "hot", null), cache.stamp());
+                }
+            }
+        }
+        for (int i = 1000; i < 2000; i++) {
+            if (cache.get(DEFECTS_URL, String.valueOf(i), null) == null) {
+                cache.put(DEFECTS_URL, String.valueOf(i), null, defect(String.valueOf(i), "scan", null), cache.stamp());
+            }
+        }
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(DEFECTS_URL, String.valueOf(i), null) != null) {
+                hot++;
+            }
+        }
+        return hot;
+    }
+
+    @Test
+    public void testInvalidationRemovesReferencingResults() {
+        EntityCache cache = new EntityCache.Builder().build();
+        cache.put(DEFECTS_URL, "1", null, defect("1", "first", release("5", "R1")), cache.stamp());
+        cache.put(DEFECTS_URL, "2", null, defect("2", "second", null), cache.stamp());
+
+        cache.invalidate(RELEASES_URL, "5", null);
+        Assert.assertNull(cache.get(DEFECTS_URL, "1", null));
+        Assert.assertNotNull(cache.get(DEFECTS_URL, "2", null));
+
+        cache.invalidateCollection(DEFECTS_URL, Collections.emptyList());
+        Assert.assertNull(cache.get(DEFECTS_URL, "2", null));
+        Assert.assertEquals(0, cache.getEntityCount());
+    }
+
+    @Test
+    public void testEntityReadBeforeInvalidationIsNotCached() {
+        EntityCache cache = new EntityCache.Builder().build();
+        long stamp = cache.stamp();
+        cache.invalidate(DEFECTS_URL, "1", "defect");
+        cache.put(DEFECTS_URL, "1", null, defect("1", "stale", null), stamp);
+
+        Assert.assertNull(cache.get(DEFECTS_URL, "1", null));
+    }
+
+    @Test
+    public void testRequestsUseCacheAndInvalidateIt() throws Exception {
+        StubOctaneHttpClient recording = server();
+        EntityCache cache = new EntityCache.Builder().build();
+        EntityList defects = new EntityList(recording, new RequestContext.Builder().entityCache(cache).build(), DEFECTS_URL);
+
+        Assert.assertEquals("first", value(defects.at(1).get().addFields("name").execute(), "name"));
+        Assert.assertEquals("first", value(defects.at(1).get().addFields("name").execute(), "name"));
+        Assert.assertEquals("first", value(defects.at(1).get().addFields("name").executeAsync().get(5, TimeUnit.SECONDS), "name"));
+        Assert.assertEquals(1, recording.getCalls());
+
+        defects.at(1).update().entity(defect("1", "renamed", null)).execute();
+        Assert.assertEquals(2, recording.getCalls());
+        defects.at(1).get().addFields("name").execute();
+        Assert.assertEquals(3, recording.getCalls());
+
+        defects.update().entities(Collections.singletonList(defect("1", "renamed", null))).execute();
+        defects.at(1).get().addFields("name").execute();
+        Assert.assertEquals(5, recording.getCalls());
+    }
+
+    private static EntityModel defect(String id, String name, EntityModel release) {
+        EntityModel defect = new EntityModel();
+        defect.setValue(new StringFieldModel("id", id));
+        defect.setValue(new StringFieldModel("type", "defect"));
+        defect.setValue(new StringFieldModel("name", name));
+        if (release != null) {
+            defect.setValue(new ReferenceFieldModel("release", release));
+        }
+        return defect;
+    }
+
+    private static EntityModel release(String id, String name) {
+        EntityModel release = new EntityModel();
+        release.setValue(new StringFieldModel("id", id));
+        release.setValue(new StringFieldModel("type", "release"));
+        release.setValue(new StringFieldModel("name", name));
+        return release;
+    }
+
+    private static Object value(EntityModel entityModel, String fieldName) {
+        FieldModel field = entityModel.getValue(fieldName);
+        return field == null ? null : field.getValue();
+    }
+
+    /**
+     * @return a client answering a bulk update of the defects with the renamed defect and any other request with the
+     * defect read by id
+     */
+    private static StubOctaneHttpClient server() {
+        return new StubOctaneHttpClient(octaneHttpRequest -> {
+            if (octaneHttpRequest.getOctaneRequestMethod() == OctaneHttpRequest.OctaneRequestMethod.PUT
+                    && octaneHttpRequest.getRequestUrl().endsWith("/defects")) {
+                return new OctaneHttpResponse(200, "{\"total_count\":1,\"data\":[{\"type\":\"defect\",\"id\":\"1\",\"name\":\"renamed\"}]}", null);
+            }
+            return new OctaneHttpResponse(200, "{\"type\":\"defect\",\"id\":\"1\",\"name\":\"first\"}", null);
+        });
+    }
+}
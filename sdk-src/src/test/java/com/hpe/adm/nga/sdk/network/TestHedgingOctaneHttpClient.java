@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link HedgingOctaneHttpClient}
+ */
+public class TestHedgingOctaneHttpClient {
+
+    private static final String URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/defects/1";
+    private static final String CONTENT = "{\"type\":\"defect\",\"id\":\"1\"}";
+
+    private static HedgePolicy.Builder fastPolicy() {
+        return new HedgePolicy.Builder().delay(Duration.ofMillis(20), Duration.ofMillis(1));
+    }
+
+    @Test
+    public void testHedgeWinsAndOriginalIsCancelled() throws Exception {
+        StubOctaneHttpClient pending = new StubOctaneHttpClient().holdAsync(true);
+        HedgingOctaneHttpClient client = new HedgingOctaneHttpClient(pending, fastPolicy().build());
+
+        CompletableFuture<OctaneHttpResponse> result = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        awaitRequests(pending, 2);
+        pending.getPending().get(1).complete(new OctaneHttpResponse(200, CONTENT, null));
+
+        Assert.assertEquals(CONTENT, result.get(5, TimeUnit.SECONDS).getContent());
+        Assert.assertTrue(pending.getPending().get(0).isCancelled());
+        Assert.assertEquals(1, client.getHedgingStatistics().getHedgesFired());
+        Assert.assertEquals(1, client.getHedgingStatistics().getHedgesWon());
+    }
+
+    @Test
+    public void testFastResponseIsNotHedged() throws Exception {
+        StubOctaneHttpClient pending = new StubOctaneHttpClient().holdAsync(true);
+        HedgingOctaneHttpClient client = new HedgingOctaneHttpClient(pending,
+                new HedgePolicy.Builder().delay(Duration.ofSeconds(10), Duration.ofMillis(1)).build());
+
+        CompletableFuture<OctaneHttpResponse> result = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        pending.getPending().get(0).complete(new OctaneHttpResponse(200, CONTENT, null));
+
+        Assert.assertEquals(CONTENT, result.get(5, TimeUnit.SECONDS).getContent());
+        Assert.assertEquals(1, pending.getPending().size());
+        Assert.assertEquals(1, client.getHedgingStatistics().getHedgeableRequests());
+        Assert.assertEquals(0, client.getHedgingStatistics().getHedgesFired());
+    }
+
+    @Test
+    public void testOnlyGetsAreHedged() {
+        StubOctaneHttpClient pending = new StubOctaneHttpClient().holdAsync(true);
+        HedgingOctaneHttpClient client = new HedgingOctaneHttpClient(pending, fastPolicy().build());
+
+        client.executeAsync(new OctaneHttpRequest.PutOctaneHttpRequest(URL, OctaneHttpRequest.JSON_CONTENT_TYPE, "{}"));
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL).setAcceptType(OctaneHttpRequest.OCTET_STREAM_CONTENT_TYPE));
+        Assert.assertEquals(0, client.getHedgingStatistics().getHedgeableRequests());
+    }
+
+    @Test
+    public void testBudgetLimitsHedges() throws Exception {
+        StubOctaneHttpClient pending = new StubOctaneHttpClient().holdAsync(true);
+        HedgingOctaneHttpClient client = new HedgingOctaneHttpClient(pending, fastPolicy().hedgeBudget(0, 1).build());
+
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        awaitRequests(pending, 2);
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (client.getHedgingStatistics().getHedgesDenied() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(1, client.getHedgingStatistics().getHedgesDenied());
+        Assert.assertEquals(1, client.getHedgingStatistics().getHedgesFired());
+        Assert.assertEquals(3, pending.getPending().size());
+    }
+
+    @Test
+    public void testFailureReportedOnceBothFail() throws Exception {
+        StubOctaneHttpClient pending = new StubOctaneHttpClient().holdAsync(true);
+        HedgingOctaneHttpClient client = new HedgingOctaneHttpClient(pending, fastPolicy().build());
+
+        CompletableFuture<OctaneHttpResponse> result = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        awaitRequests(pending, 2);
+        pending.getPending().get(0).completeExceptionally(new IllegalStateException("first"));
+        Assert.assertFalse(result.isDone());
+        pending.getPending().get(1).completeExceptionally(new IllegalStateException("second"));
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+            Assert.fail("expected the failure of the hedge");
+        } catch (ExecutionException e) {
+            Assert.assertEquals("second", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testCancelAbortsBothRequests() throws Exception {
+        StubOctaneHttpClient pending = new StubOctaneHttpClient().holdAsync(true);
+        HedgingOctaneHttpClient client = new HedgingOctaneHttpClient(pending, fastPolicy().build());
+
+        CompletableFuture<OctaneHttpResponse> result = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        awaitRequests(pending, 2);
+        result.cancel(true);
+
+        Assert.assertTrue(pending.getPending().get(0).isCancelled());
+        Assert.assertTrue(pending.getPending().get(1).isCancelled());
+    }
+
+    private static void awaitRequests(StubOctaneHttpClient pending, int requests) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pending.getPending().size() < requests && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(requests, pending.getPending().size());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link InterceptingOctaneHttpClient}
+ */
+public class TestInterceptingOctaneHttpClient {
+
+    private static final String URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/defects";
+
+    @Test
+    public void testInterceptorsAreCalledInOrder() {
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        StubOctaneHttpClient recording = new StubOctaneHttpClient();
+        OctaneHttpClient client = new InterceptingOctaneHttpClient(recording, Arrays.asList(
+                chain -> {
+                    calls.add("first before");
+                    OctaneHttpResponse response = chain.proceed(chain.request());
+                    calls.add("first after");
+                    return response;
+                },
+                chain -> {
+                    calls.add("second before");
+                    OctaneHttpResponse response = chain.proceed(chain.request());
+                    calls.add("second after");
+                    return response;
+                }));
+
+        client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+
+        Assert.assertEquals(Arrays.asList("first before", "second before", "second after", "first after"), calls);
+        Assert.assertEquals(1, recording.getRequests().size());
+    }
+
+    @Test
+    public void testInterceptorCanShortCircuit() {
+        StubOctaneHttpClient recording = new StubOctaneHttpClient();
+        OctaneHttpClient client = new InterceptingOctaneHttpClient(recording, Collections.singletonList(
+                chain -> new OctaneHttpResponse(200, "{\"cached\":true}", null)));
+
+        Assert.assertEquals("{\"cached\":true}", client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL)).getContent());
+        Assert.assertTrue(recording.getRequests().isEmpty());
+    }
+
+    @Test
+    public void testInterceptorCanRewriteRequestAndDecorateResponse() throws Exception {
+        StubOctaneHttpClient recording = new StubOctaneHttpClient();
+        OctaneHttpClient client = new InterceptingOctaneHttpClient(recording, Collections.singletonList(chain -> {
+            OctaneHttpRequest rewritten = new OctaneHttpRequest.GetOctaneHttpRequest(chain.request().getRequestUrl() + "?limit=1");
+            OctaneHttpResponse response = chain.proceed(rewritten);
+            return new OctaneHttpResponse(response.getStatusCode(), "[" + response.getContent() + "]", null);
+        }));
+
+        Assert.assertEquals("[{}]", client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL)).getContent());
+        Assert.assertEquals(URL + "?limit=1", recording.getRequests().get(0).getRequestUrl());
+
+        Assert.assertEquals("[{}]", client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL))
+                .get(5, TimeUnit.SECONDS).getContent());
+        Assert.assertEquals(2, recording.getRequests().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testInterceptorMustReturnResponse() {
+        OctaneHttpClient client = new InterceptingOctaneHttpClient(new StubOctaneHttpClient(),
+                Collections.singletonList(chain -> null));
+
+        client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+    }
+}
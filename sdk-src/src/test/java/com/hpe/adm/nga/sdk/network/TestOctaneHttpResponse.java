@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for the streaming {@link OctaneHttpResponse}
+ */
+public class TestOctaneHttpResponse {
+
+    private static final String CONTENT = "{\"id\":\"1001\",\"name\":\"été\"}";
+
+    @Test
+    public void testContentIsReadOnDemand() {
+        TrackingInputStream stream = new TrackingInputStream(CONTENT);
+        OctaneHttpResponse response = new OctaneHttpResponse(200, stream, StandardCharsets.UTF_8);
+        Assert.assertFalse(stream.read);
+
+        Assert.assertEquals(CONTENT, response.getContent());
+        Assert.assertTrue(stream.read);
+        Assert.assertTrue("the connection must be released once the content is read", stream.closed);
+        Assert.assertSame(response.getContent(), response.getContent());
+    }
+
+    @Test
+    public void testStreamIsHandedOutUnbuffered() throws IOException {
+        TrackingInputStream stream = new TrackingInputStream(CONTENT);
+        OctaneHttpResponse response = new OctaneHttpResponse(200, stream, StandardCharsets.UTF_8);
+
+        ReadableByteChannel channel = response.getChannel();
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        Assert.assertEquals(4, channel.read(buffer));
+        Assert.assertTrue(stream.available() > 0);
+
+        response.close();
+        Assert.assertTrue(stream.closed);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testContentCannotBeReadAfterStreamWasConsumed() {
+        OctaneHttpResponse response = new OctaneHttpResponse(200, new TrackingInputStream(CONTENT), StandardCharsets.UTF_8);
+        response.getInputStream();
+        response.getContent();
+    }
+
+    @Test
+    public void testNoContent() {
+        OctaneHttpResponse response = new OctaneHttpResponse(204, (InputStream) null, StandardCharsets.UTF_8);
+        Assert.assertEquals("", response.getContent());
+        Assert.assertNotNull(response.getInputStream());
+    }
+
+    private static final class TrackingInputStream extends ByteArrayInputStream {
+        private boolean read = false;
+        private boolean closed = false;
+
+        private TrackingInputStream(String content) {
+            super(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            read = true;
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -40,4 +40,23 @@ public class TestOctaneUrl {
 
         assertEquals(expectedResult, octaneUrl.toString());
     }
+
+    /**
+     * Test the canonical url does not depend on the order the params and fields were set in
+     */
+    @Test
+    public void testCanonicalUrl() {
+        OctaneUrl octaneUrl = new OctaneUrl(CommonMethods.getDomain());
+        octaneUrl.addFieldsParam("version_stamp", "item_type");
+        octaneUrl.setLimitParam(10);
+        octaneUrl.setOffsetParam(1);
+
+        OctaneUrl otherOrder = new OctaneUrl(CommonMethods.getDomain());
+        otherOrder.setOffsetParam(1);
+        otherOrder.setLimitParam(10);
+        otherOrder.addFieldsParam("item_type", "version_stamp");
+
+        assertEquals(CommonMethods.getDomain() + "?fields=item_type,version_stamp&limit=10&offset=1", octaneUrl.toCanonicalString());
+        assertEquals(octaneUrl.toCanonicalString(), otherOrder.toCanonicalString());
+    }
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.exception.DeadlineExceededException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for {@link PriorityLaneOctaneHttpClient} and {@link PriorityLanes}
+ */
+public class TestPriorityLanes {
+
+    private static final String DEFECTS_URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/defects";
+    private static final String CONTENT = "{\"total_count\":0,\"data\":[]}";
+
+    @Test
+    public void testWeightedFairQueueing() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT).holdAsync(true);
+        PriorityLanes lanes = new PriorityLanes.Builder().maxConcurrency(1).lane("interactive", 3).lane("bulk", 1).build();
+        PriorityLaneOctaneHttpClient client = new PriorityLaneOctaneHttpClient(server, lanes);
+
+        client.executeAsync(request("bulk"));
+        for (int i = 0; i < 8; i++) {
+            client.executeAsync(request("bulk"));
+        }
+        for (int i = 0; i < 4; i++) {
+            client.executeAsync(request("interactive"));
+        }
+        Assert.assertEquals(8, lanes.getLanes().get("bulk").getQueueLength());
+        Assert.assertEquals(4, lanes.getLanes().get("interactive").getQueueLength());
+
+        // each completion lets the next request in
+        for (int i = 0; i < 12; i++) {
+            server.getPending().get(i).complete(new OctaneHttpResponse(200, CONTENT, null));
+        }
+        List<String> order = lanesOf(server).subList(1, server.getCalls());
+        Assert.assertEquals(12, order.size());
+        Assert.assertEquals("three interactive requests for one bulk request", 3,
+                Collections.frequency(order.subList(0, 4), "interactive"));
+        Assert.assertEquals(4, Collections.frequency(order.subList(0, 6), "interactive"));
+        Assert.assertEquals("the last request is still in flight", 1, lanes.getInFlight());
+        Assert.assertEquals(8, lanes.getLanes().get("bulk").getQueuedCount());
+    }
+
+    @Test
+    public void testReservedSlots() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT).holdAsync(true);
+        PriorityLanes lanes = new PriorityLanes.Builder().maxConcurrency(3).lane("interactive", 1, 1).lane("bulk", 1).build();
+        PriorityLaneOctaneHttpClient client = new PriorityLaneOctaneHttpClient(server, lanes);
+
+        for (int i = 0; i < 5; i++) {
+            client.executeAsync(request("bulk"));
+        }
+        Assert.assertEquals("the reserved slot is left free", 2, lanes.getInFlight());
+        Assert.assertEquals(3, lanes.getLanes().get("bulk").getQueueLength());
+
+        client.executeAsync(request("interactive"));
+        Assert.assertEquals(3, lanes.getInFlight());
+        Assert.assertEquals(0, lanes.getLanes().get("interactive").getQueuedCount());
+        Assert.assertEquals(3, lanes.getLanes().get("bulk").getQueuedCount());
+    }
+
+    @Test
+    public void testUnknownLaneUsesDefault() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT).holdAsync(true);
+        PriorityLanes lanes = new PriorityLanes.Builder().maxConcurrency(1).lane("bulk", 1).build();
+        PriorityLaneOctaneHttpClient client = new PriorityLaneOctaneHttpClient(server, lanes);
+
+        client.executeAsync(request(null));
+        client.executeAsync(request("unknown"));
+        Assert.assertEquals(1, lanes.getLanes().get(PriorityLanes.DEFAULT_LANE).getQueueLength());
+        Assert.assertEquals(0, lanes.getLanes().get("bulk").getQueueLength());
+    }
+
+    @Test
+    public void testCancelledRequestLeavesQueue() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT).holdAsync(true);
+        PriorityLanes lanes = new PriorityLanes.Builder().maxConcurrency(1).build();
+        PriorityLaneOctaneHttpClient client = new PriorityLaneOctaneHttpClient(server, lanes);
+
+        client.executeAsync(request(null));
+        CompletableFuture<OctaneHttpResponse> queued = client.executeAsync(request(null));
+        Assert.assertEquals(1, lanes.getDefaultLane().getQueueLength());
+        queued.cancel(true);
+        Assert.assertEquals(0, lanes.getDefaultLane().getQueueLength());
+
+        server.getPending().get(0).complete(new OctaneHttpResponse(200, CONTENT, null));
+        Assert.assertEquals(1, server.getCalls());
+        Assert.assertEquals(0, lanes.getInFlight());
+    }
+
+    @Test
+    public void testSynchronousWaitBoundedByDeadline() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT).holdAsync(true);
+        PriorityLanes lanes = new PriorityLanes.Builder().maxConcurrency(1).build();
+        PriorityLaneOctaneHttpClient client = new PriorityLaneOctaneHttpClient(server, lanes);
+
+        client.executeAsync(request(null));
+        OctaneHttpRequest request = request(null);
+        request.setDeadline(Deadline.after(Duration.ofMillis(100)));
+        try {
+            client.execute(request);
+            Assert.fail("expected the deadline to be exceeded");
+        } catch (DeadlineExceededException e) {
+            // expected
+        }
+        Assert.assertEquals(0, lanes.getDefaultLane().getQueueLength());
+        Assert.assertEquals(1, lanes.getDefaultLane().getQueuedCount());
+        Assert.assertEquals(1, lanes.getDefaultLane().getDispatchedCount());
+    }
+
+    @Test
+    public void testLaneOfOctaneRequest() {
+        StubOctaneHttpClient server = new StubOctaneHttpClient(CONTENT);
+        EntityList defects = new EntityList(server, DEFECTS_URL);
+
+        defects.get().lane("bulk").execute();
+        defects.get().execute();
+        Assert.assertEquals("bulk", lanesOf(server).get(0));
+        Assert.assertNull(lanesOf(server).get(1));
+    }
+
+    private static List<String> lanesOf(StubOctaneHttpClient server) {
+        return server.getRequests().stream().map(OctaneHttpRequest::getLane).collect(Collectors.toList());
+    }
+
+    private static OctaneHttpRequest request(String lane) {
+        OctaneHttpRequest request = new OctaneHttpRequest.GetOctaneHttpRequest(DEFECTS_URL);
+        request.setLane(lane);
+        return request;
+    }
+}
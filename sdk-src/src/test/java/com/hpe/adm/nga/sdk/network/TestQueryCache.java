@@ -0,0 +1,195 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.model.CompactEntityModel;
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import com.hpe.adm.nga.sdk.model.StringFieldModel;
+import com.hpe.adm.nga.sdk.query.Query;
+import com.hpe.adm.nga.sdk.query.QueryMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for {@link QueryCache}
+ */
+public class TestQueryCache {
+
+    private static final String WORKSPACE_URL = "http://localhost/api/shared_spaces/1001/workspaces/1002";
+    private static final String DEFECTS_URL = WORKSPACE_URL + "/defects";
+    private static final String RELEASES_URL = WORKSPACE_URL + "/releases";
+
+    @Test
+    public void testSameQueryServedFromCache() throws Exception {
+        StubOctaneHttpClient recording = server();
+        QueryCache cache = new QueryCache.Builder().build();
+        EntityList defects = new EntityList(recording, new RequestContext.Builder().queryCache(cache).build(), DEFECTS_URL);
+        Query query = Query.statement("severity", QueryMethod.EqualTo, "high").build();
+
+        Collection<EntityModel> first = defects.get().query(query).addFields("name", "severity").limit(10).execute();
+        Assert.assertEquals(1, first.size());
+        first.iterator().next().setValue(new StringFieldModel("name", "changed"));
+
+        // the same query with the params set in another order
+        Collection<EntityModel> second = defects.get().limit(10).addFields("severity", "name").query(query).execute();
+        Assert.assertEquals("first", second.iterator().next().getValue("name").getValue());
+        defects.get().query(query).addFields("name", "severity").limit(10).executeAsync().get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(1, recording.getCalls());
+
+        defects.get().query(query).addFields("name", "severity").limit(20).execute();
+        Assert.assertEquals(2, recording.getCalls());
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testWritesInvalidateCollection() {
+        StubOctaneHttpClient recording = server();
+        QueryCache cache = new QueryCache.Builder().build();
+        RequestContext requestContext = new RequestContext.Builder().queryCache(cache).build();
+        EntityList defects = new EntityList(recording, requestContext, DEFECTS_URL);
+        EntityList releases = new EntityList(recording, requestContext, RELEASES_URL);
+
+        defects.get().execute();
+        releases.get().execute();
+        Assert.assertEquals(2, cache.size());
+
+        defects.create().entities(Collections.singletonList(new EntityModel("name", "new"))).execute();
+        Assert.assertEquals("only the results of the defects are removed", 1, cache.size());
+        defects.get().execute();
+        releases.get().execute();
+        Assert.assertEquals(4, recording.getCalls());
+
+        defects.at(1).update().entity(new EntityModel("name", "renamed")).execute();
+        defects.get().execute();
+        defects.delete().execute();
+        defects.get().execute();
+        Assert.assertEquals(8, recording.getCalls());
+    }
+
+    @Test
+    public void testCompactEntitiesStayCompact() {
+        StubOctaneHttpClient recording = server();
+        QueryCache cache = new QueryCache.Builder().build();
+        EntityList defects = new EntityList(recording, new RequestContext.Builder().queryCache(cache).build(), DEFECTS_URL);
+
+        for (int i = 0; i < 2; i++) {
+            Collection<EntityModel> entityModels = defects.get().compact(true).addFields("name").execute();
+            Assert.assertTrue(entityModels.iterator().next() instanceof CompactEntityModel);
+            Assert.assertEquals("first", entityModels.iterator().next().getValue("name").getValue());
+        }
+        Assert.assertEquals(1, recording.getCalls());
+        Assert.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testCompactAndPlainResultsAreCachedApart() {
+        StubOctaneHttpClient recording = server();
+        QueryCache cache = new QueryCache.Builder().build();
+        EntityList defects = new EntityList(recording, new RequestContext.Builder().queryCache(cache).build(), DEFECTS_URL);
+
+        defects.get().compact(true).execute();
+        Collection<EntityModel> plain = defects.get().execute();
+        Assert.assertFalse(plain.iterator().next() instanceof CompactEntityModel);
+        Assert.assertEquals(2, recording.getCalls());
+
+        Assert.assertFalse(defects.get().execute().iterator().next() instanceof CompactEntityModel);
+        Assert.assertTrue(defects.get().compact(true).execute().iterator().next() instanceof CompactEntityModel);
+        Assert.assertEquals(2, recording.getCalls());
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testTtlPerCollection() {
+        AtomicLong now = new AtomicLong();
+        QueryCache cache = new QueryCache.Builder()
+                .defaultTtl(Duration.ofSeconds(30))
+                .ttl("releases", Duration.ofMinutes(10))
+                .ttl("runs", Duration.ZERO)
+                .ticker(now::get)
+                .build();
+        cache.put(DEFECTS_URL, DEFECTS_URL, entities(1), cache.stamp());
+        cache.put(RELEASES_URL, RELEASES_URL, entities(1), cache.stamp());
+        cache.put(WORKSPACE_URL + "/runs", WORKSPACE_URL + "/runs", entities(1), cache.stamp());
+        Assert.assertEquals("runs are not cached", 2, cache.size());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        Assert.assertNull(cache.get(DEFECTS_URL));
+        Assert.assertNotNull(cache.get(RELEASES_URL));
+        now.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        Assert.assertNull(cache.get(RELEASES_URL));
+        Assert.assertEquals(0, cache.getMemory());
+    }
+
+    @Test
+    public void testMemoryBound() {
+        long memory = QueryCache.estimateMemory(entities(10));
+        QueryCache cache = new QueryCache.Builder().maximumMemory(memory * 2).build();
+        cache.put(DEFECTS_URL, DEFECTS_URL + "?offset=0", entities(10), cache.stamp());
+        cache.put(DEFECTS_URL, DEFECTS_URL + "?offset=10", entities(10), cache.stamp());
+        Assert.assertNotNull(cache.get(DEFECTS_URL + "?offset=0"));
+        cache.put(DEFECTS_URL, DEFECTS_URL + "?offset=20", entities(10), cache.stamp());
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(memory * 2, cache.getMemory());
+        Assert.assertNull("least recently used", cache.get(DEFECTS_URL + "?offset=10"));
+        Assert.assertEquals(1, cache.getEvictionCount());
+
+        cache.put(DEFECTS_URL, DEFECTS_URL + "?limit=100", entities(100), cache.stamp());
+        Assert.assertNull("larger than the cache", cache.get(DEFECTS_URL + "?limit=100"));
+    }
+
+    @Test
+    public void testResultReadBeforeInvalidationIsNotCached() {
+        QueryCache cache = new QueryCache.Builder().build();
+        long stamp = cache.stamp();
+        cache.invalidate(DEFECTS_URL);
+        cache.put(DEFECTS_URL, DEFECTS_URL, entities(1), stamp);
+
+        Assert.assertNull(cache.get(DEFECTS_URL));
+    }
+
+    private static Collection<EntityModel> entities(int count) {
+        List<EntityModel> entityModels = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            EntityModel entityModel = new EntityModel("id", String.valueOf(i));
+            entityModel.setValue(new StringFieldModel("name", "defect" + i));
+            entityModels.add(entityModel);
+        }
+        return entityModels;
+    }
+
+    /**
+     * @return a client answering with the defect read by id, or a page holding it
+     */
+    private static StubOctaneHttpClient server() {
+        return new StubOctaneHttpClient(octaneHttpRequest -> {
+            if (octaneHttpRequest.getRequestUrl().contains("/defects/1")) {
+                return new OctaneHttpResponse(200, "{\"type\":\"defect\",\"id\":\"1\",\"name\":\"first\"}", null);
+            }
+            return new OctaneHttpResponse(200, "{\"total_count\":1,\"data\":[{\"type\":\"defect\",\"id\":\"1\",\"name\":\"first\"}]}", null);
+        });
+    }
+}
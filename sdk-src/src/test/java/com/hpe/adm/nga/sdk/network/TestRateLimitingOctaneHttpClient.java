@@ -0,0 +1,178 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.exception.RateLimitExceededException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link RateLimiter} and {@link RateLimitingOctaneHttpClient}
+ */
+public class TestRateLimitingOctaneHttpClient {
+
+    private static final String WORKSPACE_URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/";
+    private static final String CONTENT = "{\"total_count\":0,\"data\":[]}";
+
+    @Test
+    public void testRequestsWaitForPermits() {
+        StubOctaneHttpClient counting = new StubOctaneHttpClient(CONTENT);
+        RateLimiter rateLimiter = new RateLimiter.Builder().permitsPerSecond(20).burst(2).build();
+        OctaneHttpClient client = new RateLimitingOctaneHttpClient(counting, rateLimiter,
+                Collections.emptyMap(), Collections.emptyMap());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects"));
+        }
+        // the burst is free, the two other requests wait 50ms each
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90);
+        Assert.assertEquals(4, counting.getCalls());
+        Assert.assertEquals(4, rateLimiter.getAcquiredCount());
+        Assert.assertTrue(rateLimiter.getTotalWaitMillis() >= 90);
+        Assert.assertTrue(rateLimiter.getAvailablePermits() < 1);
+    }
+
+    @Test
+    public void testFailFast() {
+        StubOctaneHttpClient counting = new StubOctaneHttpClient(CONTENT);
+        RateLimiter rateLimiter = new RateLimiter.Builder().permitsPerSecond(0.1).burst(1).failFast().build();
+        OctaneHttpClient client = new RateLimitingOctaneHttpClient(counting, rateLimiter,
+                Collections.emptyMap(), Collections.emptyMap());
+
+        client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects"));
+        try {
+            client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects"));
+            Assert.fail("Expected the rate limit to be exceeded");
+        } catch (RateLimitExceededException e) {
+            Assert.assertEquals(1, counting.getCalls());
+            Assert.assertEquals(1, rateLimiter.getRejectedCount());
+        }
+    }
+
+    @Test
+    public void testEntityListFailFast() {
+        StubOctaneHttpClient counting = new StubOctaneHttpClient(CONTENT);
+        RateLimiter rateLimiter = new RateLimiter.Builder().permitsPerSecond(0.1).burst(1).failFast().build();
+        EntityList defects = new EntityList(new RateLimitingOctaneHttpClient(counting, rateLimiter,
+                Collections.emptyMap(), Collections.emptyMap()), WORKSPACE_URL + "defects");
+
+        Assert.assertTrue(defects.get().execute().isEmpty());
+        try {
+            defects.get().execute();
+            Assert.fail("Expected the rate limit to be exceeded");
+        } catch (RateLimitExceededException e) {
+            Assert.assertEquals(1, counting.getCalls());
+            Assert.assertEquals(1, rateLimiter.getRejectedCount());
+        }
+    }
+
+    @Test
+    public void testMethodAndCollectionLimiters() {
+        StubOctaneHttpClient counting = new StubOctaneHttpClient(CONTENT);
+        RateLimiter all = new RateLimiter.Builder().permitsPerSecond(0.1).burst(10).failFast().build();
+        RateLimiter deletes = new RateLimiter.Builder().permitsPerSecond(0.1).burst(1).failFast().build();
+        RateLimiter defects = new RateLimiter.Builder().permitsPerSecond(0.1).burst(1).failFast().build();
+        Map<OctaneHttpRequest.OctaneRequestMethod, RateLimiter> methodRateLimiters = new EnumMap<>(OctaneHttpRequest.OctaneRequestMethod.class);
+        methodRateLimiters.put(OctaneHttpRequest.OctaneRequestMethod.DELETE, deletes);
+        OctaneHttpClient client = new RateLimitingOctaneHttpClient(counting, all,
+                methodRateLimiters, Collections.singletonMap("defects", defects));
+
+        client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects?limit=10"));
+        client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "tests"));
+        client.execute(new OctaneHttpRequest.DeleteOctaneHttpRequest(WORKSPACE_URL + "tests/1"));
+        assertRejected(client, new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects/1"));
+        assertRejected(client, new OctaneHttpRequest.DeleteOctaneHttpRequest(WORKSPACE_URL + "tests/2"));
+
+        Assert.assertEquals(3, counting.getCalls());
+        // the permits of the rejected requests are given back
+        Assert.assertEquals(3, all.getAcquiredCount());
+        Assert.assertEquals(7, all.getAvailablePermits(), 0.1);
+    }
+
+    @Test
+    public void testLimiterSharedBetweenClients() {
+        RateLimiter rateLimiter = new RateLimiter.Builder().permitsPerSecond(0.1).burst(2).failFast().build();
+        OctaneHttpClient first = new RateLimitingOctaneHttpClient(new StubOctaneHttpClient(CONTENT), rateLimiter,
+                Collections.emptyMap(), Collections.emptyMap());
+        OctaneHttpClient second = new RateLimitingOctaneHttpClient(new StubOctaneHttpClient(CONTENT), rateLimiter,
+                Collections.emptyMap(), Collections.emptyMap());
+
+        first.execute(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects"));
+        second.execute(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects"));
+        assertRejected(first, new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects"));
+    }
+
+    @Test
+    public void testAsyncRequestIsDelayed() throws Exception {
+        StubOctaneHttpClient counting = new StubOctaneHttpClient(CONTENT);
+        RateLimiter rateLimiter = new RateLimiter.Builder().permitsPerSecond(10).burst(1).build();
+        OctaneHttpClient client = new RateLimitingOctaneHttpClient(counting, rateLimiter,
+                Collections.emptyMap(), Collections.emptyMap());
+
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects")).get(5, TimeUnit.SECONDS);
+        long start = System.nanoTime();
+        CompletableFuture<OctaneHttpResponse> delayed = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects"));
+        Assert.assertTrue(delayed.get(5, TimeUnit.SECONDS).isSuccessStatusCode());
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+
+        CompletableFuture<OctaneHttpResponse> cancelled = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects"));
+        Assert.assertTrue(cancelled.cancel(true));
+        Thread.sleep(200);
+        Assert.assertEquals(2, counting.getCalls());
+    }
+
+    @Test
+    public void testAsyncFailFast() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter.Builder().permitsPerSecond(0.1).burst(1).failFast().build();
+        OctaneHttpClient client = new RateLimitingOctaneHttpClient(new StubOctaneHttpClient(CONTENT), rateLimiter,
+                Collections.emptyMap(), Collections.emptyMap());
+
+        client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects")).get(5, TimeUnit.SECONDS);
+        try {
+            client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(WORKSPACE_URL + "defects")).get(5, TimeUnit.SECONDS);
+            Assert.fail("Expected the rate limit to be exceeded");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof RateLimitExceededException);
+        }
+    }
+
+    @Test
+    public void testGetCollection() {
+        Assert.assertEquals("defects", RateLimitingOctaneHttpClient.getCollection(WORKSPACE_URL + "defects/1001?fields=name"));
+        Assert.assertEquals("metadata", RateLimitingOctaneHttpClient.getCollection(WORKSPACE_URL + "metadata/fields"));
+        Assert.assertEquals("users", RateLimitingOctaneHttpClient.getCollection("http://localhost/api/shared_spaces/1001/users"));
+        Assert.assertEquals("workspaces", RateLimitingOctaneHttpClient.getCollection("http://localhost/api/shared_spaces/1001/workspaces"));
+        Assert.assertEquals("shared_spaces", RateLimitingOctaneHttpClient.getCollection("http://localhost/api/siteadmin/shared_spaces/1001"));
+        Assert.assertNull(RateLimitingOctaneHttpClient.getCollection("http://localhost/authentication/sign_in"));
+    }
+
+    private static void assertRejected(OctaneHttpClient client, OctaneHttpRequest octaneHttpRequest) {
+        try {
+            client.execute(octaneHttpRequest);
+            Assert.fail("Expected the rate limit to be exceeded");
+        } catch (RateLimitExceededException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link RetryingOctaneHttpClient}
+ */
+public class TestRetryingOctaneHttpClient {
+
+    private static final String URL = "http://localhost/api/shared_spaces/1001/workspaces/1002/defects";
+
+    private static RetryPolicy.Builder fastPolicy() {
+        return new RetryPolicy.Builder().backoff(Duration.ofMillis(1), Duration.ofMillis(5), 2);
+    }
+
+    @Test
+    public void testIdempotentRequestIsRetried() {
+        StubOctaneHttpClient failing = failing(2, 503, null);
+        RetryingOctaneHttpClient client = new RetryingOctaneHttpClient(failing, fastPolicy().build());
+
+        OctaneHttpResponse response = client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+
+        Assert.assertTrue(response.isSuccessStatusCode());
+        Assert.assertEquals(3, failing.getCalls());
+        Assert.assertEquals(2, client.getRetryCount());
+    }
+
+    @Test
+    public void testPostIsNotRetried() {
+        StubOctaneHttpClient failing = failing(1, 503, null);
+        RetryingOctaneHttpClient client = new RetryingOctaneHttpClient(failing, fastPolicy().build());
+
+        try {
+            client.execute(new OctaneHttpRequest.PostOctaneHttpRequest(URL, OctaneHttpRequest.JSON_CONTENT_TYPE, "{}"));
+            Assert.fail("Expected the request to fail");
+        } catch (RuntimeException e) {
+            Assert.assertEquals(1, failing.getCalls());
+        }
+
+        failing = failing(1, 503, null);
+        client = new RetryingOctaneHttpClient(failing, fastPolicy().retryNonIdempotent(true).build());
+        client.execute(new OctaneHttpRequest.PostOctaneHttpRequest(URL, OctaneHttpRequest.JSON_CONTENT_TYPE, "{}"));
+        Assert.assertEquals(2, failing.getCalls());
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() {
+        StubOctaneHttpClient failing = failing(1, 400, null);
+        RetryingOctaneHttpClient client = new RetryingOctaneHttpClient(failing, fastPolicy().build());
+
+        try {
+            client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+            Assert.fail("Expected the request to fail");
+        } catch (RuntimeException e) {
+            Assert.assertEquals(1, failing.getCalls());
+        }
+    }
+
+    @Test
+    public void testConnectionFailureIsRetried() {
+        StubOctaneHttpClient failing = failing(1, 0, null);
+        RetryingOctaneHttpClient client = new RetryingOctaneHttpClient(failing, fastPolicy().build());
+
+        client.execute(new OctaneHttpRequest.DeleteOctaneHttpRequest(URL));
+        Assert.assertEquals(2, failing.getCalls());
+    }
+
+    @Test
+    public void testRetryAfterIsHonored() {
+        StubOctaneHttpClient failing = failing(1, 429, "0");
+        RetryingOctaneHttpClient client = new RetryingOctaneHttpClient(failing,
+                fastPolicy().backoff(Duration.ofMinutes(1), Duration.ofMinutes(1), 2).build());
+
+        long start = System.nanoTime();
+        client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30);
+        Assert.assertEquals(2, failing.getCalls());
+
+        failing = failing(1, 503, "3600");
+        client = new RetryingOctaneHttpClient(failing, fastPolicy().build());
+        try {
+            client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+            Assert.fail("A retry after longer than the maximum must not be waited for");
+        } catch (RuntimeException e) {
+            Assert.assertEquals(1, failing.getCalls());
+        }
+    }
+
+    @Test
+    public void testRetryAfterParsing() {
+        Assert.assertEquals(120000, RetryingOctaneHttpClient.parseRetryAfter("120"));
+        Assert.assertEquals(0, RetryingOctaneHttpClient.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        Assert.assertEquals(-1, RetryingOctaneHttpClient.parseRetryAfter("soon"));
+        Assert.assertEquals(-1, RetryingOctaneHttpClient.parseRetryAfter(null));
+    }
+
+    @Test
+    public void testRetryBudgetIsShared() {
+        StubOctaneHttpClient failing = failing(Integer.MAX_VALUE, 503, null);
+        RetryingOctaneHttpClient client = new RetryingOctaneHttpClient(failing,
+                fastPolicy().maxRetries(3).retryBudget(0.1, 4).build());
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(URL));
+                Assert.fail("Expected the request to fail");
+            } catch (RuntimeException e) {
+                // expected
+            }
+        }
+        // 4 retries in the initial budget plus 0.1 deposited by each of the 3 requests
+        Assert.assertEquals(4, client.getRetryCount());
+        Assert.assertEquals(7, failing.getCalls());
+    }
+
+    @Test
+    public void testAsyncRequestIsRetried() throws Exception {
+        StubOctaneHttpClient failing = failing(2, 502, null);
+        RetryingOctaneHttpClient client = new RetryingOctaneHttpClient(failing, fastPolicy().build());
+
+        OctaneHttpResponse response = client.executeAsync(new OctaneHttpRequest.GetOctaneHttpRequest(URL))
+                .get(5, TimeUnit.SECONDS);
+
+        Assert.assertTrue(response.isSuccessStatusCode());
+        Assert.assertEquals(3, failing.getCalls());
+    }
+
+    /**
+     * @return a client failing the first requests with the status, 0 for a refused connection
+     */
+    private static StubOctaneHttpClient failing(int failures, int statusCode, String retryAfter) {
+        AtomicInteger calls = new AtomicInteger();
+        return new StubOctaneHttpClient(octaneHttpRequest -> {
+            if (calls.incrementAndGet() > failures) {
+                return new OctaneHttpResponse(200, "{}", null);
+            }
+            if (statusCode == 0) {
+                throw new RuntimeException("Problem executing httprequest", new ConnectException("Connection refused"));
+            }
+            throw StubOctaneHttpClient.failure(statusCode, retryAfter);
+        });
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+import com.hpe.adm.nga.sdk.network.CompressionSettings;
+import com.hpe.adm.nga.sdk.network.CompressionStatistics;
+import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
+import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Tests the gzip compression of {@link GoogleHttpClient} and {@link PooledGoogleHttpClient} against a local server that echoes the request body
+ */
+public class TestGoogleHttpClientCompression {
+
+    private static final String ENTITY_JSON = "{\"type\":\"defect\",\"name\":\"a rather repetitive defect name\",\"phase\":{\"type\":\"phase\",\"id\":\"1001\"}}";
+
+    private HttpServer server;
+    private String serverUrl;
+    private String body;
+    private volatile String requestContentEncoding;
+
+    @Before
+    public void startServer() throws Exception {
+        StringBuilder builder = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < 500; i++) {
+            builder.append(i == 0 ? "" : ",").append(ENTITY_JSON);
+        }
+        body = builder.append("],\"total_count\":500}").toString();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requestContentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            InputStream requestBody = "gzip".equals(requestContentEncoding)
+                    ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody();
+            String content = readFully(requestBody);
+            respond(exchange, content.isEmpty() ? body : content);
+        });
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testGzipResponseIsDecodedAndCounted() {
+        GoogleHttpClient client = new GoogleHttpClient(serverUrl);
+
+        OctaneHttpResponse response = client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/api/defects")
+                .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE));
+
+        Assert.assertEquals(body, response.getContent());
+        CompressionStatistics statistics = client.getCompressionStatistics();
+        Assert.assertEquals(body.length(), statistics.getResponseBytesDecoded());
+        Assert.assertTrue(statistics.getResponseBytesOnWire() > 0);
+        Assert.assertTrue(statistics.getResponseBytesOnWire() * 10 < statistics.getResponseBytesDecoded());
+    }
+
+    @Test
+    public void testResponsesAreNotCompressedWhenDisabled() {
+        GoogleHttpClient client = new GoogleHttpClient(serverUrl);
+        client.setCompressionSettings(new CompressionSettings.Builder().acceptGzip(false).build());
+
+        OctaneHttpResponse response = client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/api/defects"));
+
+        Assert.assertEquals(body, response.getContent());
+        CompressionStatistics statistics = client.getCompressionStatistics();
+        Assert.assertEquals(statistics.getResponseBytesDecoded(), statistics.getResponseBytesOnWire());
+    }
+
+    @Test
+    public void testLargeRequestBodiesAreCompressed() {
+        GoogleHttpClient client = new GoogleHttpClient(serverUrl);
+        client.setCompressionSettings(new CompressionSettings.Builder().gzipRequests(1024).build());
+
+        client.execute(new OctaneHttpRequest.PostOctaneHttpRequest(serverUrl + "/api/defects", OctaneHttpRequest.JSON_CONTENT_TYPE, ENTITY_JSON)).getContent();
+        Assert.assertNull("small bodies are sent as is", requestContentEncoding);
+
+        OctaneHttpResponse response = client.execute(new OctaneHttpRequest.PostOctaneHttpRequest(serverUrl + "/api/defects",
+                OctaneHttpRequest.JSON_CONTENT_TYPE, outputStream -> outputStream.write(body.getBytes(StandardCharsets.UTF_8))));
+
+        Assert.assertEquals(body, response.getContent());
+        Assert.assertEquals("gzip", requestContentEncoding);
+        CompressionStatistics statistics = client.getCompressionStatistics();
+        Assert.assertEquals(ENTITY_JSON.length() + body.length(), statistics.getRequestBytesDecoded());
+        Assert.assertTrue(statistics.getRequestBytesOnWire() < ENTITY_JSON.length() + body.length() / 10);
+    }
+
+    @Test
+    public void testPooledClientCompressesAndCounts() {
+        PooledGoogleHttpClient client = new PooledGoogleHttpClient(serverUrl, new ConnectionPoolSettings.Builder().build());
+        client.setCompressionSettings(new CompressionSettings.Builder().gzipRequests(1024).build());
+        try {
+            OctaneHttpResponse response = client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/api/defects")
+                    .setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE));
+            Assert.assertEquals(body, response.getContent());
+            CompressionStatistics statistics = client.getCompressionStatistics();
+            Assert.assertEquals(body.length(), statistics.getResponseBytesDecoded());
+            Assert.assertTrue(statistics.getResponseBytesOnWire() * 10 < statistics.getResponseBytesDecoded());
+
+            response = client.execute(new OctaneHttpRequest.PostOctaneHttpRequest(serverUrl + "/api/defects",
+                    OctaneHttpRequest.JSON_CONTENT_TYPE, outputStream -> outputStream.write(body.getBytes(StandardCharsets.UTF_8))));
+            Assert.assertEquals(body, response.getContent());
+            Assert.assertEquals("gzip", requestContentEncoding);
+            Assert.assertEquals(body.length(), statistics.getRequestBytesDecoded());
+            Assert.assertTrue(statistics.getRequestBytesOnWire() < body.length() / 10);
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static String readFully(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
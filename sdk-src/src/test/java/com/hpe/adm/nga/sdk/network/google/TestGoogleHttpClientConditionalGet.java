@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+import com.hpe.adm.nga.sdk.entities.EntityList;
+import com.hpe.adm.nga.sdk.model.CompactEntityModel;
+import com.hpe.adm.nga.sdk.model.EntityModel;
+import com.hpe.adm.nga.sdk.model.LazyEntityModel;
+import com.hpe.adm.nga.sdk.model.StringFieldModel;
+import com.hpe.adm.nga.sdk.network.RequestContext;
+import com.hpe.adm.nga.sdk.network.ValidatorCache;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the conditional GET requests of {@link GoogleHttpClient} with a {@link ValidatorCache} against a local server
+ * that answers 304 Not Modified when the ETag sent in If-None-Match is current
+ */
+public class TestGoogleHttpClientConditionalGet {
+
+    private HttpServer server;
+    private String serverUrl;
+    private volatile String eTag = "\"v1\"";
+    private volatile String name = "first";
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/defects", exchange -> {
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.getResponseHeaders().add("ETag", eTag);
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("ETag", eTag);
+            respond(exchange, "{\"total_count\":1,\"data\":[{\"type\":\"defect\",\"id\":\"1001\",\"name\":\"" + name + "\"}],\"exceeds_total_count\":false}");
+        });
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testNotModifiedServedFromCache() {
+        ValidatorCache validatorCache = new ValidatorCache();
+        EntityList defects = new EntityList(new GoogleHttpClient(serverUrl),
+                new RequestContext.Builder().validatorCache(validatorCache).build(), serverUrl + "/api/defects");
+
+        Collection<EntityModel> first = defects.get().execute();
+        Assert.assertEquals("first", getName(first));
+        Assert.assertEquals(0, notModified.get());
+        Assert.assertEquals(1, validatorCache.getMissCount());
+
+        // the copy handed out can be changed without touching the cache
+        first.iterator().next().setValue(new StringFieldModel("name", "changed"));
+
+        Collection<EntityModel> second = defects.get().execute();
+        Assert.assertEquals(1, notModified.get());
+        Assert.assertEquals("first", getName(second));
+        Assert.assertEquals(1, validatorCache.getHitCount());
+        Assert.assertEquals(0.5, validatorCache.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void testChangedETagRefreshesCache() throws Exception {
+        ValidatorCache validatorCache = new ValidatorCache();
+        EntityList defects = new EntityList(new GoogleHttpClient(serverUrl),
+                new RequestContext.Builder().validatorCache(validatorCache).build(), serverUrl + "/api/defects");
+
+        Assert.assertEquals("first", getName(defects.get().execute()));
+
+        eTag = "\"v2\"";
+        name = "second";
+        Assert.assertEquals("second", getName(defects.get().executeAsync().get()));
+        Assert.assertEquals(0, validatorCache.getHitCount());
+
+        Assert.assertEquals("second", getName(defects.get().execute()));
+        Assert.assertEquals(1, validatorCache.getHitCount());
+        Assert.assertEquals(2, validatorCache.getMissCount());
+        Assert.assertEquals(1, validatorCache.size());
+    }
+
+    @Test
+    public void testNotModifiedServedInTheFormOfTheRequest() {
+        ValidatorCache validatorCache = new ValidatorCache();
+        EntityList defects = new EntityList(new GoogleHttpClient(serverUrl),
+                new RequestContext.Builder().validatorCache(validatorCache).build(), serverUrl + "/api/defects");
+
+        Assert.assertTrue(defects.get().lazy(true).execute().iterator().next() instanceof LazyEntityModel);
+        Collection<EntityModel> plain = defects.get().execute();
+        Assert.assertEquals("a plain request is not answered from the lazy result", 0, notModified.get());
+        Assert.assertFalse(plain.iterator().next() instanceof LazyEntityModel);
+
+        Collection<EntityModel> lazy = defects.get().lazy(true).execute();
+        Collection<EntityModel> compact = defects.get().compact(true).execute();
+        plain = defects.get().execute();
+        Assert.assertEquals(2, notModified.get());
+        Assert.assertTrue(lazy.iterator().next() instanceof LazyEntityModel);
+        Assert.assertTrue(compact.iterator().next() instanceof CompactEntityModel);
+        Assert.assertFalse(plain.iterator().next() instanceof LazyEntityModel);
+        Assert.assertEquals("first", getName(plain));
+        Assert.assertEquals(3, validatorCache.size());
+
+        validatorCache.invalidate(serverUrl + "/api/defects");
+        Assert.assertEquals(0, validatorCache.size());
+    }
+
+    @Test
+    public void testNoCacheSendsNoValidators() {
+        EntityList defects = new EntityList(new GoogleHttpClient(serverUrl), serverUrl + "/api/defects");
+
+        Assert.assertEquals("first", getName(defects.get().execute()));
+        Assert.assertEquals("first", getName(defects.get().execute()));
+        Assert.assertEquals(0, notModified.get());
+    }
+
+    private static String getName(Collection<EntityModel> entityModels) {
+        Assert.assertEquals(1, entityModels.size());
+        return (String) entityModels.iterator().next().getValue("name").getValue();
+    }
+
+    private static void respond(HttpExchange exchange, String content) throws IOException {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+import com.hpe.adm.nga.sdk.authentication.SimpleClientAuthentication;
+import com.hpe.adm.nga.sdk.network.OctaneHttpClient;
+import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
+import com.hpe.adm.nga.sdk.network.SessionRefreshSettings;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the renewal of the session of {@link GoogleHttpClient} against a local server that rejects expired cookies:
+ * a stress test of the re-authentication when the session expires while many threads use the client, and the
+ * proactive refresh of the session
+ */
+public class TestGoogleHttpClientSessionRenewal {
+
+    private static final String RESPONSE_JSON = "{\"total_count\":0,\"data\":[],\"exceeds_total_count\":false}";
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 10;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String serverUrl;
+    private final AtomicInteger signIns = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    // valid cookies and their expiry
+    private final Map<String, Long> validCookies = new ConcurrentHashMap<>();
+    private volatile int cookieMaxAge = -1;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(OctaneHttpClient.OAUTH_AUTH_URL, exchange -> {
+            drain(exchange.getRequestBody());
+            final String token = "token" + signIns.incrementAndGet();
+            try {
+                // a slow sign in leaves the other threads time to pile up behind it
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (cookieMaxAge >= 0) {
+                validCookies.put(OctaneHttpClient.LWSSO_COOKIE_KEY + "=" + token, System.currentTimeMillis() + cookieMaxAge * 1000L);
+                exchange.getResponseHeaders().add("Set-Cookie", OctaneHttpClient.LWSSO_COOKIE_KEY + "=" + token + "; Max-Age=" + cookieMaxAge + "; Path=/");
+            } else {
+                validCookies.put(OctaneHttpClient.LWSSO_COOKIE_KEY + "=" + token, Long.MAX_VALUE);
+                exchange.getResponseHeaders().add("Set-Cookie", OctaneHttpClient.LWSSO_COOKIE_KEY + "=" + token + "; Path=/");
+            }
+            respond(exchange, 200, "");
+        });
+        server.createContext(OctaneHttpClient.OAUTH_SIGNOUT_URL, exchange -> respond(exchange, 200, ""));
+        server.createContext("/api", exchange -> {
+            final String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            final Long expiresAt = cookie == null ? null : validCookies.get(cookie);
+            if (expiresAt != null && System.currentTimeMillis() < expiresAt) {
+                respond(exchange, 200, RESPONSE_JSON);
+            } else {
+                rejected.incrementAndGet();
+                respond(exchange, 401, "{\"description\":\"unauthorized\"}");
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testOneSignInPerExpiry() throws Exception {
+        GoogleHttpClient client = new GoogleHttpClient(serverUrl);
+        Assert.assertTrue(client.authenticate(new SimpleClientAuthentication("id", "secret")));
+        Assert.assertEquals(1, signIns.get());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int expiry = 1; expiry <= 3; expiry++) {
+                // the server forgets the session, every thread gets a 401 on its first request
+                validCookies.clear();
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        int succeeded = 0;
+                        for (int j = 0; j < REQUESTS_PER_THREAD; j++) {
+                            if (client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/api/defects")).isSuccessStatusCode()) {
+                                succeeded++;
+                            }
+                        }
+                        return succeeded;
+                    }));
+                }
+                start.countDown();
+
+                for (Future<Integer> result : results) {
+                    Assert.assertEquals(REQUESTS_PER_THREAD, (int) result.get(30, TimeUnit.SECONDS));
+                }
+                Assert.assertEquals("exactly one sign in per expiry", expiry + 1, signIns.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSessionIsRefreshedBeforeExpiry() throws Exception {
+        cookieMaxAge = 1;
+        GoogleHttpClient client = new GoogleHttpClient(serverUrl);
+        client.setSessionRefreshSettings(new SessionRefreshSettings.Builder().refreshBefore(Duration.ofSeconds(10)).build());
+        try {
+            Assert.assertTrue(client.authenticate(new SimpleClientAuthentication("id", "secret")));
+
+            // the cookie lives 1s and is refreshed half way, the requests never see it expire
+            long end = System.currentTimeMillis() + 2500;
+            while (System.currentTimeMillis() < end) {
+                Assert.assertTrue(client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/api/defects")).isSuccessStatusCode());
+                Thread.sleep(50);
+            }
+            Assert.assertEquals(0, rejected.get());
+            Assert.assertTrue("the session was not refreshed: " + signIns.get(), signIns.get() >= 4);
+        } finally {
+            client.signOut();
+        }
+    }
+
+    @Test
+    public void testIdleSessionIsNotRefreshed() throws Exception {
+        cookieMaxAge = 1;
+        GoogleHttpClient client = new GoogleHttpClient(serverUrl);
+        client.setSessionRefreshSettings(new SessionRefreshSettings.Builder().idleTimeout(Duration.ofMillis(100)).build());
+        Assert.assertTrue(client.authenticate(new SimpleClientAuthentication("id", "secret")));
+        Assert.assertTrue(client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/api/defects")).isSuccessStatusCode());
+
+        Thread.sleep(1500);
+        Assert.assertEquals(1, signIns.get());
+
+        // the expired session is renewed on demand
+        Assert.assertTrue(client.execute(new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/api/defects")).isSuccessStatusCode());
+        Assert.assertEquals(2, signIns.get());
+        Assert.assertEquals(1, rejected.get());
+    }
+
+    private static void drain(InputStream inputStream) throws IOException {
+        final byte[] buffer = new byte[1024];
+        while (inputStream.read(buffer) != -1) {
+            // discard
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, String content) throws IOException {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, body.length == 0 ? -1 : body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+}
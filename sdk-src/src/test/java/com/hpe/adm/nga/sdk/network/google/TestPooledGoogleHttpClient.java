@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Hewlett-Packard Enterprise Development Company, L.P.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hpe.adm.nga.sdk.network.google;
+
+import com.hpe.adm.nga.sdk.network.OctaneHttpRequest;
+import com.hpe.adm.nga.sdk.network.OctaneHttpResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link PooledGoogleHttpClient} against a local server
+ */
+public class TestPooledGoogleHttpClient {
+
+    private static final String RESPONSE_JSON = "{\"total_count\":0,\"data\":[],\"exceeds_total_count\":false}";
+
+    private HttpServer server;
+    private String serverUrl;
+
+    @Before
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = RESPONSE_JSON.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testConnectionsAreReused() {
+        ConnectionPoolSettings settings = new ConnectionPoolSettings.Builder()
+                .maxConnections(10)
+                .maxConnectionsForHost(serverUrl, 2)
+                .keepAlive(10, TimeUnit.SECONDS)
+                .build();
+        PooledGoogleHttpClient client = new PooledGoogleHttpClient(serverUrl, settings);
+        try {
+            for (int i = 0; i < 20; i++) {
+                OctaneHttpResponse response = client.execute(
+                        new OctaneHttpRequest.GetOctaneHttpRequest(serverUrl + "/api/defects").setAcceptType(OctaneHttpRequest.JSON_CONTENT_TYPE));
+                Assert.assertTrue(response.isSuccessStatusCode());
+                Assert.assertEquals(RESPONSE_JSON, response.getContent());
+            }
+
+            ConnectionPoolStatistics statistics = client.getConnectionPoolStatistics();
+            Assert.assertEquals(20, statistics.getExecutedRequests());
+            Assert.assertEquals(1, statistics.getServerConnectionsInPool());
+            Assert.assertEquals(2, statistics.getMaxServerConnections());
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void testDroppedClientStopsBeingReaped() throws Exception {
+        int reapedPools = PooledGoogleHttpClient.getReapedPoolCount();
+        PooledGoogleHttpClient client = new PooledGoogleHttpClient(serverUrl,
+                new ConnectionPoolSettings.Builder().idleTimeout(2, TimeUnit.SECONDS).build());
+        Assert.assertEquals(reapedPools + 1, PooledGoogleHttpClient.getReapedPoolCount());
+
+        client = null;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (PooledGoogleHttpClient.getReapedPoolCount() > reapedPools && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Assert.assertEquals("the reaper does not hold the pool of a dropped client", reapedPools, PooledGoogleHttpClient.getReapedPoolCount());
+    }
+}